@@ -1,32 +1,48 @@
 package backend.actor;
 
+import backend.event.DamageDealt;
 import backend.shipmodule.ShipModule;
 import backend.main.CollisionDetector;
 import backend.main.GameEngine;
-import backend.main.Timer;
 import backend.main.Vector;
+import backend.main.WorldRandom;
+import backend.snapshot.ActorSnapshot;
+import backend.snapshot.ActorType;
+import backend.snapshot.ModuleType;
 import java.util.ArrayList;
-import java.util.Random;
-import userinterface.Drawable;
-import userinterface.GUIHandler;
+import java.util.SplittableRandom;
 
 /**
  * Super class for all actors. An actor is an entity that can actively interact
  * with the player.
  *
+ * Each tick the actors are updated in four phases: think(), move(),
+ * detectCollisions() and resolve(). All the actors finish a phase before any
+ * of them starts the next one. The first three phases run in parallel, so
+ * they may only change the actor they are called on and only read the
+ * others. The last phase runs in list order and can change anything. This
+ * makes the result the same for any number of threads.
+ *
+ * The enemies and items think at a lower rate than the ticks, through
+ * thinkAndHold(). The forces they apply while thinking are held and applied
+ * on every tick until they think again.
+ *
  * @author Kristian Honningsvag.
  */
-public abstract class Actor implements Drawable {
+public abstract class Actor {
 
     // Vectors.
     protected Vector position = new Vector();
+    protected Vector previousPosition = null;   // The position before the current tick. Used to interpolate drawing.
     protected Vector speedT = new Vector();
     protected Vector forceT = new Vector();     // The sum of all the forces working on the actor.
+    protected Vector heldForceT = new Vector(); // The forces from the last thinkAndHold(). Applied every tick.
     protected Vector accelerationT = new Vector();
     protected Vector heading = new Vector();    // Which direction the actor is currently pointing.
 
     // Attributes.
     protected String name = "NAME NOT SET";
+    protected ActorType type;                   // How the actor is drawn.
     protected double hitBoxRadius = 0;
     protected double mass = 0;
     protected double engineThrust = 0;
@@ -52,10 +68,11 @@ public abstract class Actor implements Drawable {
 
     // Simulation.
     protected GameEngine gameEngine;               // From constructor.
-    protected GUIHandler guiHandler;               // Set in constructor.
     protected CollisionDetector collisionDetector; // Set in constructor.
     protected Actor whoHitMeLast = null;
-    protected Timer timer = new Timer();
+    protected final ArrayList<Actor> collisions = new ArrayList<>();  // Found by detectCollisions().
+    protected SplittableRandom random;             // Set in constructor.
+    protected double energyRegeneration = 0.009;   // Energy per millisecond.
     protected int outOfBoundsCounter = 0;   // Number of consecutive simulation rounds the actor was out of bonds.
 
     /**
@@ -69,37 +86,139 @@ public abstract class Actor implements Drawable {
         this.position = position;
         this.gameEngine = gameEngine;
 
-        guiHandler = gameEngine.getGuiHandler();
         collisionDetector = gameEngine.getCollisionDetector();
+        random = gameEngine.getRandom().split(WorldRandom.Stream.ACTORS);
     }
 
-    @Override
-    public abstract void draw();
-
     /**
      * This method handles what happens to an actor when it dies/is destroyed.
      */
     public abstract void die();
 
     /**
-     * Updates the actors state. Should be called once each cycle of the
-     * simulation.
+     * Phase 1: Decides what to do, based on the state the previous tick left.
+     * Runs in parallel.
      *
-     * @param timePassed Time passed since last simulation cycle in
-     * milliseconds. Used in calculations.
+     * @param timePassed Number of milliseconds since the previous simulation
+     * cycle.
+     */
+    public void think(double timePassed) {
+    }
+
+    /**
+     * Runs think() for actors that think at a lower rate than the ticks. The
+     * forces it applies are kept until the next time it runs. Runs in
+     * parallel.
+     *
+     * @param timePassed Number of milliseconds since the actor last thought.
+     */
+    public void thinkAndHold(double timePassed) {
+        Vector forces = forceT.copy();
+        think(timePassed);
+        heldForceT.set(forceT).sub(forces);
+        forceT.set(forces);
+    }
+
+    /**
+     * Phase 2: Moves the actor and bounces it off the walls. Runs in
+     * parallel.
+     *
+     * @param timePassed Number of milliseconds since the previous simulation
+     * cycle.
      */
-    public void act(double timePassed) {
+    public void move(double timePassed) {
+        forceT.add(heldForceT);
         addFriction();
         calcAcceleration();
         calcSpeed(timePassed);
         updatePosition(timePassed);
         checkWallCollisions(timePassed);
+    }
+
+    /**
+     * Phase 3: Finds the actors this actor overlaps after the move. Runs in
+     * parallel.
+     */
+    public void detectCollisions() {
+        collisionDetector.detectActorCollision(this, collisions);
+    }
+
+    /**
+     * Phase 4: Reacts to the collisions and updates the modules. Runs on one
+     * thread, in the order of the actor list.
+     *
+     * @param timePassed Number of milliseconds since the previous simulation
+     * cycle.
+     */
+    public void resolve(double timePassed) {
         checkActorCollisions(timePassed);
+        updateModules(timePassed);
         if (getCurrentEnergy() < getMaxEnergy()) {
-            currentEnergy += 0.15;
+            currentEnergy += energyRegeneration * timePassed;
         }
     }
 
+    /**
+     * Updates the modules that are in use.
+     *
+     * @param timePassed Number of milliseconds since the previous simulation
+     * cycle.
+     */
+    protected void updateModules(double timePassed) {
+        if (currentOffensiveModule != null) {
+            currentOffensiveModule.activateIfRequested();
+            currentOffensiveModule.update(timePassed);
+        }
+        if (currentDefensiveModule != null) {
+            currentDefensiveModule.activateIfRequested();
+            currentDefensiveModule.update(timePassed);
+        }
+        if (tacticalModule != null) {
+            tacticalModule.activateIfRequested();
+            tacticalModule.update(timePassed);
+        }
+    }
+
+    /**
+     * Remembers the current position so that the actor can be drawn between
+     * the previous and the current tick. Called before each tick.
+     */
+    public void storePreviousPosition() {
+        if (previousPosition == null) {
+            previousPosition = position.copy();
+        } else {
+            previousPosition.set(position);
+        }
+    }
+
+    /**
+     * Fills in what the renderer needs to know to draw the actor. Called on
+     * the simulation thread after each tick.
+     *
+     * @param snapshot The snapshot to fill in.
+     */
+    public void snapshot(ActorSnapshot snapshot) {
+
+        Vector previous = previousPosition != null ? previousPosition : position;
+        snapshot.set(type, position.getX(), position.getY(), previous.getX(), previous.getY(),
+                heading.getAngle2D(), hitBoxRadius);
+        snapshot.setBars(maxHitPoints > 0 ? currentHitPoints / maxHitPoints : 1,
+                maxEnergy > 0 ? currentEnergy / maxEnergy : 1);
+        snapshot.setModules(getModuleType(currentOffensiveModule), getModuleType(currentDefensiveModule),
+                getModuleType(tacticalModule));
+
+        if (currentOffensiveModule != null) {
+            currentOffensiveModule.snapshot(snapshot);
+        }
+    }
+
+    /**
+     * Returns how the module is drawn, or null if there is no module.
+     */
+    protected static ModuleType getModuleType(ShipModule module) {
+        return module != null ? module.getType() : null;
+    }
+
     /**
      * Updates the actors position.
      *
@@ -230,9 +349,8 @@ public abstract class Actor implements Drawable {
     public void teleport() {
         this.getSpeedT().set(0, 0, 0);
 
-        Random random = new Random();
-        int randX = random.nextInt(guiHandler.getWidth() - ((int) hitBoxRadius) * 2) + (int) hitBoxRadius;
-        int randY = random.nextInt(guiHandler.getHeight() - ((int) hitBoxRadius) * 2) + (int) hitBoxRadius;
+        int randX = random.nextInt(gameEngine.getConfig().getWorldWidth() - ((int) hitBoxRadius) * 2) + (int) hitBoxRadius;
+        int randY = random.nextInt(gameEngine.getConfig().getWorldHeight() - ((int) hitBoxRadius) * 2) + (int) hitBoxRadius;
         this.getPosition().set(randX, randY, 0);
     }
 
@@ -278,14 +396,13 @@ public abstract class Actor implements Drawable {
     }
 
     /**
-     * Check for collisions with other actors and react to them.
+     * React to the collisions with other actors that detectCollisions()
+     * found.
      *
      * @param timePassed Number of milliseconds since the previous simulation
      * cycle.
      */
     protected void checkActorCollisions(double timePassed) {
-        ArrayList<Actor> collisions = collisionDetector.detectActorCollision(this);
-
         for (Actor target : collisions) {
             // This actor ran into another actor.
             elasticColision(this, target, timePassed);
@@ -385,6 +502,7 @@ public abstract class Actor implements Drawable {
     public void collision(Actor actor) {
         removeHitPoints(actor.getCollisionDamageToOthers());
         whoHitMeLast = actor;
+        gameEngine.getEvents().post(new DamageDealt(actor, this, actor.getCollisionDamageToOthers()));
     }
 
     /**
@@ -402,7 +520,7 @@ public abstract class Actor implements Drawable {
      * @param points How much to increase the kill chain by.
      */
     public void increaseKillChain(int points) {
-        killChain = killChain + 1;
+        killChain = killChain + points;
     }
 
     // Getters.
@@ -426,10 +544,6 @@ public abstract class Actor implements Drawable {
         return gameEngine;
     }
 
-    public GUIHandler getGuiHandler() {
-        return guiHandler;
-    }
-
     public CollisionDetector getCollisionDetector() {
         return collisionDetector;
     }
@@ -466,6 +580,10 @@ public abstract class Actor implements Drawable {
         return name;
     }
 
+    public ActorType getType() {
+        return type;
+    }
+
     public double getMaxHitPoints() {
         return maxHitPoints;
     }
@@ -506,10 +624,6 @@ public abstract class Actor implements Drawable {
         return heading;
     }
 
-    public Timer getTimer() {
-        return timer;
-    }
-
     public ShipModule getTacticalModule() {
         return tacticalModule;
     }
@@ -4,15 +4,13 @@ import backend.actor.Actor;
 import backend.actor.Player;
 import backend.main.GameEngine;
 import backend.main.Vector;
-import java.util.ArrayList;
-import userinterface.Drawable;
 
 /**
  * Superclass for all items in the game.
  *
  * @author Kristian Honningsvag.
  */
-public abstract class Item extends Actor implements Drawable {
+public abstract class Item extends Actor {
 
     protected double pullDistance = 0;
     private boolean approachingPlayer = false;
@@ -31,19 +29,12 @@ public abstract class Item extends Actor implements Drawable {
     }
 
     @Override
-    public void act(double timePassed) {
+    public void think(double timePassed) {
         pulledTowardsPlayer();
-        super.act(timePassed);
-    }
-
-    @Override
-    public void draw() {
     }
 
     @Override
     protected void checkActorCollisions(double timePassed) {
-        ArrayList<Actor> collisions = collisionDetector.detectActorCollision(this);
-
         if (collisions.size() > 0) {
 
             for (Actor target : collisions) {
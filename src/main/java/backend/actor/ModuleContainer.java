@@ -2,14 +2,15 @@ package backend.actor;
 
 import backend.actor.Item;
 import backend.actor.Actor;
+import backend.event.ItemPickedUp;
 import backend.main.GameEngine;
 import backend.main.Vector;
-import backend.resources.Sound;
 import backend.shipmodule.DefensiveModule;
 import backend.shipmodule.OffensiveModule;
 import backend.shipmodule.ShipModule;
 import backend.shipmodule.TacticalModule;
-import userinterface.Drawable;
+import backend.snapshot.ActorSnapshot;
+import backend.snapshot.ActorType;
 
 /**
  * Container for a power up or ship module that the player can pick up and
@@ -17,10 +18,7 @@ import userinterface.Drawable;
  *
  * @author Kristian Honningsvag.
  */
-public class ModuleContainer extends Item implements Drawable {
-
-    // Color.
-    private int[] bodyRGBA = new int[]{200, 200, 20, 55};
+public class ModuleContainer extends Item {
 
     private ShipModule shipModule = null;
 
@@ -33,19 +31,20 @@ public class ModuleContainer extends Item implements Drawable {
         
         hitBoxRadius = 20;
         pullDistance = gameEngine.getCurrentLevel().getPlayer().getHitBoxRadius() * 5;
+        type = ActorType.MODULE_CONTAINER;
     }
-    
+
     @Override
-    public void draw() {
-        // Draw container.
-        guiHandler.strokeWeight(1);
-        guiHandler.stroke(bodyRGBA[0], bodyRGBA[1], bodyRGBA[2], bodyRGBA[3]);
-        guiHandler.fill(bodyRGBA[0], bodyRGBA[1], bodyRGBA[2], bodyRGBA[3]);
-        guiHandler.ellipse((float) this.getPosition().getX(), (float) this.getPosition().getY(), (float) hitBoxRadius * 2, (float) hitBoxRadius * 2);
-        guiHandler.noFill();
-        // Draw cargo.
-        if (shipModule != null) {
-            shipModule.draw();
+    public void snapshot(ActorSnapshot snapshot) {
+        super.snapshot(snapshot);
+
+        // The cargo is drawn inside the container.
+        if (shipModule instanceof OffensiveModule) {
+            snapshot.setModules(shipModule.getType(), null, null);
+        } else if (shipModule instanceof DefensiveModule) {
+            snapshot.setModules(null, shipModule.getType(), null);
+        } else if (shipModule instanceof TacticalModule) {
+            snapshot.setModules(null, null, shipModule.getType());
         }
     }
     
@@ -63,7 +62,7 @@ public class ModuleContainer extends Item implements Drawable {
                 looter.setTacticalModule(shipModule);
             }
             currentHitPoints = 0;
-            gameEngine.getSoundManager().play(Sound.PICKUP, getPosition());
+            gameEngine.getEvents().post(new ItemPickedUp(this, looter));
         }
     }
 
@@ -1,45 +1,34 @@
 package backend.actor;
 
+import backend.actor.enemy.Enemy;
 import backend.actor.projectile.Projectile;
+import backend.event.ActorDied;
 import backend.main.GameEngine;
 import backend.main.SimulationState;
-import backend.main.Timer;
+import backend.main.Cooldown;
 import backend.main.Vector;
 import backend.resources.Sound;
 import backend.shipmodule.AutoCannon;
 import backend.shipmodule.Shield;
 import backend.shipmodule.ShipModule;
-import java.util.ArrayList;
-import processing.core.PImage;
-import userinterface.Drawable;
+import backend.snapshot.ActorType;
+import java.util.List;
 
 /**
  * The player.
  *
  * @author Kristian Honningsvag.
  */
-public class Player extends Actor implements Drawable {
+public class Player extends Actor {
 
     // Color.
-    private int[] bodyRGBA = new int[]{0, 70, 200, 255};
-    private int[] healthBarRGBA = new int[]{20, 200, 20, 255};
-    private int[] energyBarRGBA = new int[]{0, 150, 255, 255};
-
-    // Shape.
-    private int healthBarWidth = 50;
-    private int healthBarHeight = 13;
-    private int energyBarWidth = 50;
-    private int energyBarHeight = 13;
-    private final int backgroundColor;  // Set in constructor.
-
-    // Image.
-    private final PImage playerGraphics;
+    private final int backgroundColor = 0xFF0046C8;
 
     // Modules.
-    private Timer offensiveModuleTimer = new Timer();
-    private Timer defensiveModuleTimer = new Timer();
     private double offensiveModuleSwapDelay = 400;
     private double defensiveModuleSwapDelay = 400;
+    private Cooldown offensiveModuleCooldown = new Cooldown(gameEngine.getClock(), offensiveModuleSwapDelay);
+    private Cooldown defensiveModuleCooldown = new Cooldown(gameEngine.getClock(), defensiveModuleSwapDelay);
 
     /**
      * Constructor.
@@ -58,86 +47,28 @@ public class Player extends Actor implements Drawable {
         maxEnergy = 100;
         currentEnergy = 100;
         mass = 100;
-        backgroundColor = guiHandler.color(bodyRGBA[0], bodyRGBA[1], bodyRGBA[2], 255);
         collisionDamageToOthers = 4;
+        type = ActorType.PLAYER;
 
         offensiveModules.add(new AutoCannon(this));  // Starting weapon.
         setCurrentOffensiveModule(offensiveModules.get(0));
 
         defensiveModules.add(new Shield(this));
         setCurrentDefensiveModule(defensiveModules.get(0));
-
-        playerGraphics = guiHandler.loadImage("drone.png");
-
-        healthBarWidth = (int) hitBoxRadius * 2;
-        healthBarHeight = (int) (healthBarWidth * 0.2);
-        energyBarWidth = (int) hitBoxRadius * 2;
-        energyBarHeight = (int) (healthBarWidth * 0.2);
     }
 
-    @Override
-    public void draw() {
-
-        // Set heading.
-        heading.set(guiHandler.mouseX - this.getPosition().getX(), guiHandler.mouseY - this.getPosition().getY(), 0);
-
-        // Draw main body.
-//        guiHandler.strokeWeight(0);
-//        guiHandler.stroke(bodyRGBA[0], bodyRGBA[1], bodyRGBA[2]);
-//        guiHandler.fill(bodyRGBA[0], bodyRGBA[1], bodyRGBA[2]);
-//        guiHandler.ellipse((float) this.getPosition().getX(), (float) this.getPosition().getY(), (float) hitBoxRadius * 2, (float) hitBoxRadius * 2);
-        guiHandler.tint(255);
-        guiHandler.image(playerGraphics, (float) this.getPosition().getX() - 20, (float) this.getPosition().getY() - 20);
-
-        // Draw modules.
-        if (currentOffensiveModule != null) {
-            currentOffensiveModule.draw();
-        }
-        if (currentDefensiveModule != null) {
-            currentDefensiveModule.draw();
-        }
-        if (tacticalModule != null) {
-            tacticalModule.draw();
-        }
-
-        // Draw small hud below actor.
-        guiHandler.pushMatrix();
-        guiHandler.translate((float) this.getPosition().getX() - (healthBarWidth / 2), (float) this.getPosition().getY() + (float) hitBoxRadius + healthBarHeight / 2);
-
-        // Health bar.
-        float healthPercentage = (float) currentHitPoints / (float) maxHitPoints;
-        if (healthPercentage >= 0.66) {
-            healthBarRGBA = new int[]{20, 200, 20, 255};
-        } else if (healthPercentage < 0.66 && healthPercentage >= 0.33) {
-            healthBarRGBA = new int[]{200, 200, 20, 255};
-        } else {
-            healthBarRGBA = new int[]{200, 20, 20, 255};
-        }
-        guiHandler.stroke(healthBarRGBA[0], healthBarRGBA[1], healthBarRGBA[2]);
-        guiHandler.strokeWeight(1);
-        guiHandler.noFill();
-        guiHandler.rect((float) 0, 0, healthBarWidth, healthBarHeight, 6);
-        guiHandler.fill(healthBarRGBA[0], healthBarRGBA[1], healthBarRGBA[2]);
-        guiHandler.rect(0, 0, healthBarWidth * healthPercentage, healthBarHeight, 3);
-
-        // Energy bar.
-        float energyPercentage = (float) currentEnergy / (float) maxEnergy;
-
-        guiHandler.stroke(energyBarRGBA[0], energyBarRGBA[1], energyBarRGBA[2]);
-        guiHandler.strokeWeight(1);
-        guiHandler.noFill();
-        guiHandler.rect((float) 0, healthBarHeight + 2, energyBarWidth, energyBarHeight, 6);
-        guiHandler.fill(energyBarRGBA[0], energyBarRGBA[1], energyBarRGBA[2]);
-        guiHandler.rect(0, healthBarHeight + 2, energyBarWidth * energyPercentage, energyBarHeight, 3);
-
-        guiHandler.popMatrix();
+    /**
+     * Points the player towards a position on the screen.
+     *
+     * @param x the x-position to aim at
+     * @param y the y-position to aim at
+     */
+    public void aimAt(double x, double y) {
+        heading.set(x - this.getPosition().getX(), y - this.getPosition().getY(), 0);
     }
 
     @Override
     public void die() {
-        gameEngine.getSoundManager().play(Sound.EXPLOSION, getPosition());
-        gameEngine.getSoundManager().play(Sound.GAMEOVER, getPosition());
-        gameEngine.getExplosionManager().explodePlayer(this);
         gameEngine.setSimulationState(SimulationState.DEATH_SCREEN);
 
         // Quick fix to stop laser sound when the player dies
@@ -149,8 +80,6 @@ public class Player extends Actor implements Drawable {
     @Override
     protected void checkActorCollisions(double timePassed) {
 
-        ArrayList<Actor> collisions = collisionDetector.detectActorCollision(this);
-
         if (collisions.size() > 0) {
 
             for (Actor target : collisions) {
@@ -182,6 +111,28 @@ public class Player extends Actor implements Drawable {
         }
     }
 
+    /**
+     * Scores the enemies that died in a tick. Every enemy that dies counts
+     * as a kill for the player.
+     *
+     * @param deaths The actors that died.
+     */
+    public void scoreKills(List<ActorDied> deaths) {
+        int points = 0;
+        int kills = 0;
+        for (int i = 0; i < deaths.size(); i++) {
+            Actor actor = deaths.get(i).getActor();
+            if (actor instanceof Enemy) {
+                points += actor.getKillValue();
+                kills++;
+            }
+        }
+        if (kills > 0) {
+            increaseScore(points);
+            increaseKillChain(kills);
+        }
+    }
+
     /**
      * Activates the selected offensive ship module.
      */
@@ -214,7 +165,7 @@ public class Player extends Actor implements Drawable {
      */
     public void swapOffensiveModule() {
         // Wait for timer for each swap.
-        if (offensiveModuleTimer.timePassed() >= offensiveModuleSwapDelay) {
+        if (offensiveModuleCooldown.isReady()) {
             ShipModule module = offensiveModules.get((offensiveModules.indexOf(currentOffensiveModule) + 1) % offensiveModules.size());
             
             if(module != currentOffensiveModule){
@@ -222,7 +173,7 @@ public class Player extends Actor implements Drawable {
             }
             
             setCurrentOffensiveModule(module);
-            offensiveModuleTimer.reset();
+            offensiveModuleCooldown.start(offensiveModuleSwapDelay);
         }
     }
 
@@ -231,7 +182,7 @@ public class Player extends Actor implements Drawable {
      */
     public void swapDefensiveModule() {
         // Wait for timer for each swap.
-        if (defensiveModuleTimer.timePassed() >= defensiveModuleSwapDelay) {
+        if (defensiveModuleCooldown.isReady()) {
             ShipModule module = defensiveModules.get((defensiveModules.indexOf(currentDefensiveModule) + 1) % defensiveModules.size());
             
             if(module != currentOffensiveModule){
@@ -239,7 +190,7 @@ public class Player extends Actor implements Drawable {
             }
             
             setCurrentDefensiveModule(module);
-            defensiveModuleTimer.reset();
+            defensiveModuleCooldown.start(defensiveModuleSwapDelay);
         }
     }
 
@@ -2,9 +2,11 @@ package backend.actor.ai;
 
 import backend.actor.Actor;
 import backend.actor.enemy.Enemy;
+import backend.main.Cooldown;
 import backend.main.GameEngine;
 import backend.main.Vector;
-import java.util.Random;
+import backend.main.WorldRandom;
+import java.util.SplittableRandom;
 
 /**
  *
@@ -18,16 +20,16 @@ public class SimpleAI implements AI {
     private Vector heading = new Vector();
     private Enemy enemy;
 
-    private double lastTimeFired = 0;
-    private double attackDelayFactor = 1;
     private double attackDelay = 2000;
-    private Random random;
+    private Cooldown attackCooldown;
+    private SplittableRandom random;
 
     public SimpleAI(GameEngine gameEngine, Actor target, Enemy enemy) {
         this.gameEngine = gameEngine;
         this.target = target;
         this.enemy = enemy;
-        random = new Random();
+        random = gameEngine.getRandom().split(WorldRandom.Stream.AI);
+        attackCooldown = new Cooldown(gameEngine.getClock(), 0);
     }
 
     @Override
@@ -50,11 +52,10 @@ public class SimpleAI implements AI {
      */
     private void fireAtPlayer() {
 
-        if (System.currentTimeMillis() - lastTimeFired > attackDelay * attackDelayFactor) {
+        if (attackCooldown.isReady()) {
 
-            enemy.getCurrentOffensiveModule().activate();
-            lastTimeFired = System.currentTimeMillis();
-            attackDelayFactor = random.nextFloat() + 1;
+            enemy.getCurrentOffensiveModule().requestActivation();
+            attackCooldown.start(attackDelay * (random.nextDouble() + 1));
         }
     }
 
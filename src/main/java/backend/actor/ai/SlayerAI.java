@@ -1,9 +1,10 @@
 package backend.actor.ai;
 
 import backend.actor.Actor;
-import backend.main.Timer;
+import backend.main.TimerWheel;
 import backend.main.Vector;
-import java.util.Random;
+import backend.main.WorldRandom;
+import java.util.SplittableRandom;
 
 /**
  * The slayer is very smart.
@@ -13,7 +14,8 @@ import java.util.Random;
  * tries to keep a safe distance to the target. If all hope is lost, it 
  * will resort to a final kamikaze attack.
  *
- * Implemented as a finite state machine.
+ * Implemented as a finite state machine. The timeouts are events on the
+ * timer wheel of the world, which only change the AI.
  *
  * @author pitmairen
  */
@@ -25,10 +27,11 @@ public class SlayerAI implements AI {
     private final Actor target;
 
     private final double attackDelay = 1500;
-    private final Timer fireTimer;
+    private boolean fireReady = false;  // Set by the timer wheel.
     private int fireVariance; // Vary the time between shots.
     
-    private final Random random;
+    private final SplittableRandom random;
+    private final TimerWheel timerWheel;
     
     private Vector attackVector;
     
@@ -41,8 +44,9 @@ public class SlayerAI implements AI {
     public SlayerAI(Actor puppet, Actor target) {
         this.target = target;
         this.puppet = puppet;
-        random = new Random();
-        fireTimer = new Timer();
+        random = puppet.getGameEngine().getRandom().split(WorldRandom.Stream.AI);
+        timerWheel = puppet.getGameEngine().getTimerWheel();
+        timerWheel.schedule(attackDelay, () -> fireReady = true);
         setState(new ApproachTarget());
         attackVector = new Vector(0, 0, 0);
     }
@@ -71,10 +75,11 @@ public class SlayerAI implements AI {
     }
 
     private void fireAtTarget() {
-        if (fireTimer.timePassed() > (attackDelay + fireVariance)) {
-            puppet.getCurrentOffensiveModule().activate();
-            fireTimer.reset();
+        if (fireReady) {
+            puppet.getCurrentOffensiveModule().requestActivation();
+            fireReady = false;
             fireVariance = getRandomNumber(0, 1000);
+            timerWheel.schedule(attackDelay + fireVariance, () -> fireReady = true);
         }
     }
 
@@ -130,24 +135,28 @@ public class SlayerAI implements AI {
         private final int distanceThreshold;
 
         // Make sideways movements
-        private final Timer moveTimer;
         private final int moveTimeout; // how long to move in each direction
         private int direction = 1; // 1 or -1
 
         private DistanceAttack(int distanceThreshold) {
             this.distanceThreshold = distanceThreshold;
-            moveTimer = new Timer();
             moveTimeout = getRandomNumber(1000, 1500);
+            timerWheel.schedule(moveTimeout, this::switchDirection);
         }
 
-        @Override
-        public void update(double timePassed) {
-
-            // Switch direction
-            if (moveTimer.timePassed() > moveTimeout) {
+        /**
+         * Run by the timer wheel. Stops when the state is left or the
+         * puppet is dead.
+         */
+        private void switchDirection() {
+            if (currentState == this && puppet.getCurrentHitPoints() > 0) {
                 direction *= -1;
-                moveTimer.reset();
+                timerWheel.schedule(moveTimeout, this::switchDirection);
             }
+        }
+
+        @Override
+        public void update(double timePassed) {
 
             // Move sideways
             Vector dir = attackVector.copy().rotate(Math.PI / 2); // normal vector
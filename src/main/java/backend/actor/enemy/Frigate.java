@@ -6,29 +6,16 @@ import backend.actor.Item;
 import backend.actor.Parts;
 import backend.main.GameEngine;
 import backend.main.Vector;
-import backend.resources.Sound;
 import backend.shipmodule.LightCannon;
 import backend.shipmodule.Shield;
-import java.util.ArrayList;
-import processing.core.PImage;
-import userinterface.Drawable;
+import backend.snapshot.ActorType;
 
 /**
  * Small and fast.
  *
  * @author Kristian Honningsvag.
  */
-public class Frigate extends Enemy implements Drawable {
-
-    // Colors.
-    private int[] healthBarRGBA = new int[]{20, 200, 20, 255};
-
-    // Shapes.
-    private int healthBarWidth;
-    private int healthBarHeight;
-
-    // Images.
-    private final PImage enemyGraphics;
+public class Frigate extends Enemy {
 
     // Modules.
     private LightCannon LightCannon = new LightCannon(this);
@@ -51,58 +38,14 @@ public class Frigate extends Enemy implements Drawable {
         collisionDamageToOthers = 10;
         attackDelay = 2000;
         killValue = 7;
+        type = ActorType.FRIGATE;
 
         offensiveModules.add(LightCannon);
         currentOffensiveModule = LightCannon;
-
-        enemyGraphics = guiHandler.loadImage("Actors/DroneV3Sml.png");
-
-        healthBarWidth = (int) hitBoxRadius * 2;
-        healthBarHeight = (int) (healthBarWidth * 0.1);
-    }
-
-    @Override
-    public void draw() {
-
-        // Draw main body.
-        guiHandler.tint(255);
-        guiHandler.image(enemyGraphics, (float) this.getPosition().getX() - 25, (float) this.getPosition().getY() - 25);
-
-        // Draw modules.
-        if (currentOffensiveModule != null) {
-            currentOffensiveModule.draw();
-        }
-        if (currentDefensiveModule != null) {
-            currentDefensiveModule.draw();
-        }
-
-        // Draw small hud below actor.
-        guiHandler.pushMatrix();
-        guiHandler.translate((float) this.getPosition().getX() - (healthBarWidth / 2), (float) this.getPosition().getY() + (float) hitBoxRadius + healthBarHeight / 2);
-        // Health bar.
-        float healthPercentage = (float) currentHitPoints / (float) maxHitPoints;
-        if (healthPercentage >= 0.66) {
-            healthBarRGBA = new int[]{20, 200, 20, 255};
-        } else if (healthPercentage < 0.66 && healthPercentage >= 0.33) {
-            healthBarRGBA = new int[]{200, 200, 20, 255};
-        } else {
-            healthBarRGBA = new int[]{200, 20, 20, 255};
-        }
-        guiHandler.stroke(healthBarRGBA[0], healthBarRGBA[1], healthBarRGBA[2]);
-        guiHandler.strokeWeight(1);
-        guiHandler.noFill();
-        guiHandler.rect((float) 0, 0, healthBarWidth, healthBarHeight, 6);
-        guiHandler.fill(healthBarRGBA[0], healthBarRGBA[1], healthBarRGBA[2]);
-        guiHandler.rect(0, 0, healthBarWidth * healthPercentage, healthBarHeight, 3);
-        guiHandler.popMatrix();
     }
 
     @Override
     public void die() {
-        gameEngine.getSoundManager().play(Sound.EXPLOSION, getPosition());
-        gameEngine.getExplosionManager().explodeEnemy(this);
-        gameEngine.getCurrentLevel().getPlayer().increaseScore(this.killValue);
-        gameEngine.getCurrentLevel().getPlayer().increaseKillChain(1);
         gameEngine.getCurrentLevel().getEnemies().remove(this);
 
         // Spawn parts.
@@ -114,8 +57,6 @@ public class Frigate extends Enemy implements Drawable {
     @Override
     protected void checkActorCollisions(double timePassed) {
 
-        ArrayList<Actor> collisions = collisionDetector.detectActorCollision(this);
-
         if (collisions.size() > 0) {
             for (Actor target : collisions) {
 
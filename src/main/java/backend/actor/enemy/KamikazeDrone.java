@@ -5,21 +5,15 @@ import backend.actor.projectile.Projectile;
 import backend.actor.Item;
 import backend.main.GameEngine;
 import backend.main.Vector;
-import backend.resources.Sound;
 import backend.shipmodule.Shield;
-import java.util.ArrayList;
-import processing.core.PImage;
-import userinterface.Drawable;
+import backend.snapshot.ActorType;
 
 /**
  * A simple drone that attempts to crash into the player.
  *
  * @author Kristian Honningsvag.
  */
-public class KamikazeDrone extends Enemy implements Drawable {
-
-    // Images.
-    private final PImage enemyGraphics;
+public class KamikazeDrone extends Enemy {
 
     /**
      * Constructor.
@@ -39,40 +33,17 @@ public class KamikazeDrone extends Enemy implements Drawable {
         collisionDamageToOthers = 15;
         attackDelay = 1000;
         killValue = 1;
-
-        enemyGraphics = guiHandler.loadImage("multishotDrone.png");
-    }
-
-    @Override
-    public void draw() {
-
-        // Draw main body.
-        guiHandler.tint(255);
-        guiHandler.image(enemyGraphics, (float) this.getPosition().getX() - 15, (float) this.getPosition().getY() - 15);
-
-        // Draw modules.
-        if (currentOffensiveModule != null) {
-            currentOffensiveModule.draw();
-        }
-        if (currentDefensiveModule != null) {
-            currentDefensiveModule.draw();
-        }
+        type = ActorType.KAMIKAZE_DRONE;
     }
 
     @Override
     public void die() {
-        gameEngine.getSoundManager().play(Sound.EXPLOSION, getPosition());
-        gameEngine.getExplosionManager().explodeEnemy(this);
-        gameEngine.getCurrentLevel().getPlayer().increaseScore(this.killValue);
-        gameEngine.getCurrentLevel().getPlayer().increaseKillChain(1);
         gameEngine.getCurrentLevel().getEnemies().remove(this);
     }
 
     @Override
     protected void checkActorCollisions(double timePassed) {
 
-        ArrayList<Actor> collisions = collisionDetector.detectActorCollision(this);
-
         if (collisions.size() > 0) {
             for (Actor target : collisions) {
 
@@ -1,19 +1,15 @@
 package backend.actor.projectile;
 
 import backend.main.Vector;
-import backend.resources.Sound;
 import backend.shipmodule.ShipModule;
-import userinterface.Drawable;
+import backend.snapshot.ActorType;
 
 /**
  * A simple bullet. Travels straight towards the target with no acceleration.
  *
  * @author Kristian Honningsvag.
  */
-public class Bullet extends Projectile implements Drawable {
-
-    // Color.
-    private int[] bulletRGBA = new int[]{180, 150, 0, 255};
+public class Bullet extends Projectile {
 
     /**
      * Constructor.
@@ -27,21 +23,13 @@ public class Bullet extends Projectile implements Drawable {
         currentHitPoints = 1;
         mass = 4;
         collisionDamageToOthers = shipModule.getProjectileDamage();
+        type = ActorType.BULLET;
 
         setLaunchVelocity(shipModule.getOwner().getHeading().getAngle2D());
     }
 
-    @Override
-    public void draw() {
-        guiHandler.strokeWeight(0);
-        guiHandler.stroke(bulletRGBA[0], bulletRGBA[1], bulletRGBA[2]);
-        guiHandler.fill(bulletRGBA[0], bulletRGBA[1], bulletRGBA[2]);
-        guiHandler.ellipse((float) this.getPosition().getX(), (float) this.getPosition().getY(), (float) hitBoxRadius * 2, (float) hitBoxRadius * 2);
-    }
-
     @Override
     public void die() {
-        gameEngine.getSoundManager().play(Sound.BULLET_IMPACT, getPosition());
         gameEngine.getCurrentLevel().getProjectiles().remove(this);
     }
 
@@ -1,22 +1,22 @@
 package backend.actor.projectile;
 
 import backend.actor.Actor;
-import backend.main.FadingCanvasItemManager;
 import backend.main.Vector;
 import backend.shipmodule.ShipModule;
-import processing.core.PConstants;
-import processing.core.PGraphics;
+import backend.snapshot.ActorType;
 
 /**
  * A EMP pulse that kills the enemies that are within the pulse radius.
  * 
  * @author pitmairen
  */
-public class EMPPulse extends Projectile implements FadingCanvasItemManager.Item {
+public class EMPPulse extends Projectile {
 
-    // How fast the pulse radius grows
-    private final int pulseStepSize = 10;
-    private final int pulseRadiusLimit = 350;
+    // How fast the pulse radius grows (pixels per millisecond)
+    private final double pulseGrowth = 0.6;
+
+    // The radius where the pulse ends. Also used to fade out the drawing.
+    public static final int PULSE_RADIUS_LIMIT = 350;
     
     public EMPPulse(Vector position, ShipModule shipModule){
         super(position, shipModule);
@@ -31,20 +31,25 @@ public class EMPPulse extends Projectile implements FadingCanvasItemManager.Item
         
         mass = 100;
         collisionDamageToOthers = shipModule.getProjectileDamage();
+        type = ActorType.EMP_PULSE;
     }
 
     @Override
-    public void act(double timePassed) {
-        
-        hitBoxRadius += pulseStepSize;
-        if(hitBoxRadius > pulseRadiusLimit){
-            die();
-        }
+    public void move(double timePassed) {
+        // The pulse stays in place and grows.
+        hitBoxRadius += pulseGrowth * timePassed;
     }
 
     @Override
-    public void draw() {
-        // It is drawn to the fading canvas by the fading canvas item manager
+    public void detectCollisions() {
+        // The enemies find the pulse when they look for their collisions.
+    }
+
+    @Override
+    public void resolve(double timePassed) {
+        if(hitBoxRadius > PULSE_RADIUS_LIMIT){
+            die();
+        }
     }
 
     @Override
@@ -63,42 +68,4 @@ public class EMPPulse extends Projectile implements FadingCanvasItemManager.Item
         // The emp doesn't take any hits.
     }
     
-    /**
-     * Implements the fading canvas item manager interface.
-     * 
-     * Draws the pulse
-     * 
-     * @param canvas 
-     */
-    @Override
-    public void draw(PGraphics canvas) {
-
-        canvas.blendMode(PGraphics.ADD);
-        canvas.ellipseMode(PConstants.CENTER);
-        canvas.stroke(0xff0000ff);
-        canvas.fill(0, 0);
-        //Gradually fade out the stroke
-        // (pulseRadiusLimit/pulseStepSize) = the number of steps that the pulse will grow before it dies
-        int fadingStepSize = 255/(pulseRadiusLimit/pulseStepSize);
-        int currentStep = (int)hitBoxRadius/pulseStepSize;
-        
-        canvas.stroke(0xff2D91EF, 255 - fadingStepSize*currentStep);
-        canvas.strokeWeight(8);
-        canvas.ellipse((float)getPosition().getX(), (float)getPosition().getY(),
-                (float)hitBoxRadius*2, (float)hitBoxRadius*2);
-        
-        canvas.strokeWeight(0);
-        canvas.blendMode(PGraphics.BLEND);
-    }
-
-    /**
-     * Implements the fading canvas item manager interface.
-     * 
-     * @return 
-     */
-    @Override
-    public boolean isAlive() {
-        return getCurrentHitPoints() > 0;
-    }
-    
 }
@@ -7,14 +7,13 @@ import backend.main.Vector;
 import backend.shipmodule.Shield;
 import backend.shipmodule.ShipModule;
 import java.util.ArrayList;
-import userinterface.Drawable;
 
 /**
  * Super class for all projectiles.
  *
  * @author Kristian Honningsvag.
  */
-public abstract class Projectile extends Actor implements Drawable {
+public abstract class Projectile extends Actor {
 
     protected ShipModule shipModule;  // From constructor.
 
@@ -28,9 +27,6 @@ public abstract class Projectile extends Actor implements Drawable {
         this.shipModule = shipModule;
     }
 
-    @Override
-    public abstract void draw();
-
     @Override
     protected void checkWallCollisions(double timePassed) {
         // Projectiles does not bounce off walls.
@@ -43,8 +39,6 @@ public abstract class Projectile extends Actor implements Drawable {
     @Override
     protected void checkActorCollisions(double timePassed) {
 
-        ArrayList<Actor> collisions = collisionDetector.detectActorCollision(this);
-
         if (collisions.size() > 0) {
             for (Actor target : collisions) {
 
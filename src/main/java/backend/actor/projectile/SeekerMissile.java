@@ -1,12 +1,8 @@
 package backend.actor.projectile;
 
-import backend.main.FadingCanvasItemManager;
 import backend.main.Vector;
-import backend.resources.Image;
-import backend.resources.Sound;
 import backend.shipmodule.ShipModule;
-import processing.core.PGraphics;
-import processing.core.PImage;
+import backend.snapshot.ActorType;
 
 
 /**
@@ -14,7 +10,7 @@ import processing.core.PImage;
  * 
  * @author pitmairen
  */
-public class SeekerMissile extends Projectile implements FadingCanvasItemManager.Item {
+public class SeekerMissile extends Projectile {
 
     /**
      * Defines the target that the missile should lock on to
@@ -36,7 +32,6 @@ public class SeekerMissile extends Projectile implements FadingCanvasItemManager
     
     
     private final Target target;
-    private final PImage bg;
     
     
     public SeekerMissile(Vector position, Target target, ShipModule shipModule) {
@@ -48,21 +43,21 @@ public class SeekerMissile extends Projectile implements FadingCanvasItemManager
         mass = 2;
         frictionCoefficient = 0.01;
         collisionDamageToOthers = shipModule.getProjectileDamage();
-        
-        bg =  gameEngine.getResourceManager().getImage(Image.SEEKER_MISSILE);
-        
+        type = ActorType.SEEKER_MISSILE;
     }
     
     
     @Override
-    public void act(double timePassed) {
+    public void think(double timePassed) {
         seekTarget();
-        super.act(timePassed);
     }
-    
+
     @Override
-    public void draw() {
-        // Draws to the fading canvas
+    public void resolve(double timePassed) {
+        if (!target.isAlive()) {
+            die();
+        }
+        super.resolve(timePassed);
     }
     
     @Override
@@ -72,42 +67,21 @@ public class SeekerMissile extends Projectile implements FadingCanvasItemManager
    
     
     
-    @Override
-    public void draw(PGraphics canvas) {
-
-        canvas.tint(0xffff0000);
-        canvas.pushMatrix();
-        canvas.translate((float)getPosition().getX(), (float) getPosition().getY());
-        canvas.rotate(guiHandler.millis()/20.0f); 
-        canvas.imageMode(PImage.CENTER);
-        canvas.image(bg, 0, 0, 20, 50);
-        canvas.popMatrix();
-        canvas.imageMode(PImage.CORNER);
-
-    }
-    
-    // Used by fading canvas item manage
-    @Override
-    public boolean isAlive() {
-        return getCurrentHitPoints() > 0;
-    }
-    
     @Override
     public void die() {
-        gameEngine.getSoundManager().play(Sound.MISSILE_EXPLOSION, getPosition());
         setCurrentHitPoints(0);
         gameEngine.getCurrentLevel().getProjectiles().remove(this);
     }
     
     
     /**
-     * Make the missile go towards the target.
+     * Make the missile go towards the target. The missile dies in resolve()
+     * if the target is dead.
      * 
      */
     private void seekTarget(){
         
         if(!target.isAlive()){
-            die();
             return;
         }
         Vector force = Vector.sub(target.getPosition(), getPosition());
@@ -0,0 +1,147 @@
+package backend.batch;
+
+import backend.actor.Actor;
+import backend.actor.Player;
+import backend.level.Level;
+import backend.main.GameEngine;
+import backend.main.Vector;
+import backend.main.WorldRandom;
+import java.awt.event.KeyEvent;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Plays the game in place of a human.
+ *
+ * The autopilot presses the same keys as a player would, so the game is
+ * driven through the normal input handling. It aims at the nearest enemy and
+ * fires whenever there is one. It keeps its distance to the enemy and moves
+ * sideways to dodge, and it goes for the items when the wave is cleared.
+ *
+ * Must be updated on the thread that steps the engine, between the ticks.
+ *
+ * @author pitmairen
+ */
+public class Autopilot {
+
+    private static final int FIRE = 37;                 // Processing's code for the left mouse button.
+    private static final double DECISION_TIME = 150;    // Milliseconds between changes of direction.
+    private static final double PREFERRED_DISTANCE = 350;
+    private static final double SHIELD_DISTANCE = 120;  // Use the shield when an enemy is this close.
+    private static final double WALL_MARGIN = 120;
+
+    private final GameEngine gameEngine;
+    private final SplittableRandom random;
+    private final BitSet pressed = new BitSet();
+    private double nextDecision = 0;
+    private int strafeDirection = 1;
+
+    /**
+     * Constructor. The random choices are split from the world's random
+     * numbers, so they follow from the seed of the game.
+     *
+     * @param gameEngine The engine of the game to play.
+     */
+    public Autopilot(GameEngine gameEngine) {
+        this.gameEngine = gameEngine;
+        this.random = gameEngine.getRandom().split(WorldRandom.Stream.AUTOPILOT);
+    }
+
+    /**
+     * Decides what to do in the next tick.
+     */
+    public void update() {
+
+        Level level = gameEngine.getCurrentLevel();
+        Player player = level.getPlayer();
+        Actor enemy = findNearest(level.getEnemies(), player);
+
+        // Aim and fire every tick.
+        if (enemy != null) {
+            gameEngine.setAim((float) enemy.getPosition().getX(), (float) enemy.getPosition().getY());
+        }
+        press(FIRE, enemy != null);
+
+        double time = gameEngine.getClock().getTime();
+        if (time < nextDecision) {
+            return;
+        }
+        nextDecision = time + DECISION_TIME;
+
+        Vector direction;
+        if (enemy != null) {
+            Vector toEnemy = Vector.sub(enemy.getPosition(), player.getPosition());
+            double distance = toEnemy.mag();
+
+            if (random.nextDouble() < 0.1) {
+                strafeDirection = -strafeDirection;
+            }
+            direction = toEnemy.copy().rotate(Math.PI / 2).normalize().mult(strafeDirection);
+            if (distance < PREFERRED_DISTANCE * 0.75) {
+                direction.add(toEnemy.copy().normalize().mult(-1));
+            } else if (distance > PREFERRED_DISTANCE * 1.25) {
+                direction.add(toEnemy.copy().normalize());
+            }
+            press(KeyEvent.VK_E, distance < SHIELD_DISTANCE + enemy.getHitBoxRadius());
+        } else {
+            Actor item = findNearest(level.getItems(), player);
+            direction = item != null ? Vector.sub(item.getPosition(), player.getPosition()) : new Vector();
+            press(KeyEvent.VK_E, false);
+        }
+        avoidWalls(player, direction);
+
+        press(KeyEvent.VK_W, direction.getY() < -0.3);
+        press(KeyEvent.VK_S, direction.getY() > 0.3);
+        press(KeyEvent.VK_A, direction.getX() < -0.3);
+        press(KeyEvent.VK_D, direction.getX() > 0.3);
+    }
+
+    /**
+     * Steers towards the middle when the player is close to a wall.
+     */
+    private void avoidWalls(Player player, Vector direction) {
+        double x = player.getPosition().getX();
+        double y = player.getPosition().getY();
+        int width = gameEngine.getConfig().getWorldWidth();
+        int height = gameEngine.getConfig().getWorldHeight();
+
+        if (x < WALL_MARGIN) {
+            direction.setX(1);
+        } else if (x > width - WALL_MARGIN) {
+            direction.setX(-1);
+        }
+        if (y < WALL_MARGIN) {
+            direction.setY(1);
+        } else if (y > height - WALL_MARGIN) {
+            direction.setY(-1);
+        }
+    }
+
+    /**
+     * Returns the living actor that is closest to the player, or null if
+     * there is none.
+     */
+    private static Actor findNearest(List<? extends Actor> actors, Player player) {
+        Actor nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (Actor actor : actors) {
+            double distance = actor.getPosition().dist(player.getPosition());
+            if (actor.getCurrentHitPoints() > 0 && distance < nearestDistance) {
+                nearest = actor;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Presses or releases a key. Only changes are sent to the engine.
+     */
+    private void press(int keyCode, boolean state) {
+        if (pressed.get(keyCode) != state) {
+            pressed.set(keyCode, state);
+            gameEngine.userInput(keyCode, state);
+        }
+    }
+}
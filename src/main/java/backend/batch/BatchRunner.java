@@ -0,0 +1,312 @@
+package backend.batch;
+
+import backend.event.DamageDealt;
+import backend.main.EngineConfig;
+import backend.main.GameEngine;
+import backend.main.SimulationState;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays many games of Level1 headless and reports how they went.
+ *
+ * Each game is a world of its own, with its own engine, clock and seed, and
+ * is played by an autopilot. The games run on a pool of threads. A world
+ * only uses the thread it is stepped on, so the runs scale with the number
+ * of cores and a game gives the same result whichever thread plays it.
+ *
+ * Usage: BatchRunner [games] [threads] [first seed]
+ *
+ * @author pitmairen
+ */
+public class BatchRunner {
+
+    /**
+     * How a game ended.
+     */
+    public enum Outcome {
+        VICTORY, DEATH, TIMEOUT
+    }
+
+    /**
+     * The result of one game.
+     */
+    public static class Result {
+
+        private final long seed;
+        private final Outcome outcome;
+        private final long ticks;
+        private final double time;          // Simulated milliseconds.
+        private final double[] waveStarts;  // When each wave started, in simulated milliseconds.
+        private final int score;
+        private final double damageTaken;   // Hit points the player lost.
+
+        public Result(long seed, Outcome outcome, long ticks, double time, double[] waveStarts, int score,
+                double damageTaken) {
+            this.seed = seed;
+            this.outcome = outcome;
+            this.ticks = ticks;
+            this.time = time;
+            this.waveStarts = waveStarts;
+            this.score = score;
+            this.damageTaken = damageTaken;
+        }
+
+        /**
+         * Returns how long it took to clear the wave, or -1 if it was not
+         * cleared. A wave is cleared when the next one starts, and the last
+         * wave when the game is won.
+         *
+         * @param wave The wave, starting at 1.
+         * @return the time in simulated milliseconds
+         */
+        public double getClearTime(int wave) {
+            if (wave < waveStarts.length) {
+                return waveStarts[wave] - waveStarts[wave - 1];
+            }
+            if (wave == waveStarts.length && outcome == Outcome.VICTORY) {
+                return time - waveStarts[wave - 1];
+            }
+            return -1;
+        }
+
+        // Getters.
+        public long getSeed() {
+            return seed;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public long getTicks() {
+            return ticks;
+        }
+
+        public double getTime() {
+            return time;
+        }
+
+        public int getWavesReached() {
+            return waveStarts.length;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public double getDamageTaken() {
+            return damageTaken;
+        }
+    }
+
+    // The size of the world. The same as a full HD screen.
+    private static final int WORLD_WIDTH = 1920;
+    private static final int WORLD_HEIGHT = 1080;
+
+    // Games that are neither won nor lost by then are stopped.
+    private static final double MAX_GAME_TIME = 20 * 60 * 1000;   // Simulated milliseconds.
+
+    private final int games;
+    private final int threads;
+    private final long firstSeed;
+
+    /**
+     * Constructor.
+     *
+     * @param games The number of games to play.
+     * @param threads The number of games to play at the same time.
+     * @param firstSeed The seed of the first game. Game n uses firstSeed + n.
+     */
+    public BatchRunner(int games, int threads, long firstSeed) {
+        if (games <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Games and threads must be positive: " + games + ", " + threads);
+        }
+        this.games = games;
+        this.threads = threads;
+        this.firstSeed = firstSeed;
+    }
+
+    /**
+     * Plays all the games.
+     *
+     * @return the results, in the order of the seeds
+     */
+    public List<Result> run() throws InterruptedException, ExecutionException {
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int i = 0; i < games; i++) {
+                long seed = firstSeed + i;
+                futures.add(pool.submit(() -> play(seed)));
+            }
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays one game of Level1 until the player wins, dies or the time runs
+     * out.
+     *
+     * @param seed The seed of the world and the autopilot.
+     * @return the result
+     */
+    public static Result play(long seed) {
+        return play(seed, 1);   // The games already use all the cores.
+    }
+
+    /**
+     * Plays one game of Level1 with the ticks run on a number of threads.
+     * The game is the same whatever the number of threads.
+     *
+     * @param seed The seed of the world and the autopilot.
+     * @param simulationThreads The threads each tick runs on.
+     * @return the result
+     */
+    public static Result play(long seed, int simulationThreads) {
+
+        EngineConfig config = EngineConfig.headless(WORLD_WIDTH, WORLD_HEIGHT);
+        config.setSeed(seed);
+        config.setSimulationThreads(simulationThreads);
+
+        GameEngine gameEngine = new GameEngine(config);
+        Autopilot autopilot = new Autopilot(gameEngine);
+        gameEngine.setSimulationState(SimulationState.GAMEPLAY);
+
+        double[] damageTaken = new double[1];
+        gameEngine.getEvents().subscribe(DamageDealt.class, hits -> {
+            for (DamageDealt hit : hits) {
+                if (hit.getTarget() == gameEngine.getCurrentLevel().getPlayer()) {
+                    damageTaken[0] += hit.getDamage();
+                }
+            }
+        });
+
+        double[] waveStarts = new double[0];
+        while (gameEngine.getSimulationState() == SimulationState.GAMEPLAY
+                && gameEngine.getClock().getTime() < MAX_GAME_TIME) {
+
+            autopilot.update();
+            gameEngine.step();
+
+            int wave = gameEngine.getCurrentLevel().getCurrentWave();
+            while (waveStarts.length < wave) {
+                waveStarts = Arrays.copyOf(waveStarts, waveStarts.length + 1);
+                waveStarts[waveStarts.length - 1] = gameEngine.getClock().getTime();
+            }
+        }
+
+        Outcome outcome;
+        switch (gameEngine.getSimulationState()) {
+            case VICTORY_SCREEN:
+                outcome = Outcome.VICTORY;
+                break;
+            case DEATH_SCREEN:
+                outcome = Outcome.DEATH;
+                break;
+            default:
+                outcome = Outcome.TIMEOUT;
+                break;
+        }
+        return new Result(seed, outcome, gameEngine.getClock().getTick(), gameEngine.getClock().getTime(),
+                waveStarts, gameEngine.getCurrentLevel().getPlayer().getScore(), damageTaken[0]);
+    }
+
+    /**
+     * Prints the totals, the outcomes and the clear time of each wave.
+     *
+     * @param results The results of the games.
+     * @param wallTime How long the games took in real time, in milliseconds.
+     */
+    public void report(List<Result> results, double wallTime) {
+
+        DecimalFormat format = new DecimalFormat("0.0");
+
+        long ticks = 0;
+        long score = 0;
+        double damageTaken = 0;
+        int maxWave = 0;
+        EnumMap<Outcome, Integer> outcomes = new EnumMap<>(Outcome.class);
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, 0);
+        }
+        for (Result result : results) {
+            ticks += result.getTicks();
+            score += result.getScore();
+            damageTaken += result.getDamageTaken();
+            maxWave = Math.max(maxWave, result.getWavesReached());
+            outcomes.put(result.getOutcome(), outcomes.get(result.getOutcome()) + 1);
+        }
+
+        System.out.println("Games:        " + results.size() + " on " + threads + " threads, seeds "
+                + firstSeed + " - " + (firstSeed + games - 1));
+        System.out.println("Wall time:    " + format.format(wallTime / 1000) + " s");
+        System.out.println("Ticks:        " + ticks + " (" + format.format(ticks / (wallTime / 1000)) + " per second, "
+                + format.format(ticks / (wallTime / 1000) / threads) + " per thread)");
+        System.out.println("Mean score:   " + format.format((double) score / results.size()));
+        System.out.println("Mean damage:  " + format.format(damageTaken / results.size()) + " hit points taken");
+
+        System.out.println("Outcomes:");
+        for (Outcome outcome : Outcome.values()) {
+            int count = outcomes.get(outcome);
+            System.out.println("  " + outcome + ": " + count + " (" + format.format(100.0 * count / results.size()) + " %)");
+        }
+
+        System.out.println("Waves:           reached  cleared  mean clear  min clear  max clear (s)");
+        for (int wave = 1; wave <= maxWave; wave++) {
+            int reached = 0;
+            int cleared = 0;
+            double total = 0;
+            double min = Double.MAX_VALUE;
+            double max = 0;
+            for (Result result : results) {
+                if (result.getWavesReached() >= wave) {
+                    reached++;
+                }
+                double clearTime = result.getClearTime(wave);
+                if (clearTime >= 0) {
+                    cleared++;
+                    total += clearTime;
+                    min = Math.min(min, clearTime);
+                    max = Math.max(max, clearTime);
+                }
+            }
+            System.out.println(String.format("  %2d             %7d  %7d  %10s  %9s  %9s", wave, reached, cleared,
+                    cleared > 0 ? format.format(total / cleared / 1000) : "-",
+                    cleared > 0 ? format.format(min / 1000) : "-",
+                    cleared > 0 ? format.format(max / 1000) : "-"));
+        }
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args The number of games, the number of threads and the first
+     * seed. All are optional.
+     */
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long firstSeed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        BatchRunner runner = new BatchRunner(games, threads, firstSeed);
+        long start = System.nanoTime();
+        List<Result> results = runner.run();
+        runner.report(results, (System.nanoTime() - start) / 1e6);
+    }
+}
@@ -0,0 +1,29 @@
+package backend.event;
+
+import backend.actor.Actor;
+
+/**
+ * An actor has died and been removed from the level.
+ *
+ * The actor is no longer updated, so it keeps the state it died with.
+ *
+ * @author pitmairen
+ */
+public final class ActorDied {
+
+    private final Actor actor;
+
+    /**
+     * Constructor.
+     *
+     * @param actor The actor that died.
+     */
+    public ActorDied(Actor actor) {
+        this.actor = actor;
+    }
+
+    // Getters.
+    public Actor getActor() {
+        return actor;
+    }
+}
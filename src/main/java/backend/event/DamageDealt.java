@@ -0,0 +1,41 @@
+package backend.event;
+
+import backend.actor.Actor;
+
+/**
+ * An actor has taken damage from another actor it collided with.
+ *
+ * @author pitmairen
+ */
+public final class DamageDealt {
+
+    private final Actor source;
+    private final Actor target;
+    private final double damage;
+
+    /**
+     * Constructor.
+     *
+     * @param source The actor that dealt the damage.
+     * @param target The actor that took the damage.
+     * @param damage The hit points that were taken.
+     */
+    public DamageDealt(Actor source, Actor target, double damage) {
+        this.source = source;
+        this.target = target;
+        this.damage = damage;
+    }
+
+    // Getters.
+    public Actor getSource() {
+        return source;
+    }
+
+    public Actor getTarget() {
+        return target;
+    }
+
+    public double getDamage() {
+        return damage;
+    }
+}
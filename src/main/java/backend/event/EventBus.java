@@ -0,0 +1,112 @@
+package backend.event;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Collects the gameplay events of a tick and hands them to the subscribers
+ * in one batch when the tick is over.
+ *
+ * The actors post what happened to them, like dying or firing, and go on
+ * with the tick. The subscribers, like the sounds, the explosions and the
+ * score, get all the events of a type at once, so they can look up what
+ * they need once per tick and merge the work of many events.
+ *
+ * The events are delivered in the order they were posted, one type at a
+ * time. The types are delivered in the order they were first subscribed to.
+ * Events that are posted while the events are delivered go in the next
+ * batch.
+ *
+ * Events may only be posted from code that runs on the simulation thread,
+ * like resolve() and the cleanup, and are delivered on the same thread.
+ *
+ * @author pitmairen
+ */
+public class EventBus {
+
+    /**
+     * The events of one type and the subscribers to them.
+     */
+    private static class Channel<T> {
+
+        private ArrayList<T> posted = new ArrayList<>();
+        private ArrayList<T> delivering = new ArrayList<>();
+        private final ArrayList<Consumer<? super List<T>>> subscribers = new ArrayList<>();
+
+        private void deliver() {
+            if (posted.isEmpty()) {
+                return;
+            }
+            // Swapped, so the subscribers can post events of the same type.
+            ArrayList<T> batch = posted;
+            posted = delivering;
+            delivering = batch;
+            try {
+                for (int i = 0; i < subscribers.size(); i++) {
+                    subscribers.get(i).accept(batch);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private final HashMap<Class<?>, Channel<?>> channels = new HashMap<>();
+    private final ArrayList<Channel<?>> deliveryOrder = new ArrayList<>();
+
+    /**
+     * Adds a subscriber to the events of a type.
+     *
+     * @param type The type of the events.
+     * @param subscriber Given the events of a tick. The list is only valid
+     * during the call.
+     */
+    public <T> void subscribe(Class<T> type, Consumer<? super List<T>> subscriber) {
+        channelOf(type).subscribers.add(subscriber);
+    }
+
+    /**
+     * Posts an event. It is delivered at the end of the tick. Events that no
+     * one has subscribed to are dropped.
+     *
+     * @param event The event.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void post(T event) {
+        Channel<T> channel = (Channel<T>) channels.get(event.getClass());
+        if (channel != null) {
+            channel.posted.add(event);
+        }
+    }
+
+    /**
+     * Delivers the events that have been posted since the last call.
+     */
+    public void deliver() {
+        for (int i = 0; i < deliveryOrder.size(); i++) {
+            deliveryOrder.get(i).deliver();
+        }
+    }
+
+    /**
+     * Drops the events that have not been delivered yet.
+     */
+    public void clear() {
+        for (Channel<?> channel : deliveryOrder) {
+            channel.posted.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Channel<T> channelOf(Class<T> type) {
+        Channel<T> channel = (Channel<T>) channels.get(type);
+        if (channel == null) {
+            channel = new Channel<>();
+            channels.put(type, channel);
+            deliveryOrder.add(channel);
+        }
+        return channel;
+    }
+}
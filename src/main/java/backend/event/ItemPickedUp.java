@@ -0,0 +1,35 @@
+package backend.event;
+
+import backend.actor.Actor;
+import backend.actor.Item;
+
+/**
+ * An item has been picked up.
+ *
+ * @author pitmairen
+ */
+public final class ItemPickedUp {
+
+    private final Item item;
+    private final Actor looter;
+
+    /**
+     * Constructor.
+     *
+     * @param item The item.
+     * @param looter The actor that picked it up.
+     */
+    public ItemPickedUp(Item item, Actor looter) {
+        this.item = item;
+        this.looter = looter;
+    }
+
+    // Getters.
+    public Item getItem() {
+        return item;
+    }
+
+    public Actor getLooter() {
+        return looter;
+    }
+}
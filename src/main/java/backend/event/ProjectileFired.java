@@ -0,0 +1,42 @@
+package backend.event;
+
+import backend.actor.projectile.Projectile;
+import backend.main.Vector;
+import backend.shipmodule.ShipModule;
+
+/**
+ * A ship module has fired a projectile.
+ *
+ * @author pitmairen
+ */
+public final class ProjectileFired {
+
+    private final ShipModule module;
+    private final Projectile projectile;
+    private final Vector position;  // Where it was fired from. The projectile moves on.
+
+    /**
+     * Constructor.
+     *
+     * @param module The module that fired.
+     * @param projectile The projectile.
+     */
+    public ProjectileFired(ShipModule module, Projectile projectile) {
+        this.module = module;
+        this.projectile = projectile;
+        this.position = projectile.getPosition().copy();
+    }
+
+    // Getters.
+    public ShipModule getModule() {
+        return module;
+    }
+
+    public Projectile getProjectile() {
+        return projectile;
+    }
+
+    public Vector getPosition() {
+        return position;
+    }
+}
@@ -10,12 +10,13 @@ import backend.actor.ai.SlayerAI;
 import backend.actor.enemy.DroneCarrier;
 import backend.actor.enemy.KamikazeDrone;
 import backend.main.Vector;
+import backend.main.WorldRandom;
 import backend.shipmodule.AutoCannon;
 import backend.shipmodule.EMPCannon;
 import backend.shipmodule.LaserCannon;
 import backend.shipmodule.RocketLauncher;
 import backend.shipmodule.SeekerCannon;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Handles spawning actors.
@@ -43,7 +44,7 @@ public class ActorSpawner {
      * @param amount Number of Kamikaze drones to spawn.
      */
     public void spawnKamikazeDrone(int amount) {
-        Random random = new Random();
+        SplittableRandom random = currentLevel.getGameEngine().getRandom().get(WorldRandom.Stream.SPAWNER);
         for (int i = 0; i < amount; i++) {
             enemy = new KamikazeDrone(new Vector(randX(random), randY(random), 0), currentLevel.getGameEngine());
             enemy.setAI(new DroneAI(enemy.getGameEngine(), currentLevel.getPlayer(), enemy));
@@ -59,7 +60,7 @@ public class ActorSpawner {
      * @param amount Number of Frigates to spawn.
      */
     public void spawnFrigate(int amount) {
-        Random random = new Random();
+        SplittableRandom random = currentLevel.getGameEngine().getRandom().get(WorldRandom.Stream.SPAWNER);
         for (int i = 0; i < amount; i++) {
             enemy = new Frigate(new Vector(randX(random), randY(random), 0), currentLevel.getGameEngine());
             enemy.setAI(new SlayerAI(enemy, currentLevel.getPlayer()));
@@ -75,7 +76,7 @@ public class ActorSpawner {
      * @param amount Number of frigates to spawn.
      */
     public void spawnCarrier(int amount) {
-        Random random = new Random();
+        SplittableRandom random = currentLevel.getGameEngine().getRandom().get(WorldRandom.Stream.SPAWNER);
         for (int i = 0; i < amount; i++) {
             enemy = new DroneCarrier(new Vector(randX(random), randY(random), 0), currentLevel.getGameEngine());
             enemy.setAI(new SlayerAI(enemy, currentLevel.getPlayer()));
@@ -102,7 +103,7 @@ public class ActorSpawner {
      * Spawns an Auto cannon at a random location.
      */
     public void spawnAutoCannon() {
-        Random random = new Random();
+        SplittableRandom random = currentLevel.getGameEngine().getRandom().get(WorldRandom.Stream.SPAWNER);
         moduleContainer = new ModuleContainer(new Vector(randX(random), randY(random), 0), currentLevel.getGameEngine());
         moduleContainer.setModule(new AutoCannon(moduleContainer));
         currentLevel.getGameEngine().getCurrentLevel().getItems().add(moduleContainer);
@@ -127,9 +128,9 @@ public class ActorSpawner {
      * Spawns a Rocket launcher at a random location.
      */
     public void spawnRocketLauncher() {
-        Random random = new Random();
+        SplittableRandom random = currentLevel.getGameEngine().getRandom().get(WorldRandom.Stream.SPAWNER);
         moduleContainer = new ModuleContainer(new Vector(randX(random), randY(random), 0), currentLevel.getGameEngine());
-        moduleContainer.setModule(new RocketLauncher(moduleContainer, currentLevel.getRocketManager()));
+        moduleContainer.setModule(new RocketLauncher(moduleContainer));
         currentLevel.getGameEngine().getCurrentLevel().getItems().add(moduleContainer);
         currentLevel.getGameEngine().getCurrentLevel().getActors().add(moduleContainer);
         checkForCollisionWithPlayer(moduleContainer);
@@ -143,7 +144,7 @@ public class ActorSpawner {
      */
     public void spawnRocketLauncher(int x, int y) {
         moduleContainer = new ModuleContainer(new Vector(x, y, 0), currentLevel.getGameEngine());
-        moduleContainer.setModule(new RocketLauncher(moduleContainer, currentLevel.getRocketManager()));
+        moduleContainer.setModule(new RocketLauncher(moduleContainer));
         currentLevel.getGameEngine().getCurrentLevel().getItems().add(moduleContainer);
         currentLevel.getGameEngine().getCurrentLevel().getActors().add(moduleContainer);
     }
@@ -152,9 +153,9 @@ public class ActorSpawner {
      * Spawns a Seeker launcher at a random location.
      */
     public void spawnSeekerLauncher() {
-        Random random = new Random();
+        SplittableRandom random = currentLevel.getGameEngine().getRandom().get(WorldRandom.Stream.SPAWNER);
         moduleContainer = new ModuleContainer(new Vector(randX(random), randY(random), 0), currentLevel.getGameEngine());
-        moduleContainer.setModule(new SeekerCannon(moduleContainer, currentLevel.getFadingCanvasItems()));
+        moduleContainer.setModule(new SeekerCannon(moduleContainer));
         currentLevel.getGameEngine().getCurrentLevel().getItems().add(moduleContainer);
         currentLevel.getGameEngine().getCurrentLevel().getActors().add(moduleContainer);
         checkForCollisionWithPlayer(moduleContainer);
@@ -168,7 +169,7 @@ public class ActorSpawner {
      */
     public void spawnSeekerLauncher(int x, int y) {
         moduleContainer = new ModuleContainer(new Vector(x, y, 0), currentLevel.getGameEngine());
-        moduleContainer.setModule(new SeekerCannon(moduleContainer, currentLevel.getFadingCanvasItems()));
+        moduleContainer.setModule(new SeekerCannon(moduleContainer));
         currentLevel.getGameEngine().getCurrentLevel().getItems().add(moduleContainer);
         currentLevel.getGameEngine().getCurrentLevel().getActors().add(moduleContainer);
     }
@@ -177,7 +178,7 @@ public class ActorSpawner {
      * Spawns a Laser cannon at a random location.
      */
     public void spawnLaser() {
-        Random random = new Random();
+        SplittableRandom random = currentLevel.getGameEngine().getRandom().get(WorldRandom.Stream.SPAWNER);
         moduleContainer = new ModuleContainer(new Vector(randX(random), randY(random), 0), currentLevel.getGameEngine());
         moduleContainer.setModule(new LaserCannon(moduleContainer));
         currentLevel.getGameEngine().getCurrentLevel().getItems().add(moduleContainer);
@@ -202,9 +203,9 @@ public class ActorSpawner {
      * Spawns an EMP at a random location.
      */
     public void spawnEMP() {
-        Random random = new Random();
+        SplittableRandom random = currentLevel.getGameEngine().getRandom().get(WorldRandom.Stream.SPAWNER);
         moduleContainer = new ModuleContainer(new Vector(randX(random), randY(random), 0), currentLevel.getGameEngine());
-        moduleContainer.setModule(new EMPCannon(moduleContainer, currentLevel.getFadingCanvasItems()));
+        moduleContainer.setModule(new EMPCannon(moduleContainer));
         currentLevel.getGameEngine().getCurrentLevel().getItems().add(moduleContainer);
         currentLevel.getGameEngine().getCurrentLevel().getActors().add(moduleContainer);
         checkForCollisionWithPlayer(moduleContainer);
@@ -218,7 +219,7 @@ public class ActorSpawner {
      */
     public void spawnEMP(int x, int y) {
         moduleContainer = new ModuleContainer(new Vector(x, y, 0), currentLevel.getGameEngine());
-        moduleContainer.setModule(new EMPCannon(moduleContainer, currentLevel.getFadingCanvasItems()));
+        moduleContainer.setModule(new EMPCannon(moduleContainer));
         currentLevel.getGameEngine().getCurrentLevel().getItems().add(moduleContainer);
         currentLevel.getGameEngine().getCurrentLevel().getActors().add(moduleContainer);
     }
@@ -239,13 +240,13 @@ public class ActorSpawner {
     }
 
     // Return a random x-position.
-    private int randX(Random rand) {
-        return rand.nextInt(currentLevel.getGameEngine().getGuiHandler().getWidth() - 160) + 80;
+    private int randX(SplittableRandom rand) {
+        return rand.nextInt(currentLevel.getGameEngine().getConfig().getWorldWidth() - 160) + 80;
     }
 
     // Return a random y-position.
-    private int randY(Random rand) {
-        return rand.nextInt(currentLevel.getGameEngine().getGuiHandler().getHeight() - 160) + 80;
+    private int randY(SplittableRandom rand) {
+        return rand.nextInt(currentLevel.getGameEngine().getConfig().getWorldHeight() - 160) + 80;
     }
 
 }
@@ -6,9 +6,8 @@ import backend.actor.enemy.Enemy;
 import backend.actor.Player;
 import backend.actor.projectile.Projectile;
 import backend.actor.Item;
-import backend.main.FadingCanvasItemManager;
-import backend.main.RocketManager;
-import backend.main.Timer;
+import backend.main.SimulationState;
+import backend.main.TimerWheel;
 import java.util.ArrayList;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -24,7 +23,8 @@ public abstract class Level {
     protected int previousWave = 0;
     protected double baseTimeToNextWave = 0;
     protected double timeToNextWave = 0;
-    protected Timer timer = new Timer();
+    protected TimerWheel.Event waveEvent = null;
+    protected boolean waveDue = false;   // Set by waveEvent when the time is up.
     protected boolean onLastWave = false;
     protected boolean currentWaveIsAutoSkippable = false;
     protected GameEngine gameEngine;     // From constructor parameter.
@@ -36,9 +36,6 @@ public abstract class Level {
     protected ArrayList<Item> items = new ArrayList<Item>();
     protected ArrayList<Projectile> projectiles = new ArrayList<Projectile>();
 
-    protected RocketManager rocketManager;
-    protected FadingCanvasItemManager fadingCanvasItems;
-
     /**
      * Constructor.
      *
@@ -58,14 +55,25 @@ public abstract class Level {
     // Set the time until the next wave spawns.
     protected void setTimeToNextWave(int timeToNextWave) {
         baseTimeToNextWave = timeToNextWave;
-        timer.reset();
+        if (waveEvent != null) {
+            waveEvent.cancel();
+        }
+        waveDue = false;
+        waveEvent = gameEngine.getTimerWheel().schedule(timeToNextWave, this::startDueWave);
+    }
+
+    // Run by waveEvent when the time is up, on the simulation thread after
+    // the tick, so the wave spawns on the tick it is due.
+    private void startDueWave() {
+        waveDue = true;
+        nextWave();
     }
 
     /**
-     * Prematurely spawn the next wave.
+     * Prematurely spawn the next wave. Only while the game is played.
      */
     public void forceNextWave() {
-        if (timeToNextWave > 400 && !timer.isPaused()) {
+        if (timeToNextWave > 400 && gameEngine.getSimulationState() == SimulationState.GAMEPLAY) {
             setTimeToNextWave(400);
         }
     }
@@ -111,10 +119,6 @@ public abstract class Level {
         return baseTimeToNextWave;
     }
 
-    public Timer getTimer() {
-        return timer;
-    }
-
     public boolean isOnLastWave() {
         return onLastWave;
     }
@@ -131,12 +135,4 @@ public abstract class Level {
         return baseTimeToNextWave;
     }
 
-    public RocketManager getRocketManager() {
-        return rocketManager;
-    }
-
-    public FadingCanvasItemManager getFadingCanvasItems() {
-        return fadingCanvasItems;
-    }
-
 }
@@ -2,8 +2,6 @@ package backend.level;
 
 import backend.main.GameEngine;
 import backend.actor.Player;
-import backend.main.FadingCanvasItemManager;
-import backend.main.RocketManager;
 import backend.main.Vector;
 
 /**
@@ -16,15 +14,12 @@ public class Level1 extends Level {
     /**
      * Constructor.
      */
-    public Level1(GameEngine gameEngine, RocketManager rocketManager, FadingCanvasItemManager itemManager) {
+    public Level1(GameEngine gameEngine) {
 
         super(gameEngine);
 
-        this.rocketManager = rocketManager;
-        this.fadingCanvasItems = itemManager;
         levelName = "Invaded";
         setTimeToNextWave(4000);
-        timer.pause();
 
         player = new Player(new Vector(300, 250, 0), gameEngine);
         actors.add(player);
@@ -35,9 +30,9 @@ public class Level1 extends Level {
 
         if (!onLastWave) {
 
-            timeToNextWave = baseTimeToNextWave - timer.timePassed();
+            timeToNextWave = waveEvent.getRemaining();
 
-            if ((timeToNextWave <= 0 || (enemies.isEmpty() && currentWaveIsAutoSkippable)) && player.getCurrentHitPoints() > 0) {
+            if ((waveDue || (enemies.isEmpty() && currentWaveIsAutoSkippable)) && player.getCurrentHitPoints() > 0) {
 
                 currentWave++;
 
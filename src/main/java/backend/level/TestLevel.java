@@ -2,8 +2,6 @@ package backend.level;
 
 import backend.main.GameEngine;
 import backend.actor.Player;
-import backend.main.FadingCanvasItemManager;
-import backend.main.RocketManager;
 import backend.main.Vector;
 
 /**
@@ -16,14 +14,12 @@ public class TestLevel extends Level {
     /**
      * Constructor.
      */
-    public TestLevel(GameEngine gameEngine, RocketManager rocketManager, FadingCanvasItemManager itemManager) {
+    public TestLevel(GameEngine gameEngine) {
 
         super(gameEngine);
 
-        this.rocketManager = rocketManager;
-        this.fadingCanvasItems = itemManager;
         levelName = "TestLevel";
-        baseTimeToNextWave = 120000;
+        setTimeToNextWave(120000);
 
         player = new Player(new Vector(390, 370, 0), gameEngine);
         actors.add(player);
@@ -34,9 +30,9 @@ public class TestLevel extends Level {
 
         if (!onLastWave) {
 
-            timeToNextWave = baseTimeToNextWave - timer.timePassed();
+            timeToNextWave = waveEvent.getRemaining();
 
-            if ((timeToNextWave <= 0 || (enemies.isEmpty() && currentWaveIsAutoSkippable)) && player.getCurrentHitPoints() > 0) {
+            if ((waveDue || (enemies.isEmpty() && currentWaveIsAutoSkippable)) && player.getCurrentHitPoints() > 0) {
 
                 currentWave++;
 
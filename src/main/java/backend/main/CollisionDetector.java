@@ -35,16 +35,16 @@ public class CollisionDetector {
 
         ArrayList<String> wallCollision = new ArrayList<String>();
 
-        if (movingActor.getPosition().getX() + movingActor.getHitBoxRadius() >= (gameEngine.getGuiHandler().getWidth() - gameEngine.getGuiHandler().getOuterWallThickness())) {
+        if (movingActor.getPosition().getX() + movingActor.getHitBoxRadius() >= (gameEngine.getConfig().getWorldWidth() - gameEngine.getConfig().getOuterWallThickness())) {
             wallCollision.add("east");
         }
-        if (movingActor.getPosition().getY() + (movingActor.getHitBoxRadius()) >= (gameEngine.getGuiHandler().getHeight() - gameEngine.getGuiHandler().getOuterWallThickness())) {
+        if (movingActor.getPosition().getY() + (movingActor.getHitBoxRadius()) >= (gameEngine.getConfig().getWorldHeight() - gameEngine.getConfig().getOuterWallThickness())) {
             wallCollision.add("south");
         }
-        if (movingActor.getPosition().getX() - (movingActor.getHitBoxRadius()) <= (0 + gameEngine.getGuiHandler().getOuterWallThickness())) {
+        if (movingActor.getPosition().getX() - (movingActor.getHitBoxRadius()) <= (0 + gameEngine.getConfig().getOuterWallThickness())) {
             wallCollision.add("west");
         }
-        if (movingActor.getPosition().getY() - (movingActor.getHitBoxRadius()) <= (0 + gameEngine.getGuiHandler().getOuterWallThickness())) {
+        if (movingActor.getPosition().getY() - (movingActor.getHitBoxRadius()) <= (0 + gameEngine.getConfig().getOuterWallThickness())) {
             wallCollision.add("north");
         }
         return wallCollision;
@@ -57,8 +57,21 @@ public class CollisionDetector {
      * @return List of all actors that was hit.
      */
     public ArrayList<Actor> detectActorCollision(Actor movingActor) {
-
         ArrayList<Actor> collisions = new ArrayList<Actor>();
+        detectActorCollision(movingActor, collisions);
+        return collisions;
+    }
+
+    /**
+     * Detects actor vs actor collisions. Only reads the actors, so it can be
+     * called from several threads at once.
+     *
+     * @param movingActor The actor to be checked.
+     * @param collisions Cleared and filled with all actors that was hit.
+     */
+    public void detectActorCollision(Actor movingActor, ArrayList<Actor> collisions) {
+
+        collisions.clear();
 
         Iterator<Actor> it = gameEngine.getCurrentLevel().getActors().iterator();
         while (it.hasNext()) {
@@ -81,7 +94,6 @@ public class CollisionDetector {
 //                }
             }
         }
-        return collisions;
     }
 
 }
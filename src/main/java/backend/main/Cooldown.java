@@ -0,0 +1,55 @@
+package backend.main;
+
+/**
+ * A wait that ends at a given tick of the simulation clock.
+ *
+ * The length is turned into ticks when the cooldown is started, so checking
+ * it is a single compare with the current tick. As the clock only runs while
+ * the world is simulated, a cooldown does not run out while the game is
+ * paused.
+ *
+ * @author pitmairen
+ */
+public class Cooldown {
+
+    private final SimulationClock clock;
+    private long readyAt;   // The tick the cooldown ends at.
+
+    /**
+     * Constructor. The cooldown is started.
+     *
+     * @param clock The clock of the world.
+     * @param duration The length of the first wait in milliseconds.
+     */
+    public Cooldown(SimulationClock clock, double duration) {
+        this.clock = clock;
+        start(duration);
+    }
+
+    /**
+     * Starts the cooldown again.
+     *
+     * @param duration The length of the wait in milliseconds.
+     */
+    public void start(double duration) {
+        readyAt = clock.getTick() + clock.toTicks(duration);
+    }
+
+    /**
+     * Returns true if the wait is over.
+     *
+     * @return true if ready
+     */
+    public boolean isReady() {
+        return clock.getTick() >= readyAt;
+    }
+
+    /**
+     * Returns the time that is left of the wait.
+     *
+     * @return the time in milliseconds, or 0 if ready
+     */
+    public double getRemaining() {
+        return Math.max(readyAt - clock.getTick(), 0) * clock.getTickTime();
+    }
+}
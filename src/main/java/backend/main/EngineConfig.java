@@ -0,0 +1,117 @@
+package backend.main;
+
+/**
+ * The settings the simulation needs from its surroundings.
+ *
+ * The GUI creates one from the size of the window. A headless engine, used
+ * for load tests and benchmarks, gets one directly, so the simulation can run
+ * without a window, OpenGL or a sound device.
+ *
+ * @author pitmairen
+ */
+public class EngineConfig {
+
+    // The tick rate can be set with the xenoblaster.tickrate system property.
+    // A higher rate is more accurate but costs more CPU.
+    public static final String TICK_RATE_PROPERTY = "xenoblaster.tickrate";
+    public static final int DEFAULT_TICK_RATE = 120;
+
+    // The number of threads that update the actors can be set with the
+    // xenoblaster.threads system property. Defaults to one per core.
+    public static final String THREADS_PROPERTY = "xenoblaster.threads";
+
+    // The seed of the random numbers of the world can be set with the
+    // xenoblaster.seed system property. Defaults to a new seed each run.
+    public static final String SEED_PROPERTY = "xenoblaster.seed";
+
+    private final int worldWidth;
+    private final int worldHeight;
+    private int outerWallThickness = 0;
+    private int tickRate = Integer.getInteger(TICK_RATE_PROPERTY, DEFAULT_TICK_RATE);
+    private int simulationThreads = Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+    private long seed = Long.getLong(SEED_PROPERTY, System.nanoTime());
+    private boolean audioEnabled = true;
+
+    /**
+     * Constructor.
+     *
+     * @param worldWidth The width of the world in pixels.
+     * @param worldHeight The height of the world in pixels.
+     */
+    public EngineConfig(int worldWidth, int worldHeight) {
+        if (worldWidth <= 0 || worldHeight <= 0) {
+            throw new IllegalArgumentException("World size must be positive: " + worldWidth + "x" + worldHeight);
+        }
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+    }
+
+    /**
+     * Returns a config for an engine without sound.
+     *
+     * @param worldWidth The width of the world in pixels.
+     * @param worldHeight The height of the world in pixels.
+     * @return the config
+     */
+    public static EngineConfig headless(int worldWidth, int worldHeight) {
+        EngineConfig config = new EngineConfig(worldWidth, worldHeight);
+        config.setAudioEnabled(false);
+        return config;
+    }
+
+    // Getters.
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+
+    public int getWorldHeight() {
+        return worldHeight;
+    }
+
+    public int getOuterWallThickness() {
+        return outerWallThickness;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public int getSimulationThreads() {
+        return simulationThreads;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public boolean isAudioEnabled() {
+        return audioEnabled;
+    }
+
+    // Setters.
+    public void setOuterWallThickness(int outerWallThickness) {
+        this.outerWallThickness = outerWallThickness;
+    }
+
+    public void setTickRate(int tickRate) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("Tick rate must be positive: " + tickRate);
+        }
+        this.tickRate = tickRate;
+    }
+
+    public void setSimulationThreads(int simulationThreads) {
+        if (simulationThreads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive: " + simulationThreads);
+        }
+        this.simulationThreads = simulationThreads;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setAudioEnabled(boolean audioEnabled) {
+        this.audioEnabled = audioEnabled;
+    }
+}
@@ -1,22 +1,25 @@
 package backend.main;
 
+import backend.actor.Actor;
 import backend.actor.enemy.DroneCarrier;
 import backend.actor.enemy.KamikazeDrone;
 import backend.actor.enemy.Enemy;
 import backend.actor.enemy.Frigate;
 import backend.actor.Player;
 import backend.actor.projectile.Rocket;
-import processing.core.PGraphics;
-import processing.core.PVector;
+import backend.event.ActorDied;
+import backend.snapshot.FrameSnapshot;
+import java.util.List;
 
 /**
  * The explosion manager manages all the explosions.
  *
- * It updates and draws all the particles used in the game.
+ * It updates all the particles used in the game and adds them to the frame
+ * snapshots.
  *
  * @author pitmairen
  */
-public class ExplosionManager implements FadingCanvas.Drawable {
+public class ExplosionManager {
 
     private final ParticleEmitter particles; // Used for explosions
 
@@ -39,24 +42,31 @@ public class ExplosionManager implements FadingCanvas.Drawable {
     }
 
     /**
-     * Draws the particles
+     * Adds the particles to the frame
      *
-     * @param canvas
+     * @param frame the frame that is being published
      */
-    @Override
-    public void draw(PGraphics canvas) {
-
-        // ADD causes the colors of objects that are drawn on top of eachother
-        // to be added together which creates a nice visual effect.
-        canvas.blendMode(PGraphics.ADD);
-        canvas.noStroke();
-
-        // Draw the particles 
-        particles.draw(canvas);
-
-        // Reset blendMode
-        canvas.blendMode(PGraphics.BLEND);
+    public void snapshot(FrameSnapshot frame) {
+        particles.snapshot(frame);
+    }
 
+    /**
+     * Creates the explosions of the actors that died in a tick. Subscribed
+     * to the event bus.
+     *
+     * @param deaths the actors that died
+     */
+    public void explode(List<ActorDied> deaths) {
+        for (int i = 0; i < deaths.size(); i++) {
+            Actor actor = deaths.get(i).getActor();
+            if (actor instanceof Enemy) {
+                explodeEnemy((Enemy) actor);
+            } else if (actor instanceof Rocket) {
+                explodeRocket((Rocket) actor);
+            } else if (actor instanceof Player) {
+                explodePlayer((Player) actor);
+            }
+        }
     }
 
     /**
@@ -68,15 +78,15 @@ public class ExplosionManager implements FadingCanvas.Drawable {
 
         if (enemy instanceof Frigate) {
             this.particles.emitParticles(50,
-                    new PVector((float) enemy.getPosition().getX(), (float) enemy.getPosition().getY()), 0xffFF1511, 30.0f, 20.0f);
+                    (float) enemy.getPosition().getX(), (float) enemy.getPosition().getY(), 0xffFF1511, 30.0f, 20.0f);
         }
         if (enemy instanceof DroneCarrier) {
             this.particles.emitParticles(400,
-                    new PVector((float) enemy.getPosition().getX(), (float) enemy.getPosition().getY()), 0xffFF1511, 30.0f, 20.0f, 4f, 4f);
+                    (float) enemy.getPosition().getX(), (float) enemy.getPosition().getY(), 0xffFF1511, 30.0f, 20.0f, 4f, 4f);
         }
                 if (enemy instanceof KamikazeDrone) {
             this.particles.emitParticles(20,
-                    new PVector((float) enemy.getPosition().getX(), (float) enemy.getPosition().getY()), 0xffFF1511, 30.0f, 20.0f);
+                    (float) enemy.getPosition().getX(), (float) enemy.getPosition().getY(), 0xffFF1511, 30.0f, 20.0f);
         }
     }
 
@@ -87,7 +97,7 @@ public class ExplosionManager implements FadingCanvas.Drawable {
      */
     public void explodeRocket(Rocket rocket) {
         this.particles.emitParticles(50,
-                new PVector((float) rocket.getPosition().getX(), (float) rocket.getPosition().getY()), rocket.getBackgroundColor(), 10f, 8f);
+                (float) rocket.getPosition().getX(), (float) rocket.getPosition().getY(), rocket.getBackgroundColor(), 10f, 8f);
     }
 
     /**
@@ -97,7 +107,7 @@ public class ExplosionManager implements FadingCanvas.Drawable {
      */
     public void explodePlayer(Player player) {
         this.particles.emitParticles(200,
-                new PVector((float) player.getPosition().getX(), (float) player.getPosition().getY()), player.getBackgroundColor(), 30f, 20f, 2f, 2f);
+                (float) player.getPosition().getX(), (float) player.getPosition().getY(), player.getBackgroundColor(), 30f, 20f, 2f, 2f);
     }
 
     
@@ -1,9 +1,14 @@
 package backend.main;
 
+import backend.actor.projectile.EMPPulse;
 import backend.resources.Image;
 import backend.resources.ResourceManager;
 import backend.resources.Shader;
-import java.util.ArrayList;
+import backend.resources.Sprite;
+import backend.snapshot.ActorSnapshot;
+import backend.snapshot.ActorType;
+import backend.snapshot.FrameSnapshot;
+import processing.core.PConstants;
 import processing.core.PGraphics;
 import processing.core.PImage;
 import processing.opengl.PShader;
@@ -12,28 +17,22 @@ import userinterface.GUIHandler;
 /**
  * The items drawn to the fading canvas get a fading trail when they move.
  *
- * This is used for the fireballs and the explosions.
+ * This is used for the fireballs, the explosions, the EMP pulses and the
+ * seeker missiles. They are drawn from the frame snapshot.
  *
  * @author pitmairen
  */
 public class FadingCanvas {
 
-    /**
-     * Represents an item that can be managed by the fading canvas.
-     */
-    public static interface Drawable {
-
-        /**
-         * Draws the item
-         *
-         * @param canvas the graphics object to use for the drawing
-         */
-        public void draw(PGraphics canvas);
-    }
+    // Colors.
+    private static final int ROCKET_COLOR = 0xFFE6C81E;
+    private static final int EMP_COLOR = 0xff2D91EF;
 
     private final PGraphics canvas;
     private final GUIHandler gui;
-    private final ArrayList<Drawable> items;
+    private final Sprite particleImage;
+    private final Sprite rocketImage;
+    private final Sprite seekerImage;
     private final PShader bgShader;
     private final PImage bgNoise;
     private int bgShaderCounter = 0; // Used to make the bg shader move with time
@@ -49,7 +48,10 @@ public class FadingCanvas {
         this.gui = gui;
         this.canvas = gui.createGraphics(gui.getWidth(),
                 gui.getHeight(), PGraphics.P3D);
-        this.items = new ArrayList<>();
+
+        particleImage = resources.getSprite(Image.PARTICLE);
+        rocketImage = resources.getSprite(Image.ROCKET);
+        seekerImage = resources.getSprite(Image.SEEKER_MISSILE);
         
         // Loads the background image from the src/main/resources/data folder.
         background = resources.getImage(Image.BACKGROUND_IMAGE);
@@ -57,28 +59,24 @@ public class FadingCanvas {
         
         bgShader = resources.getShader(Shader.BG_SHADER);
         bgNoise = resources.getImage(Image.BG_SHADER_NOISE);
-        bgShader.set("resolution", (float)gui.width, (float)gui.height);
-    }
-
-    /**
-     * Adds an item that should be managed by the fading canvas.
-     *
-     * The fading canvas will make sure the item is drawn.
-     *
-     * @param item the item to add
-     */
-    public void add(Drawable item) {
-        items.add(item);
+        // The resolution is a vec2 in the shader, so it must be set as floats.
+        float width = gui.width;
+        float height = gui.height;
+        bgShader.set("resolution", width, height);
     }
 
     /**
-     * Draws all the items that are managed by the fading canvas.
+     * Draws the items in the frame that have a fading trail.
      *
      * Draw must be called on each draw update. Because this canvas will draw
      * over the entire screen it must be called before any other drawing so that
      * nothing gets drawn over.
+     *
+     * @param frame the frame to draw
+     * @param alpha how far the frame is between the previous and the current
+     * tick (range: 0.0 - 1.0)
      */
-    public void draw() {
+    public void draw(FrameSnapshot frame, float alpha) {
         
         // Quick hack to prevent the vertical lines that was appearing on the background
         // after a certain time has passed. The counter cycles in the range
@@ -112,9 +110,9 @@ public class FadingCanvas {
         this.canvas.image(background, 0, 0, this.canvas.width, this.canvas.height);
 
         
-        for (Drawable it : items) {
-            it.draw(this.canvas);
-        }
+        drawParticles(frame);
+        drawRockets(frame, alpha);
+        drawPulsesAndMissiles(frame, alpha);
 
         this.canvas.endDraw();
         gui.tint(255); // Reset tint 
@@ -123,4 +121,96 @@ public class FadingCanvas {
         gui.blendMode(PGraphics.BLEND);
     }
 
+    /**
+     * Draws the particles of the explosions.
+     */
+    private void drawParticles(FrameSnapshot frame) {
+
+        // ADD causes the colors of objects that are drawn on top of eachother
+        // to be added together which creates a nice visual effect.
+        canvas.blendMode(PGraphics.ADD);
+        canvas.noStroke();
+
+        for (int i = 0; i < frame.getParticleCount(); i++) {
+            float x = frame.getParticleX(i);
+            float y = frame.getParticleY(i);
+            int color = frame.getParticleColor(i);
+            float opacity = frame.getParticleOpacity(i);
+            float size = frame.getParticleSize(i);
+
+            canvas.fill(color, opacity);
+            canvas.ellipse(x, y, 3, 3);
+            canvas.tint(color, opacity);
+            particleImage.draw(canvas, x, y, size, size);
+        }
+
+        canvas.blendMode(PGraphics.BLEND); // Reset blendMode
+    }
+
+    /**
+     * Draws the fireballs around the rockets.
+     */
+    private void drawRockets(FrameSnapshot frame, float alpha) {
+
+        canvas.blendMode(PGraphics.ADD);
+        canvas.imageMode(PConstants.CENTER);
+        canvas.ellipseMode(PConstants.CENTER);
+
+        for (int i = 0; i < frame.getActorCount(); i++) {
+            ActorSnapshot actor = frame.getActor(i);
+            if (actor.getType() != ActorType.ROCKET) {
+                continue;
+            }
+            float x = actor.getX(alpha);
+            float y = actor.getY(alpha);
+            float radius = actor.getRadius();
+
+            canvas.tint(ROCKET_COLOR, 155);
+            canvas.fill(ROCKET_COLOR, 200);
+            rocketImage.draw(canvas, x, y, radius * 2, radius * 2);
+            canvas.ellipse(x, y, radius / 2, radius / 2);
+        }
+
+        canvas.imageMode(PConstants.CORNER);
+        canvas.blendMode(PGraphics.BLEND); // Reset blendMode
+    }
+
+    /**
+     * Draws the EMP pulses and the seeker missiles.
+     */
+    private void drawPulsesAndMissiles(FrameSnapshot frame, float alpha) {
+
+        for (int i = 0; i < frame.getActorCount(); i++) {
+            ActorSnapshot actor = frame.getActor(i);
+            float x = actor.getX(alpha);
+            float y = actor.getY(alpha);
+
+            switch (actor.getType()) {
+                case EMP_PULSE: {
+                    float radius = actor.getRadius();
+                    canvas.blendMode(PGraphics.ADD);
+                    canvas.ellipseMode(PConstants.CENTER);
+                    canvas.fill(0, 0);
+                    //Gradually fade out the stroke as the pulse grows to the limit
+                    canvas.stroke(EMP_COLOR, 255 - 255 * radius / EMPPulse.PULSE_RADIUS_LIMIT);
+                    canvas.strokeWeight(8);
+                    canvas.ellipse(x, y, radius * 2, radius * 2);
+                    canvas.strokeWeight(0);
+                    canvas.blendMode(PGraphics.BLEND);
+                    break;
+                }
+                case SEEKER_MISSILE: {
+                    canvas.tint(0xffff0000);
+                    canvas.pushMatrix();
+                    canvas.translate(x, y);
+                    canvas.rotate(gui.millis() / 20.0f);
+                    canvas.imageMode(PImage.CENTER);
+                    seekerImage.draw(canvas, 0, 0, 20, 50);
+                    canvas.popMatrix();
+                    canvas.imageMode(PImage.CORNER);
+                    break;
+                }
+            }
+        }
+    }
 }
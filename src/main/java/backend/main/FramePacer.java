@@ -0,0 +1,210 @@
+package backend.main;
+
+/**
+ * Keeps a loop, like the drawing of the frames or the simulation thread, at
+ * a steady rate.
+ *
+ * The time is taken from System.nanoTime(). Each frame is due a whole
+ * period after the one before it, so the rate does not drift with the
+ * rounding of the waits. Thread.sleep() can wake up a millisecond or more
+ * late, so the pacer only sleeps until it is close to the deadline and spins
+ * for the rest. How close depends on how late the sleeps have woken up so
+ * far. A frame that is already late is not waited for, and if the loop falls
+ * a whole period behind, the next deadline starts over from now instead of
+ * running the missed frames back to back.
+ *
+ * The time between the frames is measured, and kept both as it is and
+ * smoothed, along with how much it varies from the period.
+ *
+ * With a rate of 0 the loop is uncapped. The pacer does not wait, and only
+ * measures. Used for benchmarks.
+ *
+ * @author pitmairen
+ */
+public class FramePacer {
+
+    private static final long SLEEP_TIME = 1000000;         // Nanoseconds asked for in each sleep.
+    private static final long MIN_SPIN_TIME = 200000;       // Nanoseconds always spun before a deadline.
+    private static final double SMOOTHING = 0.1;            // Weight of the newest frame.
+
+    private long period;            // Nanoseconds. 0 when uncapped.
+    private long deadline;          // When the next frame is due.
+    private long previousFrame;     // When the last frame started.
+
+    // The sleeps. The spin time is the mean time a sleep takes plus two
+    // deviations, so few sleeps run past the deadline.
+    private double meanSleep = SLEEP_TIME;
+    private double sleepVariance = 0;
+    private long spinTime;
+
+    // The frames, in milliseconds. Can be read from other threads, like the
+    // debug HUD.
+    private volatile double delta = 0;
+    private volatile double smoothedDelta = 0;
+    private volatile double jitter = 0;     // Smoothed deviation of the frame time from the period.
+    private volatile double maxJitter = 0;
+    private volatile long frames = 0;
+    private volatile long lateFrames = 0;   // Frames that started a whole period late.
+
+    /**
+     * Constructor.
+     *
+     * @param rate Frames per second, or 0 to not wait.
+     */
+    public FramePacer(double rate) {
+        setRate(rate);
+        updateSpinTime();
+        start();
+    }
+
+    /**
+     * Starts the first frame now. Called when the loop starts, if the pacer
+     * was created before.
+     */
+    public void start() {
+        previousFrame = System.nanoTime();
+        deadline = previousFrame + period;
+    }
+
+    /**
+     * Waits until the next frame is due, and starts it.
+     *
+     * @return the milliseconds since the previous frame started
+     * @throws InterruptedException if the thread is interrupted while it
+     * sleeps
+     */
+    public double waitForNextFrame() throws InterruptedException {
+
+        long now = System.nanoTime();
+        if (period > 0) {
+            while (deadline - now > spinTime) {
+                Thread.sleep(SLEEP_TIME / 1000000);
+                long woken = System.nanoTime();
+                updateSleepTime(woken - now);
+                now = woken;
+            }
+            while (deadline - now > 0) {
+                now = System.nanoTime();
+            }
+        }
+        startFrame(now);
+        return delta;
+    }
+
+    /**
+     * Clears the measurements of the frames.
+     */
+    public void resetStatistics() {
+        jitter = 0;
+        maxJitter = 0;
+        frames = 0;
+        lateFrames = 0;
+    }
+
+    private void startFrame(long now) {
+
+        delta = (now - previousFrame) / 1e6;
+        previousFrame = now;
+
+        if (period > 0) {
+            if (now - deadline >= period) {
+                lateFrames++;
+                deadline = now;
+            }
+            deadline += period;
+        }
+
+        double deviation = period > 0 ? Math.abs(delta - period / 1e6) : Math.abs(delta - smoothedDelta);
+        if (frames == 0) {
+            smoothedDelta = delta;
+            jitter = 0;
+        } else {
+            smoothedDelta += (delta - smoothedDelta) * SMOOTHING;
+            jitter += (deviation - jitter) * SMOOTHING;
+            maxJitter = Math.max(maxJitter, deviation);
+        }
+        frames++;
+    }
+
+    private void updateSleepTime(long slept) {
+        double difference = slept - meanSleep;
+        meanSleep += difference * SMOOTHING;
+        sleepVariance = (1 - SMOOTHING) * (sleepVariance + difference * difference * SMOOTHING);
+        updateSpinTime();
+    }
+
+    private void updateSpinTime() {
+        spinTime = Math.max((long) (meanSleep + 2 * Math.sqrt(sleepVariance)), MIN_SPIN_TIME);
+    }
+
+    // Getters.
+    /**
+     * Returns the milliseconds between the last two frames.
+     *
+     * @return the time
+     */
+    public double getDelta() {
+        return delta;
+    }
+
+    /**
+     * Returns the time between the frames, smoothed over the last frames.
+     *
+     * @return the time in milliseconds
+     */
+    public double getSmoothedDelta() {
+        return smoothedDelta;
+    }
+
+    /**
+     * Returns the frames per second, from the smoothed time between them.
+     *
+     * @return the rate, or 0 before the first frame
+     */
+    public double getMeasuredRate() {
+        return smoothedDelta > 0 ? 1000 / smoothedDelta : 0;
+    }
+
+    /**
+     * Returns how much the time between the frames varies from the period,
+     * or from the smoothed time when uncapped.
+     *
+     * @return the smoothed deviation in milliseconds
+     */
+    public double getJitter() {
+        return jitter;
+    }
+
+    public double getMaxJitter() {
+        return maxJitter;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getLateFrames() {
+        return lateFrames;
+    }
+
+    public double getRate() {
+        return period > 0 ? 1e9 / period : 0;
+    }
+
+    public boolean isUncapped() {
+        return period == 0;
+    }
+
+    // Setters.
+    /**
+     * Sets the frames per second. Takes effect after the next frame.
+     *
+     * @param rate Frames per second, or 0 to not wait.
+     */
+    public void setRate(double rate) {
+        if (rate < 0) {
+            throw new IllegalArgumentException("Frame rate must not be negative: " + rate);
+        }
+        period = rate > 0 ? Math.round(1e9 / rate) : 0;
+    }
+}
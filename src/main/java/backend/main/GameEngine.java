@@ -1,36 +1,57 @@
 package backend.main;
 
 import backend.actor.Actor;
+import backend.actor.Player;
+import backend.event.ActorDied;
+import backend.event.EventBus;
 import backend.level.Level;
 import backend.level.Level1;
 import backend.level.TestLevel;
-import backend.resources.Image;
+import backend.resources.AssetManifest;
 import backend.resources.ResourceManager;
 import backend.resources.Shader;
 import backend.resources.Sound;
-import backend.sound.OpenAL;
+import backend.snapshot.FrameSnapshot;
+import backend.snapshot.TripleBuffer;
+import backend.sound.EventSounds;
 import backend.sound.SoundManager;
+import backend.sound.SoundPriority;
 import userinterface.GUIHandler;
 
 import java.awt.event.KeyEvent;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Handles the simulation.
  *
+ * The simulation runs on its own thread once the assets are loaded. After
+ * each tick it publishes a FrameSnapshot that the GUI draws, so the GUI
+ * never touches the live actors. Input from the GUI is passed to the
+ * simulation thread with execute().
+ *
+ * The engine can also run headless, without a GUI, resources or sound. It
+ * is then stepped by the caller with step(), as fast as the CPU allows.
+ *
  * @author Kristian Honningsvag.
  */
 public class GameEngine {
 
-    private GUIHandler guiHandler;
+    private final EngineConfig config;
+    private final GUIHandler guiHandler;   // Null when headless.
     private CollisionDetector collisionDetector;
+    private ForkJoinPool pool;          // Null when the simulation has one thread.
+    private PhaseRunner phases;         // All the actors.
+    private PhaseRunner enemyPhases;
+    private PhaseRunner itemPhases;
+    private PhaseRunner projectilePhases;
     private Level currentLevel;
     private ExplosionManager explosionManager;
-    private RocketManager rocketManager;
-    private FadingCanvasItemManager fadingCanvasItems;
     private FadingCanvas fadingCanvas;
-    private SimulationState simulationState;
+    private volatile SimulationState simulationState;
     private ResourceManager resourceManager;
     private SoundManager soundManager;
 
@@ -45,64 +66,183 @@ public class GameEngine {
     private boolean swapOffensive = false;
     private boolean swapDefensive = false;
     private boolean pause = false;
-    private Timer pauseTimer = new Timer();
-    private Timer spawnTimer = new Timer();
+    private final SimulationClock clock = new SimulationClock();
+    private final TimerWheel timerWheel = new TimerWheel(clock);
+    private final EventBus events = new EventBus();
+    private final WorldRandom random;   // Seeded from the config.
+    private final Cooldown pauseCooldown = new Cooldown(clock, 0);
+    private final Cooldown spawnCooldown = new Cooldown(clock, 0);
     private boolean enter = false;
     private boolean spawnFrigate = false;
     private boolean spawnDrone = false;
     private boolean spawnCarrier = false;
     private boolean escape = false;
 
+    // Fixed timestep. The simulation advances in ticks of equal length,
+    // however long the frames take. The tick rate is taken from the config.
+    private static final int MAX_CATCH_UP_STEPS = 8;   // Ticks per frame before the simulation slows down.
+    private static final double MAX_FRAME_TIME = 250;  // Longer frames (milliseconds) are cut short.
+    private int tickRate;
+    private double tickTime;                // Milliseconds per tick.
+    private double accumulator = 0;         // Frame time that has not been simulated yet.
+    private long droppedTicks = 0;
+
+    // The systems of a tick and how often they run. The physics and the
+    // effects run on every tick. The rest is spread over the ticks.
+    private static final double AI_RATE = 30;      // Enemies think, times per second.
+    private static final double ITEM_RATE = 20;    // Items look for the player.
+    private static final double WAVE_RATE = 10;    // The level checks if the wave is cleared.
+    private SystemScheduler systems;    // Run in the ticks the world is simulated.
+    private SystemScheduler outputs;    // Run after every tick.
+
+    // Simulation thread.
+    private Thread simulationThread;
+    private final FramePacer simulationPacer = new FramePacer(0);  // Runs at the tick rate.
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final TripleBuffer<FrameSnapshot> frames = new TripleBuffer<>(FrameSnapshot::new);
+
+    // The mouse position, packed as two floats so the GUI can set it
+    // without a lock.
+    private volatile long aim = 0;
+
     // Sound levels.
     private float menuMusicLevel = 0.5f;
     private float gameMusicLevel = 0.4f;
     private boolean musicMuted = false;
 
     /**
-     * Constructor.
+     * Constructor. The world has the size of the window.
+     *
+     * The resource manager is created by the GUI, so this class does not
+     * depend on Processing and can be loaded in a plain JVM when headless.
      *
      * @param guiHandler
+     * @param resourceManager The resource manager of the GUI.
      */
-    public GameEngine(GUIHandler guiHandler) {
+    public GameEngine(GUIHandler guiHandler, ResourceManager resourceManager) {
 
         this.guiHandler = guiHandler;
+        this.config = new EngineConfig(guiHandler.getWidth(), guiHandler.getHeight());
+        config.setOuterWallThickness(guiHandler.getOuterWallThickness());
+        random = new WorldRandom(config.getSeed());
         collisionDetector = new CollisionDetector(this);
+        addSystems();
+        setTickRate(config.getTickRate());
+
+        this.resourceManager = resourceManager;
+        soundManager = new SoundManager(config, resourceManager);
+        addSubscribers();
 
-        resourceManager = new ResourceManager(guiHandler);
+        // The assets are decoded in the background while the loading screen
+        // is shown. finishLoading() is called when they are done.
         loadResources();
+        setSimulationState(SimulationState.LOADING);
+    }
 
-        fadingCanvasItems = new FadingCanvasItemManager();
-        explosionManager = new ExplosionManager(new ParticleEmitter(resourceManager));
-        rocketManager = new RocketManager(resourceManager);
-        fadingCanvas = new FadingCanvas(guiHandler, resourceManager);
+    /**
+     * Creates a headless engine. No resources are loaded, no frames are
+     * published and the sound is off unless the config enables it. The
+     * level is ready in the menu state; call step() to advance it.
+     *
+     * @param config The world size and tick rate.
+     */
+    public GameEngine(EngineConfig config) {
 
-        fadingCanvas.add(explosionManager);
-        fadingCanvas.add(rocketManager);
-        fadingCanvas.add(fadingCanvasItems);
+        this.guiHandler = null;
+        this.config = config;
+        random = new WorldRandom(config.getSeed());
+        collisionDetector = new CollisionDetector(this);
+        addSystems();
+        setTickRate(config.getTickRate());
 
-        soundManager = new SoundManager(guiHandler, resourceManager);
+        soundManager = new SoundManager(config, null);
+        addSubscribers();
+        explosionManager = new ExplosionManager(new ParticleEmitter(random.get(WorldRandom.Stream.PARTICLES)));
+        resetLevel();
+        setSimulationState(SimulationState.MENU_SCREEN);
+    }
 
-        try {
-            loadSounds();
-        } catch (OpenAL.ALError ex) {
-            System.out.println("Failed to load sounds");
-            System.exit(1);
+    /**
+     * Continues loading the assets. Called by the GUI on each frame while
+     * the loading screen is shown.
+     */
+    public void load() {
+        if (simulationThread == null && resourceManager.updateLoading()) {
+            finishLoading();
         }
+    }
+
+    /**
+     * Sets up the parts of the game that depend on the loaded assets, and
+     * starts the simulation thread.
+     *
+     * Runs on the animation thread, so the OpenGL and OpenAL uploads happen
+     * here.
+     */
+    private void finishLoading() {
+
+        resourceManager.packAtlas();
+
+        explosionManager = new ExplosionManager(new ParticleEmitter(random.get(WorldRandom.Stream.PARTICLES)));
+        fadingCanvas = new FadingCanvas(guiHandler, resourceManager);
+
+        loadSounds();
+        resourceManager.releaseSounds();
+        soundManager.startAudioThread();
         resetLevel();
+        resourceManager.markStartupComplete();
 
         setSimulationState(SimulationState.MENU_SCREEN);
+        showMainMenu();
+
+        publishFrame();
+        startSimulationThread();
+    }
+
+    /**
+     * Starts the thread that runs the simulation. It waits until the next
+     * tick is due, and advances the simulation by the time that has passed.
+     *
+     * The ticks are paced by a FramePacer, so each loop is one tick long to
+     * within a fraction of a millisecond, and advances the simulation by one
+     * tick.
+     */
+    private void startSimulationThread() {
+        simulationThread = new Thread(() -> {
+            simulationPacer.start();
+            while (true) {
+                try {
+                    update(simulationPacer.waitForNextFrame());
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        }, "Simulation");
+        simulationThread.setDaemon(true);
+        simulationThread.start();
+    }
+
+    /**
+     * Runs a task on the simulation thread before the next tick. Used by the
+     * GUI to change the game.
+     *
+     * @param command The task to run.
+     */
+    public void execute(Runnable command) {
+        commands.add(command);
     }
 
     /**
      * Creates the currentLevel.
      */
     private void resetLevel() {
-        fadingCanvasItems.clear();
-        rocketManager.clear();
         explosionManager.clear();
-//        currentLevel = new TestLevel(this, rocketManager, fadingCanvasItems);
-        currentLevel = new Level1(this, rocketManager, fadingCanvasItems);
+        timerWheel.clear();
+        events.clear();
+//        currentLevel = new TestLevel(this);
+        currentLevel = new Level1(this);
         soundManager.stop(Sound.GAME_MUSIC);
+        soundManager.releaseUnusedSounds();
     }
 
     /**
@@ -113,33 +253,142 @@ public class GameEngine {
     }
 
     /**
-     * The main loop of the simulation.
+     * Advances the simulation by the time the last frame took.
+     *
+     * The time is simulated in fixed ticks. What is left over is carried to
+     * the next call. If the simulation falls too far behind, the time it can
+     * not catch up is dropped, so a slow tick does not make the next ticks
+     * slower.
+     *
+     * @param frameTime Milliseconds since the previous call.
+     */
+    public void update(double frameTime) {
+
+        accumulator += Math.min(Math.max(frameTime, 0), MAX_FRAME_TIME);
+
+        int steps = 0;
+        while (accumulator >= tickTime) {
+            if (steps == MAX_CATCH_UP_STEPS) {
+                droppedTicks += (long) (accumulator / tickTime);
+                accumulator %= tickTime;
+                break;
+            }
+            run(tickTime);
+            accumulator -= tickTime;
+            steps++;
+        }
+    }
+
+    /**
+     * Simulates one tick without waiting for it to be due. Used to drive a
+     * headless engine.
+     */
+    public void step() {
+        run(tickTime);
+    }
+
+    /**
+     * Sets the number of simulation ticks per second.
+     *
+     * @param tickRate Ticks per second.
+     */
+    public void setTickRate(int tickRate) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("Tick rate must be positive: " + tickRate);
+        }
+        this.tickRate = tickRate;
+        this.tickTime = 1000.0 / tickRate;
+        this.accumulator = 0;
+        clock.setTickTime(tickTime);
+        simulationPacer.setRate(tickRate);
+        systems.setLoopRate(tickRate);
+        outputs.setLoopRate(tickRate);
+    }
+
+    /**
+     * Simulates one tick and publishes the frame.
+     *
+     * @param timePassed The length of the tick in milliseconds.
      */
     public void run(double timePassed) {
 
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            command.run();
+        }
+
+        // The actors are drawn between these positions and the ones after
+        // the tick. Actors that do not move stay where they are.
+        for (Actor actor : currentLevel.getActors()) {
+            actor.storePreviousPosition();
+        }
+
         checkUserInput(timePassed);
 
         switch (simulationState) {
-            case GAMEPLAY: {
-                cleanup(timePassed);
-                actAll(timePassed);
-                break;
-            }
+            case GAMEPLAY:
             case DEATH_SCREEN:
             case VICTORY_SCREEN: {
-                cleanup(timePassed);
-                actAll(timePassed);
+                cleanup();
+                systems.run(timePassed);
+                clock.advance(timePassed);
+                timerWheel.update();
                 break;
             }
         }
+        outputs.run(timePassed);
     }
 
     /**
-     * Remove dead actors.
+     * Copies what the GUI needs to draw into the next frame snapshot and
+     * hands it over.
      */
-    private void cleanup(double timePassed) {
+    private void publishFrame() {
 
-        this.explosionManager.update(timePassed);
+        FrameSnapshot frame = frames.getWriteBuffer();
+        frame.begin(simulationState, clock.getTick(), tickTime, tickRate, droppedTicks);
+
+        // Dead actors are removed at the start of the next tick, so they
+        // are left out here.
+        for (Actor actor : currentLevel.getActors()) {
+            if (actor.getCurrentHitPoints() > 0) {
+                actor.snapshot(frame.addActor());
+            }
+        }
+        explosionManager.snapshot(frame);
+
+        frame.setLevel(currentLevel.getLevelName(), currentLevel.getCurrentWave(),
+                currentLevel.getTimeToNextWave(), currentLevel.isOnLastWave(),
+                currentLevel.getEnemies().size(), currentLevel.getProjectiles().size(),
+                currentLevel.getItems().size());
+
+        Player player = currentLevel.getPlayer();
+        Actor lastHitBy = player.getWhoHitMeLast();
+        frame.setPlayer(player.getKillChain(), player.getScore(),
+                lastHitBy != null ? lastHitBy.getName() : null,
+                player.getPosition().getX(), player.getPosition().getY(),
+                player.getSpeedT().mag(), player.getHeading().getAngle2D(),
+                player.getSpeedT().getAngle2D());
+
+        frames.publish();
+    }
+
+    /**
+     * Returns the frame that was published last.
+     *
+     * @return the frame, or null if no frame has been published yet or the
+     * engine is headless
+     */
+    public FrameSnapshot getLatestFrame() {
+        return frames.read();
+    }
+
+    /**
+     * Remove dead actors. What their deaths lead to, like the explosions and
+     * the score, is done by the subscribers to ActorDied at the end of the
+     * tick.
+     */
+    private void cleanup() {
 
         // Remove dead actors.
         ArrayList<Actor> deadActors = new ArrayList<Actor>();
@@ -149,6 +398,7 @@ public class GameEngine {
             Actor actorInList = it.next();
             if (actorInList.getCurrentHitPoints() <= 0) {
                 actorInList.die();
+                events.post(new ActorDied(actorInList));
                 // it.remove();
                 deadActors.add(actorInList);
             }
@@ -157,26 +407,108 @@ public class GameEngine {
     }
 
     /**
-     * Make all actors act.
+     * Creates the pool and the systems of a tick, and what each of them
+     * waits for. See Actor for what each phase may do.
+     *
+     * The enemies, items and projectiles think at the same time, and the
+     * particles of the explosions are moved while the actors are. The
+     * enemies and the items think at a lower rate than the physics, and the
+     * forces they apply are held until they think again. The projectiles
+     * think on every tick, so the missiles steer smoothly.
+     *
+     * The systems that can play sounds run on the simulation thread, since
+     * the order of the sound commands is only kept within a thread.
+     */
+    private void addSystems() {
+
+        int threads = config.getSimulationThreads();
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        phases = new PhaseRunner(pool);
+        enemyPhases = new PhaseRunner(pool);
+        itemPhases = new PhaseRunner(pool);
+        projectilePhases = new PhaseRunner(pool);
+
+        systems = new SystemScheduler(config.getTickRate(), pool);
+        SystemScheduler.ScheduledSystem effects = systems.add("effects",
+                timePassed -> explosionManager.update(timePassed));
+        SystemScheduler.ScheduledSystem ai = systems.add("ai", AI_RATE, 1, false,
+                timePassed -> think(enemyPhases, currentLevel.getEnemies(), timePassed));
+        SystemScheduler.ScheduledSystem items = systems.add("items", ITEM_RATE, 2, false,
+                timePassed -> think(itemPhases, currentLevel.getItems(), timePassed));
+        SystemScheduler.ScheduledSystem guidance = systems.add("guidance", timePassed -> {
+            projectilePhases.begin(currentLevel.getProjectiles());
+            projectilePhases.runParallel(actor -> actor.think(timePassed));
+        });
+        SystemScheduler.ScheduledSystem move = systems.add("move", timePassed -> {
+            phases.begin(currentLevel.getActors());
+            phases.runParallel(actor -> actor.move(timePassed));
+        }, ai, items, guidance);
+        SystemScheduler.ScheduledSystem collisions = systems.add("collisions",
+                timePassed -> phases.runParallel(Actor::detectCollisions), move);
+        SystemScheduler.ScheduledSystem resolve = systems.addPinned("resolve",
+                timePassed -> phases.runInOrder(actor -> actor.resolve(timePassed)), collisions, effects);
+
+        // Spawn the next wave early if the wave is cleared, and count down
+        // to the next one. The timer spawns the wave itself when it runs out.
+        systems.add("waves", WAVE_RATE, 3, true, timePassed -> currentLevel.nextWave(), resolve);
+
+        // The events of the tick are delivered before the sounds are
+        // flushed and the frame is published, so both include them.
+        outputs = new SystemScheduler(config.getTickRate(), pool);
+        SystemScheduler.ScheduledSystem delivery = outputs.addPinned("events", timePassed -> events.deliver());
+        outputs.addPinned("sound", timePassed -> soundManager.flush(), delivery);
+        outputs.add("frame", timePassed -> {
+            if (guiHandler != null) {
+                publishFrame();
+            }
+        }, delivery);
+    }
+
+    /**
+     * Subscribes the sounds, the explosions and the score to the events of
+     * the ticks. The explosion manager and the level are replaced as the
+     * game goes on, so they are looked up when the events are delivered.
      */
-    private void actAll(double timePassed) {
+    private void addSubscribers() {
+        new EventSounds(soundManager).subscribe(events);
+        events.subscribe(ActorDied.class, deaths -> explosionManager.explode(deaths));
+        events.subscribe(ActorDied.class, deaths -> currentLevel.getPlayer().scoreKills(deaths));
+    }
 
-        // Make all actors act.
-        for (Actor actor : currentLevel.getActors()) {
-            actor.act(timePassed);
-        }
-        // Spawn the next wave if the timer has run out.
-        currentLevel.nextWave();
+    /**
+     * Lets a group of actors think at a lower rate than the ticks. Runs in
+     * parallel.
+     */
+    private void think(PhaseRunner runner, List<? extends Actor> actors, double timePassed) {
+        runner.begin(actors);
+        runner.runParallel(actor -> actor.thinkAndHold(timePassed));
     }
 
     /**
-     * Handles user input.
+     * Handles user input. The input is handled on the simulation thread.
      *
      * @param keyCode The button that was pressed.
      * @param keyState Whether the button was pressed or released.
      */
     public void userInput(int keyCode, boolean keyState) {
 
+        if (simulationState == SimulationState.LOADING) {
+            return;
+        }
+        execute(() -> handleInput(keyCode, keyState));
+    }
+
+    /**
+     * Sets the position the player aims at.
+     *
+     * @param x The x-position of the mouse.
+     * @param y The y-position of the mouse.
+     */
+    public void setAim(float x, float y) {
+        aim = ((long) Float.floatToIntBits(x) << 32) | (Float.floatToIntBits(y) & 0xffffffffL);
+    }
+
+    private void handleInput(int keyCode, boolean keyState) {
         if (keyCode == KeyEvent.VK_W) {
             up = keyState;
         }
@@ -248,6 +580,7 @@ public class GameEngine {
         switch (simulationState) {
 
             case GAMEPLAY: {
+                aimPlayer();
                 if (up) {
                     currentLevel.getPlayer().accelerate("up", timePassed);
                 }
@@ -276,29 +609,29 @@ public class GameEngine {
                     currentLevel.getPlayer().swapDefensiveModule();
                 }
                 if (pause) {
-                    if (pauseTimer.timePassed() >= 200) {
+                    if (pauseCooldown.isReady()) {
                         setSimulationState(SimulationState.PAUSE_SCREEN);
-                        guiHandler.showPauseMenu();
-                        pauseTimer.reset();
+                        showPauseMenu();
+                        pauseCooldown.start(200);
                     }
                 }
                 if (spawnDrone) {
-                    if (spawnTimer.timePassed() >= 200) {
+                    if (spawnCooldown.isReady()) {
                         currentLevel.getActorSpawner().spawnKamikazeDrone(1);
-                        spawnTimer.reset();
+                        spawnCooldown.start(200);
                     }
                 }
 
                 if (spawnFrigate) {
-                    if (spawnTimer.timePassed() >= 200) {
+                    if (spawnCooldown.isReady()) {
                         currentLevel.getActorSpawner().spawnFrigate(1);
-                        spawnTimer.reset();
+                        spawnCooldown.start(200);
                     }
                 }
                 if (spawnCarrier) {
-                    if (spawnTimer.timePassed() >= 200) {
+                    if (spawnCooldown.isReady()) {
                         currentLevel.getActorSpawner().spawnCarrier(1);
-                        spawnTimer.reset();
+                        spawnCooldown.start(200);
                     }
                 }
                 if (currentLevel.isOnLastWave() && currentLevel.getEnemies().isEmpty()) {
@@ -311,12 +644,13 @@ public class GameEngine {
                 if (enter) {
                     resetLevel();
                     setSimulationState(SimulationState.MENU_SCREEN);
-                    guiHandler.showMainMenu();
+                    showMainMenu();
                 }
                 break;
             }
 
             case VICTORY_SCREEN: {
+                aimPlayer();
                 if (up) {
                     currentLevel.getPlayer().accelerate("up", timePassed);
                 }
@@ -347,7 +681,7 @@ public class GameEngine {
                 if (enter) {
                     resetLevel();
                     setSimulationState(SimulationState.MENU_SCREEN);
-                    guiHandler.showMainMenu();
+                    showMainMenu();
                 }
                 break;
             }
@@ -356,92 +690,74 @@ public class GameEngine {
             case HELP_SCREEN: {
                 if (escape) {
                     setSimulationState(SimulationState.MENU_SCREEN);
-                    guiHandler.showMainMenu();
+                    showMainMenu();
                 }
                 break;
             }
             case HELP_SCREEN_PAUSED: {
                 if (escape) {
                     setSimulationState(SimulationState.PAUSE_SCREEN);
-                    guiHandler.showPauseMenu();
+                    showPauseMenu();
                 }
                 break;
             }
         }
     }
 
+    private void showMainMenu() {
+        if (guiHandler != null) {
+            guiHandler.showMainMenu();
+        }
+    }
+
+    private void showPauseMenu() {
+        if (guiHandler != null) {
+            guiHandler.showPauseMenu();
+        }
+    }
+
+    /**
+     * Points the player towards the mouse.
+     */
+    private void aimPlayer() {
+        long aim = this.aim;
+        currentLevel.getPlayer().aimAt(Float.intBitsToFloat((int) (aim >>> 32)), Float.intBitsToFloat((int) aim));
+    }
+
     private void loadResources() {
 
-        resourceManager.add(Image.PARTICLE, "particle.png");
-        resourceManager.add(Image.ROCKET, "particle.png");
-        resourceManager.add(Image.LASER_BEAM, "laser.png");
-        resourceManager.add(Image.SEEKER_MISSILE, "particle.png");
-        resourceManager.add(Image.BACKGROUND_IMAGE, "background.png");
-        resourceManager.add(Image.BG_SHADER_NOISE, "shader_noise.png");
-        resourceManager.add(Image.SHIELD_MODULE, "ResizedImages/ShieldModuleV2.png");
-        resourceManager.add(Image.SHIELD_NOISE, "shieldNoise.png");
-        resourceManager.add(Image.SHIELD_BACKGROUND, "shield.png");
-        resourceManager.add(Image.DRONE_LAUNCHER, "HighResAssets/DroneLauncher.png");
-        resourceManager.add(Image.ROCKET_LAUNCHER, "HighResAssets/RocketLauncherV2.png");
-        resourceManager.add(Image.SEEKER_CANNON, "ResizedImages/BombLauncherRed.png");
-        resourceManager.add(Image.EMP_CANNON, "ResizedImages/BombLauncherV2.png");
-        resourceManager.add(Image.LIGHT_CANNON, "ResizedImages/LightCannonV2.png");
-        resourceManager.add(Image.LASER_CANNON, "ResizedImages/Laser.png");
+        resourceManager.add(AssetManifest.createGameAssets());
 
         resourceManager.add(Shader.SHIELD_SHADER, "shield.glsl");
         resourceManager.add(Shader.BG_SHADER, "background.glsl");
+    }
 
-        resourceManager.add(Sound.EXPLOSION, "audio/sfx/explosion01.wav");
-        resourceManager.add(Sound.BOSS_DEATH, "audio/sfx/explosion02.wav");
-        resourceManager.add(Sound.BULLET_IMPACT, "audio/sfx/explosion03.wav");
-        resourceManager.add(Sound.CURSOR, "audio/sfx/cursor.wav");
-        resourceManager.add(Sound.CURSOR2, "audio/sfx/cursor2.wav");
-
-        resourceManager.add(Sound.AUTO_CANNON, "audio/sfx/fire.wav");
-        resourceManager.add(Sound.LASER, "audio/sfx/laser3.wav");
-        resourceManager.add(Sound.COLLISION, "audio/sfx/collision.wav");
-        resourceManager.add(Sound.EMP, "audio/sfx/emp01.wav");
-        resourceManager.add(Sound.GAMEOVER, "audio/sfx/gameover.wav");
-        resourceManager.add(Sound.MISSILE_LAUNCH, "audio/sfx/missile_launch1.wav");
-        resourceManager.add(Sound.MISSILE_EXPLOSION, "audio/sfx/explosion04.wav");
-        resourceManager.add(Sound.POWERUP, "audio/sfx/powerup.wav");
-        resourceManager.add(Sound.PICKUP, "audio/sfx/pickup.wav");
-        resourceManager.add(Sound.ACTIVATE_SHIELD, "audio/sfx/pickup.wav");
-        resourceManager.add(Sound.HEALTH_PICKUP, "audio/sfx/health.wav");
-
-        resourceManager.add(Sound.MENU_MUSIC, "audio/music/menu.wav");
-        resourceManager.add(Sound.GAME_MUSIC, "audio/music/ingame.wav");
-        resourceManager.add(Sound.GAMEOVER, "audio/music/gameover.wav");
-
-    }
-
-    private void loadSounds() throws OpenAL.ALError {
-
-        soundManager.addSound(Sound.EXPLOSION, 5);              //to be played when an actor dies
-        soundManager.addLoopingSound(Sound.LASER);              //laser weapon sfx
-        soundManager.addSound(Sound.AUTO_CANNON, 5);            //default weapon module sound
-        soundManager.addSound(Sound.COLLISION, 1);              //player bumping into objects
-        soundManager.addSound(Sound.CURSOR, 5);                 //moving cursor on the menus
-        soundManager.addSound(Sound.CURSOR2, 5);                //moving cursor on the menus
+    private void loadSounds() {
+
+        soundManager.addSound(Sound.EXPLOSION, SoundPriority.NORMAL);           //to be played when an actor dies
+        soundManager.addLoopingSound(Sound.LASER);                              //laser weapon sfx
+        soundManager.addSound(Sound.AUTO_CANNON, SoundPriority.LOW);            //default weapon module sound
+        soundManager.addSound(Sound.COLLISION, SoundPriority.LOW);              //player bumping into objects
+        soundManager.addSound(Sound.CURSOR, SoundPriority.HIGH);                //moving cursor on the menus
+        soundManager.addSound(Sound.CURSOR2, SoundPriority.HIGH);               //moving cursor on the menus
         soundManager.setVolume(Sound.CURSOR2, 0.6f);
-        soundManager.addSound(Sound.GAMEOVER, 1);
+        soundManager.addSound(Sound.GAMEOVER, SoundPriority.CRITICAL);          //gameover tune, plays when player dies
         soundManager.setVolume(Sound.GAMEOVER, 0.7f);
-        soundManager.addLoopingSound(Sound.GAME_MUSIC);         //game tune
+        soundManager.addStreamingSound(Sound.GAME_MUSIC);                       //game tune
         soundManager.setVolume(Sound.GAME_MUSIC, gameMusicLevel);
-        soundManager.addLoopingSound(Sound.MENU_MUSIC);
+        soundManager.addStreamingSound(Sound.MENU_MUSIC);
         soundManager.setVolume(Sound.MENU_MUSIC, menuMusicLevel);
-        soundManager.addSound(Sound.EMP, 5);
-        soundManager.addSound(Sound.PICKUP, 5);                 //picking up power up modules
+        soundManager.addSound(Sound.EMP, SoundPriority.HIGH);
+        soundManager.addSound(Sound.PICKUP, SoundPriority.NORMAL);              //picking up power up modules
         soundManager.setVolume(Sound.PICKUP, 0.6f);
-        soundManager.addSound(Sound.POWERUP, 5);                //swapping between powerup modules
-        soundManager.addSound(Sound.BOSS_DEATH, 5);             //to be played when a large drone dies
-        soundManager.addSound(Sound.GAMEOVER, 5);               //gameover tune, plays when player dies
-        soundManager.addSound(Sound.MISSILE_LAUNCH, 5);         //missile regular/heat seeking launching
-        soundManager.addSound(Sound.MISSILE_EXPLOSION, 5);      //exploding missile
-        soundManager.addSound(Sound.ACTIVATE_SHIELD, 1);        //activate the shield
-        soundManager.addSound(Sound.BULLET_IMPACT, 5);          //sound of default weapon projectiles hitting enemy
+        soundManager.addSound(Sound.POWERUP, SoundPriority.NORMAL);             //swapping between powerup modules
+        soundManager.addSound(Sound.BOSS_DEATH, SoundPriority.CRITICAL);        //to be played when a large drone dies
+        soundManager.addSound(Sound.MISSILE_LAUNCH, SoundPriority.LOW);         //missile regular/heat seeking launching
+        soundManager.addSound(Sound.MISSILE_EXPLOSION, SoundPriority.NORMAL);   //exploding missile
+        soundManager.addSound(Sound.ACTIVATE_SHIELD, SoundPriority.NORMAL);     //activate the shield
+        soundManager.addSound(Sound.BULLET_IMPACT, SoundPriority.LOW);          //sound of default weapon projectiles hitting enemy
         soundManager.setVolume(Sound.BULLET_IMPACT, 0.3f);
-        soundManager.addSound(Sound.HEALTH_PICKUP, 5);          //sound of picking up health orbs
+        soundManager.addSound(Sound.HEALTH_PICKUP, SoundPriority.NORMAL);       //sound of picking up health orbs
         soundManager.setVolume(Sound.HEALTH_PICKUP, 0.8f);
     }
 
@@ -450,6 +766,42 @@ public class GameEngine {
         return guiHandler;
     }
 
+    public WorldRandom getRandom() {
+        return random;
+    }
+
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    public TimerWheel getTimerWheel() {
+        return timerWheel;
+    }
+
+    public EventBus getEvents() {
+        return events;
+    }
+
+    public FramePacer getSimulationPacer() {
+        return simulationPacer;
+    }
+
+    public SystemScheduler getSystems() {
+        return systems;
+    }
+
+    public SystemScheduler getOutputs() {
+        return outputs;
+    }
+
+    public EngineConfig getConfig() {
+        return config;
+    }
+
+    public boolean isHeadless() {
+        return guiHandler == null;
+    }
+
     public SimulationState getSimulationState() {
         return simulationState;
     }
@@ -478,6 +830,14 @@ public class GameEngine {
         return soundManager;
     }
 
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
     // Setters.
     public void setSimulationState(SimulationState simulationState) {
         updateMusic(simulationState, this.simulationState);
@@ -489,18 +849,16 @@ public class GameEngine {
         switch (newState) {
 
             case GAMEPLAY:
-                currentLevel.getTimer().start();
-                soundManager.play(Sound.GAME_MUSIC, new Vector(guiHandler.width / 2, guiHandler.height / 2, 0));
+                soundManager.play(Sound.GAME_MUSIC, new Vector(config.getWorldWidth() / 2, config.getWorldHeight() / 2, 0));
                 soundManager.stop(Sound.MENU_MUSIC);
                 break;
             case PAUSE_SCREEN:
-                currentLevel.getTimer().pause();
                 soundManager.pause(Sound.GAME_MUSIC);
                 break;
             case MENU_SCREEN:
                 soundManager.stop(Sound.GAME_MUSIC);
                 if (oldState != SimulationState.CREDITS_SCREEN && oldState != SimulationState.HELP_SCREEN) {
-                    soundManager.play(Sound.MENU_MUSIC, new Vector(guiHandler.width / 2, guiHandler.height / 2, 0));
+                    soundManager.play(Sound.MENU_MUSIC, new Vector(config.getWorldWidth() / 2, config.getWorldHeight() / 2, 0));
                 }
                 break;
             case DEATH_SCREEN:
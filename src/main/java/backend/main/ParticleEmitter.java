@@ -1,11 +1,7 @@
 package backend.main;
 
-import backend.resources.Image;
-import backend.resources.ResourceManager;
-import java.util.Random;
-import processing.core.PGraphics;
-import processing.core.PImage;
-import processing.core.PVector;
+import backend.snapshot.FrameSnapshot;
+import java.util.SplittableRandom;
 
 /**
  * The particle emitter manages all the particles in the explosions.
@@ -18,9 +14,11 @@ import processing.core.PVector;
  * The update method should be called once every frame with a time delta that
  * has passed since the last update.
  *
- * The particles are drawn onto a PGraphics object with the draw method. The
- * PGrapahics is used to be able to create some fading effects. It also seems to
- * be faster.
+ * The particles are plain numbers, so the emitter does not depend on
+ * Processing and runs in a headless engine.
+ *
+ * The live particles are copied to the frame snapshot after each update. The
+ * renderer draws them onto the fading canvas.
  *
  * @author pitmairen
  */
@@ -28,24 +26,25 @@ public class ParticleEmitter {
 
     private final int PARTICLE_LIMIT = 1000;
 
+    // The life and opacity steps are given per 1/60 second. The time delta
+    // is given in units of 25 ms.
+    private static final float STEPS_PER_TIME_UNIT = 25f / (1000f / 60f);
+
     private final Particle[] particles;
 
     // The current number of live particles
     private int particleCount = 0;
 
-    private final Random random = new Random();
-
-    // Background image used for the particles
-    private final PImage particleImage;
+    private final SplittableRandom random;
 
     /**
      * Constructor.
-     * @param resources the resource manager
+     *
+     * @param random the random numbers for the particles
      */
-    public ParticleEmitter(ResourceManager resources) {
-
-        particleImage = resources.getImage(Image.PARTICLE);
+    public ParticleEmitter(SplittableRandom random) {
 
+        this.random = random;
         this.particles = new Particle[PARTICLE_LIMIT];
 
         // Create the particle pool
@@ -59,11 +58,12 @@ public class ParticleEmitter {
      * directions.
      *
      * @param count the number of particles
-     * @param position the position to emit the particles from
+     * @param x the x-position to emit the particles from
+     * @param y the y-position to emit the particles from
      * @param particleColor the color of the particles
      */
-    public void emitParticles(int count, PVector position, int particleColor) {
-        emitParticles(count, position, particleColor, 15.0f, 10.0f, 8f, 6f);
+    public void emitParticles(int count, float x, float y, int particleColor) {
+        emitParticles(count, x, y, particleColor, 15.0f, 10.0f, 8f, 6f);
     }
 
     
@@ -72,14 +72,15 @@ public class ParticleEmitter {
      * directions.
      *
      * @param count the number of particles
-     * @param position the position to emit the particles from
+     * @param x the x-position to emit the particles from
+     * @param y the y-position to emit the particles from
      * @param particleColor the color of the particles
      * @param sizeLimit the maximum size of the particles
      * @param speedLimit the maximum speed of the particles
      * 
      */
-    public void emitParticles(int count, PVector position, int particleColor, float sizeLimit, float speedLimit) {
-        emitParticles(count, position, particleColor, sizeLimit, speedLimit, 8f, 6f);
+    public void emitParticles(int count, float x, float y, int particleColor, float sizeLimit, float speedLimit) {
+        emitParticles(count, x, y, particleColor, sizeLimit, speedLimit, 8f, 6f);
     }
     
     /**
@@ -87,7 +88,8 @@ public class ParticleEmitter {
      * directions.
      *
      * @param count the number of particles
-     * @param position the position to emit the particles from
+     * @param x the x-position to emit the particles from
+     * @param y the y-position to emit the particles from
      * @param particleColor the color of the particles
      * @param sizeLimit the maximum size of the particles
      * @param speedLimit the maximum speed of the particles
@@ -95,12 +97,15 @@ public class ParticleEmitter {
      * @param lifeStep how much the particles life is reduced on each update
      * 
      */
-    public void emitParticles(int count, PVector position, int particleColor, float sizeLimit, float speedLimit, float opacityStep, float lifeStep) {
+    public void emitParticles(int count, float x, float y, int particleColor, float sizeLimit, float speedLimit, float opacityStep, float lifeStep) {
 
         for (int i=0; i < count; i++) {
+            double direction = this.random.nextDouble() * Math.PI * 2;
+            float speed = this.randomRange(0.2f, speedLimit);
             this.particles[(particleCount + i) % PARTICLE_LIMIT].reset(
-                    position.copy(),
-                    PVector.random2D().mult(this.randomRange(0.2f, speedLimit)), // Velocity
+                    x, y,
+                    (float) Math.cos(direction) * speed, // Velocity
+                    (float) Math.sin(direction) * speed,
                     particleColor,
                     this.randomRange(2.0f, sizeLimit), // Particle size
                     opacityStep,
@@ -137,13 +142,14 @@ public class ParticleEmitter {
     }
 
     /**
-     * Draws the particles onto the canvas
+     * Adds the live particles to the frame
      *
-     * @param canvas the canvas to draw to
+     * @param frame the frame to add the particles to
      */
-    public void draw(PGraphics canvas) {
+    public void snapshot(FrameSnapshot frame) {
         for (int i = 0; i < this.particleCount; i++) {
-            this.particles[i].draw(canvas);
+            Particle p = this.particles[i];
+            frame.addParticle(p.x, p.y, p.particleColor, p.opacity, p.size);
         }
     }
 
@@ -151,7 +157,7 @@ public class ParticleEmitter {
      *
      */
     private float randomRange(float min, float max) {
-        return min + this.random.nextFloat() * ((max - min) + 1);
+        return min + (float) this.random.nextDouble() * ((max - min) + 1);
     }
     
     /**
@@ -173,8 +179,10 @@ public class ParticleEmitter {
      */
     private class Particle {
 
-        private PVector position = new PVector();
-        private PVector velocity = new PVector();
+        private float x;
+        private float y;
+        private float velocityX;
+        private float velocityY;
 
         // Its alive util life is 0
         private float life = 255;
@@ -195,33 +203,27 @@ public class ParticleEmitter {
          *
          */
         public void update(float timeDelta) {
-            this.position.add(this.velocity.copy().mult(timeDelta));
-            this.life -= lifeStep; //(timeDelta * lifeStep);
-            this.opacity -= opacityStep; //(opacityStep + this.velocity.mag());
-        }
-
-        /**
-         *
-         */
-        public void draw(PGraphics canvas) {
-            canvas.fill(this.particleColor, this.opacity);
-            canvas.ellipse(this.position.x, this.position.y, 3, 3);
-            canvas.tint(this.particleColor, this.opacity);
-            canvas.image(ParticleEmitter.this.particleImage, this.position.x, this.position.y, this.size, this.size);
+            this.x += this.velocityX * timeDelta;
+            this.y += this.velocityY * timeDelta;
+            this.life -= lifeStep * timeDelta * STEPS_PER_TIME_UNIT;
+            this.opacity -= opacityStep * timeDelta * STEPS_PER_TIME_UNIT;
         }
 
         /**
          * Resets the particle
          */
-        public void reset(PVector position, PVector velocity, int pColor, float size, float opacityStep, float lifeStep) {
-            this.position = position;
-            this.velocity = velocity;
+        public void reset(float x, float y, float velocityX, float velocityY, int pColor, float size, float opacityStep, float lifeStep) {
+            this.x = x;
+            this.y = y;
+            this.velocityX = velocityX;
+            this.velocityY = velocityY;
+            float speed = (float) Math.sqrt(velocityX * velocityX + velocityY * velocityY);
             this.particleColor = pColor;
             this.life = 255;
             this.size = size;
             this.opacity = 255;
-            this.opacityStep = opacityStep + velocity.mag()/2.0f; // Make faster particles die quicker
-            this.lifeStep = lifeStep + velocity.mag()/2.0f;
+            this.opacityStep = opacityStep + speed/2.0f; // Make faster particles die quicker
+            this.lifeStep = lifeStep + speed/2.0f;
         }
 
         /**
@@ -0,0 +1,122 @@
+package backend.main;
+
+import backend.actor.Actor;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Runs the phases of a tick over the actors.
+ *
+ * The actors are copied to an array at the start of the tick, so actors that
+ * are added during the tick wait until the next one. A parallel phase is
+ * split into chunks that run on a fork/join pool. Small phases, and all
+ * phases when there is only one thread, run on the calling thread.
+ *
+ * Groups of actors that are updated at the same time, from different tasks
+ * of the tick, each need a runner of their own. The runners share the pool.
+ *
+ * @author pitmairen
+ */
+public class PhaseRunner {
+
+    // Actors per task. Smaller chunks are not worth handing to another thread.
+    private static final int CHUNK_SIZE = 32;
+
+    private final ForkJoinPool pool;   // Null if there is only one thread.
+    private Actor[] actors = new Actor[64];
+    private int count = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param pool The pool the parallel phases run on, or null to run them
+     * on the calling thread.
+     */
+    public PhaseRunner(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Takes the actors that the next phases run over.
+     *
+     * @param list The actors of the level, or a group of them.
+     */
+    public void begin(List<? extends Actor> list) {
+        int previousCount = count;
+        actors = list.toArray(actors);
+        count = list.size();
+        if (previousCount > count) {
+            Arrays.fill(actors, count, previousCount, null);  // Let the removed actors go.
+        }
+    }
+
+    /**
+     * Runs a phase on all the actors in parallel. The phase must only change
+     * the actor it is given.
+     *
+     * @param phase The phase to run.
+     */
+    public void runParallel(Consumer<Actor> phase) {
+        if (pool == null || count <= CHUNK_SIZE) {
+            runInOrder(phase);
+        } else if (ForkJoinTask.getPool() == pool) {
+            new Chunk(phase, 0, count).invoke();    // Already on the pool, from a task of the tick.
+        } else {
+            pool.invoke(new Chunk(phase, 0, count));
+        }
+    }
+
+    /**
+     * Runs a phase on all the actors, one at a time in list order.
+     *
+     * @param phase The phase to run.
+     */
+    public void runInOrder(Consumer<Actor> phase) {
+        for (int i = 0; i < count; i++) {
+            phase.accept(actors[i]);
+        }
+    }
+
+    /**
+     * Returns the number of threads the parallel phases use.
+     *
+     * @return the number of threads
+     */
+    public int getThreadCount() {
+        return pool != null ? pool.getParallelism() : 1;
+    }
+
+    /**
+     * A part of the actor array. Split in two until it is small enough.
+     */
+    private class Chunk extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Consumer<Actor> phase;
+        private final int from;
+        private final int to;
+
+        public Chunk(Consumer<Actor> phase, int from, int to) {
+            this.phase = phase;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                for (int i = from; i < to; i++) {
+                    phase.accept(actors[i]);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Chunk(phase, from, middle), new Chunk(phase, middle, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package backend.main;
+
+/**
+ * The time of one game world.
+ *
+ * The clock is advanced by the game engine after each tick the world is
+ * simulated, so it counts simulated time and not real time. A world that is
+ * run faster or slower than real time, like a headless world in a batch run,
+ * sees the same time passing as one that is played. While the game is paused
+ * or in the menus the clock stands still, and so does everything that is
+ * timed by it.
+ *
+ * Cooldowns are kept as the tick they end at. See Cooldown.
+ *
+ * @author pitmairen
+ */
+public class SimulationClock {
+
+    private long tick = 0;
+    private double time = 0;        // Milliseconds.
+    private double tickTime = 1;    // Milliseconds per tick. Set by the game engine.
+
+    /**
+     * Moves the clock past a tick.
+     *
+     * @param timePassed The length of the tick in milliseconds.
+     */
+    public void advance(double timePassed) {
+        tick++;
+        time += timePassed;
+    }
+
+    /**
+     * Returns the number of ticks it takes for a time to pass. Rounded up,
+     * so the time has always passed when the ticks have.
+     *
+     * @param duration The time in milliseconds.
+     * @return the number of ticks
+     */
+    public long toTicks(double duration) {
+        if (duration <= 0) {
+            return 0;
+        }
+        // The small margin keeps rounding errors from adding a tick.
+        return (long) Math.ceil(duration / tickTime - 1e-9);
+    }
+
+    // Getters.
+    /**
+     * Returns the number of ticks that have been simulated.
+     *
+     * @return the tick count
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Returns the simulated time in milliseconds.
+     *
+     * @return the time
+     */
+    public double getTime() {
+        return time;
+    }
+
+    public double getTickTime() {
+        return tickTime;
+    }
+
+    // Setters.
+    public void setTickTime(double tickTime) {
+        this.tickTime = tickTime;
+    }
+}
@@ -7,6 +7,7 @@ package backend.main;
  */
 public enum SimulationState {
     
+    LOADING,
     MENU_SCREEN,
     HELP_SCREEN,
     HELP_SCREEN_PAUSED,
@@ -0,0 +1,245 @@
+package backend.main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Runs the systems of a loop, each at its own rate.
+ *
+ * The scheduler is run once per step of the loop, like a simulation tick or
+ * a drawn frame. A system with a lower rate than the loop runs every n-th
+ * step, and is given the time that has passed since it last ran. The phase
+ * offset picks which of the n steps it runs on, so the slow systems can be
+ * spread over the steps instead of all running on the same one.
+ *
+ * The systems form a task graph. A system names the systems it must run
+ * after, and systems that do not depend on each other run at the same time
+ * on the pool. See TaskGraph.
+ *
+ * The time each system takes is measured, so it can be shown in the debug
+ * HUD.
+ *
+ * @author pitmairen
+ */
+public class SystemScheduler {
+
+    /**
+     * A system and its timings.
+     */
+    public static class ScheduledSystem {
+
+        private final String name;
+        private final double rate;          // Runs per second. 0 to run every step.
+        private final int offset;           // Steps.
+        private final DoubleConsumer task;
+        private TaskGraph.Task graphTask;
+        private volatile int period = 1;    // Steps between runs.
+        private double pendingTime = 0;     // Milliseconds since the last run.
+        private volatile long runs = 0;
+        private volatile double lastTime = 0;    // Milliseconds.
+        private volatile double meanTime = 0;    // Milliseconds, smoothed.
+        private volatile double maxTime = 0;     // Milliseconds.
+
+        private ScheduledSystem(String name, double rate, int offset, DoubleConsumer task) {
+            this.name = name;
+            this.rate = rate;
+            this.offset = offset;
+            this.task = task;
+        }
+
+        private void run() {
+            task.accept(pendingTime);
+            pendingTime = 0;
+        }
+
+        private void updateTimings() {
+            double time = graphTask.getTime();
+            lastTime = time;
+            meanTime = runs == 0 ? time : meanTime * 0.95 + time * 0.05;
+            maxTime = Math.max(maxTime, time);
+            runs++;
+        }
+
+        // Getters.
+        public String getName() {
+            return name;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public int getPeriod() {
+            return period;
+        }
+
+        public long getRuns() {
+            return runs;
+        }
+
+        public double getLastTime() {
+            return lastTime;
+        }
+
+        public double getMeanTime() {
+            return meanTime;
+        }
+
+        public double getMaxTime() {
+            return maxTime;
+        }
+    }
+
+    private final ArrayList<ScheduledSystem> systems = new ArrayList<>();
+    private final TaskGraph graph;
+    private double loopRate;
+    private long step = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param loopRate The steps per second of the loop.
+     * @param pool The pool the systems run on, or null to run them one at a
+     * time on the calling thread.
+     */
+    public SystemScheduler(double loopRate, ForkJoinPool pool) {
+        this.graph = new TaskGraph(pool);
+        setLoopRate(loopRate);
+    }
+
+    /**
+     * Adds a system that runs on every step, on the pool.
+     *
+     * @param name The name shown with the timings.
+     * @param task The system. Given the milliseconds since it last ran.
+     * @param after The systems that must be done first.
+     * @return the system
+     */
+    public ScheduledSystem add(String name, DoubleConsumer task, ScheduledSystem... after) {
+        return add(name, 0, 0, false, task, after);
+    }
+
+    /**
+     * Adds a system that runs on every step, on the thread that runs the
+     * scheduler.
+     *
+     * @param name The name shown with the timings.
+     * @param task The system. Given the milliseconds since it last ran.
+     * @param after The systems that must be done first.
+     * @return the system
+     */
+    public ScheduledSystem addPinned(String name, DoubleConsumer task, ScheduledSystem... after) {
+        return add(name, 0, 0, true, task, after);
+    }
+
+    /**
+     * Adds a system.
+     *
+     * @param name The name shown with the timings.
+     * @param rate Runs per second. Rounded to a whole number of steps, and
+     * never more than once per step. 0 to run on every step.
+     * @param offset The step within the period the system runs on.
+     * @param pinned True to run the system on the thread that runs the
+     * scheduler, false to run it on the pool.
+     * @param task The system. Given the milliseconds since it last ran.
+     * @param after The systems that must be done first. Systems that wait on
+     * a system that does not run on a step go on without it.
+     * @return the system
+     */
+    public ScheduledSystem add(String name, double rate, int offset, boolean pinned, DoubleConsumer task,
+            ScheduledSystem... after) {
+        if (rate < 0 || offset < 0) {
+            throw new IllegalArgumentException("Rate and offset must not be negative: " + rate + ", " + offset);
+        }
+        ScheduledSystem system = new ScheduledSystem(name, rate, offset, task);
+        TaskGraph.Task[] dependencies = new TaskGraph.Task[after.length];
+        for (int i = 0; i < after.length; i++) {
+            dependencies[i] = after[i].graphTask;
+        }
+        system.graphTask = pinned
+                ? graph.addPinned(name, system::run, dependencies)
+                : graph.add(name, system::run, dependencies);
+        system.period = periodOf(rate);
+        systems.add(system);
+        return system;
+    }
+
+    /**
+     * Runs one step of the loop: the systems that are due.
+     *
+     * @param timePassed The length of the step in milliseconds.
+     */
+    public void run(double timePassed) {
+        start(timePassed);
+        join();
+    }
+
+    /**
+     * Starts a step of the loop. The systems on the pool start running, and
+     * the calling thread can do other work before it calls join().
+     *
+     * @param timePassed The length of the step in milliseconds.
+     */
+    public void start(double timePassed) {
+        for (int i = 0; i < systems.size(); i++) {
+            ScheduledSystem system = systems.get(i);
+            system.pendingTime += timePassed;
+            system.graphTask.setEnabled(step % system.period == system.offset % system.period);
+        }
+        graph.start();
+    }
+
+    /**
+     * Runs the pinned systems and waits for the step to finish.
+     */
+    public void join() {
+        graph.join();
+        for (int i = 0; i < systems.size(); i++) {
+            ScheduledSystem system = systems.get(i);
+            if (system.graphTask.isEnabled()) {
+                system.updateTimings();
+            }
+        }
+        step++;
+    }
+
+    private int periodOf(double rate) {
+        if (rate == 0 || rate >= loopRate) {
+            return 1;
+        }
+        return (int) Math.round(loopRate / rate);
+    }
+
+    // Getters.
+    public List<ScheduledSystem> getSystems() {
+        return Collections.unmodifiableList(systems);
+    }
+
+    public TaskGraph getGraph() {
+        return graph;
+    }
+
+    public double getLoopRate() {
+        return loopRate;
+    }
+
+    // Setters.
+    /**
+     * Sets the steps per second of the loop. The periods of the systems are
+     * worked out again.
+     *
+     * @param loopRate Steps per second.
+     */
+    public void setLoopRate(double loopRate) {
+        if (loopRate <= 0) {
+            throw new IllegalArgumentException("Loop rate must be positive: " + loopRate);
+        }
+        this.loopRate = loopRate;
+        for (ScheduledSystem system : systems) {
+            system.period = periodOf(system.rate);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package backend.main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a set of tasks that depend on each other, like the systems of a
+ * tick.
+ *
+ * Each task is started as soon as the tasks it depends on are done. Tasks
+ * that do not depend on each other run at the same time on a fork/join
+ * pool, where idle threads steal work from the busy ones. Tasks that must
+ * run on the calling thread, like the ones that play sounds, are pinned to
+ * it. The calling thread runs them between start() and join(), and can do
+ * work of its own before that.
+ *
+ * Without a pool all the tasks run on the calling thread, in the order they
+ * were added.
+ *
+ * When profiling is on, the critical path of the last run is kept: the chain
+ * of tasks, each waiting on the one before it, that decided how long the
+ * run took.
+ *
+ * @author pitmairen
+ */
+public class TaskGraph {
+
+    /**
+     * A task in the graph.
+     */
+    public static class Task {
+
+        private final String name;
+        private final Runnable work;
+        private final boolean pinned;
+        private final Task[] dependencies;
+        private final ArrayList<Task> dependents = new ArrayList<>();
+        private final AtomicInteger waiting = new AtomicInteger();
+        private boolean enabled = true;
+        private volatile long start;    // Nanoseconds since the start of the run.
+        private volatile long end;
+
+        private Task(String name, Runnable work, boolean pinned, Task[] dependencies) {
+            this.name = name;
+            this.work = work;
+            this.pinned = pinned;
+            this.dependencies = dependencies;
+        }
+
+        /**
+         * Returns how long the task took in the last run.
+         *
+         * @return the time in milliseconds, or 0 if it was disabled
+         */
+        public double getTime() {
+            return (end - start) / 1e6;
+        }
+
+        // Getters.
+        public String getName() {
+            return name;
+        }
+
+        public boolean isPinned() {
+            return pinned;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        // Setters.
+        /**
+         * Sets if the task runs in the next run. A disabled task is skipped,
+         * and the tasks that depend on it go on as if it was done.
+         *
+         * @param enabled true to run the task
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    private final ForkJoinPool pool;    // Null to run everything on the calling thread.
+    private final ArrayList<Task> tasks = new ArrayList<>();
+    private final ArrayList<Task> roots = new ArrayList<>();
+
+    // The state of the current run.
+    private final LinkedBlockingQueue<Task> ready = new LinkedBlockingQueue<>();  // Pinned tasks that can run.
+    private final AtomicInteger finished = new AtomicInteger();
+    private final Task done = new Task("done", null, true, new Task[0]);   // Put on the queue when all are done.
+    private volatile Throwable failure;
+    private long startTime;
+    private boolean running = false;
+
+    private volatile boolean profiling = false;
+    private volatile String criticalPath = "";
+
+    /**
+     * Constructor.
+     *
+     * @param pool The pool the tasks run on, or null to run them on the
+     * calling thread.
+     */
+    public TaskGraph(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Adds a task that runs on the pool.
+     *
+     * @param name The name shown in the critical path.
+     * @param work The work of the task.
+     * @param dependencies The tasks that must be done first. Must already be
+     * in the graph.
+     * @return the task
+     */
+    public Task add(String name, Runnable work, Task... dependencies) {
+        return add(name, work, false, dependencies);
+    }
+
+    /**
+     * Adds a task that runs on the thread that runs the graph.
+     *
+     * @param name The name shown in the critical path.
+     * @param work The work of the task.
+     * @param dependencies The tasks that must be done first. Must already be
+     * in the graph.
+     * @return the task
+     */
+    public Task addPinned(String name, Runnable work, Task... dependencies) {
+        return add(name, work, true, dependencies);
+    }
+
+    private Task add(String name, Runnable work, boolean pinned, Task... dependencies) {
+        if (running) {
+            throw new IllegalStateException("Tasks can not be added while the graph runs");
+        }
+        Task task = new Task(name, work, pinned, dependencies.clone());
+        for (Task dependency : dependencies) {
+            if (!tasks.contains(dependency)) {
+                throw new IllegalArgumentException("Unknown dependency of " + name + ": " + dependency.name);
+            }
+            dependency.dependents.add(task);
+        }
+        if (dependencies.length == 0) {
+            roots.add(task);
+        }
+        tasks.add(task);
+        return task;
+    }
+
+    /**
+     * Runs all the tasks and waits for them to finish.
+     */
+    public void run() {
+        start();
+        join();
+    }
+
+    /**
+     * Starts the tasks that run on the pool. The calling thread can do other
+     * work, and must then call join().
+     */
+    public void start() {
+        if (running) {
+            throw new IllegalStateException("The graph is already running");
+        }
+        running = true;
+        startTime = System.nanoTime();
+        failure = null;
+        if (pool == null) {
+            return;
+        }
+
+        finished.set(0);
+        for (Task task : tasks) {
+            task.waiting.set(task.dependencies.length);
+        }
+        for (Task task : roots) {
+            schedule(task);
+        }
+    }
+
+    /**
+     * Runs the pinned tasks as they become ready, and waits for the rest.
+     */
+    public void join() {
+        if (!running) {
+            throw new IllegalStateException("The graph is not running");
+        }
+        try {
+            if (pool == null) {
+                for (Task task : tasks) {
+                    execute(task);
+                }
+            } else if (!tasks.isEmpty()) {
+                while (true) {
+                    Task task = ready.take();
+                    if (task == done) {
+                        break;
+                    }
+                    try {
+                        execute(task);
+                    } catch (Throwable ex) {
+                        failure = ex;   // The other tasks are skipped, but still released.
+                    }
+                    release(task);
+                }
+                if (failure != null) {
+                    throw new RuntimeException("Task failed", failure);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        } finally {
+            ready.clear();
+            running = false;
+        }
+        if (profiling) {
+            criticalPath = findCriticalPath();
+        }
+    }
+
+    /**
+     * Runs a task, unless it is disabled, and notes the time it took.
+     */
+    private void execute(Task task) {
+        task.start = System.nanoTime() - startTime;
+        if (task.enabled && failure == null) {
+            task.work.run();
+        }
+        task.end = task.enabled ? System.nanoTime() - startTime : task.start;
+    }
+
+    /**
+     * Marks a task as done and schedules the tasks that were waiting on it.
+     */
+    private void release(Task task) {
+        for (int i = 0; i < task.dependents.size(); i++) {
+            Task dependent = task.dependents.get(i);
+            if (dependent.waiting.decrementAndGet() == 0) {
+                schedule(dependent);
+            }
+        }
+        if (finished.incrementAndGet() == tasks.size()) {
+            ready.add(done);
+        }
+    }
+
+    private void schedule(Task task) {
+        if (task.pinned) {
+            ready.add(task);
+        } else if (ForkJoinTask.getPool() == pool) {
+            new Job(task).fork();
+        } else {
+            pool.execute(new Job(task));
+        }
+    }
+
+    /**
+     * Runs a task on the pool.
+     */
+    private class Job extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Task task;
+
+        private Job(Task task) {
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                execute(task);
+            } catch (Throwable ex) {
+                failure = ex;
+            }
+            release(task);
+        }
+    }
+
+    /**
+     * Follows the tasks back from the one that ended last, each time to the
+     * dependency that ended last.
+     */
+    private String findCriticalPath() {
+
+        Task last = null;
+        for (Task task : tasks) {
+            if (last == null || task.end > last.end) {
+                last = task;
+            }
+        }
+        if (last == null) {
+            return "";
+        }
+
+        ArrayList<Task> path = new ArrayList<>();
+        for (Task task = last; task != null; ) {
+            if (task.enabled) {
+                path.add(task);
+            }
+            Task previous = null;
+            for (Task dependency : task.dependencies) {
+                if (previous == null || dependency.end > previous.end) {
+                    previous = dependency;
+                }
+            }
+            task = previous;
+        }
+        Collections.reverse(path);
+
+        StringBuilder text = new StringBuilder();
+        for (Task task : path) {
+            if (text.length() > 0) {
+                text.append(" > ");
+            }
+            text.append(task.name).append(' ').append(String.format("%.2f", task.getTime()));
+        }
+        text.append(String.format(" (%.2f ms)", last.end / 1e6));
+        return text.toString();
+    }
+
+    // Getters.
+    public List<Task> getTasks() {
+        return Collections.unmodifiableList(tasks);
+    }
+
+    /**
+     * Returns the critical path of the last run, with the time of each task
+     * and of the whole run in milliseconds. Empty unless profiling is on.
+     *
+     * @return the path
+     */
+    public String getCriticalPath() {
+        return criticalPath;
+    }
+
+    public boolean isProfiling() {
+        return profiling;
+    }
+
+    // Setters.
+    public void setProfiling(boolean profiling) {
+        this.profiling = profiling;
+    }
+}
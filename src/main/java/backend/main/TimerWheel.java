@@ -0,0 +1,241 @@
+package backend.main;
+
+/**
+ * Runs tasks at given ticks of the simulation clock.
+ *
+ * The events are kept in a hierarchical timing wheel. The first level has a
+ * slot for each of the next 64 ticks, the next level a slot for each of the
+ * next 64 groups of 64 ticks, and so on. When the clock passes a group, the
+ * events in its slot are moved down to the level below. Scheduling and
+ * cancelling an event is constant time, and each tick only touches the
+ * events that are due, however many are waiting.
+ *
+ * The events are run on the simulation thread after each simulated tick, so
+ * they are paused with the clock. Events may be scheduled from any phase of
+ * the tick. Events that are scheduled from the parallel phases are run in no
+ * particular order, so their tasks must only change their owner, like
+ * setting a flag.
+ *
+ * @author pitmairen
+ */
+public class TimerWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);   // Ticks the wheel covers.
+
+    /**
+     * A task that is scheduled to run at a given tick.
+     */
+    public static class Event {
+
+        private final TimerWheel wheel;
+        private final Runnable task;
+        private final long dueTick;
+        private Event previous;
+        private Event next;
+        private int level;
+        private int slot;
+        private boolean pending = true;
+
+        private Event(TimerWheel wheel, long dueTick, Runnable task) {
+            this.wheel = wheel;
+            this.dueTick = dueTick;
+            this.task = task;
+        }
+
+        /**
+         * Keeps the task from running. Does nothing if it has already run.
+         */
+        public void cancel() {
+            wheel.cancel(this);
+        }
+
+        /**
+         * Returns the time that is left until the task runs.
+         *
+         * @return the time in milliseconds, or 0 if it has run or is
+         * cancelled
+         */
+        public double getRemaining() {
+            if (!pending) {
+                return 0;
+            }
+            SimulationClock clock = wheel.clock;
+            return Math.max(dueTick - clock.getTick(), 0) * clock.getTickTime();
+        }
+
+        // Getters.
+        public long getDueTick() {
+            return dueTick;
+        }
+
+        public boolean isPending() {
+            return pending;
+        }
+    }
+
+    private final SimulationClock clock;
+    private final Event[][] slots = new Event[LEVELS][SLOTS];   // The first event of each slot.
+    private long nextTick;      // The first tick that has not been run yet.
+    private int size = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param clock The clock of the world.
+     */
+    public TimerWheel(SimulationClock clock) {
+        this.clock = clock;
+        this.nextTick = clock.getTick() + 1;
+    }
+
+    /**
+     * Schedules a task to run when a time has passed.
+     *
+     * @param delay The time in milliseconds.
+     * @param task The task to run.
+     * @return the event, which can be used to cancel the task
+     */
+    public Event schedule(double delay, Runnable task) {
+        return scheduleAt(clock.getTick() + clock.toTicks(delay), task);
+    }
+
+    /**
+     * Schedules a task to run after a given tick. A tick that has already
+     * been simulated is taken as the next one.
+     *
+     * @param tick The tick.
+     * @param task The task to run.
+     * @return the event, which can be used to cancel the task
+     */
+    public synchronized Event scheduleAt(long tick, Runnable task) {
+        Event event = new Event(this, tick, task);
+        insert(event);
+        size++;
+        return event;
+    }
+
+    /**
+     * Runs the tasks that are due by the current tick of the clock.
+     */
+    public synchronized void update() {
+
+        long now = clock.getTick();
+        while (nextTick <= now) {
+            long tick = nextTick;
+            cascade(tick);
+
+            Event event = slots[0][(int) (tick & SLOT_MASK)];
+            slots[0][(int) (tick & SLOT_MASK)] = null;
+            nextTick = tick + 1;    // Tasks that schedule new tasks for now get the next tick.
+
+            while (event != null) {
+                Event next = event.next;
+                event.previous = null;
+                event.next = null;
+                event.pending = false;
+                size--;
+                event.task.run();
+                event = next;
+            }
+        }
+    }
+
+    /**
+     * Removes all the events without running them.
+     */
+    public synchronized void clear() {
+        for (Event[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                for (Event event = level[i]; event != null; event = event.next) {
+                    event.pending = false;
+                }
+                level[i] = null;
+            }
+        }
+        size = 0;
+    }
+
+    private synchronized void cancel(Event event) {
+        if (event.pending) {
+            unlink(event);
+            event.pending = false;
+            size--;
+        }
+    }
+
+    /**
+     * Moves the events of the groups that start at the tick down a level.
+     */
+    private void cascade(long tick) {
+        for (int level = 1; level < LEVELS; level++) {
+            if (((tick >> (SLOT_BITS * (level - 1))) & SLOT_MASK) != 0) {
+                return;
+            }
+            int slot = (int) ((tick >> (SLOT_BITS * level)) & SLOT_MASK);
+            Event event = slots[level][slot];
+            slots[level][slot] = null;
+            while (event != null) {
+                Event next = event.next;
+                insert(event);
+                event = next;
+            }
+        }
+    }
+
+    /**
+     * Puts the event in the slot of the lowest level that reaches its tick.
+     */
+    private void insert(Event event) {
+
+        long tick = Math.max(event.dueTick, nextTick);
+        long delay = tick - nextTick;
+        if (delay >= SPAN) {
+            // Too far ahead. Parked in the last slot it reaches, and moved
+            // on from there when the slot comes due.
+            tick = nextTick + SPAN - 1;
+            delay = SPAN - 1;
+        }
+
+        int level = 0;
+        while (delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        event.level = level;
+        event.slot = (int) ((tick >> (SLOT_BITS * level)) & SLOT_MASK);
+
+        Event first = slots[level][event.slot];
+        event.previous = null;
+        event.next = first;
+        if (first != null) {
+            first.previous = event;
+        }
+        slots[level][event.slot] = event;
+    }
+
+    private void unlink(Event event) {
+        if (event.previous != null) {
+            event.previous.next = event.next;
+        } else {
+            slots[event.level][event.slot] = event.next;
+        }
+        if (event.next != null) {
+            event.next.previous = event.previous;
+        }
+        event.previous = null;
+        event.next = null;
+    }
+
+    // Getters.
+    /**
+     * Returns the number of events that are waiting to run.
+     *
+     * @return the number of events
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
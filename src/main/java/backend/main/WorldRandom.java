@@ -0,0 +1,76 @@
+package backend.main;
+
+import java.util.EnumMap;
+import java.util.SplittableRandom;
+
+/**
+ * The random numbers of one game world.
+ *
+ * All the random numbers of the world come from one seed. Each subsystem
+ * draws from a stream of its own, so a change in how often one subsystem
+ * draws does not change the numbers the others get.
+ *
+ * The streams are shared by the subsystem and may only be used from code
+ * that runs on the simulation thread in a fixed order, like spawning.
+ * Code that runs in parallel, like the AIs, takes a split of the stream
+ * when it is created and draws from that.
+ *
+ * Together with the input, the seed defines the whole run.
+ *
+ * @author pitmairen
+ */
+public class WorldRandom {
+
+    /**
+     * The subsystems that use random numbers.
+     *
+     * New subsystems must be added at the end, so the streams of the others
+     * stay the same.
+     */
+    public enum Stream {
+        SPAWNER, ACTORS, AI, PARTICLES, AUTOPILOT
+    }
+
+    private final long seed;
+    private final EnumMap<Stream, SplittableRandom> streams = new EnumMap<>(Stream.class);
+
+    /**
+     * Constructor.
+     *
+     * @param seed The seed of the world.
+     */
+    public WorldRandom(long seed) {
+        this.seed = seed;
+        SplittableRandom root = new SplittableRandom(seed);
+        for (Stream stream : Stream.values()) {
+            streams.put(stream, root.split());
+        }
+    }
+
+    /**
+     * Returns the shared stream of a subsystem.
+     *
+     * @param stream The subsystem.
+     * @return the stream
+     */
+    public SplittableRandom get(Stream stream) {
+        return streams.get(stream);
+    }
+
+    /**
+     * Returns a new stream for one user of a subsystem, like an AI. The
+     * split is taken from the shared stream of the subsystem, so it must be
+     * called in a fixed order.
+     *
+     * @param stream The subsystem.
+     * @return a stream that is only used by the caller
+     */
+    public SplittableRandom split(Stream stream) {
+        return streams.get(stream).split();
+    }
+
+    // Getters.
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,142 @@
+package backend.resources;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads assets on a pool of worker threads.
+ *
+ * The slow part of loading an asset, reading and decoding the file, is done
+ * by the workers. The result is handed back on the thread that calls
+ * update(), which should be the thread that owns the OpenGL and OpenAL
+ * contexts.
+ *
+ * @author pitmairen
+ */
+public class AssetLoader {
+
+    /**
+     * Decodes an asset. Called on a worker thread.
+     */
+    public interface Decoder<T> {
+
+        public T decode() throws Exception;
+    }
+
+    /**
+     * Receives a decoded asset. Called on the thread that calls update().
+     *
+     * The result is null if the decoding failed.
+     */
+    public interface Receiver<T> {
+
+        public void received(T result);
+    }
+
+    private final ThreadPoolExecutor workers;
+    private final ConcurrentLinkedQueue<Runnable> decoded;
+
+    // Only accessed by the owning thread.
+    private int submitted = 0;
+    private int completed = 0;
+    private long startTime = -1;
+    private long loadTime = -1;
+
+    /**
+     * Constructor.
+     */
+    public AssetLoader() {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        workers = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "Asset loader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // Let the threads die when there is nothing more to load.
+        workers.allowCoreThreadTimeOut(true);
+        decoded = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Starts loading an asset.
+     *
+     * @param name the name of the asset. Used in the error message if the
+     * loading fails.
+     * @param decoder decodes the asset on a worker thread
+     * @param receiver receives the decoded asset on the owning thread
+     */
+    public <T> void submit(String name, Decoder<T> decoder, Receiver<T> receiver) {
+        if (submitted == completed) {
+            startTime = System.nanoTime();
+            loadTime = -1;
+        }
+        submitted++;
+
+        workers.execute(() -> {
+            T result = null;
+            try {
+                result = decoder.decode();
+            } catch (Exception ex) {
+                System.err.println("Failed to load " + name + ": " + ex.getMessage());
+            }
+            final T asset = result;
+            decoded.add(() -> receiver.received(asset));
+        });
+    }
+
+    /**
+     * Hands the assets that have finished decoding to their receivers.
+     *
+     * Should be called regularly from the owning thread.
+     *
+     * @return true when all the submitted assets are loaded
+     */
+    public boolean update() {
+        Runnable receive;
+        while ((receive = decoded.poll()) != null) {
+            receive.run();
+            completed++;
+        }
+        if (isDone() && loadTime < 0 && startTime >= 0) {
+            loadTime = System.nanoTime() - startTime;
+        }
+        return isDone();
+    }
+
+    /**
+     * Returns true if all the submitted assets are loaded.
+     *
+     * @return true if done
+     */
+    public boolean isDone() {
+        return completed == submitted;
+    }
+
+    /**
+     * Returns the loading progress.
+     *
+     * @return the progress (range: 0.0 - 1.0)
+     */
+    public float getProgress() {
+        if (submitted == 0) {
+            return 1.0f;
+        }
+        return (float) completed / submitted;
+    }
+
+    /**
+     * Returns the time it took to load all the assets in milliseconds, or -1
+     * if the loading is not done.
+     *
+     * @return the load time
+     */
+    public double getLoadTime() {
+        if (loadTime < 0) {
+            return -1;
+        }
+        return loadTime / 1e6;
+    }
+}
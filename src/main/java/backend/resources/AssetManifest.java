@@ -0,0 +1,219 @@
+package backend.resources;
+
+import java.util.ArrayList;
+
+/**
+ * Lists the image and sound files that the game registers with the resource
+ * manager.
+ *
+ * The list is shared by the game and the asset pack builder, so the pack
+ * always contains the same files that the game asks for.
+ *
+ * @author pitmairen
+ */
+public class AssetManifest {
+
+    // The ship modules are never drawn wider than this, so the larger
+    // versions of their images are not kept.
+    private static final float MODULE_DRAW_WIDTH = 47;
+
+    /**
+     * A registered image.
+     */
+    public static class ImageAsset {
+
+        private final Image id;
+        private final String path;
+        private final float maxDrawWidth;
+        private final boolean atlas;
+
+        public ImageAsset(Image id, String path, float maxDrawWidth, boolean atlas) {
+            this.id = id;
+            this.path = path;
+            this.maxDrawWidth = maxDrawWidth;
+            this.atlas = atlas;
+        }
+
+        // Getters.
+        public Image getId() {
+            return id;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public float getMaxDrawWidth() {
+            return maxDrawWidth;
+        }
+
+        public boolean isAtlas() {
+            return atlas;
+        }
+    }
+
+    /**
+     * A registered sound.
+     */
+    public static class SoundAsset {
+
+        private final Sound id;
+        private final String path;
+        private final boolean streamed;
+        private final boolean onDemand;
+
+        public SoundAsset(Sound id, String path, boolean streamed, boolean onDemand) {
+            this.id = id;
+            this.path = path;
+            this.streamed = streamed;
+            this.onDemand = onDemand;
+        }
+
+        // Getters.
+        public Sound getId() {
+            return id;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public boolean isStreamed() {
+            return streamed;
+        }
+
+        public boolean isDecodedOnDemand() {
+            return onDemand;
+        }
+    }
+
+    private final ArrayList<ImageAsset> images = new ArrayList<>();
+    private final ArrayList<SoundAsset> sounds = new ArrayList<>();
+
+    /**
+     * Creates the manifest with all the assets used by the game.
+     *
+     * @return the manifest
+     */
+    public static AssetManifest createGameAssets() {
+
+        AssetManifest manifest = new AssetManifest();
+
+        manifest.addImage(Image.PARTICLE, "particle.png");
+        manifest.addImage(Image.ROCKET, "particle.png");
+        manifest.addImage(Image.LASER_BEAM, "laser.png");
+        manifest.addImage(Image.SEEKER_MISSILE, "particle.png");
+        manifest.addTexture(Image.BACKGROUND_IMAGE, "background.png");
+        manifest.addTexture(Image.BG_SHADER_NOISE, "shader_noise.png");
+        manifest.addImage(Image.SHIELD_MODULE, "ResizedImages/ShieldModuleV2.png", MODULE_DRAW_WIDTH);
+        manifest.addTexture(Image.SHIELD_NOISE, "shieldNoise.png");
+        manifest.addImage(Image.SHIELD_BACKGROUND, "shield.png");
+        manifest.addImage(Image.DRONE_LAUNCHER, "HighResAssets/DroneLauncher.png", 182);
+        manifest.addImage(Image.ROCKET_LAUNCHER, "HighResAssets/RocketLauncherV2.png", MODULE_DRAW_WIDTH);
+        manifest.addImage(Image.SEEKER_CANNON, "ResizedImages/BombLauncherRed.png", MODULE_DRAW_WIDTH);
+        manifest.addImage(Image.EMP_CANNON, "ResizedImages/BombLauncherV2.png", MODULE_DRAW_WIDTH);
+        manifest.addImage(Image.LIGHT_CANNON, "ResizedImages/LightCannonV2.png", MODULE_DRAW_WIDTH);
+        manifest.addImage(Image.LASER_CANNON, "ResizedImages/Laser.png", MODULE_DRAW_WIDTH);
+        manifest.addImage(Image.PLAYER, "drone.png");
+        manifest.addImage(Image.KAMIKAZE_DRONE, "multishotDrone.png");
+        manifest.addImage(Image.FRIGATE, "Actors/DroneV3Sml.png");
+        manifest.addImage(Image.DRONE_CARRIER, "Actors/DroneV2Lrg.png");
+        manifest.addTexture(Image.TITLE_SCREEN, "titleScreen.png");
+
+        manifest.addSound(Sound.EXPLOSION, "audio/sfx/explosion01.wav");
+        manifest.addRareSound(Sound.BOSS_DEATH, "audio/sfx/explosion02.wav");
+        manifest.addSound(Sound.BULLET_IMPACT, "audio/sfx/explosion03.wav");
+        manifest.addSound(Sound.CURSOR, "audio/sfx/cursor.wav");
+        manifest.addRareSound(Sound.CURSOR2, "audio/sfx/cursor2.wav");
+
+        manifest.addSound(Sound.AUTO_CANNON, "audio/sfx/fire.wav");
+        manifest.addSound(Sound.LASER, "audio/sfx/laser3.wav");
+        manifest.addSound(Sound.COLLISION, "audio/sfx/collision.wav");
+        manifest.addRareSound(Sound.EMP, "audio/sfx/emp01.wav");
+        manifest.addSound(Sound.MISSILE_LAUNCH, "audio/sfx/missile_launch1.wav");
+        manifest.addSound(Sound.MISSILE_EXPLOSION, "audio/sfx/explosion04.wav");
+        manifest.addRareSound(Sound.POWERUP, "audio/sfx/powerup.wav");
+        manifest.addSound(Sound.PICKUP, "audio/sfx/pickup.wav");
+        manifest.addRareSound(Sound.ACTIVATE_SHIELD, "audio/sfx/pickup.wav");
+        manifest.addSound(Sound.HEALTH_PICKUP, "audio/sfx/health.wav");
+
+        manifest.addMusic(Sound.MENU_MUSIC, "audio/music/menu.wav");
+        manifest.addMusic(Sound.GAME_MUSIC, "audio/music/ingame.wav");
+        manifest.addRareSound(Sound.GAMEOVER, "audio/music/gameover.wav");
+
+        return manifest;
+    }
+
+    /**
+     * Adds an image that will be packed into the texture atlas.
+     *
+     * @param id the image id
+     * @param path the image path
+     */
+    public void addImage(Image id, String path) {
+        addImage(id, path, 0);
+    }
+
+    /**
+     * Adds an image that will be packed into the texture atlas.
+     *
+     * @param id the image id
+     * @param path the image path
+     * @param maxDrawWidth the largest width the image will be drawn with, or 0
+     * to keep the full resolution image
+     */
+    public void addImage(Image id, String path, float maxDrawWidth) {
+        images.add(new ImageAsset(id, path, maxDrawWidth, true));
+    }
+
+    /**
+     * Adds an image that is kept as a separate texture.
+     *
+     * @param id the image id
+     * @param path the image path
+     */
+    public void addTexture(Image id, String path) {
+        images.add(new ImageAsset(id, path, 0, false));
+    }
+
+    /**
+     * Adds a sound.
+     *
+     * @param id the sound id
+     * @param path the sound path
+     */
+    public void addSound(Sound id, String path) {
+        sounds.add(new SoundAsset(id, path, false, false));
+    }
+
+    /**
+     * Adds a sound that is rarely played. It is decoded the first time it is
+     * played, and can be thrown out of memory again when it is not used.
+     *
+     * @param id the sound id
+     * @param path the sound path
+     */
+    public void addRareSound(Sound id, String path) {
+        sounds.add(new SoundAsset(id, path, false, true));
+    }
+
+    /**
+     * Adds a sound that is streamed while it plays instead of being loaded at
+     * startup.
+     *
+     * @param id the sound id
+     * @param path the sound path
+     */
+    public void addMusic(Sound id, String path) {
+        sounds.add(new SoundAsset(id, path, true, false));
+    }
+
+    // Getters.
+    public ArrayList<ImageAsset> getImages() {
+        return images;
+    }
+
+    public ArrayList<SoundAsset> getSounds() {
+        return sounds;
+    }
+}
@@ -0,0 +1,225 @@
+package backend.resources;
+
+import backend.sound.SoundData;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PImage;
+
+/**
+ * A file with pre-decoded images and sounds.
+ *
+ * The pack is created at build time by AssetPackBuilder. It starts with a
+ * header that lists the assets, followed by the raw ARGB pixels of the images
+ * and the raw PCM samples of the sounds. The file is memory mapped, so the
+ * assets are read straight from the file without any decoding.
+ *
+ * @author pitmairen
+ */
+public class AssetPack {
+
+    // The name of the system property that can be used to set the pack file.
+    public static final String PATH_PROPERTY = "xenoblaster.assetpack";
+    public static final String DEFAULT_FILE_NAME = "assets.pack";
+
+    static final int MAGIC = 0x58424150;    // "XBAP"
+    static final int VERSION = 1;
+    static final byte TYPE_IMAGE = 0;
+    static final byte TYPE_SOUND = 1;
+
+    /**
+     * The location and format of an asset in the pack.
+     */
+    private static class Entry {
+
+        private final byte type;
+        private final int offset;
+        private final int length;
+        // Image: width, height. Sound: channels, bits per sample, frequency.
+        private final int[] format;
+
+        public Entry(byte type, int offset, int length, int[] format) {
+            this.type = type;
+            this.offset = offset;
+            this.length = length;
+            this.format = format;
+        }
+    }
+
+    private final MappedByteBuffer data;
+    private final int dataStart;
+    private final HashMap<String, Entry> entries;
+
+    private AssetPack(MappedByteBuffer data, int dataStart, HashMap<String, Entry> entries) {
+        this.data = data;
+        this.dataStart = dataStart;
+        this.entries = entries;
+    }
+
+    /**
+     * Opens the asset pack if it exists.
+     *
+     * The file set with the xenoblaster.assetpack system property is used if
+     * it is set. Otherwise the pack is looked for next to the game jar.
+     *
+     * @return the pack, or null if there is no usable pack
+     */
+    public static AssetPack openDefault() {
+
+        File file;
+        String path = System.getProperty(PATH_PROPERTY);
+        if (path != null) {
+            file = new File(path);
+        } else {
+            try {
+                File codeSource = new File(AssetPack.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+                file = new File(codeSource.getParentFile(), DEFAULT_FILE_NAME);
+            } catch (URISyntaxException | SecurityException | NullPointerException ex) {
+                return null;
+            }
+        }
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return open(file);
+        } catch (IOException ex) {
+            System.err.println("Failed to open asset pack " + file + ": " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Opens an asset pack.
+     *
+     * @param file the pack file
+     * @return the pack
+     *
+     * @throws IOException if the file is not a valid asset pack
+     */
+    public static AssetPack open(File file) throws IOException {
+
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (data.remaining() < 8 || data.getInt(0) != MAGIC) {
+            throw new IOException("Not an asset pack");
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new IOException("Unsupported asset pack version: " + data.getInt(4));
+        }
+        int headerLength = data.getInt(8);
+
+        byte[] header = new byte[headerLength];
+        ByteBuffer headerData = data.duplicate();
+        headerData.position(12);
+        headerData.get(header);
+
+        HashMap<String, Entry> entries = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(header))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                byte type = in.readByte();
+                int offset = in.readInt();
+                int length = in.readInt();
+                int[] format = new int[in.readByte()];
+                for (int j = 0; j < format.length; j++) {
+                    format[j] = in.readInt();
+                }
+                entries.put(key, new Entry(type, offset, length, format));
+            }
+        }
+        return new AssetPack(data, 12 + headerLength, entries);
+    }
+
+    /**
+     * Returns the key used for an image in the pack.
+     *
+     * @param path the path the image is registered with
+     * @return the key
+     */
+    static String imageKey(String path) {
+        return "data/" + path;
+    }
+
+    /**
+     * Returns true if the pack contains the image.
+     *
+     * @param path the path the image is registered with
+     * @return true if the image is in the pack
+     */
+    public boolean hasImage(String path) {
+        Entry entry = entries.get(imageKey(path));
+        return entry != null && entry.type == TYPE_IMAGE;
+    }
+
+    /**
+     * Returns true if the pack contains the sound.
+     *
+     * @param path the path the sound is registered with
+     * @return true if the sound is in the pack
+     */
+    public boolean hasSound(String path) {
+        Entry entry = entries.get(path);
+        return entry != null && entry.type == TYPE_SOUND;
+    }
+
+    /**
+     * Creates an image from the pixels in the pack. Can be called from any
+     * thread.
+     *
+     * @param app the processing app
+     * @param path the path the image is registered with
+     * @return the image
+     */
+    public PImage readImage(PApplet app, String path) {
+        Entry entry = entries.get(imageKey(path));
+        PImage image = app.createImage(entry.format[0], entry.format[1], PConstants.ARGB);
+        image.loadPixels();
+        slice(entry).asIntBuffer().get(image.pixels);
+        image.updatePixels();
+        return image;
+    }
+
+    /**
+     * Returns the sound data in the pack. The samples are not copied, they
+     * refer directly to the mapped file. Can be called from any thread.
+     *
+     * @param path the path the sound is registered with
+     * @return the sound data
+     */
+    public SoundData readSound(String path) {
+        Entry entry = entries.get(path);
+        return SoundData.fromLittleEndian(entry.format[0], entry.format[1], entry.format[2], slice(entry));
+    }
+
+    /**
+     * Returns the number of assets in the pack.
+     *
+     * @return the number of assets
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private ByteBuffer slice(Entry entry) {
+        // Each caller gets its own view, so the pack can be read from several
+        // threads at the same time.
+        ByteBuffer view = data.duplicate();
+        view.position(dataStart + entry.offset);
+        view.limit(dataStart + entry.offset + entry.length);
+        return view.slice();
+    }
+}
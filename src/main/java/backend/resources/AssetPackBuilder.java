@@ -0,0 +1,154 @@
+package backend.resources;
+
+import backend.sound.SoundData;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import javax.imageio.ImageIO;
+
+/**
+ * Creates the asset pack that is read by AssetPack.
+ *
+ * Runs as a part of the build. All the images and sounds in the
+ * AssetManifest are decoded and stored in one file.
+ *
+ * Usage: AssetPackBuilder &lt;resource directory&gt; &lt;output file&gt;
+ *
+ * @author pitmairen
+ */
+public class AssetPackBuilder {
+
+    /**
+     * A decoded asset waiting to be written.
+     */
+    private static class Block {
+
+        private final byte type;
+        private final int[] format;
+        private final byte[] data;
+
+        public Block(byte type, int[] format, byte[] data) {
+            this.type = type;
+            this.format = format;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args the resource directory and the output file
+     *
+     * @throws IOException if an asset could not be read or the pack could not
+     * be written
+     */
+    public static void main(String[] args) throws IOException {
+
+        if (args.length != 2) {
+            System.out.println("Usage: AssetPackBuilder <resource directory> <output file>");
+            System.exit(1);
+        }
+        File resources = new File(args[0]);
+        File output = new File(args[1]);
+
+        AssetManifest manifest = AssetManifest.createGameAssets();
+
+        // The same file can be registered with several ids, but is only
+        // stored once.
+        LinkedHashMap<String, Block> blocks = new LinkedHashMap<>();
+
+        for (AssetManifest.ImageAsset image : manifest.getImages()) {
+            String key = AssetPack.imageKey(image.getPath());
+            if (!blocks.containsKey(key)) {
+                blocks.put(key, decodeImage(new File(resources, key)));
+            }
+        }
+        for (AssetManifest.SoundAsset sound : manifest.getSounds()) {
+            String key = sound.getPath();
+            File file = new File(resources, key);
+            if (!file.isFile()) {
+                System.out.println("Skipping missing sound: " + key);
+                continue;
+            }
+            if (!blocks.containsKey(key)) {
+                blocks.put(key, decodeSound(file));
+            }
+        }
+
+        write(blocks, output);
+        System.out.println("Wrote " + blocks.size() + " assets to " + output);
+    }
+
+    private static Block decodeImage(File file) throws IOException {
+
+        BufferedImage image = ImageIO.read(file);
+        if (image == null) {
+            throw new IOException("Unsupported image: " + file);
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(pixels.length * 4);
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int pixel : pixels) {
+            out.writeInt(pixel);
+        }
+        return new Block(AssetPack.TYPE_IMAGE, new int[]{width, height}, bytes.toByteArray());
+    }
+
+    private static Block decodeSound(File file) throws IOException {
+
+        SoundData sound;
+        try (FileInputStream in = new FileInputStream(file)) {
+            sound = SoundData.decodeWav(in);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sound.writeLittleEndian(bytes);
+        return new Block(AssetPack.TYPE_SOUND,
+                new int[]{sound.getChannels(), sound.getBitsPerSample(), sound.getFrequency()},
+                bytes.toByteArray());
+    }
+
+    private static void write(LinkedHashMap<String, Block> blocks, File output) throws IOException {
+
+        // The offsets in the header are relative to the end of the header.
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(blocks.size());
+
+        int offset = 0;
+        for (String key : blocks.keySet()) {
+            Block block = blocks.get(key);
+            header.writeUTF(key);
+            header.writeByte(block.type);
+            header.writeInt(offset);
+            header.writeInt(block.data.length);
+            header.writeByte(block.format.length);
+            for (int value : block.format) {
+                header.writeInt(value);
+            }
+            offset += block.data.length;
+        }
+
+        File parent = output.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)))) {
+            out.writeInt(AssetPack.MAGIC);
+            out.writeInt(AssetPack.VERSION);
+            out.writeInt(headerBytes.size());
+            headerBytes.writeTo(out);
+            for (Block block : blocks.values()) {
+                out.write(block.data);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package backend.resources;
+
+import backend.sound.ImaAdpcm;
+import backend.sound.SoundData;
+import backend.sound.WavStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Compresses uncompressed wav files to IMA ADPCM wav files.
+ *
+ * The files are replaced in place. Files that are already compressed are
+ * left alone. Used when new sounds are added to the resources, the game
+ * reads both formats.
+ *
+ * Usage: AudioCompressor &lt;wav file or directory&gt;...
+ *
+ * @author pitmairen
+ */
+public class AudioCompressor {
+
+    // The size of a block for each channel. Gives about 2000 samples per
+    // block.
+    private static final int BLOCK_SIZE = 1024;
+
+    // Sounds that lose more than this (signal to noise ratio in dB) are
+    // kept uncompressed. Mostly square waves and other sharp edges that
+    // ADPCM can not follow.
+    private static final double MIN_SNR = 12.0;
+
+    /**
+     * Main method.
+     *
+     * @param args the files and directories to compress
+     *
+     * @throws IOException if a file could not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+
+        if (args.length == 0) {
+            System.out.println("Usage: AudioCompressor <wav file or directory>...");
+            System.exit(1);
+        }
+        for (String arg : args) {
+            compress(new File(arg));
+        }
+    }
+
+    private static void compress(File file) throws IOException {
+
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    compress(child);
+                }
+            }
+            return;
+        }
+        if (!file.getName().endsWith(".wav") || isCompressed(file)) {
+            return;
+        }
+
+        SoundData sound;
+        try (FileInputStream in = new FileInputStream(file)) {
+            sound = SoundData.decodeWav(in);
+        }
+        short[] samples = toShorts(sound);
+        int channels = sound.getChannels();
+        int blockAlign = BLOCK_SIZE * channels;
+        byte[] data = ImaAdpcm.encode(samples, channels, blockAlign);
+
+        double snr = getSnr(samples, data, channels, blockAlign);
+        if (snr < MIN_SNR) {
+            System.out.println(file + ": kept uncompressed (" + String.format("%.1f", snr) + " dB)");
+            return;
+        }
+
+        long before = file.length();
+        write(file, sound, blockAlign, samples.length / channels, data);
+        System.out.println(file + ": " + before / 1024 + " KiB -> " + file.length() / 1024 + " KiB ("
+                + String.format("%.1f", snr) + " dB)");
+    }
+
+    /**
+     * Returns the signal to noise ratio of the compressed sound in dB.
+     */
+    private static double getSnr(short[] samples, byte[] data, int channels, int blockAlign) {
+
+        short[] block = new short[ImaAdpcm.getSamplesPerBlock(blockAlign, channels) * channels];
+        double signal = 0;
+        double noise = 0;
+        int position = 0;
+
+        for (int offset = 0; offset < data.length; offset += blockAlign) {
+            int frames = ImaAdpcm.decodeBlock(data, offset, Math.min(blockAlign, data.length - offset), channels, block);
+            for (int i = 0; i < frames * channels && position < samples.length; i++, position++) {
+                double diff = samples[position] - block[i];
+                signal += (double) samples[position] * samples[position];
+                noise += diff * diff;
+            }
+        }
+        return 10 * Math.log10(signal / Math.max(noise, 1));
+    }
+
+    /**
+     * Returns true if the file is IMA ADPCM compressed.
+     */
+    private static boolean isCompressed(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return WavStream.readHeader(in).isCompressed();
+        }
+    }
+
+    /**
+     * Converts the samples to 16 bit.
+     */
+    private static short[] toShorts(SoundData sound) {
+        ByteBuffer data = sound.getSamples().duplicate();
+        if (sound.getBitsPerSample() == 8) {
+            short[] samples = new short[data.remaining()];
+            for (int i = 0; i < samples.length; i++) {
+                samples[i] = (short) (((data.get() & 0xff) - 128) << 8);
+            }
+            return samples;
+        }
+        data.order(ByteOrder.nativeOrder());
+        short[] samples = new short[data.remaining() / 2];
+        data.asShortBuffer().get(samples);
+        return samples;
+    }
+
+    private static void write(File file, SoundData sound, int blockAlign, int frames, byte[] data) throws IOException {
+
+        int channels = sound.getChannels();
+        int frequency = sound.getFrequency();
+        int samplesPerBlock = ImaAdpcm.getSamplesPerBlock(blockAlign, channels);
+        int byteRate = (int) ((long) frequency * blockAlign / samplesPerBlock);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(0x52494646);   // RIFF
+            writeInt(out, 4 + 28 + 12 + 8 + data.length + (data.length & 1));
+            out.writeInt(0x57415645);   // WAVE
+
+            out.writeInt(0x666d7420);   // fmt
+            writeInt(out, 20);
+            writeShort(out, ImaAdpcm.FORMAT_TAG);
+            writeShort(out, channels);
+            writeInt(out, frequency);
+            writeInt(out, byteRate);
+            writeShort(out, blockAlign);
+            writeShort(out, 4);         // Bits per sample.
+            writeShort(out, 2);         // Size of the extra data.
+            writeShort(out, samplesPerBlock);
+
+            out.writeInt(0x66616374);   // fact
+            writeInt(out, 4);
+            writeInt(out, frames);
+
+            out.writeInt(0x64617461);   // data
+            writeInt(out, data.length);
+            out.write(data);
+            if ((data.length & 1) != 0) {
+                out.write(0);
+            }
+        }
+    }
+
+    private static void writeInt(DataOutputStream out, int value) throws IOException {
+        out.writeInt(Integer.reverseBytes(value));
+    }
+
+    private static void writeShort(DataOutputStream out, int value) throws IOException {
+        out.writeShort(Short.reverseBytes((short) value));
+    }
+}
@@ -21,5 +21,10 @@ public enum Image {
     SEEKER_CANNON,
     EMP_CANNON,
     LIGHT_CANNON,
-    LASER_CANNON
+    LASER_CANNON,
+    PLAYER,
+    KAMIKAZE_DRONE,
+    FRIGATE,
+    DRONE_CARRIER,
+    TITLE_SCREEN
 }
@@ -1,7 +1,19 @@
 package backend.resources;
 
+import backend.sound.SoundData;
+import backend.sound.SoundDataStream;
+import backend.sound.SoundStream;
+import backend.sound.WavStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import processing.core.PApplet;
 import processing.core.PImage;
 import processing.opengl.PShader;
@@ -11,14 +23,43 @@ import processing.opengl.PShader;
  *
  * This can be images, sounds etc.
  *
+ * Images and sounds are decoded in the background. The assets are not
+ * available until updateLoading() has returned true.
+ *
+ * Sounds that are rarely played are only read into memory in their
+ * compressed form, and are decoded when they are needed.
+ *
+ * Every sound gets a content key that is a hash of its file, so that the
+ * sound system can share one buffer between sounds that use the same file.
+ *
+ * If a pre-built asset pack is found, the images and sounds are read from it
+ * instead of being decoded from the original files.
+ *
  * @author pitmairen
  */
 public class ResourceManager {
 
     private final PApplet app;
-    private final HashMap<Image, PImage> images;
-    private final HashMap<Shader, PShader> shaders;
-    private final HashMap<Sound, String> sounds;
+    private final EnumMap<Image, PImage> images;
+    private final EnumMap<Image, Sprite> sprites;
+    private final EnumMap<Image, ArrayList<PImage>> atlasImages;
+    private final TextureAtlas atlas;
+    private final EnumMap<Shader, PShader> shaders;
+    private final EnumMap<Sound, String> soundPaths;
+    private final EnumMap<Sound, SoundData> sounds;
+    private final EnumMap<Sound, byte[]> encodedSounds;
+    private final EnumSet<Sound> onDemandSounds;
+    private final EnumMap<Sound, String> soundKeys;
+    private final AssetLoader loader;
+    private final AssetPack pack;
+
+    // Number of images decoded from disk. Used to verify that no images are
+    // loaded after startup. Read by the debug HUD.
+    private volatile int imageLoadCount = 0;
+    private volatile int startupImageLoadCount = -1;
+
+    // The smallest pre-scaled sprite level that is created.
+    private static final int MIN_LEVEL_SIZE = 4;
     
     /**
      * Constructs the resource manager
@@ -27,19 +68,194 @@ public class ResourceManager {
      */
     public ResourceManager(PApplet app) {
         this.app = app;
-        images = new HashMap<>();
-        shaders = new HashMap<>();
-        sounds = new HashMap<>();
+        images = new EnumMap<>(Image.class);
+        sprites = new EnumMap<>(Image.class);
+        atlasImages = new EnumMap<>(Image.class);
+        atlas = new TextureAtlas(app);
+        shaders = new EnumMap<>(Shader.class);
+        soundPaths = new EnumMap<>(Sound.class);
+        sounds = new EnumMap<>(Sound.class);
+        encodedSounds = new EnumMap<>(Sound.class);
+        onDemandSounds = EnumSet.noneOf(Sound.class);
+        soundKeys = new EnumMap<>(Sound.class);
+        loader = new AssetLoader();
+        pack = AssetPack.openDefault();
     }
 
     /**
-     * Register a new image to the manager
+     * Register all the images and sounds in the manifest.
+     *
+     * @param manifest the manifest
+     */
+    public void add(AssetManifest manifest) {
+        for (AssetManifest.ImageAsset image : manifest.getImages()) {
+            if (image.isAtlas()) {
+                add(image.getId(), image.getPath(), image.getMaxDrawWidth());
+            } else {
+                addTexture(image.getId(), image.getPath());
+            }
+        }
+        for (AssetManifest.SoundAsset sound : manifest.getSounds()) {
+            if (sound.isStreamed()) {
+                addStream(sound.getId(), sound.getPath());
+            } else if (sound.isDecodedOnDemand()) {
+                addOnDemand(sound.getId(), sound.getPath());
+            } else {
+                add(sound.getId(), sound.getPath());
+            }
+        }
+    }
+
+    /**
+     * Register a new sprite image to the manager
+     *
+     * The image is loaded once and shared by everyone that asks for it. It
+     * will be packed into the texture atlas when packAtlas() is called.
      *
      * @param imageID the image id
      * @param path the image path
      */
     public void add(Image imageID, String path) {
-        images.put(imageID, app.loadImage(path));
+        add(imageID, path, 0);
+    }
+
+    /**
+     * Register a new sprite image to the manager
+     *
+     * Pre-scaled versions of the image are created down to a few pixels. The
+     * versions that are larger than needed to draw the sprite with the given
+     * width are thrown away to save texture memory.
+     *
+     * @param imageID the image id
+     * @param path the image path
+     * @param maxDrawWidth the largest width the sprite will be drawn with, or
+     * 0 to keep the full resolution image
+     */
+    public void add(Image imageID, String path, float maxDrawWidth) {
+        imageLoadCount++;
+
+        loader.submit(path, () -> {
+            PImage image = loadImage(path);
+
+            ArrayList<PImage> levels = new ArrayList<>();
+            levels.add(image);
+            while (image.width / 2 >= MIN_LEVEL_SIZE && image.height / 2 >= MIN_LEVEL_SIZE) {
+                image = SpriteScaler.halve(app, image);
+                levels.add(image);
+            }
+
+            // Drop the levels that are never needed.
+            while (maxDrawWidth > 0 && levels.size() > 1 && levels.get(1).width >= maxDrawWidth) {
+                levels.remove(0);
+            }
+            return levels;
+
+        }, levels -> {
+            if (levels != null) {
+                atlasImages.put(imageID, levels);
+                sprites.put(imageID, new Sprite(levels.get(0)));
+            }
+        });
+    }
+
+    /**
+     * Register a new image that should be kept as a separate texture.
+     *
+     * This should be used for images that are used as shader input or drawn
+     * over the entire screen.
+     *
+     * @param imageID the image id
+     * @param path the image path
+     */
+    public void addTexture(Image imageID, String path) {
+        imageLoadCount++;
+
+        loader.submit(path, () -> loadImage(path), image -> {
+            if (image != null) {
+                images.put(imageID, image);
+                sprites.put(imageID, new Sprite(image));
+            }
+        });
+    }
+
+    /**
+     * Loads an image from the asset pack, or from the image file if it is not
+     * in the pack.
+     */
+    private PImage loadImage(String path) {
+        if (pack != null && pack.hasImage(path)) {
+            return pack.readImage(app, path);
+        }
+        return app.loadImage(path);
+    }
+
+    /**
+     * Hands the assets that have finished loading in the background over to
+     * the manager. Must be called from the animation thread.
+     *
+     * @return true when all the registered assets are loaded
+     */
+    public boolean updateLoading() {
+        return loader.update();
+    }
+
+    /**
+     * Returns the loading progress of the registered assets.
+     *
+     * @return the progress (range: 0.0 - 1.0)
+     */
+    public float getLoadingProgress() {
+        return loader.getProgress();
+    }
+
+    /**
+     * Returns the time it took to load the assets in milliseconds, or -1 if
+     * the loading is not done.
+     *
+     * @return the load time
+     */
+    public double getLoadTime() {
+        return loader.getLoadTime();
+    }
+
+    /**
+     * Packs all the sprite images and their pre-scaled levels into the
+     * texture atlas.
+     *
+     * Should be called once after all the images have finished loading.
+     */
+    public void packAtlas() {
+
+        // Flatten all the levels of all the images into one list.
+        ArrayList<Integer> keys = new ArrayList<>();
+        ArrayList<PImage> sources = new ArrayList<>();
+        ArrayList<Image> owners = new ArrayList<>();
+        ArrayList<Integer> levelIndices = new ArrayList<>();
+
+        for (Image imageID : atlasImages.keySet()) {
+            ArrayList<PImage> levels = atlasImages.get(imageID);
+            for (int i = 0; i < levels.size(); i++) {
+                keys.add(keys.size());
+                sources.add(levels.get(i));
+                owners.add(imageID);
+                levelIndices.add(i);
+            }
+        }
+
+        EnumMap<Image, Sprite.Level[]> packed = new EnumMap<>(Image.class);
+        for (Image imageID : atlasImages.keySet()) {
+            packed.put(imageID, new Sprite.Level[atlasImages.get(imageID).size()]);
+        }
+
+        atlas.pack(keys, sources, (key, location) -> {
+            packed.get(owners.get(key))[levelIndices.get(key)] = location;
+        });
+
+        for (Image imageID : packed.keySet()) {
+            Sprite original = sprites.get(imageID);
+            sprites.put(imageID, new Sprite(original.getWidth(), original.getHeight(), packed.get(imageID)));
+        }
+        atlasImages.clear();
     }
 
     /**
@@ -51,6 +267,51 @@ public class ResourceManager {
     public PImage getImage(Image imageID) {
         return images.get(imageID);
     }
+
+    /**
+     * Returns the sprite associated with a specific ID.
+     *
+     * Sprites that have been packed into the texture atlas share the same
+     * texture and can be drawn without texture switches.
+     *
+     * @param imageID the id of the image
+     * @return the sprite
+     */
+    public Sprite getSprite(Image imageID) {
+        return sprites.get(imageID);
+    }
+
+    /**
+     * Marks the end of the startup loading.
+     *
+     * Images registered after this call are counted by
+     * getImageLoadsAfterStartup().
+     */
+    public void markStartupComplete() {
+        startupImageLoadCount = imageLoadCount;
+    }
+
+    /**
+     * Returns the total number of images that has been loaded from disk.
+     *
+     * @return the number of image loads
+     */
+    public int getImageLoadCount() {
+        return imageLoadCount;
+    }
+
+    /**
+     * Returns the number of images that has been loaded after the startup was
+     * marked as complete. This should always be zero.
+     *
+     * @return the number of image loads after startup
+     */
+    public int getImageLoadsAfterStartup() {
+        if (startupImageLoadCount < 0) {
+            return 0;
+        }
+        return imageLoadCount - startupImageLoadCount;
+    }
     
     
     /**
@@ -81,17 +342,197 @@ public class ResourceManager {
      * @param path the sound path
      */
     public void add(Sound soundID, String path) {
-        sounds.put(soundID, path);
+        soundPaths.put(soundID, path);
+        onDemandSounds.remove(soundID);
+
+        loader.submit(path, () -> {
+            if (pack != null && pack.hasSound(path)) {
+                SoundData data = pack.readSound(path);
+                return new LoadedSound(contentKey(data.getSamples()), data);
+            }
+            byte[] bytes = readBytes(getClass().getClassLoader().getResourceAsStream(path));
+            return new LoadedSound(contentKey(ByteBuffer.wrap(bytes)), SoundData.decodeWav(new ByteArrayInputStream(bytes)));
+        }, loaded -> {
+            // A sound can be registered again with a different file. The last
+            // registered file wins no matter which one finishes first.
+            if (loaded != null && path.equals(soundPaths.get(soundID))) {
+                sounds.put(soundID, loaded.data);
+                soundKeys.put(soundID, loaded.key);
+            }
+        });
+    }
+
+    /**
+     * A decoded sound and its content key.
+     */
+    private static class LoadedSound {
+
+        private final String key;
+        private final SoundData data;
+
+        public LoadedSound(String key, SoundData data) {
+            this.key = key;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Register a new sound that is decoded when it is needed.
+     *
+     * Only the compressed file is kept in memory. The sound is decoded by
+     * decodeSound().
+     *
+     * @param soundID the sound id
+     * @param path the sound path
+     */
+    public void addOnDemand(Sound soundID, String path) {
+        soundPaths.put(soundID, path);
+        onDemandSounds.add(soundID);
+        sounds.remove(soundID);
+        encodedSounds.remove(soundID);
+
+        if (pack != null && pack.hasSound(path)) {
+            // Read from the pack when it is decoded.
+            loader.submit(path, () -> contentKey(pack.readSound(path).getSamples()), key -> {
+                if (key != null && path.equals(soundPaths.get(soundID))) {
+                    soundKeys.put(soundID, key);
+                }
+            });
+            return;
+        }
+        loader.submit(path, () -> readBytes(getClass().getClassLoader().getResourceAsStream(path)), bytes -> {
+            if (bytes != null && path.equals(soundPaths.get(soundID))) {
+                encodedSounds.put(soundID, bytes);
+                soundKeys.put(soundID, contentKey(ByteBuffer.wrap(bytes)));
+            }
+        });
+    }
+
+    /**
+     * Returns the content key of a sound. Sounds with the same key have the
+     * same sound data.
+     *
+     * @param soundID the id of the sound
+     * @return the key, or null if the sound could not be loaded
+     */
+    public String getSoundKey(Sound soundID) {
+        return soundKeys.get(soundID);
+    }
+
+    /**
+     * Returns a hash of the data as a hex string.
+     */
+    private static String contentKey(ByteBuffer data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(data.duplicate());
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest.digest()) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex); // Every Java platform has SHA-1.
+        }
+    }
+
+    /**
+     * Decodes a sound that was registered with addOnDemand(). Can be called
+     * from any thread after the loading is done.
+     *
+     * @param soundID the id of the sound
+     * @return the decoded sound data
+     *
+     * @throws IOException if the sound could not be decoded
+     */
+    public SoundData decodeSound(Sound soundID) throws IOException {
+        String path = soundPaths.get(soundID);
+        if (path != null && pack != null && pack.hasSound(path)) {
+            return pack.readSound(path);
+        }
+        byte[] bytes = encodedSounds.get(soundID);
+        if (bytes == null) {
+            throw new IOException("Sound is not loaded: " + soundID);
+        }
+        return SoundData.decodeWav(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Returns true if the sound is decoded when it is needed instead of
+     * during loading.
+     *
+     * @param soundID the id of the sound
+     * @return true if the sound must be decoded with decodeSound()
+     */
+    public boolean isDecodedOnDemand(Sound soundID) {
+        return onDemandSounds.contains(soundID);
+    }
+
+    /**
+     * Frees the sound data that was decoded during loading.
+     *
+     * Should be called when the sounds have been handed over to the sound
+     * system, which keeps its own copy.
+     */
+    public void releaseSounds() {
+        sounds.clear();
+    }
+
+    private static byte[] readBytes(InputStream in) throws IOException {
+        if (in == null) {
+            throw new IOException("Missing sound file");
+        }
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[16 * 1024];
+            int length;
+            while ((length = input.read(chunk)) > 0) {
+                out.write(chunk, 0, length);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Register a new sound that is streamed when it is played.
+     *
+     * The sound is not loaded until openStream() is called.
+     *
+     * @param soundID the sound id
+     * @param path the sound path
+     */
+    public void addStream(Sound soundID, String path) {
+        soundPaths.put(soundID, path);
+        onDemandSounds.remove(soundID);
+    }
+
+    /**
+     * Opens a stream of the sound associated with a specific ID.
+     *
+     * @param soundID the id of the sound
+     * @return the stream
+     *
+     * @throws IOException if the sound could not be opened
+     */
+    public SoundStream openStream(Sound soundID) throws IOException {
+        String path = soundPaths.get(soundID);
+        if (path == null) {
+            throw new IOException("Unknown sound: " + soundID);
+        }
+        if (pack != null && pack.hasSound(path)) {
+            return new SoundDataStream(pack.readSound(path));
+        }
+        return new WavStream(() -> getClass().getClassLoader().getResourceAsStream(path));
     }
 
     /**
-     * Returns input stream the sound data associated with a specific ID
+     * Returns the decoded sound data associated with a specific ID
      *
      * @param soundID the id of the sound
-     * @return the input stream of the sound data
+     * @return the sound data, or null if the sound could not be loaded
      */
-    public InputStream getSound(Sound soundID) {
-        return getClass().getClassLoader().getResourceAsStream(sounds.get(soundID));
+    public SoundData getSound(Sound soundID) {
+        return sounds.get(soundID);
     }
     
 }
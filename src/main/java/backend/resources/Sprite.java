@@ -0,0 +1,163 @@
+package backend.resources;
+
+import processing.core.PApplet;
+import processing.core.PGraphics;
+import processing.core.PImage;
+
+/**
+ * A handle to an image that is stored as a sub-rectangle of a larger texture.
+ *
+ * Drawing many sprites that share the same texture lets the renderer batch
+ * the draws without switching textures in between.
+ *
+ * A sprite can have several pre-scaled versions of the image (levels), each
+ * half the size of the previous one. The level that is closest to the size
+ * the sprite is drawn with is used, so large images are not resampled every
+ * frame.
+ *
+ * @author pitmairen
+ */
+public class Sprite {
+
+    /**
+     * One pre-scaled version of the image.
+     */
+    public static class Level {
+
+        private final PImage texture;
+        private final int u1;
+        private final int v1;
+        private final int u2;
+        private final int v2;
+
+        /**
+         * Constructor.
+         *
+         * @param texture the texture that holds the level
+         * @param x the x-position of the upper left corner in the texture
+         * @param y the y-position of the upper left corner in the texture
+         * @param width the width of the level in pixels
+         * @param height the height of the level in pixels
+         */
+        public Level(PImage texture, int x, int y, int width, int height) {
+            this.texture = texture;
+            this.u1 = x;
+            this.v1 = y;
+            this.u2 = x + width;
+            this.v2 = y + height;
+        }
+
+        // Getters.
+        public PImage getTexture() {
+            return texture;
+        }
+
+        public int getWidth() {
+            return u2 - u1;
+        }
+
+        public int getHeight() {
+            return v2 - v1;
+        }
+    }
+
+    // The size of the original image.
+    private final int width;
+    private final int height;
+
+    // Ordered from the largest to the smallest.
+    private final Level[] levels;
+
+    /**
+     * Creates a sprite that covers the whole image.
+     *
+     * @param image the image
+     */
+    public Sprite(PImage image) {
+        this(image.width, image.height, new Level(image, 0, 0, image.width, image.height));
+    }
+
+    /**
+     * Creates a sprite.
+     *
+     * @param width the width of the original image
+     * @param height the height of the original image
+     * @param levels the pre-scaled levels ordered from largest to smallest
+     */
+    public Sprite(int width, int height, Level... levels) {
+        this.width = width;
+        this.height = height;
+        this.levels = levels;
+    }
+
+    /**
+     * Draws the sprite with its original size. Respects the current image
+     * mode.
+     *
+     * @param app the processing app
+     * @param x the x-position
+     * @param y the y-position
+     */
+    public void draw(PApplet app, float x, float y) {
+        draw(app, x, y, width, height);
+    }
+
+    /**
+     * Draws the sprite. Respects the current image mode.
+     *
+     * @param app the processing app
+     * @param x the x-position
+     * @param y the y-position
+     * @param width the width to draw the sprite with
+     * @param height the height to draw the sprite with
+     */
+    public void draw(PApplet app, float x, float y, float width, float height) {
+        Level level = getLevel(width, height);
+        app.image(level.texture, x, y, width, height, level.u1, level.v1, level.u2, level.v2);
+    }
+
+    /**
+     * Draws the sprite to an offscreen canvas. Respects the current image
+     * mode of the canvas.
+     *
+     * @param canvas the canvas to draw to
+     * @param x the x-position
+     * @param y the y-position
+     * @param width the width to draw the sprite with
+     * @param height the height to draw the sprite with
+     */
+    public void draw(PGraphics canvas, float x, float y, float width, float height) {
+        Level level = getLevel(width, height);
+        canvas.image(level.texture, x, y, width, height, level.u1, level.v1, level.u2, level.v2);
+    }
+
+    /**
+     * Returns the smallest level that is at least as large as the given size.
+     * Returns the largest level if none of them are large enough.
+     *
+     * @param width the width the sprite will be drawn with
+     * @param height the height the sprite will be drawn with
+     * @return the level to draw
+     */
+    public Level getLevel(float width, float height) {
+        for (int i = levels.length - 1; i > 0; i--) {
+            if (levels[i].getWidth() >= Math.abs(width) && levels[i].getHeight() >= Math.abs(height)) {
+                return levels[i];
+            }
+        }
+        return levels[0];
+    }
+
+    // Getters.
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getLevelCount() {
+        return levels.length;
+    }
+}
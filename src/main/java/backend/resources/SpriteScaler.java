@@ -0,0 +1,66 @@
+package backend.resources;
+
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PImage;
+
+/**
+ * Creates the pre-scaled versions of the sprite images.
+ *
+ * @author pitmairen
+ */
+public class SpriteScaler {
+
+    /**
+     * Returns a copy of the image that is half the size of the original.
+     *
+     * Each pixel is the average of a 2x2 block in the original image. The
+     * colors are weighted by the alpha value so that fully transparent pixels
+     * do not darken the edges of the sprite.
+     *
+     * @param app the processing app
+     * @param image the image to scale down
+     * @return the scaled image
+     */
+    public static PImage halve(PApplet app, PImage image) {
+
+        image.loadPixels();
+
+        int width = Math.max(image.width / 2, 1);
+        int height = Math.max(image.height / 2, 1);
+        PImage result = app.createImage(width, height, PConstants.ARGB);
+        result.loadPixels();
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+
+                int a = 0;
+                int r = 0;
+                int g = 0;
+                int b = 0;
+
+                for (int dy = 0; dy < 2; dy++) {
+                    for (int dx = 0; dx < 2; dx++) {
+                        int srcX = Math.min(x * 2 + dx, image.width - 1);
+                        int srcY = Math.min(y * 2 + dy, image.height - 1);
+                        int argb = image.pixels[srcY * image.width + srcX];
+                        int alpha = (argb >>> 24) & 0xff;
+                        a += alpha;
+                        r += ((argb >> 16) & 0xff) * alpha;
+                        g += ((argb >> 8) & 0xff) * alpha;
+                        b += (argb & 0xff) * alpha;
+                    }
+                }
+
+                if (a > 0) {
+                    r /= a;
+                    g /= a;
+                    b /= a;
+                }
+                result.pixels[y * width + x] = ((a / 4) << 24) | (r << 16) | (g << 8) | b;
+            }
+        }
+        result.updatePixels();
+        return result;
+    }
+}
@@ -0,0 +1,164 @@
+package backend.resources;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PImage;
+
+/**
+ * Packs many small images into one or a few large textures.
+ *
+ * The images are sorted by height and placed on horizontal shelves. When a
+ * page is full a new page is started. Each image is surrounded by a border
+ * where the edge pixels are repeated, so that the texture filtering does not
+ * pick up colors from the neighbouring images.
+ *
+ * @author pitmairen
+ */
+public class TextureAtlas {
+
+    private static final int PAGE_SIZE = 2048;
+    private static final int PADDING = 2;
+
+    private final PApplet app;
+    private final ArrayList<PImage> pages;
+
+    /**
+     * A image waiting to be packed.
+     */
+    private static class Entry<K> {
+
+        private final K key;
+        private final PImage image;
+        private int page;
+        private int x;
+        private int y;
+
+        public Entry(K key, PImage image) {
+            this.key = key;
+            this.image = image;
+        }
+    }
+
+    /**
+     * Receives the sprites when the packing is done.
+     */
+    public interface Listener<K> {
+
+        /**
+         * Called once for every packed image.
+         *
+         * @param key the key the image was added with
+         * @param location the location of the image in the atlas
+         */
+        public void packed(K key, Sprite.Level location);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param app the processing app
+     */
+    public TextureAtlas(PApplet app) {
+        this.app = app;
+        this.pages = new ArrayList<>();
+    }
+
+    /**
+     * Packs the images into atlas pages.
+     *
+     * @param keys the keys of the images
+     * @param images the images. Must be in the same order as the keys.
+     * @param listener receives a sprite for each of the images
+     */
+    public <K> void pack(ArrayList<K> keys, ArrayList<PImage> images, Listener<K> listener) {
+
+        ArrayList<Entry<K>> entries = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            entries.add(new Entry<>(keys.get(i), images.get(i)));
+        }
+
+        // Tall images first gives less wasted space on each shelf.
+        entries.sort(Comparator.comparingInt((Entry<K> e) -> e.image.height).reversed());
+
+        ArrayList<Integer> pageHeights = new ArrayList<>();
+        int page = 0;
+        int shelfX = 0;
+        int shelfY = 0;
+        int shelfHeight = 0;
+
+        for (Entry<K> entry : entries) {
+            int w = entry.image.width + PADDING * 2;
+            int h = entry.image.height + PADDING * 2;
+
+            if (w > PAGE_SIZE || h > PAGE_SIZE) {
+                throw new IllegalArgumentException("Image is too large for the texture atlas: " + entry.key);
+            }
+            if (shelfX + w > PAGE_SIZE) {   // Start a new shelf.
+                shelfY += shelfHeight;
+                shelfX = 0;
+                shelfHeight = 0;
+            }
+            if (shelfY + h > PAGE_SIZE) {   // Start a new page.
+                pageHeights.add(shelfY);
+                page++;
+                shelfX = 0;
+                shelfY = 0;
+                shelfHeight = 0;
+            }
+            entry.page = page;
+            entry.x = shelfX + PADDING;
+            entry.y = shelfY + PADDING;
+            shelfX += w;
+            shelfHeight = Math.max(shelfHeight, h);
+        }
+        pageHeights.add(shelfY + shelfHeight);
+
+        int firstPage = pages.size();
+        for (int height : pageHeights) {
+            PImage texture = app.createImage(PAGE_SIZE, Math.max(height, 1), PConstants.ARGB);
+            texture.loadPixels();
+            pages.add(texture);
+        }
+
+        for (Entry<K> entry : entries) {
+            copyInto(pages.get(firstPage + entry.page), entry.image, entry.x, entry.y);
+        }
+        for (int i = firstPage; i < pages.size(); i++) {
+            pages.get(i).updatePixels();
+        }
+
+        for (Entry<K> entry : entries) {
+            listener.packed(entry.key, new Sprite.Level(pages.get(firstPage + entry.page),
+                    entry.x, entry.y, entry.image.width, entry.image.height));
+        }
+    }
+
+    /**
+     * Returns the number of atlas pages.
+     *
+     * @return the number of pages
+     */
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Copies the image into the page and repeats the edge pixels into the
+     * padding around it.
+     */
+    private void copyInto(PImage page, PImage image, int x, int y) {
+
+        image.loadPixels();
+
+        for (int row = -PADDING; row < image.height + PADDING; row++) {
+            int srcRow = Math.min(Math.max(row, 0), image.height - 1);
+            int dstRow = y + row;
+            for (int col = -PADDING; col < image.width + PADDING; col++) {
+                int srcCol = Math.min(Math.max(col, 0), image.width - 1);
+                page.pixels[dstRow * page.width + x + col] = image.pixels[srcRow * image.width + srcCol];
+            }
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package backend.shipmodule;
 
-import backend.main.Timer;
+import backend.main.Cooldown;
 import backend.actor.Actor;
 import backend.actor.projectile.Bullet;
-import backend.resources.Image;
-import backend.resources.Sound;
+import backend.event.ProjectileFired;
+import backend.snapshot.ModuleType;
 
 /**
  * Automatic cannon that fires bullets. Rapid fire and small damage.
@@ -19,7 +19,7 @@ public class AutoCannon extends OffensiveModule {
     private int[] turretRGBA = new int[]{30, 30, 200, 255};
 
     private double timeBetweenShots = 130;
-    private Timer timer = new Timer();
+    private Cooldown cooldown = new Cooldown(owner.getGameEngine().getClock(), timeBetweenShots);
 
     /**
      * Constructor.
@@ -30,12 +30,7 @@ public class AutoCannon extends OffensiveModule {
         launchVelocity = 1.4;
         projectileDamage = 1.6;
 
-        moduleImage = getImageFromResourceManager(Image.LIGHT_CANNON);
-    }
-
-    @Override
-    public void draw() {
-        drawModule(moduleImage, 0, 0, defaultModuleWidth, defaultModuleHeight);
+        type = ModuleType.AUTO_CANNON;
     }
 
     /**
@@ -44,15 +39,15 @@ public class AutoCannon extends OffensiveModule {
     @Override
     public void activate() {
 
-        if (timer.timePassed() >= timeBetweenShots) {   // Check fire rate.
+        if (cooldown.isReady()) {   // Check fire rate.
 
-            owner.getGameEngine().getSoundManager().play(Sound.AUTO_CANNON, owner.getPosition());
             Bullet bullet = new Bullet(owner.getPosition().copy(), this);
 
             owner.getGameEngine().getCurrentLevel().getProjectiles().add(bullet);
             owner.getGameEngine().getCurrentLevel().getActors().add(bullet);
+            owner.getGameEngine().getEvents().post(new ProjectileFired(this, bullet));
 
-            timer.reset();
+            cooldown.start(timeBetweenShots);
         }
     }
 
@@ -17,8 +17,4 @@ public abstract class DefensiveModule extends ShipModule {
     public void activate() {
     }
 
-    @Override
-    public void draw() {
-    }
-
 }
@@ -1,12 +1,11 @@
 package backend.shipmodule;
 
-import backend.main.Timer;
+import backend.main.Cooldown;
 import backend.actor.Actor;
 import backend.actor.enemy.KamikazeDrone;
 import backend.actor.ai.DroneAI;
 import backend.main.Vector;
-import backend.resources.Image;
-import processing.core.PImage;
+import backend.snapshot.ModuleType;
 
 /**
  * Launches drones.
@@ -20,13 +19,12 @@ public class DroneLauncher extends OffensiveModule {
     private int[] turretRGBA = new int[]{100, 100, 100, 255};
 
     private double timeBetweenShots = 600;
-    private Timer timer = new Timer();
+    private Cooldown cooldown = new Cooldown(owner.getGameEngine().getClock(), timeBetweenShots);
 
     private double spawnAngle = Math.PI / 4;
     private Vector spawnPosition1 = null;
     private Vector spawnPosition2 = null;
     private KamikazeDrone drone = null;
-    private final PImage laucherImg;
 
     /**
      * Constructor.
@@ -34,25 +32,7 @@ public class DroneLauncher extends OffensiveModule {
     public DroneLauncher(Actor owner) {
         super("Drone Launcher", owner);
         updateVectors();
-        laucherImg = owner.getGameEngine().getResourceManager().getImage(Image.DRONE_LAUNCHER);
-    }
-
-    @Override
-    public void draw() {
-
-        updateVectors();
-
-        owner.getGuiHandler().strokeWeight(turretWidth);
-        owner.getGuiHandler().stroke(turretRGBA[0], turretRGBA[1], turretRGBA[2]);
-        owner.getGuiHandler().fill(turretRGBA[0], turretRGBA[1], turretRGBA[2]);
-
-        owner.getGuiHandler().pushMatrix();
-        owner.getGuiHandler().translate((float) owner.getPosition().getX(), (float) owner.getPosition().getY());
-        owner.getGuiHandler().rotate((float) (owner.getHeading().getAngle2D() + Math.PI / 2));
-        owner.getGuiHandler().imageMode(PImage.CENTER);
-        owner.getGuiHandler().image(laucherImg, 0, 0, 181.4f, 84.0f);
-        owner.getGuiHandler().imageMode(PImage.CORNER);
-        owner.getGuiHandler().popMatrix();
+        type = ModuleType.DRONE_LAUNCHER;
     }
 
     /**
@@ -71,7 +51,7 @@ public class DroneLauncher extends OffensiveModule {
     @Override
     public void activate() {
 
-        if (timer.timePassed() >= timeBetweenShots) {   // Check fire rate.
+        if (cooldown.isReady()) {   // Check fire rate.
 
             updateVectors();
 
@@ -85,7 +65,7 @@ public class DroneLauncher extends OffensiveModule {
             owner.getGameEngine().getCurrentLevel().getEnemies().add(drone);
             owner.getGameEngine().getCurrentLevel().getActors().add(drone);
 
-            timer.reset();
+            cooldown.start(timeBetweenShots);
         }
     }
 
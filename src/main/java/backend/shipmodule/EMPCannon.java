@@ -2,10 +2,9 @@ package backend.shipmodule;
 
 import backend.actor.Actor;
 import backend.actor.projectile.EMPPulse;
-import backend.main.FadingCanvasItemManager;
-import backend.main.Timer;
-import backend.resources.Image;
-import backend.resources.Sound;
+import backend.event.ProjectileFired;
+import backend.main.Cooldown;
+import backend.snapshot.ModuleType;
 
 /**
  * Fires EMP Pulses
@@ -20,25 +19,17 @@ public class EMPCannon extends TacticalModule {
     private int[] weaponRGBA = new int[]{10, 10, 140, 255};
 
     private double timeBetweenShots = 2000;
-    private Timer timer = new Timer();
-    private FadingCanvasItemManager fadingCanvasItems;
+    private Cooldown cooldown = new Cooldown(owner.getGameEngine().getClock(), timeBetweenShots);
 
     /**
      * Constructor.
      */
-    public EMPCannon(Actor owner, FadingCanvasItemManager itemManager) {
+    public EMPCannon(Actor owner) {
         super("EMP Cannon", owner);
 
-        this.fadingCanvasItems = itemManager;
         projectileDamage = 2;
 
-        moduleImage = getImageFromResourceManager(Image.EMP_CANNON);
-    }
-
-    @Override
-    public void draw() {
-        drawModule(moduleImage, 0, 15, defaultModuleWidth / 2, defaultModuleHeight / 2);
-        drawModule(moduleImage, 0, -15, defaultModuleWidth / 2, defaultModuleHeight / 2);
+        type = ModuleType.EMP_CANNON;
     }
 
     /**
@@ -52,17 +43,15 @@ public class EMPCannon extends TacticalModule {
             return;
         }
 
-        if (timer.timePassed() >= timeBetweenShots) {   // Check fire rate.
-
-            owner.getGameEngine().getSoundManager().play(Sound.EMP, owner.getPosition());
+        if (cooldown.isReady()) {   // Check fire rate.
 
             EMPPulse pulse = new EMPPulse(owner.getPosition().copy(), this);
 
             owner.getGameEngine().getCurrentLevel().getProjectiles().add(pulse);
             owner.getGameEngine().getCurrentLevel().getActors().add(pulse);
-            fadingCanvasItems.add(pulse);
+            owner.getGameEngine().getEvents().post(new ProjectileFired(this, pulse));
 
-            timer.reset();
+            cooldown.start(timeBetweenShots);
 
             owner.removeEnergy(60);
         }
@@ -3,10 +3,9 @@ package backend.shipmodule;
 import backend.actor.Actor;
 import backend.actor.enemy.Enemy;
 import backend.main.Vector;
-import backend.resources.Image;
 import backend.resources.Sound;
-import processing.core.PImage;
-import userinterface.GUIHandler;
+import backend.snapshot.ActorSnapshot;
+import backend.snapshot.ModuleType;
 
 /**
  * A laser. Fires a constant laser beam at the target.
@@ -20,41 +19,30 @@ public class LaserCannon extends OffensiveModule {
     private int turretWidth = 4;
     private int[] turretRGBA = new int[]{200, 30, 30, 255};
 
-    private PImage bgImage;
     private boolean soundActive = false;
 
+    // The length of the beam in the last update. Zero when the laser is off.
+    private float beamLength = 0;
+
     /**
      * Constructor.
      */
     public LaserCannon(Actor owner) {
         super("Laser Cannon", owner);
 
-        bgImage = owner.getGameEngine().getResourceManager().getImage(Image.LASER_BEAM);
-        projectileDamage = 0.04f;
-        moduleImage = getImageFromResourceManager(Image.LASER_CANNON);
+        projectileDamage = 2.4f;    // Damage per second.
+        type = ModuleType.LASER_CANNON;
     }
 
     @Override
-    public void draw() {
-
-        // Draw the cannon.
-        drawModule(moduleImage, 5, 0, defaultModuleWidth, defaultModuleHeight);
+    public void update(double timePassed) {
 
-        // Draw the laser beam.
         if (this.moduleActive) {
-            double screenWidth = owner.getGameEngine().getGuiHandler().getWidth();
-            double screenHeight = owner.getGameEngine().getGuiHandler().getHeight();
+            double screenWidth = owner.getGameEngine().getConfig().getWorldWidth();
+            double screenHeight = owner.getGameEngine().getConfig().getWorldHeight();
             double screenDiagonalLength = Math.sqrt(Math.pow(screenWidth, 2) + Math.pow(screenHeight, 2));
 
-            float laserLength = Math.min(findLaserLength(), (float) screenDiagonalLength);
-
-            GUIHandler gui = owner.getGuiHandler();
-            gui.pushMatrix();
-            gui.tint(0xffff0000);
-            gui.translate((float) owner.getPosition().getX(), (float) owner.getPosition().getY());
-            gui.rotate((float) owner.getHeading().getAngle2D());
-            gui.image(bgImage, 25, -5, (float) laserLength - 25, 10);
-            gui.popMatrix();
+            beamLength = Math.min(findLaserLength(timePassed), (float) screenDiagonalLength);
 
             this.setModuleActive(false);
 
@@ -65,11 +53,19 @@ public class LaserCannon extends OffensiveModule {
                 owner.getGameEngine().getSoundManager().setPosition(Sound.LASER, owner.getPosition());
 
             }
-        } else if (soundActive) {
-            stopSound();
+        } else {
+            beamLength = 0;
+            if (soundActive) {
+                stopSound();
+            }
         }
     }
 
+    @Override
+    public void snapshot(ActorSnapshot snapshot) {
+        snapshot.setBeamLength(beamLength);
+    }
+
     @Override
     public void deactivated(){
         stopSound();
@@ -114,9 +110,10 @@ public class LaserCannon extends OffensiveModule {
      * (Currently this also removes hit points from the target that is getting
      * hit. This design should probably be improved at some point.)
      *
+     * @param timePassed the time the target has been hit for
      * @return the distance to the target that is being hit by the laser
      */
-    private float findLaserLength() {
+    private float findLaserLength(double timePassed) {
 
         Vector laserPos = owner.getPosition().copy();
         Vector laserHeading = owner.getHeading().copy().normalize();
@@ -173,7 +170,7 @@ public class LaserCannon extends OffensiveModule {
         }
 
         if (closest != null) {
-            closest.removeHitPoints(projectileDamage);
+            closest.removeHitPoints(projectileDamage * timePassed / 1000);
         }
 
         return (float) shortestDistance;
@@ -1,10 +1,10 @@
 package backend.shipmodule;
 
-import backend.main.Timer;
+import backend.main.Cooldown;
 import backend.actor.Actor;
 import backend.actor.projectile.Bullet;
-import backend.resources.Image;
-import backend.resources.Sound;
+import backend.event.ProjectileFired;
+import backend.snapshot.ModuleType;
 
 /**
  * Cannon that fires single slow moving bullets.
@@ -19,7 +19,7 @@ public class LightCannon extends OffensiveModule {
     private int[] turretRGBA = new int[]{70, 100, 100, 255};
 
     private double timeBetweenShots = 100;
-    private Timer timer = new Timer();
+    private Cooldown cooldown = new Cooldown(owner.getGameEngine().getClock(), timeBetweenShots);
 
     /**
      * Constructor.
@@ -30,12 +30,7 @@ public class LightCannon extends OffensiveModule {
         launchVelocity = 0.7;
         projectileDamage = 10;
 
-        moduleImage = getImageFromResourceManager(Image.LIGHT_CANNON);
-    }
-
-    //@Override
-    public void draw() {
-        drawModule(moduleImage, 0, 0, defaultModuleWidth, defaultModuleHeight);
+        type = ModuleType.LIGHT_CANNON;
     }
 
     /**
@@ -44,14 +39,14 @@ public class LightCannon extends OffensiveModule {
     @Override
     public void activate() {
 
-        if (timer.timePassed() >= timeBetweenShots) {   // Check fire rate.
-            owner.getGameEngine().getSoundManager().play(Sound.AUTO_CANNON, owner.getPosition());
+        if (cooldown.isReady()) {   // Check fire rate.
             Bullet bullet = new Bullet(owner.getPosition().copy(), this);
 
             owner.getGameEngine().getCurrentLevel().getProjectiles().add(bullet);
             owner.getGameEngine().getCurrentLevel().getActors().add(bullet);
+            owner.getGameEngine().getEvents().post(new ProjectileFired(this, bullet));
 
-            timer.reset();
+            cooldown.start(timeBetweenShots);
         }
     }
 
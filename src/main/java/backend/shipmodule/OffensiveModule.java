@@ -17,9 +17,4 @@ public abstract class OffensiveModule extends ShipModule {
     public void activate() {
     }
 
-    @Override
-    public void draw() {
-
-    }
-
 }
@@ -2,48 +2,31 @@ package backend.shipmodule;
 
 import backend.actor.Actor;
 import backend.actor.projectile.Rocket;
-import backend.main.RocketManager;
-import backend.main.Timer;
-import backend.resources.Image;
-import backend.resources.Sound;
+import backend.event.ProjectileFired;
+import backend.main.Cooldown;
+import backend.snapshot.ModuleType;
 
 /**
  * Fires rockets. Slow rate of fire and large damage.
  *
- * The rocket launcher manages all the active fire balls. It uses a offscreen
- * PGraphics objects for the drawing to be able to create a fading effect for
- * the rockets and the particles when the rocket explodes.
- *
- * It uses the particle emitter object to draw the particles when a rocket is
- * exploding.
- *
  * @author pitmairen
  */
 public class RocketLauncher extends OffensiveModule {
 
     private double timeBetweenShots = 1100;
-    private Timer timer = new Timer();
-
-    private RocketManager rocketManager;
+    private Cooldown cooldown = new Cooldown(owner.getGameEngine().getClock(), timeBetweenShots);
 
     /**
      * Constructor.
      */
-    public RocketLauncher(Actor owner, RocketManager rocketManager) {
+    public RocketLauncher(Actor owner) {
 
         super("Rocket Launcher", owner);
 
-        this.rocketManager = rocketManager;
-
         launchVelocity = 0.6;
         projectileDamage = 34;
 
-        moduleImage = getImageFromResourceManager(Image.ROCKET_LAUNCHER);
-    }
-
-    @Override
-    public void draw() {
-        drawModule(moduleImage, 0, 0, defaultModuleWidth, defaultModuleHeight);
+        type = ModuleType.ROCKET_LAUNCHER;
     }
 
     /**
@@ -53,17 +36,15 @@ public class RocketLauncher extends OffensiveModule {
     public void activate() {
 
         // Wait for timer for each shot.
-        if (timer.timePassed() >= timeBetweenShots) {
-
-            owner.getGameEngine().getSoundManager().play(Sound.MISSILE_LAUNCH, owner.getPosition());
+        if (cooldown.isReady()) {
 
             Rocket rocket = new Rocket(owner.getPosition().copy(), this);
 
             owner.getGameEngine().getCurrentLevel().getProjectiles().add(rocket);
             owner.getGameEngine().getCurrentLevel().getActors().add(rocket);
-            rocketManager.addRocket(rocket);
+            owner.getGameEngine().getEvents().post(new ProjectileFired(this, rocket));
 
-            timer.reset();
+            cooldown.start(timeBetweenShots);
         }
     }
 
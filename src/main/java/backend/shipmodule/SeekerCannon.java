@@ -3,14 +3,12 @@ package backend.shipmodule;
 import backend.actor.Actor;
 import backend.actor.enemy.Enemy;
 import backend.actor.projectile.SeekerMissile;
-import backend.main.FadingCanvasItemManager;
-import backend.main.Timer;
+import backend.event.ProjectileFired;
+import backend.main.Cooldown;
 import backend.main.Vector;
-import backend.resources.Image;
-import backend.resources.Sound;
+import backend.snapshot.ActorSnapshot;
+import backend.snapshot.ModuleType;
 import java.util.ArrayList;
-import processing.core.PApplet;
-import processing.core.PImage;
 
 /**
  * The seeker cannon selects the closes target and fires a seeker missile
@@ -23,47 +21,50 @@ public class SeekerCannon extends OffensiveModule {
     private final int turretWidth = 7;
     private final int turretRGBA = 0xff441599;
 
-    private final Timer timer = new Timer();
     private final double timeBetweenShots = 700;
-    private final FadingCanvasItemManager fadingCanvasItems;
+    private final Cooldown cooldown = new Cooldown(owner.getGameEngine().getClock(), timeBetweenShots);
     private TargetSelector selector;
 
-    public SeekerCannon(Actor owner, FadingCanvasItemManager itemManager) {
+    public SeekerCannon(Actor owner) {
         super("SeekerCannon", owner);
 
         projectileDamage = 10;
-        fadingCanvasItems = itemManager;
 
-        moduleImage = getImageFromResourceManager(Image.SEEKER_CANNON);
+        type = ModuleType.SEEKER_CANNON;
     }
 
     @Override
-    public void draw() {
-        drawModule(moduleImage, 0, 0, defaultModuleWidth, defaultModuleHeight);
+    public void update(double timePassed) {
+        updateSelector(timePassed);
+    }
 
-        updateSelector();
+    @Override
+    public void snapshot(ActorSnapshot snapshot) {
+        if (selector != null && !selector.ready()) {
+            Vector target = selector.getSelected().getPosition();
+            snapshot.setTarget((float) target.getX(), (float) target.getY());
+        }
     }
 
     @Override
     public void activate() {
         if (owner.getGameEngine().getCurrentLevel().getEnemies().size() > 0) {
-            if (timer.timePassed() >= timeBetweenShots) {
+            if (cooldown.isReady()) {
                 selector = findTarget();
-                timer.reset();
+                cooldown.start(timeBetweenShots);
             }
         }
     }
 
-    private void updateSelector() {
+    private void updateSelector(double timePassed) {
         if (selector == null) {
             return;
         }
 
-        selector.update();
+        selector.update(timePassed);
 
-        // If the target has not been found just draw the selector
+        // If the target has not been found the selector is still searching.
         if (!selector.ready()) {
-            selector.draw();
             return;
         }
 
@@ -71,16 +72,14 @@ public class SeekerCannon extends OffensiveModule {
         SeekerMissile.Target target = selector.getTarget();
 
         if (target != null) {
-            
-            owner.getGameEngine().getSoundManager().play(Sound.MISSILE_LAUNCH, owner.getPosition());
 
             SeekerMissile missile = new SeekerMissile(owner.getPosition().copy(), selector.getTarget(), this);
 
             owner.getGameEngine().getCurrentLevel().getProjectiles().add(missile);
             owner.getGameEngine().getCurrentLevel().getActors().add(missile);
+            owner.getGameEngine().getEvents().post(new ProjectileFired(this, missile));
 
             missile.getSpeedT().set(owner.getHeading().copy().normalize());
-            fadingCanvasItems.add(missile);
         }
 
         selector = null; // Remove the selector
@@ -110,17 +109,20 @@ public class SeekerCannon extends OffensiveModule {
     }
 
     /**
-     * The target selector draws a selector around the targets to indicate the
+     * The target selector moves a selector around the targets to indicate the
      * search pattern of the seeker. This is done in a pattern going through the
      * n-th closest enemies starting at the one farthest away and moving towards
      * the nearest enemy.
      */
     private class TargetSelector {
 
+        // The time the selector stays on each enemy.
+        private static final double STEP_TIME = 1000.0 / 3;
+
         private final ArrayList<Enemy> enemies;
 
         private int currentPosition;
-        private int updateCounter = 0;
+        private double stepTimer = 0;
 
         public TargetSelector(ArrayList<Enemy> actors) {
             this.enemies = actors;
@@ -129,28 +131,22 @@ public class SeekerCannon extends OffensiveModule {
             currentPosition = 0;
         }
 
-        public void update() {
-            updateCounter++;
-            // Update the position every 20rd frame
-            if (updateCounter % 20 == 0) {
+        public void update(double timePassed) {
+            stepTimer += timePassed;
+            // Move to the next position every step.
+            if (stepTimer >= STEP_TIME) {
+                stepTimer -= STEP_TIME;
                 currentPosition--;
             }
         }
 
-        public void draw() {
-
-            if (currentPosition == 0) { // We are at the final target
-                owner.getGuiHandler().fill(0xffff0000, 220);
-                owner.getGuiHandler().stroke(0xffff0000);
-            } else { // Its not the final target
-                owner.getGuiHandler().fill(0xff00ffff, 120);
-                owner.getGuiHandler().stroke(0xffffff00);
-
-            }
-            owner.getGuiHandler().strokeWeight(3);
-            owner.getGuiHandler().ellipse((float) enemies.get(currentPosition).getPosition().getX(),
-                    (float) enemies.get(currentPosition).getPosition().getY(), 60, 60);
-
+        /**
+         * Returns the enemy that is currently selected.
+         *
+         * @return the selected enemy
+         */
+        public Enemy getSelected() {
+            return enemies.get(currentPosition);
         }
 
         /**
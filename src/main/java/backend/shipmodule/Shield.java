@@ -2,15 +2,13 @@ package backend.shipmodule;
 
 import backend.actor.Actor;
 import backend.actor.projectile.Projectile;
+import backend.event.DamageDealt;
 import backend.main.GameEngine;
-import backend.main.Timer;
+import backend.main.Cooldown;
 import backend.main.Vector;
-import backend.resources.Image;
-import backend.resources.Shader;
 import backend.resources.Sound;
-import processing.core.PApplet;
-import processing.core.PImage;
-import processing.opengl.PShader;
+import backend.snapshot.ActorType;
+import backend.snapshot.ModuleType;
 
 /**
  * A defensive shield
@@ -19,35 +17,21 @@ import processing.opengl.PShader;
  */
 public class Shield extends DefensiveModule {
 
-    private final PShader shieldShader;
-
     private ShieldActor shield;
-    private final PImage shieldNoise;
-    private final PImage shieldBG;
     private final int shieldActivateDelay = 400;
-    private Timer shieldActivateTimer = new Timer();
+    private final double energyDrain = 0.012;   // Energy per millisecond.
+    private Cooldown shieldActivateCooldown = new Cooldown(owner.getGameEngine().getClock(), shieldActivateDelay);
 
     public Shield(Actor owner) {
         super("Shield", owner);
 
-        PApplet gui = owner.getGuiHandler();
-        shieldShader = owner.getGameEngine().getResourceManager().getShader(Shader.SHIELD_SHADER);
-        shieldShader.set("resolution", (float) 800f, (float) 600f);
-        shieldNoise = owner.getGameEngine().getResourceManager().getImage(Image.SHIELD_NOISE);
-        shieldBG = owner.getGameEngine().getResourceManager().getImage(Image.SHIELD_BACKGROUND);
-
-        moduleImage = getImageFromResourceManager(Image.SHIELD_MODULE);
-    }
-
-    @Override
-    public void draw() {
-        drawModule(moduleImage, -15, 0, defaultModuleWidth / 2, defaultModuleHeight / 2);
+        type = ModuleType.SHIELD;
     }
 
     @Override
     public void activate() {
 
-        if (shieldActivateDelay - shieldActivateTimer.timePassed() <= 0) {
+        if (shieldActivateCooldown.isReady()) {
 
             // Create the shield if it has not been avtivated before
             if (shield == null) {
@@ -64,7 +48,7 @@ public class Shield extends DefensiveModule {
             } else {
                 shield.die();
             }
-            shieldActivateTimer.reset();
+            shieldActivateCooldown.start(shieldActivateDelay);
         }
     }
 
@@ -80,6 +64,7 @@ public class Shield extends DefensiveModule {
             super(position, gameEngine);
             hitBoxRadius = 80;
             collisionDamageToOthers = 40;
+            type = ActorType.SHIELD;
             reset();
         }
 
@@ -93,11 +78,22 @@ public class Shield extends DefensiveModule {
         }
 
         @Override
-        public void act(double timePassed) {
-            this.getPosition().set(owner.getPosition().copy());
+        public void move(double timePassed) {
+            // The shield follows the owner in resolve().
+        }
+
+        @Override
+        public void detectCollisions() {
+            // The projectiles find the shield when they look for their
+            // collisions.
+        }
+
+        @Override
+        public void resolve(double timePassed) {
+            this.getPosition().set(owner.getPosition());
 
             // The shield takes energy from the owner
-            owner.removeEnergy(0.2);
+            owner.removeEnergy(energyDrain * timePassed);
             if (owner.getCurrentEnergy() <= 0) {
                 this.die();
             }
@@ -106,30 +102,6 @@ public class Shield extends DefensiveModule {
             }
         }
 
-        @Override
-        public void draw() {
-
-            PApplet gui = getGuiHandler();
-            Vector pos = getPosition();
-            float x = (float) pos.getX();
-            float y = (float) pos.getY();
-
-            gui.blendMode(PApplet.ADD);
-            gui.shader(shieldShader);
-
-            shieldShader.set("position", x, (gui.height - y), 0f, 0f);
-            shieldShader.set("time", (float) gui.millis() * 0.00004f);
-
-            gui.imageMode(PApplet.CENTER);
-            gui.image(shieldNoise, x, y, 165, 165);
-
-            gui.resetShader();
-            gui.tint(0xff44ff22, 115);
-            gui.image(shieldBG, x, y, 165, 165);
-            gui.imageMode(PApplet.CORNER);
-            gui.blendMode(PApplet.BLEND);
-        }
-
         @Override
         public void die() {
             setCurrentHitPoints(0);
@@ -140,6 +112,7 @@ public class Shield extends DefensiveModule {
             if (actor instanceof Projectile) {
                 // Shields only interacts with projectiles.
                 removeHitPoints(actor.getCollisionDamageToOthers());
+                gameEngine.getEvents().post(new DamageDealt(actor, this, actor.getCollisionDamageToOthers()));
             }
         }
 
@@ -1,28 +1,23 @@
 package backend.shipmodule;
 
 import backend.actor.Actor;
-import backend.resources.Image;
-import processing.core.PApplet;
-import processing.core.PImage;
-import userinterface.Drawable;
+import backend.snapshot.ActorSnapshot;
+import backend.snapshot.ModuleType;
 
 /**
  * Super class for all ship modules.
  *
  * @author Kristian Honningsvag.
  */
-public abstract class ShipModule implements Drawable {
+public abstract class ShipModule {
 
     protected String name;  // From constructor.
     protected Actor owner;  // From constructor.
     protected double launchVelocity = 0;
     protected double projectileDamage = 0;
     protected boolean moduleActive = false;
-    
-    protected float defaultModuleWidth = 46.29f;
-    protected float defaultModuleHeight = 23.92f;
-    
-    protected PImage moduleImage;
+    protected boolean activationRequested = false;
+    protected ModuleType type;  // How the module is drawn.
 
     /**
      * Constructor.
@@ -40,6 +35,26 @@ public abstract class ShipModule implements Drawable {
      */
     public abstract void activate();
 
+    /**
+     * Activates the module the next time the owner updates its modules.
+     *
+     * Used by the AIs, which run in parallel and must not create actors.
+     */
+    public void requestActivation() {
+        activationRequested = true;
+    }
+
+    /**
+     * Activates the module if requestActivation() has been called since the
+     * last time.
+     */
+    public void activateIfRequested() {
+        if (activationRequested) {
+            activationRequested = false;
+            activate();
+        }
+    }
+
     /**
      * Sets the flag which indicates whether the module is currently active or
      * not.
@@ -51,38 +66,20 @@ public abstract class ShipModule implements Drawable {
     }
 
     /**
-     * Method for setting the graphics for the module.
+     * Updates the module. Called once each tick while the module is in use.
      *
-     * @param image File path to the image that should be loaded.
+     * @param timePassed Number of milliseconds since the previous tick.
      */
-    public void setImage(String image) {
-        this.moduleImage = owner.getGuiHandler().loadImage(image);
+    public void update(double timePassed) {
     }
 
     /**
-     * Draws the module on the player 
-     * 
-     * @param moduleImage 
-     * @param posX int X-Position from the center of the player
-     * @param posY int Y-Position from the center of the player
-     * @param width float Width of the module
-     * @param height float Width of the module
+     * Adds the state of the module that the renderer needs to the snapshot of
+     * the owner.
+     *
+     * @param snapshot The snapshot of the owner.
      */
-    public void drawModule(PImage moduleImage, int posX, int posY, float width, float height) {
-        PApplet gui = owner.getGuiHandler();
-        gui.tint(255);
-        gui.pushMatrix();
-        gui.translate((float) owner.getPosition().getX(), (float) owner.getPosition().getY());
-        gui.rotate((float) (owner.getHeading().getAngle2D()));
-        gui.imageMode(PImage.CENTER);
-        gui.image(moduleImage, posX, posY, width, height);
-        gui.imageMode(PImage.CORNER);
-        gui.popMatrix();
-    }
-    
-
-    public PImage getImageFromResourceManager(Image img){
-        return owner.getGameEngine().getResourceManager().getImage(img);
+    public void snapshot(ActorSnapshot snapshot) {
     }
 
     /**
@@ -116,8 +113,8 @@ public abstract class ShipModule implements Drawable {
         return moduleActive;
     }
 
-    public PImage getImage() {
-        return moduleImage;
+    public ModuleType getType() {
+        return type;
     }
 
     // Setters.
@@ -18,8 +18,4 @@ public abstract class TacticalModule extends ShipModule {
     public void activate() {
     }
 
-    @Override
-    public void draw() {
-    }
-
 }
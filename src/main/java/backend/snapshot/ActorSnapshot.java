@@ -0,0 +1,160 @@
+package backend.snapshot;
+
+/**
+ * What the renderer needs to know to draw one actor.
+ *
+ * Filled in by the actor on the simulation thread when a frame is
+ * published. The renderer only reads it.
+ *
+ * @author pitmairen
+ */
+public class ActorSnapshot {
+
+    private ActorType type;
+    private float x;
+    private float y;
+    private float previousX;
+    private float previousY;
+    private float heading;
+    private float radius;
+    private float health;
+    private float energy;
+
+    // Modules. Null if the actor does not have one.
+    private ModuleType offensiveModule;
+    private ModuleType defensiveModule;
+    private ModuleType tacticalModule;
+
+    // Laser beam. 0 if the laser is not firing.
+    private float beamLength;
+
+    // The target a seeker cannon is locking on to.
+    private boolean hasTarget;
+    private float targetX;
+    private float targetY;
+
+    /**
+     * Sets the values every actor has and clears the others.
+     *
+     * @param type the kind of actor
+     * @param x the x-position
+     * @param y the y-position
+     * @param previousX the x-position before the last tick
+     * @param previousY the y-position before the last tick
+     * @param heading the direction the actor is pointing in radians
+     * @param radius the radius of the hit box
+     */
+    public void set(ActorType type, double x, double y, double previousX, double previousY,
+            double heading, double radius) {
+        this.type = type;
+        this.x = (float) x;
+        this.y = (float) y;
+        this.previousX = (float) previousX;
+        this.previousY = (float) previousY;
+        this.heading = (float) heading;
+        this.radius = (float) radius;
+        health = 1;
+        energy = 1;
+        offensiveModule = null;
+        defensiveModule = null;
+        tacticalModule = null;
+        beamLength = 0;
+        hasTarget = false;
+    }
+
+    /**
+     * Sets how full the health and energy bars are.
+     *
+     * @param health the hit points (range: 0.0 - 1.0)
+     * @param energy the energy (range: 0.0 - 1.0)
+     */
+    public void setBars(double health, double energy) {
+        this.health = (float) health;
+        this.energy = (float) energy;
+    }
+
+    public void setModules(ModuleType offensive, ModuleType defensive, ModuleType tactical) {
+        this.offensiveModule = offensive;
+        this.defensiveModule = defensive;
+        this.tacticalModule = tactical;
+    }
+
+    public void setBeamLength(double beamLength) {
+        this.beamLength = (float) beamLength;
+    }
+
+    public void setTarget(double x, double y) {
+        this.hasTarget = true;
+        this.targetX = (float) x;
+        this.targetY = (float) y;
+    }
+
+    /**
+     * Returns the x-position between the previous and the current tick.
+     *
+     * @param alpha how far the frame is between the ticks (range: 0.0 - 1.0)
+     * @return the x-position to draw the actor at
+     */
+    public float getX(float alpha) {
+        return previousX + (x - previousX) * alpha;
+    }
+
+    /**
+     * Returns the y-position between the previous and the current tick.
+     *
+     * @param alpha how far the frame is between the ticks (range: 0.0 - 1.0)
+     * @return the y-position to draw the actor at
+     */
+    public float getY(float alpha) {
+        return previousY + (y - previousY) * alpha;
+    }
+
+    // Getters.
+    public ActorType getType() {
+        return type;
+    }
+
+    public float getHeading() {
+        return heading;
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    public float getHealth() {
+        return health;
+    }
+
+    public float getEnergy() {
+        return energy;
+    }
+
+    public ModuleType getOffensiveModule() {
+        return offensiveModule;
+    }
+
+    public ModuleType getDefensiveModule() {
+        return defensiveModule;
+    }
+
+    public ModuleType getTacticalModule() {
+        return tacticalModule;
+    }
+
+    public float getBeamLength() {
+        return beamLength;
+    }
+
+    public boolean hasTarget() {
+        return hasTarget;
+    }
+
+    public float getTargetX() {
+        return targetX;
+    }
+
+    public float getTargetY() {
+        return targetY;
+    }
+}
@@ -0,0 +1,22 @@
+package backend.snapshot;
+
+/**
+ * The kinds of actors the renderer knows how to draw.
+ *
+ * @author pitmairen
+ */
+public enum ActorType {
+
+    PLAYER,
+    FRIGATE,
+    DRONE_CARRIER,
+    KAMIKAZE_DRONE,
+    BULLET,
+    ROCKET,
+    SEEKER_MISSILE,
+    EMP_PULSE,
+    PARTS,
+    MODULE_CONTAINER,
+    SHIELD,
+
+}
@@ -0,0 +1,275 @@
+package backend.snapshot;
+
+import backend.main.SimulationState;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Everything the renderer needs to draw one frame: the actors, the
+ * particles and the values shown on the HUD.
+ *
+ * The simulation fills in a snapshot after each tick and hands it to the
+ * renderer through a TripleBuffer. The renderer never touches the live
+ * actors. The snapshots are reused, so filling one in does not allocate
+ * anything once the game has warmed up.
+ *
+ * @author pitmairen
+ */
+public class FrameSnapshot {
+
+    private static final int INITIAL_PARTICLES = 256;
+
+    // Simulation.
+    private SimulationState state;
+    private long tick;
+    private long time;          // System.nanoTime() when the tick was done.
+    private double tickTime;    // Milliseconds per tick.
+    private int tickRate;
+    private long droppedTicks;
+
+    // Actors. Only the first actorCount entries are used.
+    private final ArrayList<ActorSnapshot> actors = new ArrayList<>();
+    private int actorCount = 0;
+
+    // Particles.
+    private float[] particleX = new float[INITIAL_PARTICLES];
+    private float[] particleY = new float[INITIAL_PARTICLES];
+    private int[] particleColor = new int[INITIAL_PARTICLES];
+    private float[] particleOpacity = new float[INITIAL_PARTICLES];
+    private float[] particleSize = new float[INITIAL_PARTICLES];
+    private int particleCount = 0;
+
+    // HUD.
+    private boolean hasLevel;
+    private String levelName;
+    private int currentWave;
+    private double timeToNextWave;
+    private boolean onLastWave;
+    private int enemyCount;
+    private int projectileCount;
+    private int itemCount;
+    private int killChain;
+    private int score;
+    private String lastHitBy;
+    private double playerX;
+    private double playerY;
+    private double playerSpeed;
+    private double playerHeading;
+    private double playerCourse;
+
+    /**
+     * Starts a new frame. Removes the actors and particles of the previous
+     * one.
+     *
+     * @param state the state of the simulation
+     * @param tick the number of the tick
+     * @param tickTime the length of a tick in milliseconds
+     * @param tickRate the number of ticks per second
+     * @param droppedTicks the number of ticks that have been dropped
+     */
+    public void begin(SimulationState state, long tick, double tickTime, int tickRate, long droppedTicks) {
+        this.state = state;
+        this.tick = tick;
+        this.tickTime = tickTime;
+        this.tickRate = tickRate;
+        this.droppedTicks = droppedTicks;
+        this.time = System.nanoTime();
+        actorCount = 0;
+        particleCount = 0;
+        hasLevel = false;
+    }
+
+    /**
+     * Adds an actor to the frame.
+     *
+     * @return the snapshot for the actor to fill in
+     */
+    public ActorSnapshot addActor() {
+        if (actorCount == actors.size()) {
+            actors.add(new ActorSnapshot());
+        }
+        return actors.get(actorCount++);
+    }
+
+    /**
+     * Adds a particle to the frame.
+     *
+     * @param x the x-position
+     * @param y the y-position
+     * @param color the color
+     * @param opacity the opacity (range: 0 - 255)
+     * @param size the size
+     */
+    public void addParticle(float x, float y, int color, float opacity, float size) {
+        if (particleCount == particleX.length) {
+            int capacity = particleCount * 2;
+            particleX = Arrays.copyOf(particleX, capacity);
+            particleY = Arrays.copyOf(particleY, capacity);
+            particleColor = Arrays.copyOf(particleColor, capacity);
+            particleOpacity = Arrays.copyOf(particleOpacity, capacity);
+            particleSize = Arrays.copyOf(particleSize, capacity);
+        }
+        particleX[particleCount] = x;
+        particleY[particleCount] = y;
+        particleColor[particleCount] = color;
+        particleOpacity[particleCount] = opacity;
+        particleSize[particleCount] = size;
+        particleCount++;
+    }
+
+    /**
+     * Sets the level values shown on the HUD.
+     */
+    public void setLevel(String levelName, int currentWave, double timeToNextWave, boolean onLastWave,
+            int enemyCount, int projectileCount, int itemCount) {
+        this.hasLevel = true;
+        this.levelName = levelName;
+        this.currentWave = currentWave;
+        this.timeToNextWave = timeToNextWave;
+        this.onLastWave = onLastWave;
+        this.enemyCount = enemyCount;
+        this.projectileCount = projectileCount;
+        this.itemCount = itemCount;
+    }
+
+    /**
+     * Sets the player values shown on the HUD.
+     */
+    public void setPlayer(int killChain, int score, String lastHitBy, double x, double y,
+            double speed, double heading, double course) {
+        this.killChain = killChain;
+        this.score = score;
+        this.lastHitBy = lastHitBy;
+        this.playerX = x;
+        this.playerY = y;
+        this.playerSpeed = speed;
+        this.playerHeading = heading;
+        this.playerCourse = course;
+    }
+
+    /**
+     * Returns how far the renderer is between the previous and the current
+     * tick. The frame is drawn one tick behind the simulation, so the
+     * actors move smoothly between the ticks.
+     *
+     * @param now the current System.nanoTime()
+     * @return the interpolation factor (range: 0.0 - 1.0)
+     */
+    public float getInterpolationAlpha(long now) {
+        double alpha = (now - time) / (tickTime * 1e6);
+        return (float) Math.min(Math.max(alpha, 0), 1);
+    }
+
+    // Getters.
+    public SimulationState getState() {
+        return state;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    public int getActorCount() {
+        return actorCount;
+    }
+
+    public ActorSnapshot getActor(int index) {
+        return actors.get(index);
+    }
+
+    public int getParticleCount() {
+        return particleCount;
+    }
+
+    public float getParticleX(int index) {
+        return particleX[index];
+    }
+
+    public float getParticleY(int index) {
+        return particleY[index];
+    }
+
+    public int getParticleColor(int index) {
+        return particleColor[index];
+    }
+
+    public float getParticleOpacity(int index) {
+        return particleOpacity[index];
+    }
+
+    public float getParticleSize(int index) {
+        return particleSize[index];
+    }
+
+    public boolean hasLevel() {
+        return hasLevel;
+    }
+
+    public String getLevelName() {
+        return levelName;
+    }
+
+    public int getCurrentWave() {
+        return currentWave;
+    }
+
+    public double getTimeToNextWave() {
+        return timeToNextWave;
+    }
+
+    public boolean isOnLastWave() {
+        return onLastWave;
+    }
+
+    public int getEnemyCount() {
+        return enemyCount;
+    }
+
+    public int getProjectileCount() {
+        return projectileCount;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public int getKillChain() {
+        return killChain;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public String getLastHitBy() {
+        return lastHitBy;
+    }
+
+    public double getPlayerX() {
+        return playerX;
+    }
+
+    public double getPlayerY() {
+        return playerY;
+    }
+
+    public double getPlayerSpeed() {
+        return playerSpeed;
+    }
+
+    public double getPlayerHeading() {
+        return playerHeading;
+    }
+
+    public double getPlayerCourse() {
+        return playerCourse;
+    }
+}
@@ -0,0 +1,19 @@
+package backend.snapshot;
+
+/**
+ * The kinds of ship modules the renderer knows how to draw.
+ *
+ * @author pitmairen
+ */
+public enum ModuleType {
+
+    AUTO_CANNON,
+    LIGHT_CANNON,
+    LASER_CANNON,
+    ROCKET_LAUNCHER,
+    SEEKER_CANNON,
+    DRONE_LAUNCHER,
+    SHIELD,
+    EMP_CANNON,
+
+}
@@ -0,0 +1,78 @@
+package backend.snapshot;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands objects from one writer thread to one reader thread without locks.
+ *
+ * There are three buffers. The writer fills its own buffer and publishes it
+ * by swapping it with the shared one. The reader swaps its buffer with the
+ * shared one when a new one has been published. Neither thread waits for
+ * the other, and a buffer is never changed while the reader has it. If the
+ * writer publishes faster than the reader reads, the frames in between are
+ * skipped.
+ *
+ * @author pitmairen
+ */
+public class TripleBuffer<T> {
+
+    // Set in the shared index when it holds a buffer the reader has not
+    // seen.
+    private static final int FRESH = 4;
+
+    private final Object[] buffers = new Object[3];
+
+    // The buffer in the middle, plus the FRESH bit.
+    private final AtomicInteger shared = new AtomicInteger(1);
+
+    private int writeIndex = 0;  // Only used by the writer.
+    private int readIndex = 2;   // Only used by the reader.
+    private boolean published = false;   // Only used by the reader.
+
+    /**
+     * Constructor.
+     *
+     * @param factory creates the three buffers
+     */
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = factory.get();
+        }
+    }
+
+    /**
+     * Returns the buffer the writer fills. Must only be called from the
+     * writer thread.
+     *
+     * @return the buffer to write to
+     */
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer() {
+        return (T) buffers[writeIndex];
+    }
+
+    /**
+     * Publishes the write buffer to the reader. The writer gets a new buffer
+     * to fill. Must only be called from the writer thread.
+     */
+    public void publish() {
+        writeIndex = shared.getAndSet(writeIndex | FRESH) & ~FRESH;
+    }
+
+    /**
+     * Returns the most recently published buffer. The buffer stays
+     * unchanged until the next call. Must only be called from the reader
+     * thread.
+     *
+     * @return the latest buffer, or null if nothing has been published yet
+     */
+    @SuppressWarnings("unchecked")
+    public T read() {
+        if ((shared.get() & FRESH) != 0) {
+            readIndex = shared.getAndSet(readIndex) & ~FRESH;
+            published = true;
+        }
+        return published ? (T) buffers[readIndex] : null;
+    }
+}
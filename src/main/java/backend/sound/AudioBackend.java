@@ -0,0 +1,187 @@
+package backend.sound;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The sound system that plays the sounds.
+ *
+ * Sounds are stored in buffers. A buffer is played by connecting it to a
+ * source, or by queueing several buffers on a source to stream a sound.
+ *
+ * @author pitmairen
+ */
+public interface AudioBackend {
+
+    /**
+     * Generic error that is thrown when the backend fails.
+     */
+    public static class AudioError extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        public AudioError(String msg) {
+            super(msg);
+        }
+    }
+
+    /**
+     * Play the source with the given ID. A paused source continues where it
+     * was paused, otherwise it starts from the beginning.
+     *
+     * @param sourceId the ID of the source
+     */
+    public void play(int sourceId);
+
+    /**
+     * Play the source with the given ID, when the caller knows when the
+     * sound ends. The backend can then tell that the source is done without
+     * asking the sound system.
+     *
+     * @param sourceId the ID of the source
+     * @param endTime the System.nanoTime() when the sound is done
+     */
+    public void play(int sourceId, long endTime);
+
+    /**
+     * Stop the source with the given ID
+     *
+     * @param sourceId the ID of the source
+     */
+    public void stop(int sourceId);
+
+    /**
+     * Pause the source with the given ID
+     *
+     * @param sourceId the ID of the source
+     */
+    public void pause(int sourceId);
+
+    /**
+     * Set the position of the source
+     *
+     * @param sourceId the source ID
+     * @param x x-position (range: -1.0 - 1.0)
+     * @param y y-position (range: -1.0 - 1.0)
+     * @param z z-position (range: -1.0 - 1.0)
+     */
+    public void setPosition(int sourceId, float x, float y, float z);
+
+    /**
+     * Set the gain of the source. The global gain is applied on top of it.
+     *
+     * @param sourceId the source ID
+     * @param gain the gain value (range: 0.0 - 1.0)
+     */
+    public void setGain(int sourceId, float gain);
+
+    /**
+     * Set the gain of all the sources.
+     *
+     * @param value the gain value
+     */
+    public void setGlobalGain(float value);
+
+    /**
+     * Apply the source changes that have been made since the last flush.
+     * Called by the audio thread after each batch of sound commands.
+     */
+    public void flush();
+
+    /**
+     * Create a new buffer.
+     *
+     * @param sound the decoded sound data
+     * @return the buffer ID
+     *
+     * @throws backend.sound.AudioBackend.AudioError
+     */
+    public int createBuffer(SoundData sound) throws AudioError;
+
+    /**
+     * Create empty buffers that can be filled with fillBuffer().
+     *
+     * @param count the number of buffers
+     * @return the buffer IDs
+     *
+     * @throws backend.sound.AudioBackend.AudioError
+     */
+    public int[] createBuffers(int count) throws AudioError;
+
+    /**
+     * Delete a buffer and free its memory. The buffer must not be connected
+     * to a source.
+     *
+     * @param bufferID the buffer ID
+     */
+    public void deleteBuffer(int bufferID);
+
+    /**
+     * Replace the data in a buffer. The buffer must not be queued on a
+     * source.
+     *
+     * @param bufferID the buffer ID
+     * @param channels the number of channels
+     * @param bitsPerSample the number of bits per sample
+     * @param frequency the sample rate
+     * @param data the samples in native byte order. Must be a direct buffer.
+     */
+    public void fillBuffer(int bufferID, int channels, int bitsPerSample, int frequency, ByteBuffer data);
+
+    /**
+     * Add a new source.
+     *
+     * @param bufferID the buffer ID to connect the source to, or 0 for none
+     * @param loop true if the source should loop
+     * @return the source ID
+     *
+     * @throws backend.sound.AudioBackend.AudioError
+     */
+    public int addSource(int bufferID, boolean loop) throws AudioError;
+
+    /**
+     * Stop a source and free it. The source ID must not be used again.
+     *
+     * @param sourceId the source ID
+     */
+    public void deleteSource(int sourceId);
+
+    /**
+     * Connect a source to a different buffer. The source must be stopped.
+     *
+     * @param sourceId the source ID
+     * @param bufferID the buffer ID
+     */
+    public void setBuffer(int sourceId, int bufferID);
+
+    /**
+     * Add a buffer to the end of the play queue of a source.
+     *
+     * @param sourceId the source ID
+     * @param bufferID the buffer ID
+     */
+    public void queueBuffer(int sourceId, int bufferID);
+
+    /**
+     * Remove a buffer that has finished playing from the play queue.
+     *
+     * @param sourceId the source ID
+     * @return the buffer ID, or -1 if no buffers has finished playing
+     */
+    public int unqueueProcessedBuffer(int sourceId);
+
+    /**
+     * Returns the number of buffers in the play queue of a source.
+     *
+     * @param sourceId the source ID
+     * @return the number of queued buffers
+     */
+    public int getQueuedBuffers(int sourceId);
+
+    /**
+     * Returns true if the source is playing.
+     *
+     * @param sourceId the source ID
+     * @return true if playing
+     */
+    public boolean isPlaying(int sourceId);
+}
@@ -0,0 +1,114 @@
+package backend.sound;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock free queue of sound commands from one producer thread to one
+ * consumer thread.
+ *
+ * The commands are stored in preallocated arrays of primitives, so adding a
+ * command does not allocate anything. If the queue is full the command is
+ * dropped instead of blocking the producer.
+ *
+ * @author pitmairen
+ */
+public class AudioCommandQueue {
+
+    /**
+     * Receives the commands when the queue is drained.
+     */
+    public interface Handler {
+
+        public void handle(int command, int sound, float a, float b);
+    }
+
+    private final int mask;
+    private final int[] commands;
+    private final int[] sounds;
+    private final float[] as;
+    private final float[] bs;
+
+    // The next position to write. Only written by the producer.
+    private final AtomicLong head = new AtomicLong();
+    // The next position to read. Only written by the consumer.
+    private final AtomicLong tail = new AtomicLong();
+
+    // The producer's last known value of the tail.
+    private long cachedTail = 0;
+
+    private int droppedCount = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the maximum number of queued commands. Rounded up to a
+     * power of two.
+     */
+    public AudioCommandQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        mask = size - 1;
+        commands = new int[size];
+        sounds = new int[size];
+        as = new float[size];
+        bs = new float[size];
+    }
+
+    /**
+     * Adds a command to the queue. Must only be called from the producer
+     * thread.
+     *
+     * @param command the command
+     * @param sound the sound the command applies to
+     * @param a the first argument
+     * @param b the second argument
+     * @return false if the queue was full and the command was dropped
+     */
+    public boolean offer(int command, int sound, float a, float b) {
+        long position = head.get();
+        if (position - cachedTail > mask) {
+            cachedTail = tail.get();
+            if (position - cachedTail > mask) {
+                droppedCount++;
+                return false;
+            }
+        }
+        int index = (int) position & mask;
+        commands[index] = command;
+        sounds[index] = sound;
+        as[index] = a;
+        bs[index] = b;
+        // Publishes the command to the consumer.
+        head.lazySet(position + 1);
+        return true;
+    }
+
+    /**
+     * Hands the queued commands to the handler. Must only be called from the
+     * consumer thread.
+     *
+     * @param handler receives the commands
+     * @param max the maximum number of commands to drain
+     * @return the number of commands that were drained
+     */
+    public int drain(Handler handler, int max) {
+        long position = tail.get();
+        int count = (int) Math.min(head.get() - position, max);
+        for (int i = 0; i < count; i++) {
+            int index = (int) (position + i) & mask;
+            handler.handle(commands[index], sounds[index], as[index], bs[index]);
+        }
+        // Frees the slots for the producer.
+        tail.lazySet(position + count);
+        return count;
+    }
+
+    /**
+     * Returns the number of commands that have been dropped because the queue
+     * was full.
+     *
+     * @return the number of dropped commands
+     */
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+}
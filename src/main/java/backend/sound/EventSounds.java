@@ -0,0 +1,96 @@
+package backend.sound;
+
+import backend.event.ActorDied;
+import backend.event.EventBus;
+import backend.event.ItemPickedUp;
+import backend.event.ProjectileFired;
+import backend.resources.Sound;
+import backend.snapshot.ActorType;
+import backend.snapshot.ModuleType;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * Plays the sounds of the gameplay events.
+ *
+ * The sound of each kind of actor and module is looked up in a table, once
+ * per event. The plays of a tick are merged by the sound manager when it is
+ * flushed, so the flush must come after the events are delivered.
+ *
+ * @author pitmairen
+ */
+public class EventSounds {
+
+    private static final Sound[] NONE = new Sound[0];
+
+    private final SoundManager soundManager;
+    private final EnumMap<ActorType, Sound[]> deathSounds = new EnumMap<>(ActorType.class);
+    private final EnumMap<ActorType, Sound> pickupSounds = new EnumMap<>(ActorType.class);
+    private final EnumMap<ModuleType, Sound> fireSounds = new EnumMap<>(ModuleType.class);
+
+    /**
+     * Constructor.
+     *
+     * @param soundManager The sound manager that plays the sounds.
+     */
+    public EventSounds(SoundManager soundManager) {
+        this.soundManager = soundManager;
+
+        deathSounds.put(ActorType.PLAYER, new Sound[]{Sound.EXPLOSION, Sound.GAMEOVER});
+        deathSounds.put(ActorType.FRIGATE, new Sound[]{Sound.EXPLOSION});
+        deathSounds.put(ActorType.KAMIKAZE_DRONE, new Sound[]{Sound.EXPLOSION});
+        deathSounds.put(ActorType.DRONE_CARRIER, new Sound[]{Sound.BOSS_DEATH});
+        deathSounds.put(ActorType.BULLET, new Sound[]{Sound.BULLET_IMPACT});
+        deathSounds.put(ActorType.ROCKET, new Sound[]{Sound.MISSILE_EXPLOSION});
+        deathSounds.put(ActorType.SEEKER_MISSILE, new Sound[]{Sound.MISSILE_EXPLOSION});
+
+        pickupSounds.put(ActorType.PARTS, Sound.HEALTH_PICKUP);
+        pickupSounds.put(ActorType.MODULE_CONTAINER, Sound.PICKUP);
+
+        fireSounds.put(ModuleType.AUTO_CANNON, Sound.AUTO_CANNON);
+        fireSounds.put(ModuleType.LIGHT_CANNON, Sound.AUTO_CANNON);
+        fireSounds.put(ModuleType.ROCKET_LAUNCHER, Sound.MISSILE_LAUNCH);
+        fireSounds.put(ModuleType.SEEKER_CANNON, Sound.MISSILE_LAUNCH);
+        fireSounds.put(ModuleType.EMP_CANNON, Sound.EMP);
+    }
+
+    /**
+     * Subscribes to the events that have sounds.
+     *
+     * @param events The event bus of the engine.
+     */
+    public void subscribe(EventBus events) {
+        events.subscribe(ProjectileFired.class, this::playFired);
+        events.subscribe(ActorDied.class, this::playDeaths);
+        events.subscribe(ItemPickedUp.class, this::playPickups);
+    }
+
+    private void playFired(List<ProjectileFired> fired) {
+        for (int i = 0; i < fired.size(); i++) {
+            ProjectileFired event = fired.get(i);
+            Sound sound = fireSounds.get(event.getModule().getType());
+            if (sound != null) {
+                soundManager.play(sound, event.getPosition());
+            }
+        }
+    }
+
+    private void playDeaths(List<ActorDied> deaths) {
+        for (int i = 0; i < deaths.size(); i++) {
+            ActorDied event = deaths.get(i);
+            for (Sound sound : deathSounds.getOrDefault(event.getActor().getType(), NONE)) {
+                soundManager.play(sound, event.getActor().getPosition());
+            }
+        }
+    }
+
+    private void playPickups(List<ItemPickedUp> pickups) {
+        for (int i = 0; i < pickups.size(); i++) {
+            ItemPickedUp event = pickups.get(i);
+            Sound sound = pickupSounds.get(event.getItem().getType());
+            if (sound != null) {
+                soundManager.play(sound, event.getItem().getPosition());
+            }
+        }
+    }
+}
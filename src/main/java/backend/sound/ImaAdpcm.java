@@ -0,0 +1,216 @@
+package backend.sound;
+
+/**
+ * Encoder and decoder for IMA ADPCM, the 4-bit compressed format used by wav
+ * files with format tag 0x11.
+ *
+ * The samples are stored in blocks. Each block starts with a header for
+ * every channel holding the first sample and the step index, followed by 4
+ * bits for each of the remaining samples. In stereo files the channels take
+ * turns storing 8 samples (4 bytes) at a time.
+ *
+ * @author pitmairen
+ */
+public class ImaAdpcm {
+
+    // The wav format tag of IMA ADPCM.
+    public static final int FORMAT_TAG = 0x11;
+
+    private static final int[] INDEX_TABLE = {
+        -1, -1, -1, -1, 2, 4, 6, 8,
+        -1, -1, -1, -1, 2, 4, 6, 8
+    };
+
+    private static final int[] STEP_TABLE = {
+        7, 8, 9, 10, 11, 12, 13, 14, 16, 17,
+        19, 21, 23, 25, 28, 31, 34, 37, 41, 45,
+        50, 55, 60, 66, 73, 80, 88, 97, 107, 118,
+        130, 143, 157, 173, 190, 209, 230, 253, 279, 307,
+        337, 371, 408, 449, 494, 544, 598, 658, 724, 796,
+        876, 963, 1060, 1166, 1282, 1411, 1552, 1707, 1878, 2066,
+        2272, 2499, 2749, 3024, 3327, 3660, 4026, 4428, 4871, 5358,
+        5894, 6484, 7132, 7845, 8630, 9493, 10442, 11487, 12635, 13899,
+        15289, 16818, 18500, 20350, 22385, 24623, 27086, 29794, 32767
+    };
+
+    // The number of samples the encoder looks ahead when choosing a code.
+    private static final int LOOKAHEAD = 3;
+
+    private ImaAdpcm() {
+    }
+
+    /**
+     * Returns the number of samples per channel in a full block.
+     *
+     * @param blockAlign the size of a block in bytes
+     * @param channels the number of channels
+     * @return the number of samples per channel
+     */
+    public static int getSamplesPerBlock(int blockAlign, int channels) {
+        return (blockAlign - 4 * channels) * 2 / channels + 1;
+    }
+
+    /**
+     * Decodes one block.
+     *
+     * The last block of a file can be shorter than the others. The number of
+     * samples decoded is given by the length of the block.
+     *
+     * @param block the compressed data
+     * @param offset the start of the block
+     * @param length the length of the block in bytes
+     * @param channels the number of channels
+     * @param out receives the interleaved 16 bit samples
+     * @return the number of samples per channel that was decoded
+     */
+    public static int decodeBlock(byte[] block, int offset, int length, int channels, short[] out) {
+
+        if (length < 4 * channels) {
+            return 0;
+        }
+        int frames = getSamplesPerBlock(length - (length - 4 * channels) % (4 * channels), channels);
+
+        for (int ch = 0; ch < channels; ch++) {
+            int header = offset + 4 * ch;
+            int predictor = (short) ((block[header] & 0xff) | (block[header + 1] << 8));
+            int index = Math.min(Math.max(block[header + 2] & 0xff, 0), 88);
+            out[ch] = (short) predictor;
+
+            // Every channel has a group of 4 bytes in turn.
+            int frame = 1;
+            for (int group = offset + 4 * channels + 4 * ch; frame < frames; group += 4 * channels) {
+                for (int i = 0; i < 4 && frame < frames; i++) {
+                    int b = block[group + i] & 0xff;
+                    for (int nibble = 0; nibble < 2; nibble++) {
+                        int code = nibble == 0 ? b & 0x0f : b >> 4;
+                        int step = STEP_TABLE[index];
+                        predictor = clamp(predictor + difference(code, step));
+                        index = Math.min(Math.max(index + INDEX_TABLE[code], 0), 88);
+                        out[frame * channels + ch] = (short) predictor;
+                        frame++;
+                    }
+                }
+            }
+        }
+        return frames;
+    }
+
+    /**
+     * Encodes 16 bit samples.
+     *
+     * Each code is chosen by trying all the codes for the next few samples
+     * and keeping the one that gives the lowest error. This is slow, but is
+     * only done when the sounds are compressed.
+     *
+     * @param samples the interleaved samples
+     * @param channels the number of channels
+     * @param blockAlign the size of a block in bytes
+     * @return the compressed blocks. The last block is shortened if the
+     * samples do not fill it.
+     */
+    public static byte[] encode(short[] samples, int channels, int blockAlign) {
+
+        int samplesPerBlock = getSamplesPerBlock(blockAlign, channels);
+        int totalFrames = samples.length / channels;
+        int fullBlocks = totalFrames / samplesPerBlock;
+        int lastFrames = totalFrames % samplesPerBlock;
+
+        int size = fullBlocks * blockAlign;
+        if (lastFrames > 0) {
+            // Round the last block up to a whole group of 8 samples.
+            int groups = (lastFrames - 1 + 7) / 8;
+            size += 4 * channels + groups * 4 * channels;
+        }
+        byte[] out = new byte[size];
+
+        int[] index = new int[channels];
+        int position = 0;
+        for (int start = 0; start < totalFrames; start += samplesPerBlock) {
+            int frames = Math.min(samplesPerBlock, totalFrames - start);
+
+            for (int ch = 0; ch < channels; ch++) {
+                int predictor = samples[start * channels + ch];
+                int header = position + 4 * ch;
+                out[header] = (byte) predictor;
+                out[header + 1] = (byte) (predictor >> 8);
+                out[header + 2] = (byte) index[ch];
+                out[header + 3] = 0;
+
+                // The unused end of the last block is left as zeros.
+                for (int k = 0; k < frames - 1; k++) {
+                    int code = findCode(samples, start + 1 + k, start + frames, channels, ch, predictor, index[ch]);
+                    predictor = clamp(predictor + difference(code, STEP_TABLE[index[ch]]));
+                    index[ch] = Math.min(Math.max(index[ch] + INDEX_TABLE[code], 0), 88);
+
+                    int group = position + 4 * channels + (k / 8) * 4 * channels + 4 * ch;
+                    out[group + (k % 8) / 2] |= code << (4 * (k % 2));
+                }
+            }
+            position += Math.min(blockAlign, size - position);
+        }
+        return out;
+    }
+
+    /**
+     * Returns the code for the frame that gives the lowest total error over
+     * the next samples.
+     */
+    private static int findCode(short[] samples, int frame, int end, int channels, int ch, int predictor, int index) {
+
+        int bestCode = 0;
+        long bestError = Long.MAX_VALUE;
+        for (int code = 0; code < 16; code++) {
+            long error = getError(samples, frame, end, channels, ch, predictor, index, code, LOOKAHEAD, bestError);
+            if (error < bestError) {
+                bestError = error;
+                bestCode = code;
+            }
+        }
+        return bestCode;
+    }
+
+    /**
+     * Returns the lowest squared error of the next samples if the frame is
+     * encoded with the given code. Gives up when the error reaches the
+     * limit.
+     */
+    private static long getError(short[] samples, int frame, int end, int channels, int ch,
+            int predictor, int index, int code, int depth, long limit) {
+
+        int decoded = clamp(predictor + difference(code, STEP_TABLE[index]));
+        long diff = samples[frame * channels + ch] - decoded;
+        long error = diff * diff;
+
+        if (depth <= 1 || frame + 1 >= end || error >= limit) {
+            return error;
+        }
+        int nextIndex = Math.min(Math.max(index + INDEX_TABLE[code], 0), 88);
+        long best = limit - error;
+        for (int next = 0; next < 16; next++) {
+            best = Math.min(best, getError(samples, frame + 1, end, channels, ch, decoded, nextIndex, next, depth - 1, best));
+        }
+        return error + best;
+    }
+
+    /**
+     * Returns the difference a 4 bit code stands for. Must be the same in
+     * the encoder and the decoder.
+     */
+    private static int difference(int code, int step) {
+        int diff = step >> 3;
+        if ((code & 4) != 0) {
+            diff += step;
+        }
+        if ((code & 2) != 0) {
+            diff += step >> 1;
+        }
+        if ((code & 1) != 0) {
+            diff += step >> 2;
+        }
+        return (code & 8) != 0 ? -diff : diff;
+    }
+
+    private static int clamp(int sample) {
+        return Math.min(Math.max(sample, Short.MIN_VALUE), Short.MAX_VALUE);
+    }
+}
@@ -1,26 +1,38 @@
 package backend.sound;
 
+import backend.resources.Sound;
+
 /**
  * A looping audio source.
  *
+ * The source is created the first time the sound is played. The position
+ * and volume that are set before that are applied when it is created.
+ *
  * @author pitmairen
  */
 public class LoopingSound implements Source {
 
-    private final OpenAL al;
-    private final int sourceID;
+    private final AudioBackend al;
+    private final SoundCache cache;
+    private final Sound soundID;
+    private int sourceID = -1;
+
+    private float x = 0f;
+    private float y = 0f;
+    private float z = 0f;
+    private float volume = 1.0f;
 
     /**
      * Create a new source
      *
-     * @param bufferID the buffer id that she sources will be connected to
+     * @param soundID the sound that the source will play
+     * @param cache the cache that holds the sound data
      * @param al the OpenAl object
-     *
-     * @throws backend.sound.OpenAL.ALError
      */
-    public LoopingSound(int bufferID, OpenAL al) throws OpenAL.ALError {
+    public LoopingSound(Sound soundID, SoundCache cache, AudioBackend al) {
         this.al = al;
-        sourceID = al.addSource(bufferID, true);
+        this.cache = cache;
+        this.soundID = soundID;
     }
 
     /**
@@ -28,6 +40,20 @@ public class LoopingSound implements Source {
      */
     @Override
     public void play() {
+        if (sourceID < 0) {
+            int bufferID = cache.getBuffer(soundID);
+            if (bufferID == 0) {
+                return;     // The sound could not be decoded.
+            }
+            try {
+                sourceID = al.addSource(bufferID, true);
+            } catch (AudioBackend.AudioError ex) {
+                System.err.println("Failed to create source for " + soundID + ": " + ex.getMessage());
+                return;
+            }
+            al.setPosition(sourceID, x, y, z);
+            al.setGain(sourceID, volume);
+        }
         al.play(sourceID);
     }
 
@@ -36,7 +62,9 @@ public class LoopingSound implements Source {
      */
     @Override
     public void stop() {
-        al.stop(sourceID);
+        if (sourceID >= 0) {
+            al.stop(sourceID);
+        }
     }
 
     /**
@@ -44,28 +72,38 @@ public class LoopingSound implements Source {
      */
     @Override
     public void pause() {
-        al.pause(sourceID);
+        if (sourceID >= 0) {
+            al.pause(sourceID);
+        }
     }
-    
+
     /**
      * Set the position of the sound
-     * 
+     *
      * @param x x-position (range: -1.0 - 1.0)
      * @param y y-position (range: -1.0 - 1.0)
      * @param z z-position (range: -1.0 - 1.0)
      */
     @Override
     public void setPosition(float x, float y, float z) {
-        al.setPosision(sourceID, x, y, z);
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        if (sourceID >= 0) {
+            al.setPosition(sourceID, x, y, z);
+        }
     }
-    
+
     /**
      * Set the volume of the source
-     * 
+     *
      * @param volume the volume (range: 0.0 - 1.0)
      */
     @Override
     public void setVolume(float volume){
-        al.setGain(sourceID, volume);
+        this.volume = volume;
+        if (sourceID >= 0) {
+            al.setGain(sourceID, volume);
+        }
     }
 }
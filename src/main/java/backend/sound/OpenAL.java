@@ -3,18 +3,26 @@ package backend.sound;
 import com.jogamp.openal.AL;
 import com.jogamp.openal.ALFactory;
 import com.jogamp.openal.util.ALut;
-import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 
 /**
  * Wrapper around the OpenAL sound system-
  *
+ * The gain and position of the sources are stored in a state table and only
+ * sent to OpenAL when they have changed. The changes are sent when flush() is
+ * called, or right before the source is played.
+ *
+ * The table also mirrors whether each source is stopped, playing or paused.
+ * A source that is played with a known end time is done when that time has
+ * passed, so OpenAL is never asked about it. Only the sources that nobody
+ * knows when end, like the streaming sources, are asked, and only when
+ * isPlaying() is called.
+ *
  * @author pitmairen
  */
-public class OpenAL {
+public class OpenAL implements AudioBackend {
 
     private final AL al;
 
@@ -22,16 +30,14 @@ public class OpenAL {
     // A buffer coresponds to a single file.
     private final ArrayList<Integer> buffers = new ArrayList<>();
     
-    // Stores the individual gain value for each source 
-    private final HashMap<Integer, Float> sourceGain = new HashMap<>();
-
-    // List of all the loaded sources
+    // All the loaded sources and their state. The source IDs that are handed
+    // out are the slots in the table.
     // A source can be played and make sound. A source is connected 
     // to a buffer which holds the sound data. Multiple sources can be
     // connected to the same buffer. If the same sound should be played
     // multiple times simultaneously a source is needed for each of the 
     // simultaneous sounds. 
-    private final ArrayList<Integer> sources = new ArrayList<>();
+    private final SourceStateTable sources = new SourceStateTable();
 
     // The position of the listener x, y, z (range: -1.0 - 1.0}
     private static final float[] listenerPos = {0.0f, 0.0f, 0.0f};
@@ -45,6 +51,9 @@ public class OpenAL {
     
     private float globalGain = 1.0f;
 
+    // Reused by the calls that pass the names and values in an array.
+    private final int[] names = new int[1];
+
     /**
      * Initiates the sound system
      */
@@ -53,22 +62,53 @@ public class OpenAL {
         init();
     }
 
+    /**
+     * Wraps an OpenAL implementation that is already set up. Used by the
+     * tests.
+     *
+     * @param al the OpenAL implementation
+     */
+    OpenAL(AL al) {
+        this.al = al;
+    }
+
     /**
      * Play the source with the given ID
      *
      * @param sourceId the ID of the source
      */
-    public void play(int sourceId) {
-        al.alSourcePlay(sourceId);
+    @Override
+    public synchronized void play(int sourceId) {
+        play(sourceId, SourceStateTable.UNKNOWN_END);
+    }
+
+    /**
+     * Play the source with the given ID, when the caller knows when the
+     * sound ends.
+     *
+     * @param sourceId the ID of the source
+     * @param endTime the System.nanoTime() when the sound is done
+     */
+    @Override
+    public synchronized void play(int sourceId, long endTime) {
+        apply(sourceId);
+        sources.setState(sourceId, SourceStateTable.PLAYING);
+        sources.setEndTime(sourceId, endTime);
+        al.alSourcePlay(sources.getSource(sourceId));
     }
     
     /**
      * Stop the source with the given ID
      *
+     * The source is always stopped, even if it looks stopped in the table. A
+     * paused source must be stopped before its buffers can be unqueued.
+     *
      * @param sourceId the ID of the source
      */
-    public void stop(int sourceId) {
-        al.alSourceStop(sourceId);
+    @Override
+    public synchronized void stop(int sourceId) {
+        sources.setState(sourceId, SourceStateTable.STOPPED);
+        al.alSourceStop(sources.getSource(sourceId));
     }
     
     /**
@@ -76,8 +116,14 @@ public class OpenAL {
      *
      * @param sourceId the ID of the source
      */
-    public void pause(int sourceId) {
-        al.alSourcePause(sourceId);
+    @Override
+    public synchronized void pause(int sourceId) {
+        if (getState(sourceId) == SourceStateTable.PLAYING) {
+            // The end time moves while the source is paused.
+            sources.setState(sourceId, SourceStateTable.PAUSED);
+            sources.setEndTime(sourceId, SourceStateTable.UNKNOWN_END);
+            al.alSourcePause(sources.getSource(sourceId));
+        }
     }
     
     /**
@@ -88,9 +134,9 @@ public class OpenAL {
      * @param y y-position (range: -1.0 - 1.0)
      * @param z z-position (range: -1.0 - 1.0)
      */
-    public void setPosision(int sourceId, float x, float y, float z) {
-        float[] values = {x, y, z};
-        al.alSourcefv(sourceId, AL.AL_POSITION, values, 0);
+    @Override
+    public synchronized void setPosition(int sourceId, float x, float y, float z) {
+        sources.setPosition(sourceId, x, y, z);
     }
 
     /**
@@ -101,9 +147,18 @@ public class OpenAL {
      * @param y y-velocity (range: -1.0 - 1.0)
      * @param z z-velocity (range: -1.0 - 1.0)
      */
-    public void setVelocity(int sourceId, float x, float y, float z) {
-        float[] values = {x, y, z};
-        al.alSourcefv(sourceId, AL.AL_VELOCITY, values, 0);
+    public synchronized void setVelocity(int sourceId, float x, float y, float z) {
+        al.alSource3f(sources.getSource(sourceId), AL.AL_VELOCITY, x, y, z);
+    }
+
+    /**
+     * Set the pitch of the source
+     *
+     * @param sourceId the source ID
+     * @param pitch the pitch multiplier (1.0 is the original pitch)
+     */
+    public synchronized void setPitch(int sourceId, float pitch) {
+        sources.setPitch(sourceId, pitch);
     }
 
     /**
@@ -112,42 +167,234 @@ public class OpenAL {
      * @param sourceId the source ID
      * @param gain the gain value (range: 0.0 - 1.0)
      */
-    public void setGain(int sourceId, float gain) {
-        al.alSourcef(sourceId, AL.AL_GAIN, gain);
-        sourceGain.put(sourceId, gain);
+    @Override
+    public synchronized void setGain(int sourceId, float gain) {
+        sources.setGain(sourceId, gain);
+    }
+
+    /**
+     * Send the changed source values to OpenAL.
+     */
+    @Override
+    public synchronized void flush() {
+        for (int i = 0; i < sources.getDirtyCount(); i++) {
+            apply(sources.getDirtySlot(i));
+        }
+        sources.clearDirtySlots();
+    }
+
+    /**
+     * Returns the state of a source in the table. A source that has passed
+     * its end time is stopped.
+     */
+    private int getState(int sourceId) {
+        if (sources.getState(sourceId) == SourceStateTable.PLAYING
+                && sources.getEndTime(sourceId) <= System.nanoTime()) {
+            sources.setState(sourceId, SourceStateTable.STOPPED);
+        }
+        return sources.getState(sourceId);
+    }
+
+    /**
+     * Returns the state of a source as OpenAL sees it.
+     */
+    private int readState(int sourceId) {
+        int state = getSourceInt(sourceId, AL.AL_SOURCE_STATE);
+        if (state == AL.AL_PLAYING) {
+            return SourceStateTable.PLAYING;
+        }
+        if (state == AL.AL_PAUSED) {
+            return SourceStateTable.PAUSED;
+        }
+        return SourceStateTable.STOPPED;
+    }
+
+    /**
+     * Send the changed values of one source to OpenAL.
+     */
+    private void apply(int slot) {
+        int dirty = sources.getDirty(slot);
+        if (dirty == 0) {
+            return;
+        }
+        int source = sources.getSource(slot);
+        if ((dirty & SourceStateTable.GAIN) != 0) {
+            al.alSourcef(source, AL.AL_GAIN, sources.getGain(slot) * globalGain);
+        }
+        if ((dirty & SourceStateTable.POSITION) != 0) {
+            al.alSource3f(source, AL.AL_POSITION, sources.getX(slot), sources.getY(slot), sources.getZ(slot));
+        }
+        if ((dirty & SourceStateTable.PITCH) != 0) {
+            al.alSourcef(source, AL.AL_PITCH, sources.getPitch(slot));
+        }
+        sources.clearDirty(slot);
     }
     
     /**
      * Create a new buffer.
      *
-     * @param inputStream a stream of sound data
+     * @param sound the decoded sound data
      * @return the buffer ID
      *
      * @throws backend.sound.OpenAL.ALError
      */
-    public int createBuffer(InputStream inputStream) throws ALError {
+    @Override
+    public synchronized int createBuffer(SoundData sound) throws ALError {
 
-        ByteBuffer[] data = new ByteBuffer[1];
-        int[] buffer = new int[1];
-        int[] format = new int[1];
-        int[] size = new int[1];
-        int[] freq = new int[1];
-        int[] loop = new int[1];
+        if (sound == null) {
+            throw new ALError("Missing sound data");
+        }
 
-        // Load wav data into a buffer.
-        al.alGenBuffers(1, buffer, 0);
+        al.alGenBuffers(1, names, 0);
 
         if (al.alGetError() != AL.AL_NO_ERROR) {
             throw new ALError("Failed to create buffer");
         }
+        int bufferID = names[0];
+        buffers.add(bufferID);
 
-        ALut.alutLoadWAVFile(inputStream, format, data, size, freq, loop);
-        al.alBufferData(buffer[0], format[0], data[0], size[0], freq[0]);
+        al.alBufferData(bufferID, getFormat(sound), sound.getSamples(),
+                sound.getSamples().remaining(), sound.getFrequency());
 
         if (al.alGetError() != AL.AL_NO_ERROR) {
+            deleteBuffer(bufferID);
             throw new ALError("Failed to load buffer data");
         }
-        return buffer[0];
+        return bufferID;
+    }
+
+    /**
+     * Returns the OpenAL format of the sound data.
+     */
+    private static int getFormat(SoundData sound) {
+        return getFormat(sound.getChannels(), sound.getBitsPerSample());
+    }
+
+    private static int getFormat(int channels, int bitsPerSample) {
+        if (channels == 1) {
+            return bitsPerSample == 8 ? AL.AL_FORMAT_MONO8 : AL.AL_FORMAT_MONO16;
+        }
+        return bitsPerSample == 8 ? AL.AL_FORMAT_STEREO8 : AL.AL_FORMAT_STEREO16;
+    }
+
+    /**
+     * Create empty buffers that can be filled with fillBuffer().
+     *
+     * @param count the number of buffers
+     * @return the buffer IDs
+     *
+     * @throws backend.sound.OpenAL.ALError
+     */
+    @Override
+    public synchronized int[] createBuffers(int count) throws ALError {
+        int[] ids = new int[count];
+        al.alGenBuffers(count, ids, 0);
+
+        if (al.alGetError() != AL.AL_NO_ERROR) {
+            throw new ALError("Failed to create buffers");
+        }
+        for (int id : ids) {
+            buffers.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Delete a buffer and free its memory. The buffer must not be connected
+     * to a source.
+     *
+     * @param bufferID the buffer ID
+     */
+    @Override
+    public synchronized void deleteBuffer(int bufferID) {
+        names[0] = bufferID;
+        al.alDeleteBuffers(1, names, 0);
+        buffers.remove(Integer.valueOf(bufferID));
+    }
+
+    /**
+     * Replace the data in a buffer. The buffer must not be queued on a
+     * source.
+     *
+     * @param bufferID the buffer ID
+     * @param channels the number of channels
+     * @param bitsPerSample the number of bits per sample
+     * @param frequency the sample rate
+     * @param data the samples in native byte order. Must be a direct buffer.
+     */
+    @Override
+    public void fillBuffer(int bufferID, int channels, int bitsPerSample, int frequency, ByteBuffer data) {
+        al.alBufferData(bufferID, getFormat(channels, bitsPerSample), data, data.remaining(), frequency);
+    }
+
+    /**
+     * Connect a source to a different buffer. The source must be stopped.
+     *
+     * @param sourceId the source ID
+     * @param bufferID the buffer ID
+     */
+    @Override
+    public synchronized void setBuffer(int sourceId, int bufferID) {
+        al.alSourcei(sources.getSource(sourceId), AL.AL_BUFFER, bufferID);
+    }
+
+    /**
+     * Add a buffer to the end of the play queue of a source.
+     *
+     * @param sourceId the source ID
+     * @param bufferID the buffer ID
+     */
+    @Override
+    public synchronized void queueBuffer(int sourceId, int bufferID) {
+        names[0] = bufferID;
+        al.alSourceQueueBuffers(sources.getSource(sourceId), 1, names, 0);
+    }
+
+    /**
+     * Remove a buffer that has finished playing from the play queue.
+     *
+     * @param sourceId the source ID
+     * @return the buffer ID, or -1 if no buffers has finished playing
+     */
+    @Override
+    public synchronized int unqueueProcessedBuffer(int sourceId) {
+        if (getSourceInt(sourceId, AL.AL_BUFFERS_PROCESSED) == 0) {
+            return -1;
+        }
+        al.alSourceUnqueueBuffers(sources.getSource(sourceId), 1, names, 0);
+        return names[0];
+    }
+
+    /**
+     * Returns the number of buffers in the play queue of a source.
+     *
+     * @param sourceId the source ID
+     * @return the number of queued buffers
+     */
+    @Override
+    public synchronized int getQueuedBuffers(int sourceId) {
+        return getSourceInt(sourceId, AL.AL_BUFFERS_QUEUED);
+    }
+
+    /**
+     * Returns true if the source is playing. OpenAL is only asked if the
+     * source is playing and its end time is not known.
+     *
+     * @param sourceId the source ID
+     * @return true if playing
+     */
+    @Override
+    public synchronized boolean isPlaying(int sourceId) {
+        if (getState(sourceId) == SourceStateTable.PLAYING
+                && sources.getEndTime(sourceId) == SourceStateTable.UNKNOWN_END) {
+            sources.setState(sourceId, readState(sourceId));
+        }
+        return sources.getState(sourceId) == SourceStateTable.PLAYING;
+    }
+
+    private int getSourceInt(int sourceId, int param) {
+        al.alGetSourcei(sources.getSource(sourceId), param, names, 0);
+        return names[0];
     }
 
     /**
@@ -174,7 +421,8 @@ public class OpenAL {
      *
      * @throws backend.sound.OpenAL.ALError
      */
-    public int addSource(int bufferID, boolean loop) throws ALError {
+    @Override
+    public synchronized int addSource(int bufferID, boolean loop) throws ALError {
         int[] source = new int[1];
 
         al.alGenSources(1, source, 0);
@@ -194,27 +442,42 @@ public class OpenAL {
         }
         al.alSourcefv(source[0], AL.AL_VELOCITY, sourceVel, 0);
 
-        sources.add(source[0]);
-        return source[0];
+        return sources.add(source[0]);
     
     }
     
+    /**
+     * Stop a source and delete it.
+     *
+     * @param sourceId the source ID
+     */
+    @Override
+    public synchronized void deleteSource(int sourceId) {
+        int source = sources.getSource(sourceId);
+        al.alSourceStop(source);
+        al.alSourcei(source, AL.AL_BUFFER, 0);
+        names[0] = source;
+        al.alDeleteSources(1, names, 0);
+        sources.remove(sourceId);
+    }
+
     /**
      * Set the gain of all the sources.
      * 
      * @param value the gain values
      */
-    public void setGlobalGain(float value){
+    @Override
+    public synchronized void setGlobalGain(float value) {
         globalGain = value;
-        for(int i : sources){
-            al.alSourcef(i, AL.AL_GAIN, value * sourceGain.getOrDefault(i, 1.0f));
-        }
+        sources.markAllDirty(SourceStateTable.GAIN);
     }
     
     /**
      * Generic error that id thrown when a error happens.
      */
-    public static class ALError extends Exception {
+    public static class ALError extends AudioError {
+
+        private static final long serialVersionUID = 1L;
 
         public ALError(String msg) {
             super(msg);
@@ -237,21 +500,21 @@ public class OpenAL {
         }));
     }
 
-    private void cleanup() {
+    private synchronized void cleanup() {
 
-        Iterator<Integer> it = sources.iterator();
-        while (it.hasNext()) {
-            al.alDeleteSources(1, new int[]{it.next()}, 0);
+        for (int slot = 0; slot < sources.size(); slot++) {
+            if (sources.getSource(slot) != 0) {
+                names[0] = sources.getSource(slot);
+                al.alDeleteSources(1, names, 0);
+            }
         }
-        sources.clear();
 
-        it = buffers.iterator();
+        Iterator<Integer> it = buffers.iterator();
         while (it.hasNext()) {
-            al.alDeleteBuffers(1, new int[]{it.next()}, 0);
+            names[0] = it.next();
+            al.alDeleteBuffers(1, names, 0);
         }
         buffers.clear();
-
-        sourceGain.clear();
         
         ALut.alutExit();
     }
@@ -0,0 +1,114 @@
+package backend.sound;
+
+import java.util.Arrays;
+
+/**
+ * Collects the requests to play one sound effect during a tick, and plays
+ * them as a few merged voices.
+ *
+ * The requests are split into a left and a right group around their center.
+ * Each group is played as one voice at the loudness weighted center of the
+ * group. The volume is raised with the square root of the number of requests
+ * in the group, since that is roughly how loud uncorrelated sounds add up.
+ *
+ * @author pitmairen
+ */
+public class PlayBatch {
+
+    // Never play a merged group louder than this.
+    private static final float MAX_GAIN = 1.0f;
+
+    private float[] xs = new float[8];
+    private float[] ys = new float[8];
+    private int count = 0;
+
+    /**
+     * Adds a request to play the sound.
+     *
+     * @param x x-position (range: -1.0 - 1.0)
+     * @param y y-position (range: -1.0 - 1.0)
+     */
+    public void add(float x, float y) {
+        if (count == xs.length) {
+            xs = Arrays.copyOf(xs, count * 2);
+            ys = Arrays.copyOf(ys, count * 2);
+        }
+        xs[count] = x;
+        ys[count] = y;
+        count++;
+    }
+
+    /**
+     * Plays the collected requests and clears the batch.
+     *
+     * @param sound the sound to play
+     * @param volume the volume of a single request
+     * @return the number of voices that were requested
+     */
+    public int flush(SoundEffect sound, float volume) {
+
+        if (count == 0) {
+            return 0;
+        }
+        int voices;
+        if (count == 1) {
+            sound.play(xs[0], ys[0], volume);
+            voices = 1;
+        } else {
+            // Split around the weighted center of all the requests.
+            float centerX = centroid(xs, -Float.MAX_VALUE, Float.MAX_VALUE);
+            voices = playGroup(sound, volume, -Float.MAX_VALUE, centerX)
+                    + playGroup(sound, volume, centerX, Float.MAX_VALUE);
+        }
+        count = 0;
+        return voices;
+    }
+
+    /**
+     * Removes all the collected requests.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    // Getters.
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Plays the requests with x in [minX, maxX) as one voice.
+     */
+    private int playGroup(SoundEffect sound, float volume, float minX, float maxX) {
+        int members = 0;
+        for (int i = 0; i < count; i++) {
+            if (xs[i] >= minX && xs[i] < maxX) {
+                members++;
+            }
+        }
+        if (members == 0) {
+            return 0;
+        }
+        float gain = Math.min(volume * (float) Math.sqrt(members), MAX_GAIN);
+        sound.play(centroid(xs, minX, maxX), centroid(ys, minX, maxX), gain);
+        return 1;
+    }
+
+    /**
+     * Returns the loudness weighted average of the values for the requests
+     * with x in [minX, maxX). Requests close to the listener are louder and
+     * count more.
+     */
+    private float centroid(float[] values, float minX, float maxX) {
+        float sum = 0;
+        float weights = 0;
+        for (int i = 0; i < count; i++) {
+            if (xs[i] >= minX && xs[i] < maxX) {
+                float weight = 1 / (1 + (float) Math.sqrt(xs[i] * xs[i] + ys[i] * ys[i]));
+                sum += values[i] * weight;
+                weights += weight;
+            }
+        }
+        return sum / weights;
+    }
+}
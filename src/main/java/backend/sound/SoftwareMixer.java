@@ -0,0 +1,354 @@
+package backend.sound;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A sound system written in plain Java that does not need a sound device.
+ *
+ * The playing sources are mixed into 16 bit stereo PCM. The sources are
+ * panned by their x-position, and the y- and z-positions are ignored. The
+ * output is either handed to mix() by the caller, or rendered in real time by
+ * a background thread and thrown away. The last mode is used to run the game
+ * on machines without sound, while still doing all the work of playing the
+ * sounds.
+ *
+ * @author pitmairen
+ */
+public class SoftwareMixer implements AudioBackend {
+
+    public static final int OUTPUT_RATE = 44100;
+
+    // The number of frames mixed at a time by the real time thread.
+    private static final int BLOCK_FRAMES = 441;
+
+    /**
+     * The samples of a buffer, converted to 16 bit.
+     */
+    private static class Buffer {
+
+        private short[] samples = new short[0];
+        private int channels = 1;
+        private int frequency = OUTPUT_RATE;
+
+        private int getFrames() {
+            return samples.length / channels;
+        }
+    }
+
+    /**
+     * The state of a source.
+     */
+    private static class Voice {
+
+        private final ArrayList<Integer> queue = new ArrayList<>();
+        // The number of buffers at the start of the queue that are done.
+        private int processed = 0;
+        private double cursor = 0;
+        private boolean loop = false;
+        private boolean playing = false;
+        private boolean paused = false;
+        private float gain = 1.0f;
+        private float x = 0f;
+    }
+
+    private final ArrayList<Buffer> buffers = new ArrayList<>();
+    private final ArrayList<Integer> freeBuffers = new ArrayList<>();
+    private final ArrayList<Voice> voices = new ArrayList<>();
+    private float globalGain = 1.0f;
+
+    // The mix buffer, one int per channel per frame to avoid clipping while
+    // adding up the sources.
+    private int[] mixBuffer = new int[BLOCK_FRAMES * 2];
+
+    // Metrics.
+    private long mixedFrames = 0;
+    private long mixTime = 0;
+    private int activeVoices = 0;
+
+    /**
+     * Constructor.
+     */
+    public SoftwareMixer() {
+        buffers.add(new Buffer());  // Buffer id 0 means no buffer.
+    }
+
+    /**
+     * Starts a daemon thread that mixes the sound in real time and throws
+     * the output away.
+     */
+    public void startRealTimeThread() {
+        Thread thread = new Thread(() -> {
+            ByteBuffer output = ByteBuffer.allocateDirect(BLOCK_FRAMES * 4).order(ByteOrder.nativeOrder());
+            long blockTime = BLOCK_FRAMES * 1000000000L / OUTPUT_RATE;
+            long next = System.nanoTime();
+            while (true) {
+                output.clear();
+                mix(output, BLOCK_FRAMES);
+                next += blockTime;
+                long sleep = next - System.nanoTime();
+                if (sleep > 0) {
+                    try {
+                        Thread.sleep(sleep / 1000000, (int) (sleep % 1000000));
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+            }
+        }, "Software mixer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Mixes the playing sources into the output buffer as 16 bit stereo PCM
+     * in native byte order.
+     *
+     * @param output the buffer to write to
+     * @param frames the number of frames to mix
+     */
+    public synchronized void mix(ByteBuffer output, int frames) {
+
+        long start = System.nanoTime();
+
+        if (mixBuffer.length < frames * 2) {
+            mixBuffer = new int[frames * 2];
+        }
+        Arrays.fill(mixBuffer, 0, frames * 2, 0);
+
+        int active = 0;
+        for (Voice voice : voices) {
+            if (voice.playing && !voice.paused) {
+                mixVoice(voice, frames);
+                active++;
+            }
+        }
+        activeVoices = active;
+
+        for (int i = 0; i < frames * 2 && output.remaining() >= 2; i++) {
+            output.putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mixBuffer[i])));
+        }
+
+        mixedFrames += frames;
+        mixTime += System.nanoTime() - start;
+    }
+
+    private void mixVoice(Voice voice, int frames) {
+
+        // Constant power panning.
+        double angle = (Math.max(-1, Math.min(1, voice.x)) + 1) * Math.PI / 4;
+        float gain = voice.gain * globalGain;
+        float left = gain * (float) Math.cos(angle);
+        float right = gain * (float) Math.sin(angle);
+
+        int frame = 0;
+        while (frame < frames) {
+            if (voice.processed >= voice.queue.size()) {
+                voice.playing = false;
+                return;
+            }
+            Buffer buffer = buffers.get(voice.queue.get(voice.processed));
+            double step = (double) buffer.frequency / OUTPUT_RATE;
+            int length = buffer.getFrames();
+
+            while (frame < frames && voice.cursor < length) {
+                int index = (int) voice.cursor * buffer.channels;
+                int l = buffer.samples[index];
+                int r = buffer.channels == 2 ? buffer.samples[index + 1] : l;
+                mixBuffer[frame * 2] += (int) (l * left);
+                mixBuffer[frame * 2 + 1] += (int) (r * right);
+                voice.cursor += step;
+                frame++;
+            }
+
+            if (voice.cursor >= length) {
+                voice.cursor -= length;
+                if (voice.loop && voice.queue.size() == 1 && length > 0) {
+                    continue;
+                }
+                voice.processed++;
+                voice.cursor = 0;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void play(int sourceId) {
+        Voice voice = voices.get(sourceId - 1);
+        if (!voice.paused) {
+            voice.processed = 0;
+            voice.cursor = 0;
+        }
+        voice.playing = true;
+        voice.paused = false;
+    }
+
+    @Override
+    public synchronized void play(int sourceId, long endTime) {
+        play(sourceId);     // The mixer knows when the sources end.
+    }
+
+    @Override
+    public synchronized void stop(int sourceId) {
+        Voice voice = voices.get(sourceId - 1);
+        voice.playing = false;
+        voice.paused = false;
+        voice.processed = voice.queue.size();
+    }
+
+    @Override
+    public synchronized void pause(int sourceId) {
+        Voice voice = voices.get(sourceId - 1);
+        if (voice.playing) {
+            voice.paused = true;
+        }
+    }
+
+    @Override
+    public synchronized void setPosition(int sourceId, float x, float y, float z) {
+        voices.get(sourceId - 1).x = x;
+    }
+
+    @Override
+    public synchronized void setGain(int sourceId, float gain) {
+        voices.get(sourceId - 1).gain = gain;
+    }
+
+    @Override
+    public synchronized void setGlobalGain(float value) {
+        globalGain = value;
+    }
+
+    @Override
+    public void flush() {
+        // The mixer reads the source state directly.
+    }
+
+    @Override
+    public synchronized int createBuffer(SoundData sound) throws AudioError {
+        if (sound == null) {
+            throw new AudioError("Missing sound data");
+        }
+        int id = createBuffers(1)[0];
+        fillBuffer(id, sound.getChannels(), sound.getBitsPerSample(), sound.getFrequency(), sound.getSamples());
+        return id;
+    }
+
+    @Override
+    public synchronized int[] createBuffers(int count) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            if (!freeBuffers.isEmpty()) {
+                ids[i] = freeBuffers.remove(freeBuffers.size() - 1);
+                buffers.set(ids[i], new Buffer());
+            } else {
+                buffers.add(new Buffer());
+                ids[i] = buffers.size() - 1;
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public synchronized void deleteBuffer(int bufferID) {
+        buffers.set(bufferID, new Buffer());
+        freeBuffers.add(bufferID);
+    }
+
+    @Override
+    public synchronized void fillBuffer(int bufferID, int channels, int bitsPerSample, int frequency, ByteBuffer data) {
+        Buffer buffer = buffers.get(bufferID);
+        ByteBuffer samples = data.duplicate().order(ByteOrder.nativeOrder());
+        int count = samples.remaining() / (bitsPerSample / 8);
+
+        if (buffer.samples.length != count) {
+            buffer.samples = new short[count];
+        }
+        for (int i = 0; i < count; i++) {
+            if (bitsPerSample == 8) {
+                buffer.samples[i] = (short) (((samples.get() & 0xff) - 128) << 8);
+            } else {
+                buffer.samples[i] = samples.getShort();
+            }
+        }
+        buffer.channels = channels;
+        buffer.frequency = frequency;
+    }
+
+    @Override
+    public synchronized int addSource(int bufferID, boolean loop) {
+        Voice voice = new Voice();
+        voice.loop = loop;
+        voices.add(voice);
+        int sourceId = voices.size();
+        setBuffer(sourceId, bufferID);
+        return sourceId;
+    }
+
+    @Override
+    public synchronized void deleteSource(int sourceId) {
+        stop(sourceId);
+        voices.get(sourceId - 1).queue.clear();
+    }
+
+    @Override
+    public synchronized void setBuffer(int sourceId, int bufferID) {
+        Voice voice = voices.get(sourceId - 1);
+        voice.queue.clear();
+        voice.processed = 0;
+        voice.cursor = 0;
+        if (bufferID != 0) {
+            voice.queue.add(bufferID);
+        }
+    }
+
+    @Override
+    public synchronized void queueBuffer(int sourceId, int bufferID) {
+        voices.get(sourceId - 1).queue.add(bufferID);
+    }
+
+    @Override
+    public synchronized int unqueueProcessedBuffer(int sourceId) {
+        Voice voice = voices.get(sourceId - 1);
+        if (voice.processed == 0) {
+            return -1;
+        }
+        voice.processed--;
+        return voice.queue.remove(0);
+    }
+
+    @Override
+    public synchronized int getQueuedBuffers(int sourceId) {
+        return voices.get(sourceId - 1).queue.size();
+    }
+
+    @Override
+    public synchronized boolean isPlaying(int sourceId) {
+        Voice voice = voices.get(sourceId - 1);
+        return voice.playing && !voice.paused;
+    }
+
+    /**
+     * Returns the average time it has taken to mix one second of sound, in
+     * milliseconds.
+     *
+     * @return the mixing cost
+     */
+    public synchronized double getMixCostPerSecond() {
+        if (mixedFrames == 0) {
+            return 0;
+        }
+        return mixTime / 1e6 * OUTPUT_RATE / mixedFrames;
+    }
+
+    // Getters.
+    public synchronized long getMixedFrames() {
+        return mixedFrames;
+    }
+
+    public synchronized int getActiveVoices() {
+        return activeVoices;
+    }
+}
@@ -0,0 +1,284 @@
+package backend.sound;
+
+import backend.resources.Sound;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Keeps the decoded sounds in buffers.
+ *
+ * The buffers are keyed by the content of the sound file, so sound IDs that
+ * use the same file share one buffer.
+ *
+ * Each buffer counts the sounds that have acquired it. Sounds that are
+ * played often are acquired during loading and stay in memory as long as
+ * they are acquired. The other sounds are decoded the first time they are
+ * played. Buffers that are not acquired are deleted when they take up more
+ * than the budget, starting with the one that has not been played for the
+ * longest time, or when trim() is called.
+ *
+ * Used on the audio thread only, except for register() and acquire() which
+ * are called during loading.
+ *
+ * @author pitmairen
+ */
+public class SoundCache {
+
+    /**
+     * Decodes a sound that is not in the cache.
+     */
+    public interface Decoder {
+
+        public SoundData decode(Sound soundID) throws IOException;
+    }
+
+    /**
+     * A buffer with the data of one sound file.
+     */
+    private static class Buffer {
+
+        private final int bufferID;
+        private final int size;
+        private final long duration;
+        private int references = 0;
+
+        public Buffer(int bufferID, int size, long duration) {
+            this.bufferID = bufferID;
+            this.size = size;
+            this.duration = duration;
+        }
+    }
+
+    private final AudioBackend al;
+    private final VoiceAllocator voices;
+    private final Decoder decoder;
+    private final int budget;
+
+    // The content key of each sound.
+    private final EnumMap<Sound, String> keys = new EnumMap<>(Sound.class);
+
+    // Ordered from the least to the most recently played.
+    private final LinkedHashMap<String, Buffer> buffers = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Kept when the buffer is deleted, so that the voices know how long the
+    // sound is before it is decoded again.
+    private final HashMap<String, Long> durations = new HashMap<>();
+
+    // Sounds that failed to decode. They are not tried again.
+    private final EnumSet<Sound> failed = EnumSet.noneOf(Sound.class);
+
+    // Metrics. Written by the audio thread, and read by the debug HUD.
+    private volatile int cachedBytes = 0;
+    private volatile int acquiredBytes = 0;
+    private volatile int decodeCount = 0;
+    private volatile int sharedCount = 0;
+    private volatile int evictionCount = 0;
+    private volatile int bufferCount = 0;   // The size of the buffer map, which is only read by the audio thread.
+
+    /**
+     * Constructor.
+     *
+     * @param al the audio backend
+     * @param voices the voices that play the sounds
+     * @param decoder decodes the sounds that are not in the cache
+     * @param budget the number of bytes the buffers that are not acquired
+     * can use
+     */
+    public SoundCache(AudioBackend al, VoiceAllocator voices, Decoder decoder, int budget) {
+        this.al = al;
+        this.voices = voices;
+        this.decoder = decoder;
+        this.budget = budget;
+    }
+
+    /**
+     * Tells the cache which content the sound has. Sounds with the same key
+     * share the buffer.
+     *
+     * @param soundID the sound ID
+     * @param key the content key of the sound
+     */
+    public void register(Sound soundID, String key) {
+        keys.put(soundID, key);
+    }
+
+    /**
+     * Keeps the buffer of the sound in memory until release() is called.
+     *
+     * The buffer is created from the given data if no other sound with the
+     * same content has created it.
+     *
+     * @param soundID the sound ID
+     * @param data the decoded sound, or null to decode it with the decoder
+     *
+     * @throws backend.sound.AudioBackend.AudioError
+     */
+    public void acquire(Sound soundID, SoundData data) throws AudioBackend.AudioError {
+
+        String key = keys.get(soundID);
+        if (key == null) {
+            throw new AudioBackend.AudioError("Missing sound data");
+        }
+
+        Buffer buffer = buffers.get(key);
+        if (buffer == null) {
+            if (data == null) {
+                try {
+                    data = decoder.decode(soundID);
+                } catch (IOException ex) {
+                    throw new AudioBackend.AudioError("Failed to decode sound: " + ex.getMessage());
+                }
+            }
+            buffer = create(key, data);
+            cachedBytes += buffer.size;
+        } else {
+            sharedCount++;
+        }
+
+        if (buffer.references == 0) {
+            cachedBytes -= buffer.size;
+            acquiredBytes += buffer.size;
+        }
+        buffer.references++;
+    }
+
+    /**
+     * Lets the buffer of the sound be deleted when no other sounds have
+     * acquired it.
+     *
+     * @param soundID the sound ID
+     */
+    public void release(Sound soundID) {
+        String key = keys.get(soundID);
+        Buffer buffer = key == null ? null : buffers.get(key);
+        if (buffer == null || buffer.references == 0) {
+            return;
+        }
+        buffer.references--;
+        if (buffer.references == 0) {
+            acquiredBytes -= buffer.size;
+            cachedBytes += buffer.size;
+            evict(budget, null);
+        }
+    }
+
+    /**
+     * Returns the buffer of the sound. Decodes the sound if it is not in the
+     * cache.
+     *
+     * @param soundID the sound ID
+     * @return the buffer ID, or 0 if the sound could not be decoded
+     */
+    public int getBuffer(Sound soundID) {
+
+        String key = keys.get(soundID);
+        if (key == null || failed.contains(soundID)) {
+            return 0;
+        }
+        Buffer buffer = buffers.get(key);
+        if (buffer != null) {
+            return buffer.bufferID;
+        }
+
+        try {
+            buffer = create(key, decoder.decode(soundID));
+            decodeCount++;
+        } catch (IOException | AudioBackend.AudioError ex) {
+            System.err.println("Failed to decode sound: " + soundID + " " + ex);
+            failed.add(soundID);
+            return 0;
+        }
+        cachedBytes += buffer.size;
+        evict(budget, buffer);
+        return buffer.bufferID;
+    }
+
+    private Buffer create(String key, SoundData data) throws AudioBackend.AudioError {
+        int bufferID = al.createBuffer(data);
+        Buffer buffer = new Buffer(bufferID, data.getSamples().remaining(), (long) (data.getDuration() * 1e9));
+        buffers.put(key, buffer);
+        bufferCount = buffers.size();
+        durations.put(key, buffer.duration);
+        return buffer;
+    }
+
+    /**
+     * Deletes all the buffers that are not acquired and not playing.
+     *
+     * Should be called between levels.
+     */
+    public void trim() {
+        evict(0, null);
+    }
+
+    /**
+     * Deletes the least recently played buffers that are not acquired until
+     * they use no more than the limit. Buffers that are playing, and the
+     * buffer that is about to be played, are not deleted.
+     */
+    private void evict(int limit, Buffer keep) {
+        Iterator<Buffer> it = buffers.values().iterator();
+        while (cachedBytes > limit && it.hasNext()) {
+            Buffer buffer = it.next();
+            if (buffer == keep || buffer.references > 0 || voices.isPlaying(buffer.bufferID)) {
+                continue;
+            }
+            voices.release(buffer.bufferID);
+            al.deleteBuffer(buffer.bufferID);
+            cachedBytes -= buffer.size;
+            evictionCount++;
+            it.remove();
+        }
+        bufferCount = buffers.size();
+    }
+
+    /**
+     * Returns the length of the sound in nanoseconds, or 0 if the sound has
+     * not been decoded yet.
+     *
+     * @param soundID the sound ID
+     * @return the duration
+     */
+    public long getDuration(Sound soundID) {
+        String key = keys.get(soundID);
+        return key == null ? 0 : durations.getOrDefault(key, 0L);
+    }
+
+    /**
+     * Returns the number of buffers that are in memory.
+     *
+     * @return the number of buffers
+     */
+    public int getBufferCount() {
+        return bufferCount;
+    }
+
+    // Getters.
+    public int getBudget() {
+        return budget;
+    }
+
+    public int getCachedBytes() {
+        return cachedBytes;
+    }
+
+    public int getAcquiredBytes() {
+        return acquiredBytes;
+    }
+
+    public int getDecodeCount() {
+        return decodeCount;
+    }
+
+    public int getSharedCount() {
+        return sharedCount;
+    }
+
+    public int getEvictionCount() {
+        return evictionCount;
+    }
+}
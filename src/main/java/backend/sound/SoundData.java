@@ -0,0 +1,169 @@
+package backend.sound;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Decoded PCM sound data.
+ *
+ * The decoding does not touch the sound system, so it can be done on any
+ * thread. The data is uploaded to OpenAL with OpenAL.createBuffer().
+ *
+ * @author pitmairen
+ */
+public class SoundData {
+
+    private final int channels;
+    private final int bitsPerSample;
+    private final int frequency;
+    private final ByteBuffer samples;
+
+    /**
+     * Constructor.
+     *
+     * @param channels the number of channels (1 or 2)
+     * @param bitsPerSample the number of bits per sample (8 or 16)
+     * @param frequency the sample rate
+     * @param samples the interleaved PCM samples
+     */
+    public SoundData(int channels, int bitsPerSample, int frequency, ByteBuffer samples) {
+        this.channels = channels;
+        this.bitsPerSample = bitsPerSample;
+        this.frequency = frequency;
+        this.samples = samples;
+    }
+
+    /**
+     * Decodes an uncompressed PCM or IMA ADPCM wav file.
+     *
+     * @param inputStream the wav file
+     * @return the decoded sound data
+     *
+     * @throws IOException if the stream is not a supported wav file
+     */
+    public static SoundData decodeWav(InputStream inputStream) throws IOException {
+
+        if (inputStream == null) {
+            throw new IOException("Missing sound file");
+        }
+
+        try (DataInputStream in = new DataInputStream(inputStream)) {
+
+            WavStream.Header header = WavStream.readHeader(in);
+            byte[] bytes = new byte[header.getDataSize()];
+            in.readFully(bytes);
+
+            if (header.isCompressed()) {
+                return decodeAdpcm(header, bytes);
+            }
+
+            ByteBuffer samples = ByteBuffer.allocateDirect(bytes.length);
+            samples.put(bytes);
+            samples.flip();
+            return fromLittleEndian(header.getChannels(), header.getBitsPerSample(), header.getFrequency(), samples);
+        }
+    }
+
+    /**
+     * Decodes the blocks of an IMA ADPCM file into 16 bit samples.
+     */
+    private static SoundData decodeAdpcm(WavStream.Header header, byte[] bytes) {
+
+        int channels = header.getChannels();
+        int blockAlign = header.getBlockAlign();
+        short[] block = new short[ImaAdpcm.getSamplesPerBlock(blockAlign, channels) * channels];
+
+        ByteBuffer samples = ByteBuffer.allocateDirect(header.getFrameCount() * channels * 2);
+        int framesLeft = header.getFrameCount();
+
+        for (int offset = 0; offset < bytes.length && framesLeft > 0; offset += blockAlign) {
+            int frames = ImaAdpcm.decodeBlock(bytes, offset, Math.min(blockAlign, bytes.length - offset), channels, block);
+            frames = Math.min(frames, framesLeft);
+            for (int i = 0; i < frames * channels; i++) {
+                WavStream.putSample(samples, block[i]);
+            }
+            framesLeft -= frames;
+        }
+        samples.flip();
+        return new SoundData(channels, 16, header.getFrequency(), samples);
+    }
+
+    /**
+     * Creates sound data from little endian PCM samples, which is the byte
+     * order used by wav files.
+     *
+     * The samples are used directly if the platform is little endian.
+     * Otherwise they are copied into native order.
+     *
+     * @param channels the number of channels (1 or 2)
+     * @param bitsPerSample the number of bits per sample (8 or 16)
+     * @param frequency the sample rate
+     * @param samples the samples. Must be a direct buffer.
+     * @return the sound data
+     */
+    public static SoundData fromLittleEndian(int channels, int bitsPerSample, int frequency, ByteBuffer samples) {
+
+        if (bitsPerSample == 8 || ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN) {
+            return new SoundData(channels, bitsPerSample, frequency, samples);
+        }
+        ByteBuffer swapped = ByteBuffer.allocateDirect(samples.remaining());
+        for (int i = samples.position(); i + 1 < samples.limit(); i += 2) {
+            swapped.put(samples.get(i + 1)).put(samples.get(i));
+        }
+        swapped.flip();
+        return new SoundData(channels, bitsPerSample, frequency, swapped);
+    }
+
+    /**
+     * Writes the samples in little endian byte order.
+     *
+     * @param out the stream to write to
+     *
+     * @throws IOException
+     */
+    public void writeLittleEndian(OutputStream out) throws IOException {
+
+        ByteBuffer data = samples.duplicate();
+        boolean swap = bitsPerSample == 16 && ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        if (swap) {
+            for (int i = 0; i + 1 < bytes.length; i += 2) {
+                byte b = bytes[i];
+                bytes[i] = bytes[i + 1];
+                bytes[i + 1] = b;
+            }
+        }
+        out.write(bytes);
+    }
+
+    /**
+     * Returns the length of the sound in seconds.
+     *
+     * @return the duration
+     */
+    public float getDuration() {
+        return (float) samples.remaining() / (channels * bitsPerSample / 8) / frequency;
+    }
+
+    // Getters.
+    public int getChannels() {
+        return channels;
+    }
+
+    public int getBitsPerSample() {
+        return bitsPerSample;
+    }
+
+    public int getFrequency() {
+        return frequency;
+    }
+
+    public ByteBuffer getSamples() {
+        return samples;
+    }
+}
@@ -0,0 +1,59 @@
+package backend.sound;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Streams sound data that is already in memory, like a sound in the memory
+ * mapped asset pack.
+ *
+ * @author pitmairen
+ */
+public class SoundDataStream implements SoundStream {
+
+    private final SoundData sound;
+    private final ByteBuffer samples;
+
+    /**
+     * Constructor.
+     *
+     * @param sound the sound to stream
+     */
+    public SoundDataStream(SoundData sound) {
+        this.sound = sound;
+        this.samples = sound.getSamples().duplicate();
+    }
+
+    @Override
+    public int read(ByteBuffer target) {
+        int length = Math.min(target.remaining(), samples.remaining());
+        ByteBuffer part = samples.duplicate();
+        part.limit(part.position() + length);
+        target.put(part);
+        samples.position(samples.position() + length);
+        return length;
+    }
+
+    @Override
+    public void rewind() {
+        samples.rewind();
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public int getChannels() {
+        return sound.getChannels();
+    }
+
+    @Override
+    public int getBitsPerSample() {
+        return sound.getBitsPerSample();
+    }
+
+    @Override
+    public int getFrequency() {
+        return sound.getFrequency();
+    }
+}
@@ -0,0 +1,128 @@
+package backend.sound;
+
+import backend.resources.Sound;
+
+/**
+ * A short sound that is played on a voice from the global voice allocator.
+ *
+ * The same sound can be playing on several voices at the same time. The
+ * sound data is looked up in the sound cache every time the sound is played,
+ * since sounds that are not pinned can be deleted from memory.
+ *
+ * @author pitmairen
+ */
+public class SoundEffect implements Source {
+
+    private final VoiceAllocator voices;
+    private final SoundCache cache;
+    private final Sound soundID;
+    private final SoundPriority priority;
+
+    private float x = 0f;
+    private float y = 0f;
+    private float z = 0f;
+    private float volume = 1.0f;
+
+    /**
+     * Constructor.
+     *
+     * @param soundID the sound ID
+     * @param cache the cache that holds the sound data
+     * @param priority the priority of the sound
+     * @param voices the voice allocator
+     */
+    public SoundEffect(Sound soundID, SoundCache cache, SoundPriority priority, VoiceAllocator voices) {
+        this.soundID = soundID;
+        this.cache = cache;
+        this.priority = priority;
+        this.voices = voices;
+    }
+
+    /**
+     * Plays the sound at the last set position.
+     */
+    @Override
+    public void play() {
+        voices.play(this, x, y, z, volume);
+    }
+
+    /**
+     * Plays the sound at the given position.
+     *
+     * @param x x-position (range: -1.0 - 1.0)
+     * @param y y-position (range: -1.0 - 1.0)
+     * @param gain the gain to play the sound with (range: 0.0 - 1.0)
+     */
+    public void play(float x, float y, float gain) {
+        voices.play(this, x, y, 0f, gain);
+    }
+
+    /**
+     * Stops all the voices playing this sound.
+     */
+    @Override
+    public void stop() {
+        voices.stop(this);
+    }
+
+    /**
+     * Sound effects do not support pausing
+     */
+    @Override
+    public void pause() {
+        // Not supported
+    }
+
+    /**
+     * Set the position the sound will be played at
+     *
+     * @param x x-position (range: -1.0 - 1.0)
+     * @param y y-position (range: -1.0 - 1.0)
+     * @param z z-position (range: -1.0 - 1.0)
+     */
+    @Override
+    public void setPosition(float x, float y, float z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    /**
+     * Set the volume the sound will be played with
+     *
+     * @param volume the volume (range: 0.0 - 1.0)
+     */
+    @Override
+    public void setVolume(float volume) {
+        this.volume = volume;
+    }
+
+    // Getters.
+    public float getVolume() {
+        return volume;
+    }
+
+    /**
+     * Returns the buffer with the sound data. Decodes the sound if it is not
+     * in memory.
+     *
+     * @return the buffer ID, or 0 if the sound could not be decoded
+     */
+    public int getBufferID() {
+        return cache.getBuffer(soundID);
+    }
+
+    /**
+     * Returns the length of the sound in nanoseconds. Only valid after
+     * getBufferID() has been called.
+     *
+     * @return the duration
+     */
+    public long getDuration() {
+        return cache.getDuration(soundID);
+    }
+
+    public SoundPriority getPriority() {
+        return priority;
+    }
+}
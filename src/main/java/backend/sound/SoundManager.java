@@ -1,22 +1,75 @@
 package backend.sound;
 
+import backend.main.EngineConfig;
 import backend.main.Vector;
 import backend.resources.ResourceManager;
 import backend.resources.Sound;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
-import userinterface.GUIHandler;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages the all the sounds
  *
+ * The sounds are added on the animation thread during loading. After
+ * startAudioThread() has been called, the play, stop, etc. methods only put a
+ * command on a queue. The commands are carried out by the audio thread, so
+ * the game never waits on the sound driver.
+ *
+ * Each thread that uses the sound manager gets its own queue, so the
+ * simulation and the menus can both play sounds without locking. The order
+ * of the commands is only kept within each thread.
+ *
+ * If the audio is disabled in the engine config there is no backend, and
+ * all the commands are ignored.
+ *
  * @author pitmairen
  */
 public class SoundManager {
 
-    private final OpenAL al;
+    // Commands sent to the audio thread.
+    private static final int PLAY = 0;
+    private static final int STOP = 1;
+    private static final int PAUSE = 2;
+    private static final int SET_POSITION = 3;
+    private static final int SET_VOLUME = 4;
+    private static final int SET_MUTED = 5;
+    private static final int FLUSH = 6;
+    private static final int REMOVE = 7;
+    private static final int TRIM = 8;
+
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final long AUDIO_TICK = 5; // ms
+    private static final long STREAM_UPDATE_INTERVAL = 50000000; // ns
+
+    // The memory the sound effects that are not pinned can use when they are
+    // decoded.
+    private static final int SOUND_CACHE_BUDGET = 256 * 1024; // bytes
+
+    private static final Sound[] SOUND_IDS = Sound.values();
+
+    // The name of the system property that selects the audio backend.
+    // "openal" (default) or "mixer".
+    public static final String BACKEND_PROPERTY = "xenoblaster.audio";
+
+    // One queue for each thread that sends commands.
+    private final CopyOnWriteArrayList<AudioCommandQueue> queues = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<AudioCommandQueue> commands = ThreadLocal.withInitial(() -> {
+        AudioCommandQueue queue = new AudioCommandQueue(QUEUE_CAPACITY);
+        queues.add(queue);
+        return queue;
+    });
+    private final AudioBackend al;          // Null if the audio is disabled.
+    private VoiceAllocator voices;
+    private SoundCache cache;
     private final HashMap<Sound, Source> sounds;
+    private final ArrayList<StreamingSound> streams = new ArrayList<>();
+    private Thread audioThread;
+    private final EnumMap<Sound, PlayBatch> batches;
     private final ResourceManager resources;
-    private final GUIHandler gui;
+    private final EngineConfig config;
     private boolean muted;
 
     /**
@@ -24,26 +77,43 @@ public class SoundManager {
      *
      * It should only be a single instance of this class.
      *
-     * @param gui the GUI handler
-     * @param resources the resource manager
+     * @param config the engine config
+     * @param resources the resource manager, or null if the audio is disabled
      */
-    public SoundManager(GUIHandler gui, ResourceManager resources) {
-        al = new OpenAL();
+    public SoundManager(EngineConfig config, ResourceManager resources) {
+        al = config.isAudioEnabled() ? createBackend() : null;
         sounds = new HashMap<>();
+        batches = new EnumMap<>(Sound.class);
         this.resources = resources;
-        this.gui = gui;
+        this.config = config;
         muted = false;
     }
 
+    // Number of sound effect plays that were merged into other voices.
+    // Written by the audio thread.
+    private volatile int mergedPlayCount = 0;
+
     /**
      * Plays the sound at the specified position
      *
+     * Sound effects are not played right away. All the requests for the same
+     * sound effect are collected until flush() is called, and then played as
+     * a few merged voices.
+     *
      * @param soundID the sound ID
      * @param pos the position of the sound (e.g: actor.getPosition())
      */
     public void play(Sound soundID, Vector pos) {
-        setPosition(soundID, pos);
-        sounds.get(soundID).play();
+        send(PLAY, soundID.ordinal(), toSoundX(pos), toSoundY(pos));
+    }
+
+    /**
+     * Plays the sound effects that have been requested since the last call.
+     *
+     * Should be called once every tick.
+     */
+    public void flush() {
+        send(FLUSH, 0, 0f, 0f);
     }
     
     /**
@@ -52,7 +122,7 @@ public class SoundManager {
      * @param soundID the sound ID
      */
     public void stop(Sound soundID) {
-        sounds.get(soundID).stop();
+        send(STOP, soundID.ordinal(), 0f, 0f);
     }
     
     /**
@@ -61,7 +131,7 @@ public class SoundManager {
      * @param soundID the sound ID
      */
     public void pause(Sound soundID) {
-        sounds.get(soundID).pause();
+        send(PAUSE, soundID.ordinal(), 0f, 0f);
     }
     
     /**
@@ -71,10 +141,25 @@ public class SoundManager {
      * @param pos the position of the sound
      */
     public void setPosition(Sound soundID, Vector pos) {
-        // Convert the position into the coordinates used by openal.
-        float x = (2 * (float) pos.getX() - gui.width) / gui.width;
-        float y = (2 * (float) pos.getY() - gui.height) / gui.height;
-        sounds.get(soundID).setPosition(x, y, 0f);
+        send(SET_POSITION, soundID.ordinal(), toSoundX(pos), toSoundY(pos));
+    }
+
+    // Convert the position into the coordinates used by openal.
+    private float toSoundX(Vector pos) {
+        int width = config.getWorldWidth();
+        return (2 * (float) pos.getX() - width) / width;
+    }
+
+    private float toSoundY(Vector pos) {
+        int height = config.getWorldHeight();
+        return (2 * (float) pos.getY() - height) / height;
+    }
+
+    // Put a command on the queue of the calling thread.
+    private void send(int command, int sound, float a, float b) {
+        if (al != null) {
+            commands.get().offer(command, sound, a, b);
+        }
     }
 
     /**
@@ -84,37 +169,124 @@ public class SoundManager {
      * @param volume the volume of the sound. (range: 0.0 -> 1.0)
      */
     public void setVolume(Sound soundID, float volume) {
-        sounds.get(soundID).setVolume(volume);
+        send(SET_VOLUME, soundID.ordinal(), volume, 0f);
     }
     
     /**
-     * Add a new sound to the manager
+     * Removes a sound from the manager. The buffer of the sound is freed
+     * when no other sounds use it.
      *
      * @param soundID the sound ID
-     * @param numSimultaneousPlays the number of simultaneous plays that this
-     * sound should support
+     */
+    public void removeSound(Sound soundID) {
+        send(REMOVE, soundID.ordinal(), 0f, 0f);
+    }
+
+    /**
+     * Frees the sound effects that are decoded on demand and not playing.
+     * They are decoded again the next time they are played.
+     *
+     * Should be called between levels.
+     */
+    public void releaseUnusedSounds() {
+        send(TRIM, 0, 0f, 0f);
+    }
+
+    /**
+     * Add a new sound effect to the manager
+     *
+     * The sound is played on the shared voices. If all the voices are busy,
+     * the sound can take over a voice from a sound with the same or lower
+     * priority.
+     *
+     * Sounds that are registered to be decoded on demand are decoded the
+     * first time they are played, and can be deleted again when the sound
+     * cache is full. The other sounds are kept in memory. Sounds with the
+     * same content share one buffer.
+     *
+     * A sound that fails to load is reported and left out. Commands for it
+     * are ignored.
      *
-     * @throws backend.sound.OpenAL.ALError
+     * @param soundID the sound ID
+     * @param priority the priority of the sound
      */
-    public void addSound(Sound soundID, int numSimultaneousPlays) throws OpenAL.ALError {
-        int bufferID = al.createBuffer(resources.getSound(soundID));
-        SourcePool pool = new SourcePool(bufferID, numSimultaneousPlays, al);
-        sounds.put(soundID, pool);
+    public void addSound(Sound soundID, SoundPriority priority) {
+        try {
+            createCache();
+            cache.register(soundID, resources.getSoundKey(soundID));
+            if (!resources.isDecodedOnDemand(soundID)) {
+                cache.acquire(soundID, resources.getSound(soundID));
+            }
+            sounds.put(soundID, new SoundEffect(soundID, cache, priority, voices));
+            batches.put(soundID, new PlayBatch());
+        } catch (AudioBackend.AudioError ex) {
+            reportFailure(soundID, ex);
+        }
     }
     
     /**
      * Add a new sound to the manager
      *
      * @param soundID the sound ID
-     *
-     * @throws backend.sound.OpenAL.ALError
      */
-    public void addLoopingSound(Sound soundID) throws OpenAL.ALError {
-        int bufferID = al.createBuffer(resources.getSound(soundID));
-        Source src = new LoopingSound(bufferID, al);
-        sounds.put(soundID, src);
+    public void addLoopingSound(Sound soundID) {
+        try {
+            createCache();
+            cache.register(soundID, resources.getSoundKey(soundID));
+            cache.acquire(soundID, resources.getSound(soundID));
+            sounds.put(soundID, new LoopingSound(soundID, cache, al));
+        } catch (AudioBackend.AudioError ex) {
+            reportFailure(soundID, ex);
+        }
     }
     
+    /**
+     * Add a new looping sound that is streamed instead of loaded into memory.
+     *
+     * Should be used for long sounds like music.
+     *
+     * @param soundID the sound ID
+     */
+    public void addStreamingSound(Sound soundID) {
+        try {
+            SoundStream stream = resources.openStream(soundID);
+            StreamingSound sound = new StreamingSound(stream, al);
+            sounds.put(soundID, sound);
+            streams.add(sound);
+        } catch (IOException | AudioBackend.AudioError ex) {
+            reportFailure(soundID, ex);
+        }
+    }
+
+    private void createCache() {
+        if (cache == null) {
+            voices = new VoiceAllocator(al);
+            cache = new SoundCache(al, voices, resources::decodeSound, SOUND_CACHE_BUDGET);
+        }
+    }
+
+    private void reportFailure(Sound soundID, Exception ex) {
+        System.err.println("Failed to load sound " + soundID + ": " + ex.getMessage());
+    }
+
+    /**
+     * Creates the audio backend selected with the xenoblaster.audio system
+     * property. Falls back to the software mixer if OpenAL is not available,
+     * so the game can run on machines without a sound device.
+     */
+    private static AudioBackend createBackend() {
+        if (!"mixer".equals(System.getProperty(BACKEND_PROPERTY, "openal"))) {
+            try {
+                return new OpenAL();
+            } catch (RuntimeException | LinkageError ex) {
+                System.err.println("OpenAL is not available, using the software mixer: " + ex);
+            }
+        }
+        SoftwareMixer mixer = new SoftwareMixer();
+        mixer.startRealTimeThread();
+        return mixer;
+    }
+
     /**
      * Set the muted state of the sound manager
      *
@@ -122,11 +294,7 @@ public class SoundManager {
      */
     public void setMuted(boolean muted) {
         this.muted = muted;
-        if(muted){
-            al.setGlobalGain(0f);
-        }else{
-            al.setGlobalGain(1.0f);
-        }
+        send(SET_MUTED, 0, muted ? 1f : 0f, 0f);
     }
 
     /**
@@ -135,4 +303,189 @@ public class SoundManager {
     public void toggleMuted() {
         setMuted(!muted);
     }
+
+    /**
+     * Starts the thread that carries out the sound commands and refills the
+     * streaming sounds.
+     *
+     * Should be called once after all the sounds have been added.
+     */
+    public void startAudioThread() {
+        if (al == null) {
+            return;
+        }
+        audioThread = new Thread(() -> {
+            long nextStreamUpdate = System.nanoTime();
+            while (!Thread.currentThread().isInterrupted()) {
+                for (AudioCommandQueue queue : queues) {
+                    while (queue.drain(this::execute, QUEUE_CAPACITY) > 0) {
+                        // Keep going until the queue is empty.
+                    }
+                }
+                al.flush();
+                if (System.nanoTime() - nextStreamUpdate >= 0) {
+                    for (int i = 0; i < streams.size(); i++) {
+                        streams.get(i).update();
+                    }
+                    nextStreamUpdate += STREAM_UPDATE_INTERVAL;
+                }
+                try {
+                    Thread.sleep(AUDIO_TICK);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        }, "Audio");
+        audioThread.setDaemon(true);
+        audioThread.start();
+    }
+
+    /**
+     * Stops the audio thread and frees the streaming sounds. The commands
+     * that are still queued are dropped.
+     *
+     * Should be called once when the game exits.
+     */
+    public void shutdown() {
+        if (audioThread != null) {
+            audioThread.interrupt();
+            try {
+                audioThread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            audioThread = null;
+        }
+        for (StreamingSound stream : streams) {
+            stream.delete();
+        }
+        streams.clear();
+    }
+
+    /**
+     * Carries out a sound command. Called on the audio thread.
+     */
+    private void execute(int command, int sound, float a, float b) {
+
+        Sound soundID = SOUND_IDS[sound];
+        Source source = sounds.get(soundID);
+        PlayBatch batch = batches.get(soundID);
+
+        if (source == null && command != SET_MUTED && command != FLUSH && command != TRIM) {
+            return; // The sound failed to load.
+        }
+
+        switch (command) {
+            case PLAY:
+                if (batch != null) {
+                    batch.add(a, b);
+                } else {
+                    source.setPosition(a, b, 0f);
+                    source.play();
+                }
+                break;
+            case STOP:
+                if (batch != null) {
+                    batch.clear();
+                }
+                source.stop();
+                break;
+            case PAUSE:
+                source.pause();
+                break;
+            case SET_POSITION:
+                source.setPosition(a, b, 0f);
+                break;
+            case SET_VOLUME:
+                source.setVolume(a);
+                break;
+            case SET_MUTED:
+                al.setGlobalGain(a != 0f ? 0f : 1.0f);
+                break;
+            case FLUSH:
+                flushBatches();
+                break;
+            case REMOVE:
+                source.stop();
+                sounds.remove(soundID);
+                batches.remove(soundID);
+                if (streams.remove(source)) {
+                    ((StreamingSound) source).delete();
+                } else {
+                    cache.release(soundID);
+                }
+                break;
+            case TRIM:
+                if (cache != null) {
+                    cache.trim();
+                }
+                break;
+        }
+    }
+
+    /**
+     * Plays the merged sound effects. Called on the audio thread.
+     */
+    private void flushBatches() {
+        for (Sound soundID : batches.keySet()) {
+            PlayBatch batch = batches.get(soundID);
+            int requests = batch.getCount();
+            if (requests > 0) {
+                SoundEffect sound = (SoundEffect) sounds.get(soundID);
+                mergedPlayCount += requests - batch.flush(sound, sound.getVolume());
+            }
+        }
+    }
+
+    /**
+     * Returns the number of sound commands that have been dropped because the
+     * audio thread could not keep up.
+     *
+     * @return the number of dropped commands
+     */
+    public int getDroppedCommandCount() {
+        int dropped = 0;
+        for (AudioCommandQueue queue : queues) {
+            dropped += queue.getDroppedCount();
+        }
+        return dropped;
+    }
+
+    /**
+     * Returns the audio backend that plays the sounds.
+     *
+     * @return the backend
+     */
+    public AudioBackend getBackend() {
+        return al;
+    }
+
+    /**
+     * Returns the voice allocator that plays the sound effects. Used to read
+     * the voice metrics.
+     *
+     * @return the voice allocator, or null if no sound effects are added
+     */
+    public VoiceAllocator getVoiceAllocator() {
+        return voices;
+    }
+
+    /**
+     * Returns the cache that holds the decoded sound effects.
+     *
+     * @return the sound cache, or null if no sound effects are added
+     */
+    public SoundCache getSoundCache() {
+        return cache;
+    }
+
+    /**
+     * Returns the number of sound effect plays that have been merged into
+     * other voices instead of getting a voice of their own.
+     *
+     * @return the number of merged plays
+     */
+    public int getMergedPlayCount() {
+        return mergedPlayCount;
+    }
 }
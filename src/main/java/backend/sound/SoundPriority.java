@@ -0,0 +1,17 @@
+package backend.sound;
+
+/**
+ * The importance of a sound effect.
+ *
+ * When all the voices are in use, a sound can only take over a voice from a
+ * sound with the same or lower priority.
+ *
+ * @author pitmairen
+ */
+public enum SoundPriority {
+
+    LOW,
+    NORMAL,
+    HIGH,
+    CRITICAL
+}
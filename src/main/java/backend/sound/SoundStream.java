@@ -0,0 +1,40 @@
+package backend.sound;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A sound that is read in chunks instead of being loaded all at once.
+ *
+ * @author pitmairen
+ */
+public interface SoundStream {
+
+    /**
+     * Reads the next samples into the buffer, in native byte order.
+     *
+     * @param target the buffer to fill
+     * @return the number of bytes read. Zero when the end is reached.
+     *
+     * @throws IOException
+     */
+    public int read(ByteBuffer target) throws IOException;
+
+    /**
+     * Starts reading from the beginning of the sound again.
+     *
+     * @throws IOException
+     */
+    public void rewind() throws IOException;
+
+    /**
+     * Releases the resources held by the stream.
+     */
+    public void close();
+
+    public int getChannels();
+
+    public int getBitsPerSample();
+
+    public int getFrequency();
+}
@@ -0,0 +1,224 @@
+package backend.sound;
+
+import java.util.Arrays;
+
+/**
+ * A copy of the state of the OpenAL sources, kept in primitive arrays that
+ * are indexed by source slot.
+ *
+ * Setting a value that is equal to the current value does nothing. Changed
+ * values are marked as dirty, so that only the changes have to be sent to
+ * OpenAL when the table is flushed.
+ *
+ * @author pitmairen
+ */
+class SourceStateTable {
+
+    // Dirty bits.
+    static final int GAIN = 1;
+    static final int POSITION = 2;
+    static final int PITCH = 4;
+
+    // Play states.
+    static final int STOPPED = 0;
+    static final int PLAYING = 1;
+    static final int PAUSED = 2;
+
+    // The end time of a source that nobody knows when ends, like a looping
+    // or streaming source.
+    static final long UNKNOWN_END = Long.MAX_VALUE;
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private int size = 0;
+
+    private int[] sources = new int[INITIAL_CAPACITY];
+    private float[] gain = new float[INITIAL_CAPACITY];
+    private float[] x = new float[INITIAL_CAPACITY];
+    private float[] y = new float[INITIAL_CAPACITY];
+    private float[] z = new float[INITIAL_CAPACITY];
+    private float[] pitch = new float[INITIAL_CAPACITY];
+    private int[] state = new int[INITIAL_CAPACITY];
+    private long[] endTime = new long[INITIAL_CAPACITY];
+    private int[] dirty = new int[INITIAL_CAPACITY];
+    private boolean[] listed = new boolean[INITIAL_CAPACITY];
+
+    // The slots that have been marked as dirty since the last flush.
+    private int[] dirtySlots = new int[INITIAL_CAPACITY];
+    private int dirtyCount = 0;
+
+    /**
+     * Adds a source to the table with the default values.
+     *
+     * @param source the OpenAL source name
+     * @return the slot of the source
+     */
+    int add(int source) {
+        if (size == sources.length) {
+            grow(size * 2);
+        }
+        int slot = size++;
+        sources[slot] = source;
+        gain[slot] = 1.0f;
+        x[slot] = 0f;
+        y[slot] = 0f;
+        z[slot] = 0f;
+        pitch[slot] = 1.0f;
+        state[slot] = STOPPED;
+        endTime[slot] = UNKNOWN_END;
+        dirty[slot] = 0;
+        return slot;
+    }
+
+    /**
+     * Marks the source of a slot as deleted. The slot is not reused.
+     *
+     * @param slot the source slot
+     */
+    void remove(int slot) {
+        sources[slot] = 0;
+        state[slot] = STOPPED;
+        endTime[slot] = UNKNOWN_END;
+        dirty[slot] = 0;
+    }
+
+    void setGain(int slot, float value) {
+        if (gain[slot] != value) {
+            gain[slot] = value;
+            markDirty(slot, GAIN);
+        }
+    }
+
+    void setPosition(int slot, float xPos, float yPos, float zPos) {
+        if (x[slot] != xPos || y[slot] != yPos || z[slot] != zPos) {
+            x[slot] = xPos;
+            y[slot] = yPos;
+            z[slot] = zPos;
+            markDirty(slot, POSITION);
+        }
+    }
+
+    void setPitch(int slot, float value) {
+        if (pitch[slot] != value) {
+            pitch[slot] = value;
+            markDirty(slot, PITCH);
+        }
+    }
+
+    void setState(int slot, int value) {
+        state[slot] = value;
+    }
+
+    void setEndTime(int slot, long value) {
+        endTime[slot] = value;
+    }
+
+    /**
+     * Marks the given values of all the sources as dirty.
+     *
+     * @param bits the dirty bits
+     */
+    void markAllDirty(int bits) {
+        for (int slot = 0; slot < size; slot++) {
+            markDirty(slot, bits);
+        }
+    }
+
+    private void markDirty(int slot, int bits) {
+        if (!listed[slot]) {
+            listed[slot] = true;
+            dirtySlots[dirtyCount++] = slot;
+        }
+        dirty[slot] |= bits;
+    }
+
+    /**
+     * Clears the dirty bits of a source. The slot stays in the dirty list
+     * until clearDirtySlots() is called.
+     *
+     * @param slot the source slot
+     */
+    void clearDirty(int slot) {
+        dirty[slot] = 0;
+    }
+
+    /**
+     * Empties the list of dirty slots and clears their dirty bits.
+     */
+    void clearDirtySlots() {
+        for (int i = 0; i < dirtyCount; i++) {
+            dirty[dirtySlots[i]] = 0;
+            listed[dirtySlots[i]] = false;
+        }
+        dirtyCount = 0;
+    }
+
+    private void grow(int capacity) {
+        sources = Arrays.copyOf(sources, capacity);
+        gain = Arrays.copyOf(gain, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        z = Arrays.copyOf(z, capacity);
+        pitch = Arrays.copyOf(pitch, capacity);
+        state = Arrays.copyOf(state, capacity);
+        endTime = Arrays.copyOf(endTime, capacity);
+        dirty = Arrays.copyOf(dirty, capacity);
+        listed = Arrays.copyOf(listed, capacity);
+        dirtySlots = Arrays.copyOf(dirtySlots, capacity);
+    }
+
+    // Getters.
+    /**
+     * Returns the number of slots, including the slots of the deleted
+     * sources.
+     *
+     * @return the number of slots
+     */
+    int size() {
+        return size;
+    }
+
+    int getSource(int slot) {
+        return sources[slot];
+    }
+
+    float getGain(int slot) {
+        return gain[slot];
+    }
+
+    float getX(int slot) {
+        return x[slot];
+    }
+
+    float getY(int slot) {
+        return y[slot];
+    }
+
+    float getZ(int slot) {
+        return z[slot];
+    }
+
+    float getPitch(int slot) {
+        return pitch[slot];
+    }
+
+    int getState(int slot) {
+        return state[slot];
+    }
+
+    long getEndTime(int slot) {
+        return endTime[slot];
+    }
+
+    int getDirty(int slot) {
+        return dirty[slot];
+    }
+
+    int getDirtyCount() {
+        return dirtyCount;
+    }
+
+    int getDirtySlot(int index) {
+        return dirtySlots[index];
+    }
+}
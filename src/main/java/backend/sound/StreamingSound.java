@@ -0,0 +1,199 @@
+package backend.sound;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A looping audio source that streams the sound instead of loading all of it
+ * into one buffer.
+ *
+ * A small ring of buffers is queued on the source. The audio thread calls
+ * update() to refill the buffers that have finished playing with the next
+ * chunk of the sound, so the memory use does not depend on the length of the
+ * sound.
+ *
+ * @author pitmairen
+ */
+public class StreamingSound implements Source {
+
+    private static final int BUFFER_COUNT = 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final AudioBackend al;
+    private final SoundStream stream;
+    private final int sourceID;
+    private final int[] bufferIDs;
+    private final ByteBuffer chunk;
+
+    // Guarded by this.
+    private boolean playing = false;
+    private boolean paused = false;
+
+    /**
+     * Create a new streaming source.
+     *
+     * @param stream the sound to stream
+     * @param al the OpenAl object
+     *
+     * @throws backend.sound.AudioBackend.AudioError
+     */
+    public StreamingSound(SoundStream stream, AudioBackend al) throws AudioBackend.AudioError {
+        this.al = al;
+        this.stream = stream;
+        sourceID = al.addSource(0, false);
+        bufferIDs = al.createBuffers(BUFFER_COUNT);
+        chunk = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Play the sound from the start, or resume it if it is paused.
+     */
+    @Override
+    public synchronized void play() {
+        if (paused) {
+            al.play(sourceID);
+            paused = false;
+            return;
+        }
+        if (playing) {
+            reset();
+        }
+        for (int bufferID : bufferIDs) {
+            if (!fill(bufferID)) {
+                break;
+            }
+        }
+        al.play(sourceID);
+        playing = true;
+    }
+
+    /**
+     * Stops the sound.
+     */
+    @Override
+    public synchronized void stop() {
+        reset();
+    }
+
+    /**
+     * Pause the sound.
+     */
+    @Override
+    public synchronized void pause() {
+        if (playing) {
+            al.pause(sourceID);
+            paused = true;
+        }
+    }
+
+    /**
+     * Set the position of the sound
+     *
+     * @param x x-position (range: -1.0 - 1.0)
+     * @param y y-position (range: -1.0 - 1.0)
+     * @param z z-position (range: -1.0 - 1.0)
+     */
+    @Override
+    public void setPosition(float x, float y, float z) {
+        al.setPosition(sourceID, x, y, z);
+    }
+
+    /**
+     * Set the volume of the source
+     *
+     * @param volume the volume (range: 0.0 - 1.0)
+     */
+    @Override
+    public void setVolume(float volume) {
+        al.setGain(sourceID, volume);
+    }
+
+    /**
+     * Stops the sound and frees the source, the buffers and the stream. The
+     * sound can not be used after this.
+     */
+    public synchronized void delete() {
+        reset();
+        al.deleteSource(sourceID);
+        for (int bufferID : bufferIDs) {
+            al.deleteBuffer(bufferID);
+        }
+        stream.close();
+    }
+
+    /**
+     * Refills the buffers that have finished playing. Called by the audio
+     * thread.
+     */
+    synchronized void update() {
+
+        if (!playing || paused) {
+            return;
+        }
+        int bufferID;
+        while ((bufferID = al.unqueueProcessedBuffer(sourceID)) != -1) {
+            if (!fill(bufferID)) {
+                break;
+            }
+        }
+        // The source stops by itself if it runs out of buffers.
+        if (!al.isPlaying(sourceID) && al.getQueuedBuffers(sourceID) > 0) {
+            al.play(sourceID);
+        }
+    }
+
+    /**
+     * Fills the buffer with the next chunk of the sound and queues it. Starts
+     * over from the beginning when the end of the sound is reached.
+     *
+     * @return false if there was nothing to fill the buffer with
+     */
+    private boolean fill(int bufferID) {
+
+        chunk.clear();
+        try {
+            boolean rewound = false;
+            while (chunk.hasRemaining()) {
+                if (stream.read(chunk) == 0) {
+                    if (rewound) {
+                        break;  // Empty sound.
+                    }
+                    stream.rewind();
+                    rewound = true;
+                } else {
+                    rewound = false;
+                }
+            }
+        } catch (IOException ex) {
+            System.err.println("Failed to stream sound: " + ex.getMessage());
+            playing = false;
+            return false;
+        }
+        chunk.flip();
+        if (!chunk.hasRemaining()) {
+            return false;
+        }
+        al.fillBuffer(bufferID, stream.getChannels(), stream.getBitsPerSample(), stream.getFrequency(), chunk);
+        al.queueBuffer(sourceID, bufferID);
+        return true;
+    }
+
+    /**
+     * Stops the source, removes all the queued buffers and rewinds the
+     * stream.
+     */
+    private void reset() {
+        al.stop(sourceID);
+        while (al.unqueueProcessedBuffer(sourceID) != -1) {
+            // All the buffers are processed when the source is stopped.
+        }
+        try {
+            stream.rewind();
+        } catch (IOException ex) {
+            System.err.println("Failed to rewind sound: " + ex.getMessage());
+        }
+        playing = false;
+        paused = false;
+    }
+}
@@ -0,0 +1,277 @@
+package backend.sound;
+
+/**
+ * Shares a fixed number of OpenAL sources (voices) between all the sound
+ * effects.
+ *
+ * Sounds that are too quiet or too far away from the listener are dropped
+ * before any OpenAL call is made. When all the voices are busy, the new sound
+ * takes over the voice that is least important. That is a voice with a lower
+ * priority, or a voice with the same priority that is quieter, further away
+ * or closer to the end than the new sound.
+ *
+ * The allocator does not ask OpenAL if a voice is still playing. Each voice
+ * is assumed to be done when the duration of its sound has passed.
+ *
+ * @author pitmairen
+ */
+public class VoiceAllocator {
+
+    public static final int MAX_VOICES = 32;
+
+    // Sounds quieter than this are not played.
+    private static final float MIN_AUDIBLE_GAIN = 0.01f;
+
+    // Sounds further away from the listener than this are not played. The
+    // screen edges are at a distance of 1.
+    private static final float MAX_DISTANCE = 1.6f;
+
+    /**
+     * A source and the sound it is playing. The source is created the first
+     * time the voice is used.
+     */
+    private static class Voice {
+
+        // The source and the end time are also read by the debug HUD.
+        private volatile int sourceID = -1;
+        private int bufferID = 0;
+        private SoundEffect sound;
+        private SoundPriority priority;
+        private float audibility;
+        private long startTime;
+        private volatile long endTime;
+
+        /**
+         * How much would be lost by cutting this voice off now. Quiet voices
+         * that are almost done are cheap to steal.
+         */
+        private float getStealCost(long now) {
+            float remaining = (float) (endTime - now) / Math.max(endTime - startTime, 1);
+            return audibility * remaining;
+        }
+    }
+
+    private final AudioBackend al;
+    private final Voice[] voices;
+
+    // Metrics. Written by the audio thread, and read by the debug HUD.
+    private volatile int playCount = 0;
+    private volatile int culledCount = 0;
+    private volatile int stolenCount = 0;
+    private volatile int droppedCount = 0;
+    private volatile int peakVoices = 0;
+
+    /**
+     * Creates the voices. No sources are created until the voices are used.
+     *
+     * @param al the OpenAL object
+     */
+    public VoiceAllocator(AudioBackend al) {
+        this.al = al;
+        voices = new Voice[MAX_VOICES];
+        for (int i = 0; i < voices.length; i++) {
+            voices[i] = new Voice();
+        }
+    }
+
+    /**
+     * Plays the sound on a free voice, or on a stolen voice if none are
+     * free.
+     *
+     * @param sound the sound to play
+     * @param x x-position (range: -1.0 - 1.0)
+     * @param y y-position (range: -1.0 - 1.0)
+     * @param z z-position (range: -1.0 - 1.0)
+     * @param volume the volume (range: 0.0 - 1.0)
+     * @return true if the sound was played
+     */
+    public boolean play(SoundEffect sound, float x, float y, float z, float volume) {
+
+        playCount++;
+
+        float distance = (float) Math.sqrt(x * x + y * y + z * z);
+        float audibility = volume / (1 + distance);
+        if (distance > MAX_DISTANCE || audibility < MIN_AUDIBLE_GAIN) {
+            culledCount++;
+            return false;
+        }
+
+        // Can decode the sound and free other buffers, so it must be done
+        // before a voice is picked.
+        int bufferID = sound.getBufferID();
+        if (bufferID == 0) {
+            droppedCount++;
+            return false;
+        }
+
+        long now = System.nanoTime();
+        Voice voice = findVoice(sound.getPriority(), audibility, now);
+        if (voice == null) {
+            droppedCount++;
+            return false;
+        }
+
+        if (voice.sourceID < 0) {
+            try {
+                voice.sourceID = al.addSource(0, false);
+            } catch (AudioBackend.AudioError ex) {
+                droppedCount++;
+                return false;
+            }
+        }
+        if (voice.endTime > now) {
+            al.stop(voice.sourceID);
+            stolenCount++;
+        }
+        if (voice.bufferID != bufferID) {
+            al.setBuffer(voice.sourceID, bufferID);
+            voice.bufferID = bufferID;
+        }
+        al.setPosition(voice.sourceID, x, y, z);
+        al.setGain(voice.sourceID, volume);
+        voice.sound = sound;
+        voice.priority = sound.getPriority();
+        voice.audibility = audibility;
+        voice.startTime = now;
+        voice.endTime = now + sound.getDuration();
+
+        al.play(voice.sourceID, voice.endTime);
+
+        peakVoices = Math.max(peakVoices, getActiveVoices());
+        return true;
+    }
+
+    /**
+     * Stops all the voices that are playing the sound.
+     *
+     * @param sound the sound to stop
+     */
+    public void stop(SoundEffect sound) {
+        long now = System.nanoTime();
+        for (Voice voice : voices) {
+            if (voice.sound == sound && voice.endTime > now) {
+                al.stop(voice.sourceID);
+                voice.endTime = now;
+            }
+        }
+    }
+
+    /**
+     * Returns true if any of the voices are playing the buffer.
+     *
+     * @param bufferID the buffer ID
+     * @return true if the buffer is in use
+     */
+    public boolean isPlaying(int bufferID) {
+        long now = System.nanoTime();
+        for (Voice voice : voices) {
+            if (voice.bufferID == bufferID && voice.endTime > now) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Disconnects the buffer from the voices that are done with it, so that
+     * the buffer can be deleted.
+     *
+     * @param bufferID the buffer ID
+     */
+    public void release(int bufferID) {
+        for (Voice voice : voices) {
+            if (voice.bufferID == bufferID) {
+                al.stop(voice.sourceID);
+                al.setBuffer(voice.sourceID, 0);
+                voice.bufferID = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of voices that have a source.
+     *
+     * @return the number of sources
+     */
+    public int getSourceCount() {
+        int count = 0;
+        for (Voice voice : voices) {
+            if (voice.sourceID >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of voices that are currently playing.
+     *
+     * @return the number of active voices
+     */
+    public int getActiveVoices() {
+        long now = System.nanoTime();
+        int active = 0;
+        for (Voice voice : voices) {
+            if (voice.endTime > now) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Returns a free voice, or the voice that is cheapest to steal. Returns
+     * null if all the voices are more important than the new sound.
+     */
+    private Voice findVoice(SoundPriority priority, float audibility, long now) {
+
+        Voice best = null;
+        float bestCost = 0;
+
+        for (Voice voice : voices) {
+            if (voice.endTime <= now) {
+                return voice;
+            }
+            int compare = voice.priority.compareTo(priority);
+            if (compare > 0) {
+                continue;
+            }
+            float cost = voice.getStealCost(now);
+            if (compare == 0 && cost >= audibility) {
+                continue;
+            }
+            // Prefer the lowest priority, then the lowest cost.
+            if (best == null || voice.priority.compareTo(best.priority) < 0
+                    || (voice.priority == best.priority && cost < bestCost)) {
+                best = voice;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    // Getters.
+    public int getMaxVoices() {
+        return voices.length;
+    }
+
+    public int getPeakVoices() {
+        return peakVoices;
+    }
+
+    public int getPlayCount() {
+        return playCount;
+    }
+
+    public int getCulledCount() {
+        return culledCount;
+    }
+
+    public int getStolenCount() {
+        return stolenCount;
+    }
+
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+}
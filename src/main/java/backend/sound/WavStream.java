@@ -0,0 +1,330 @@
+package backend.sound;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reads a wav file in chunks.
+ *
+ * Both uncompressed PCM and IMA ADPCM files are supported. ADPCM files are
+ * decoded one block at a time, and are read as 16 bit samples.
+ *
+ * @author pitmairen
+ */
+public class WavStream implements SoundStream {
+
+    /**
+     * Opens the wav file. Called again every time the stream is rewound.
+     */
+    public interface Opener {
+
+        public InputStream open() throws IOException;
+    }
+
+    /**
+     * The format of a wav file.
+     */
+    public static class Header {
+
+        private final int format;
+        private final int channels;
+        private final int bitsPerSample;
+        private final int frequency;
+        private final int blockAlign;
+        private final int dataSize;
+        private final int frameCount;
+
+        public Header(int format, int channels, int bitsPerSample, int frequency,
+                int blockAlign, int dataSize, int frameCount) {
+            this.format = format;
+            this.channels = channels;
+            this.bitsPerSample = bitsPerSample;
+            this.frequency = frequency;
+            this.blockAlign = blockAlign;
+            this.dataSize = dataSize;
+            this.frameCount = frameCount;
+        }
+
+        /**
+         * Returns true if the samples are IMA ADPCM compressed.
+         *
+         * @return true if compressed
+         */
+        public boolean isCompressed() {
+            return format == ImaAdpcm.FORMAT_TAG;
+        }
+
+        // Getters.
+        public int getChannels() {
+            return channels;
+        }
+
+        /**
+         * Returns the number of bits per decoded sample. Compressed files are
+         * decoded to 16 bits.
+         *
+         * @return the number of bits per sample
+         */
+        public int getBitsPerSample() {
+            return isCompressed() ? 16 : bitsPerSample;
+        }
+
+        public int getBlockAlign() {
+            return blockAlign;
+        }
+
+        /**
+         * Returns the number of samples per channel.
+         *
+         * @return the number of sample frames
+         */
+        public int getFrameCount() {
+            return frameCount;
+        }
+
+        public int getFrequency() {
+            return frequency;
+        }
+
+        public int getDataSize() {
+            return dataSize;
+        }
+    }
+
+    private final Opener opener;
+    private DataInputStream in;
+    private Header header;
+    private int remaining;
+    private byte[] chunk = new byte[0];
+
+    // The current decoded block of a compressed file.
+    private short[] block = new short[0];
+    private int blockFrames;
+    private int blockPosition;
+    private int framesLeft;
+
+    /**
+     * Opens the stream.
+     *
+     * @param opener opens the wav file
+     *
+     * @throws IOException if the file is not a supported wav file
+     */
+    public WavStream(Opener opener) throws IOException {
+        this.opener = opener;
+        rewind();
+    }
+
+    @Override
+    public int read(ByteBuffer target) throws IOException {
+
+        if (header.isCompressed()) {
+            return readCompressed(target);
+        }
+
+        int length = Math.min(target.remaining(), remaining);
+        length -= length % (header.getChannels() * header.getBitsPerSample() / 8);
+        if (chunk.length < length) {
+            chunk = new byte[length];
+        }
+        in.readFully(chunk, 0, length);
+        remaining -= length;
+
+        if (header.getBitsPerSample() == 16 && ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN) {
+            for (int i = 0; i + 1 < length; i += 2) {
+                target.put(chunk[i + 1]).put(chunk[i]);
+            }
+        } else {
+            target.put(chunk, 0, length);
+        }
+        return length;
+    }
+
+    private int readCompressed(ByteBuffer target) throws IOException {
+
+        int channels = header.getChannels();
+        int written = 0;
+
+        while (target.remaining() >= 2 * channels && framesLeft > 0) {
+            if (blockPosition == blockFrames && !readBlock()) {
+                break;
+            }
+            int frames = Math.min(Math.min(blockFrames - blockPosition, framesLeft), target.remaining() / (2 * channels));
+            for (int i = blockPosition * channels; i < (blockPosition + frames) * channels; i++) {
+                putSample(target, block[i]);
+            }
+            blockPosition += frames;
+            framesLeft -= frames;
+            written += frames * 2 * channels;
+        }
+        return written;
+    }
+
+    /**
+     * Reads and decodes the next block of a compressed file.
+     */
+    private boolean readBlock() throws IOException {
+        int length = Math.min(header.getBlockAlign(), remaining);
+        if (chunk.length < length) {
+            chunk = new byte[length];
+        }
+        in.readFully(chunk, 0, length);
+        remaining -= length;
+
+        blockFrames = ImaAdpcm.decodeBlock(chunk, 0, length, header.getChannels(), block);
+        blockPosition = 0;
+        return blockFrames > 0;
+    }
+
+    /**
+     * Writes a 16 bit sample in native byte order.
+     */
+    static void putSample(ByteBuffer target, short sample) {
+        if (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN) {
+            target.put((byte) sample).put((byte) (sample >> 8));
+        } else {
+            target.put((byte) (sample >> 8)).put((byte) sample);
+        }
+    }
+
+    @Override
+    public final void rewind() throws IOException {
+        close();
+        InputStream inputStream = opener.open();
+        if (inputStream == null) {
+            throw new IOException("Missing sound file");
+        }
+        in = new DataInputStream(inputStream);
+        header = readHeader(in);
+        remaining = header.getDataSize();
+
+        if (header.isCompressed()) {
+            int size = ImaAdpcm.getSamplesPerBlock(header.getBlockAlign(), header.getChannels()) * header.getChannels();
+            if (block.length < size) {
+                block = new short[size];
+            }
+            blockFrames = 0;
+            blockPosition = 0;
+            framesLeft = header.getFrameCount();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException ex) {
+                // Nothing more to do.
+            }
+            in = null;
+        }
+    }
+
+    @Override
+    public int getChannels() {
+        return header.getChannels();
+    }
+
+    @Override
+    public int getBitsPerSample() {
+        return header.getBitsPerSample();
+    }
+
+    @Override
+    public int getFrequency() {
+        return header.getFrequency();
+    }
+
+    /**
+     * Reads the wav header and leaves the stream at the start of the
+     * samples.
+     *
+     * @param in the wav file
+     * @return the header
+     *
+     * @throws IOException if the stream is not a supported wav file
+     */
+    public static Header readHeader(DataInputStream in) throws IOException {
+
+        if (readInt(in) != 0x46464952 /* RIFF */) {
+            throw new IOException("Not a RIFF file");
+        }
+        readInt(in);
+        if (readInt(in) != 0x45564157 /* WAVE */) {
+            throw new IOException("Not a wav file");
+        }
+
+        int format = 0;
+        int channels = 0;
+        int bitsPerSample = 0;
+        int frequency = 0;
+        int blockAlign = 0;
+        int frameCount = -1;
+
+        // Walk through the chunks until the data chunk is found.
+        while (true) {
+            int tag = readInt(in);
+            int size = readInt(in);
+
+            if (tag == 0x20746d66 /* fmt  */) {
+                format = readShort(in);
+                channels = readShort(in);
+                frequency = readInt(in);
+                readInt(in);    // Byte rate.
+                blockAlign = readShort(in);
+                bitsPerSample = readShort(in);
+                in.skipBytes(size - 16 + (size & 1));
+
+                if (format == ImaAdpcm.FORMAT_TAG) {
+                    if ((channels != 1 && channels != 2) || bitsPerSample != 4 || blockAlign <= 4 * channels) {
+                        throw new IOException("Unsupported ADPCM layout: " + channels + " channels, " + bitsPerSample + " bits");
+                    }
+                } else if (format != 1) {
+                    throw new IOException("Unsupported wav format: " + format);
+                } else if ((channels != 1 && channels != 2) || (bitsPerSample != 8 && bitsPerSample != 16)) {
+                    throw new IOException("Unsupported wav layout: " + channels + " channels, " + bitsPerSample + " bits");
+                }
+            } else if (tag == 0x74636166 /* fact */) {
+                frameCount = readInt(in);
+                in.skipBytes(size - 4 + (size & 1));
+            } else if (tag == 0x61746164 /* data */) {
+                if (frequency == 0) {
+                    throw new IOException("Missing fmt chunk");
+                }
+                if (frameCount < 0 || format == 1) {
+                    frameCount = countFrames(format, channels, bitsPerSample, blockAlign, size);
+                }
+                return new Header(format, channels, bitsPerSample, frequency, blockAlign, size, frameCount);
+            } else {
+                in.skipBytes(size + (size & 1));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of sample frames in the data chunk.
+     */
+    private static int countFrames(int format, int channels, int bitsPerSample, int blockAlign, int dataSize) {
+        if (format != ImaAdpcm.FORMAT_TAG) {
+            return dataSize / (channels * bitsPerSample / 8);
+        }
+        int frames = dataSize / blockAlign * ImaAdpcm.getSamplesPerBlock(blockAlign, channels);
+        int rest = dataSize % blockAlign;
+        if (rest > 4 * channels) {
+            frames += ImaAdpcm.getSamplesPerBlock(rest - (rest - 4 * channels) % (4 * channels), channels);
+        }
+        return frames;
+    }
+
+    private static int readInt(DataInputStream in) throws IOException {
+        return Integer.reverseBytes(in.readInt());
+    }
+
+    private static int readShort(DataInputStream in) throws IOException {
+        return Short.reverseBytes(in.readShort()) & 0xffff;
+    }
+}
@@ -0,0 +1,319 @@
+package userinterface;
+
+import backend.resources.Image;
+import backend.resources.ResourceManager;
+import backend.resources.Shader;
+import backend.resources.Sprite;
+import backend.snapshot.ActorSnapshot;
+import backend.snapshot.FrameSnapshot;
+import backend.snapshot.ModuleType;
+import java.util.EnumMap;
+import processing.core.PApplet;
+import processing.core.PImage;
+import processing.opengl.PShader;
+
+/**
+ * Draws the actors of a frame snapshot on the main canvas.
+ *
+ * The actors that have a fading trail are drawn by the fading canvas.
+ *
+ * @author pitmairen
+ */
+public class ActorRenderer {
+
+    // Colors.
+    private static final int BULLET_COLOR = 0xffB49600;
+    private static final int PARTS_STROKE_COLOR = 0x640AF00A;
+    private static final int PARTS_FILL_COLOR = 0xB40AF00A;
+    private static final int CONTAINER_COLOR = 0x37C8C814;
+    private static final int ENERGY_BAR_COLOR = 0xff0096FF;
+
+    // Shape of the modules.
+    private static final float MODULE_WIDTH = 46.29f;
+    private static final float MODULE_HEIGHT = 23.92f;
+
+    private final GUIHandler gui;
+
+    // Images.
+    private final Sprite playerImage;
+    private final Sprite frigateImage;
+    private final Sprite droneCarrierImage;
+    private final Sprite kamikazeDroneImage;
+    private final Sprite rocketImage;
+    private final Sprite laserBeamImage;
+    private final Sprite droneLauncherImage;
+    private final EnumMap<ModuleType, Sprite> moduleImages = new EnumMap<>(ModuleType.class);
+
+    // Shield.
+    private final PShader shieldShader;
+    private final PImage shieldNoise;
+    private final Sprite shieldBackground;
+
+    /**
+     * Constructor.
+     *
+     * @param gui the GUI handler
+     * @param resources the resource manager. The images must be loaded.
+     */
+    public ActorRenderer(GUIHandler gui, ResourceManager resources) {
+        this.gui = gui;
+
+        playerImage = resources.getSprite(Image.PLAYER);
+        frigateImage = resources.getSprite(Image.FRIGATE);
+        droneCarrierImage = resources.getSprite(Image.DRONE_CARRIER);
+        kamikazeDroneImage = resources.getSprite(Image.KAMIKAZE_DRONE);
+        rocketImage = resources.getSprite(Image.ROCKET);
+        laserBeamImage = resources.getSprite(Image.LASER_BEAM);
+        droneLauncherImage = resources.getSprite(Image.DRONE_LAUNCHER);
+
+        moduleImages.put(ModuleType.AUTO_CANNON, resources.getSprite(Image.LIGHT_CANNON));
+        moduleImages.put(ModuleType.LIGHT_CANNON, resources.getSprite(Image.LIGHT_CANNON));
+        moduleImages.put(ModuleType.LASER_CANNON, resources.getSprite(Image.LASER_CANNON));
+        moduleImages.put(ModuleType.ROCKET_LAUNCHER, resources.getSprite(Image.ROCKET_LAUNCHER));
+        moduleImages.put(ModuleType.SEEKER_CANNON, resources.getSprite(Image.SEEKER_CANNON));
+        moduleImages.put(ModuleType.SHIELD, resources.getSprite(Image.SHIELD_MODULE));
+        moduleImages.put(ModuleType.EMP_CANNON, resources.getSprite(Image.EMP_CANNON));
+
+        shieldShader = resources.getShader(Shader.SHIELD_SHADER);
+        shieldShader.set("resolution", 800f, 600f);
+        shieldNoise = resources.getImage(Image.SHIELD_NOISE);
+        shieldBackground = resources.getSprite(Image.SHIELD_BACKGROUND);
+    }
+
+    /**
+     * Draws all the actors in the frame.
+     *
+     * @param frame the frame to draw
+     * @param alpha how far the frame is between the previous and the current
+     * tick (range: 0.0 - 1.0)
+     */
+    public void draw(FrameSnapshot frame, float alpha) {
+        for (int i = 0; i < frame.getActorCount(); i++) {
+            draw(frame.getActor(i), alpha);
+        }
+    }
+
+    private void draw(ActorSnapshot actor, float alpha) {
+
+        float x = actor.getX(alpha);
+        float y = actor.getY(alpha);
+        float radius = actor.getRadius();
+
+        switch (actor.getType()) {
+            case PLAYER: {
+                gui.tint(255);
+                playerImage.draw(gui, x - radius, y - radius);
+                drawModules(actor, x, y);
+                drawBars(actor, x, y, 0.2f, true);
+                break;
+            }
+            case FRIGATE: {
+                gui.tint(255);
+                frigateImage.draw(gui, x - radius, y - radius);
+                drawModules(actor, x, y);
+                drawBars(actor, x, y, 0.1f, false);
+                break;
+            }
+            case DRONE_CARRIER: {
+                gui.tint(255);
+                droneCarrierImage.draw(gui, x - radius, y - radius);
+                drawModules(actor, x, y);
+                drawBars(actor, x, y, 0.1f, false);
+                break;
+            }
+            case KAMIKAZE_DRONE: {
+                gui.tint(255);
+                kamikazeDroneImage.draw(gui, x - radius, y - radius);
+                drawModules(actor, x, y);
+                break;
+            }
+            case BULLET: {
+                gui.strokeWeight(0);
+                gui.stroke(BULLET_COLOR);
+                gui.fill(BULLET_COLOR);
+                gui.ellipse(x, y, radius * 2, radius * 2);
+                break;
+            }
+            case ROCKET: {
+                gui.tint(255);
+                gui.imageMode(PImage.CENTER);
+                rocketImage.draw(gui, x, y, radius * 2, radius * 2);
+                gui.imageMode(PImage.CORNER);
+                break;
+            }
+            case PARTS: {
+                gui.strokeWeight(1);
+                gui.stroke(PARTS_STROKE_COLOR);
+                gui.fill(PARTS_FILL_COLOR);
+                gui.ellipse(x, y, radius * 2, radius * 2);
+                gui.noFill();
+                break;
+            }
+            case MODULE_CONTAINER: {
+                gui.strokeWeight(1);
+                gui.stroke(CONTAINER_COLOR);
+                gui.fill(CONTAINER_COLOR);
+                gui.ellipse(x, y, radius * 2, radius * 2);
+                gui.noFill();
+                // Draw cargo.
+                drawModules(actor, x, y);
+                break;
+            }
+            case SHIELD: {
+                drawShield(x, y);
+                break;
+            }
+            default:
+                // Drawn to the fading canvas.
+                break;
+        }
+    }
+
+    /**
+     * Draws the modules the actor has in use.
+     */
+    private void drawModules(ActorSnapshot actor, float x, float y) {
+        drawModule(actor, actor.getOffensiveModule(), x, y);
+        drawModule(actor, actor.getDefensiveModule(), x, y);
+        drawModule(actor, actor.getTacticalModule(), x, y);
+    }
+
+    private void drawModule(ActorSnapshot actor, ModuleType module, float x, float y) {
+
+        if (module == null) {
+            return;
+        }
+        float heading = actor.getHeading();
+
+        switch (module) {
+            case LASER_CANNON: {
+                drawModuleImage(module, x, y, heading, 5, 0, MODULE_WIDTH, MODULE_HEIGHT);
+                if (actor.getBeamLength() > 0) {
+                    gui.pushMatrix();
+                    gui.tint(0xffff0000);
+                    gui.translate(x, y);
+                    gui.rotate(heading);
+                    laserBeamImage.draw(gui, 25, -5, actor.getBeamLength() - 25, 10);
+                    gui.popMatrix();
+                }
+                break;
+            }
+            case SEEKER_CANNON: {
+                drawModuleImage(module, x, y, heading, 0, 0, MODULE_WIDTH, MODULE_HEIGHT);
+                if (actor.hasTarget()) {
+                    gui.fill(0xffff0000, 220);
+                    gui.stroke(0xffff0000);
+                    gui.strokeWeight(3);
+                    gui.ellipse(actor.getTargetX(), actor.getTargetY(), 60, 60);
+                }
+                break;
+            }
+            case SHIELD: {
+                drawModuleImage(module, x, y, heading, -15, 0, MODULE_WIDTH / 2, MODULE_HEIGHT / 2);
+                break;
+            }
+            case EMP_CANNON: {
+                drawModuleImage(module, x, y, heading, 0, 15, MODULE_WIDTH / 2, MODULE_HEIGHT / 2);
+                drawModuleImage(module, x, y, heading, 0, -15, MODULE_WIDTH / 2, MODULE_HEIGHT / 2);
+                break;
+            }
+            case DRONE_LAUNCHER: {
+                gui.tint(255);
+                gui.pushMatrix();
+                gui.translate(x, y);
+                gui.rotate((float) (heading + Math.PI / 2));
+                gui.imageMode(PImage.CENTER);
+                droneLauncherImage.draw(gui, 0, 0, 181.4f, 84.0f);
+                gui.imageMode(PImage.CORNER);
+                gui.popMatrix();
+                break;
+            }
+            default: {
+                drawModuleImage(module, x, y, heading, 0, 0, MODULE_WIDTH, MODULE_HEIGHT);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Draws the image of a module on the actor.
+     *
+     * @param posX X-Position from the center of the actor
+     * @param posY Y-Position from the center of the actor
+     */
+    private void drawModuleImage(ModuleType module, float x, float y, float heading,
+            float posX, float posY, float width, float height) {
+        gui.tint(255);
+        gui.pushMatrix();
+        gui.translate(x, y);
+        gui.rotate(heading);
+        gui.imageMode(PImage.CENTER);
+        moduleImages.get(module).draw(gui, posX, posY, width, height);
+        gui.imageMode(PImage.CORNER);
+        gui.popMatrix();
+    }
+
+    /**
+     * Draws the small hud below the actor.
+     *
+     * @param heightFactor the height of the bars relative to the width
+     * @param energy true if the energy bar should be drawn
+     */
+    private void drawBars(ActorSnapshot actor, float x, float y, float heightFactor, boolean energy) {
+
+        int barWidth = (int) actor.getRadius() * 2;
+        int barHeight = (int) (barWidth * heightFactor);
+
+        gui.pushMatrix();
+        gui.translate(x - (barWidth / 2), y + actor.getRadius() + barHeight / 2);
+
+        // Health bar.
+        float healthPercentage = actor.getHealth();
+        int healthBarColor;
+        if (healthPercentage >= 0.66) {
+            healthBarColor = gui.color(20, 200, 20);
+        } else if (healthPercentage >= 0.33) {
+            healthBarColor = gui.color(200, 200, 20);
+        } else {
+            healthBarColor = gui.color(200, 20, 20);
+        }
+        drawBar(healthBarColor, 0, barWidth, barHeight, healthPercentage);
+
+        // Energy bar.
+        if (energy) {
+            drawBar(ENERGY_BAR_COLOR, barHeight + 2, barWidth, barHeight, actor.getEnergy());
+        }
+
+        gui.popMatrix();
+    }
+
+    private void drawBar(int color, float posY, float width, float height, float percentage) {
+        gui.stroke(color);
+        gui.strokeWeight(1);
+        gui.noFill();
+        gui.rect(0, posY, width, height, 6);
+        gui.fill(color);
+        gui.rect(0, posY, width * percentage, height, 3);
+    }
+
+    /**
+     * Draws the shield around the actor.
+     */
+    private void drawShield(float x, float y) {
+
+        gui.blendMode(PApplet.ADD);
+        gui.shader(shieldShader);
+
+        shieldShader.set("position", x, (gui.height - y), 0f, 0f);
+        shieldShader.set("time", gui.millis() * 0.00004f);
+
+        gui.imageMode(PApplet.CENTER);
+        gui.image(shieldNoise, x, y, 165, 165);
+
+        gui.resetShader();
+        gui.tint(0xff44ff22, 115);
+        shieldBackground.draw(gui, x, y, 165, 165);
+        gui.imageMode(PApplet.CORNER);
+        gui.blendMode(PApplet.BLEND);
+    }
+}
@@ -1,15 +0,0 @@
-package userinterface;
-
-/**
- * All objects that shall be rendered must implement this interface.
- *
- * @author Kristian Honningsvag.
- */
-public interface Drawable {
-
-    /**
-     * Renders the object in it's current state.
-     */
-    public void draw();
-
-}
@@ -1,12 +1,21 @@
 package userinterface;
 
+import backend.main.FramePacer;
 import backend.main.GameEngine;
-import backend.main.Timer;
-import backend.actor.Actor;
 import backend.main.SimulationState;
+import backend.main.SystemScheduler;
+import backend.resources.Image;
+import backend.resources.ResourceManager;
+import backend.snapshot.FrameSnapshot;
+import backend.sound.SoundCache;
+import backend.sound.SoundManager;
+import backend.sound.VoiceAllocator;
 import static java.awt.event.KeyEvent.*;
 
+import java.lang.management.ManagementFactory;
 import java.text.DecimalFormat;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
 import processing.core.PApplet;
 import processing.core.PFont;
 import processing.core.PImage;
@@ -15,12 +24,27 @@ import processing.core.PImage;
  * Handles rendering the GUI. Also listens for user input and sends it to the
  * game engine.
  *
+ * The game is drawn from the frame snapshots the game engine publishes. The
+ * live actors are only touched by the simulation thread.
+ *
  * @author Kristian Honningsvag.
  */
 public class GUIHandler extends PApplet {
 
     private final String versionNumber = "Version: 20160317-alpha";
 
+    // The frame rate can be set with the xenoblaster.framerate system
+    // property. 0 draws the frames as fast as possible, for benchmarks.
+    public static final String FRAME_RATE_PROPERTY = "xenoblaster.framerate";
+    private static final int DEFAULT_FRAME_RATE = 60;
+    private static final int FRAME_RATE = Math.max(Integer.getInteger(FRAME_RATE_PROPERTY, DEFAULT_FRAME_RATE), 0);
+
+    // The frames are paced by the frame pacer, which is more precise than
+    // the frame rate limit of Processing. The limit is set above any frame
+    // rate, so it does not get in the way.
+    private static final int PROCESSING_FRAME_RATE = 1000;
+    private final FramePacer framePacer = new FramePacer(FRAME_RATE);
+
     // Game field.
     private int outerWallThickness = 0;
     private int[] outerWallsRGBA = new int[]{153, 153, 253, 255};
@@ -33,9 +57,25 @@ public class GUIHandler extends PApplet {
     private int[] debugHudRGBA = new int[]{255, 255, 255, 255};
     private PFont debugHUDFont;
 
+    // The HUD texts are built at a lower rate than the frames are drawn, on
+    // a pool thread while the frame is drawn. The debug HUD waits for the
+    // HUD, since they share the decimal formats.
+    private final SystemScheduler hudSystems = new SystemScheduler(FRAME_RATE > 0 ? FRAME_RATE : DEFAULT_FRAME_RATE,
+            ForkJoinPool.commonPool());
+    private FrameSnapshot hudFrame;     // The frame the texts are built from.
+    private String hudText = "";
+    private String debugHudText = "";
+
     // Main menu
     private PFont menuFont;
 
+    // Loading screen.
+    private int[] loadingBarRGBA = new int[]{80, 150, 40, 255};
+
+    // Startup times in milliseconds since the JVM was started.
+    private long firstFrameTime = -1;
+    private long firstMenuFrameTime = -1;
+
     // Pause screen.
     private int[] pauseScreenRGBA = new int[]{40, 160, 30, 255};
 
@@ -63,7 +103,10 @@ public class GUIHandler extends PApplet {
     private DecimalFormat format15 = new DecimalFormat("000.0000");
 
     private GameEngine gameEngine;
-    private Timer timer;
+    private ActorRenderer actorRenderer;
+
+    // Tasks from other threads that must run on the animation thread.
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
 
     private Menu mainMenu;
     private Menu pauseMenu;
@@ -77,12 +120,18 @@ public class GUIHandler extends PApplet {
      */
     @Override
     public void setup() {
-        timer = new Timer();
         // Font sizes.
         hudFont = createFont("hudFont.otf", 20, true);
         debugHUDFont = createFont("hudFont.otf", 16, true);
         menuFont = createFont("hudFont.otf", 28, true);
-        frameRate(60);
+        frameRate(PROCESSING_FRAME_RATE);
+        SystemScheduler.ScheduledSystem hud = hudSystems.add("hud", 10, 0, false,
+                timePassed -> hudText = buildHudText(hudFrame));
+        hudSystems.add("debug hud", 4, 1, false, timePassed -> {
+            if (debugMode) {
+                debugHudText = buildDebugHudText(hudFrame);
+            }
+        }, hud);
         cursor(CROSS);
 
         keyRepeatEnabled = true;   // Needed for enhanced keyboard input reading.
@@ -92,13 +141,14 @@ public class GUIHandler extends PApplet {
             keyRepeatEnabled = false; //Needed to fix input error on windows
         }
 
-        gameEngine = new GameEngine(this);
+        gameEngine = new GameEngine(this, new ResourceManager(this));
 
         mainMenu = new Menu("Xeno Blaster 4000", this, gameEngine.getSoundManager());
         pauseMenu = new Menu("Paused", this, gameEngine.getSoundManager());
         createMenuItems();
-        mainMenu.show();
-        titleScreenImage = loadImage("titleScreen.png");
+        // The main menu is shown by the game engine when the loading is done.
+
+        framePacer.start();
     }
 
     /**
@@ -110,87 +160,142 @@ public class GUIHandler extends PApplet {
 //        size(1920, 1080, P3D);
     }
 
+    /**
+     * Processing shutdown. Stops the sound before the window closes.
+     */
+    @Override
+    public void dispose() {
+        if (gameEngine != null) {
+            gameEngine.getSoundManager().shutdown();
+        }
+        super.dispose();
+    }
+
     /**
      * Processing draw loop.
      */
     @Override
     public void draw() {
 
-        gameEngine.run(timer.timePassed());
-        timer.reset();
+        try {
+            framePacer.waitForNextFrame();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (framePacer.isUncapped() && frameCount % DEFAULT_FRAME_RATE == 0 && framePacer.getMeasuredRate() > 0) {
+            // The HUD texts are built at the same rates whatever the frame
+            // rate is.
+            hudSystems.setLoopRate(framePacer.getMeasuredRate());
+        }
+
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+
+        FrameSnapshot frame = gameEngine.getLatestFrame();
+        if (frame == null) {
+            gameEngine.load();
+            drawLoadingScreen();
+            logStartupTime(null);
+            return;
+        }
+        if (actorRenderer == null) {
+            actorRenderer = new ActorRenderer(this, gameEngine.getResourceManager());
+        }
+        gameEngine.setAim(mouseX, mouseY);
+
+        float alpha = frame.getInterpolationAlpha(System.nanoTime());
+        hudFrame = frame;
+        hudSystems.start(framePacer.getDelta());
 
-        switch (gameEngine.getSimulationState()) {
+        switch (frame.getState()) {
 
             case MENU_SCREEN: {
-                gameEngine.getFadingCanvas().draw();
+                gameEngine.getFadingCanvas().draw(frame, alpha);
                 // The menu draws itself.
                 drawTitleScreenImage();
                 break;
             }
             case HELP_SCREEN_PAUSED: {
-                gameEngine.getFadingCanvas().draw();
+                gameEngine.getFadingCanvas().draw(frame, alpha);
                 tintScreen();
                 drawHelpScreen();
                 break;
             }
             case HELP_SCREEN: {
-                gameEngine.getFadingCanvas().draw();
+                gameEngine.getFadingCanvas().draw(frame, alpha);
                 drawHelpScreen();
                 break;
             }
             case GAMEPLAY: {
-                gameEngine.getFadingCanvas().draw();
+                gameEngine.getFadingCanvas().draw(frame, alpha);
                 drawOuterWalls();
-                drawActors();
-                drawHUD();
+                actorRenderer.draw(frame, alpha);
                 break;
             }
             case PAUSE_SCREEN: {
-                gameEngine.getFadingCanvas().draw();
+                gameEngine.getFadingCanvas().draw(frame, alpha);
                 drawOuterWalls();
-                drawActors();
+                actorRenderer.draw(frame, alpha);
                 tintScreen();
                 break;
             }
             case DEATH_SCREEN: {
-                gameEngine.getFadingCanvas().draw();
+                gameEngine.getFadingCanvas().draw(frame, alpha);
                 drawOuterWalls();
-                drawActors();
+                actorRenderer.draw(frame, alpha);
                 tintScreen();
-                drawDeathScreen();
+                drawDeathScreen(frame);
                 break;
             }
             case VICTORY_SCREEN: {
-                gameEngine.getFadingCanvas().draw();
+                gameEngine.getFadingCanvas().draw(frame, alpha);
                 drawOuterWalls();
-                drawActors();
+                actorRenderer.draw(frame, alpha);
                 tintScreen();
-                drawVictoryScreen();
+                drawVictoryScreen(frame);
                 break;
             }
             case CREDITS_SCREEN: {
-                gameEngine.getFadingCanvas().draw();
+                gameEngine.getFadingCanvas().draw(frame, alpha);
                 drawCreditsScreen();
                 break;
             }
         }
+        hudSystems.join();
+        if (frame.getState() == SimulationState.GAMEPLAY) {
+            drawHUD();
+        }
         if (debugMode) {
             drawDebugHud();
         }
+        logStartupTime(frame);
+    }
+
+    /**
+     * Runs a task on the animation thread before the next frame is drawn.
+     * Can be called from any thread.
+     *
+     * @param task the task to run
+     */
+    public void invokeLater(Runnable task) {
+        tasks.add(task);
     }
 
     /**
      * Show the main menu
      */
     public void showMainMenu() {
-        mainMenu.show();
+        invokeLater(mainMenu::show);
     }
 
     /**
      * Show the main menu
      */
     public void showPauseMenu() {
-        pauseMenu.show();
+        invokeLater(pauseMenu::show);
     }
 
     /**
@@ -208,24 +313,30 @@ public class GUIHandler extends PApplet {
      * Draws the HUD.
      */
     private void drawHUD() {
-
-        String nextWaveIn = "Next Wave: " + format4.format(gameEngine.getCurrentLevel().getTimeToNextWave() / 1000);
-        if (gameEngine.getCurrentLevel().isOnLastWave()) {
-            nextWaveIn = "Final Wave";
-        }
-
         fill(hudRGBA[0], hudRGBA[1], hudRGBA[2]);
         textFont(hudFont);
         textLeading(22);
         textAlign(LEFT, TOP);
-        text("Level: " + gameEngine.getCurrentLevel().getLevelName()
+        text(hudText, 20, 20);
+    }
+
+    /**
+     * Builds the text of the HUD.
+     */
+    private String buildHudText(FrameSnapshot frame) {
+
+        String nextWaveIn = "Next Wave: " + format4.format(frame.getTimeToNextWave() / 1000);
+        if (frame.isOnLastWave()) {
+            nextWaveIn = "Final Wave";
+        }
+
+        return "Level: " + frame.getLevelName()
                 + "\n"
-                + "\n" + "Current Wave: " + gameEngine.getCurrentLevel().getCurrentWave()
+                + "\n" + "Current Wave: " + frame.getCurrentWave()
                 + "\n" + nextWaveIn
                 + "\n"
-                + "\n" + "Kill chain: " + gameEngine.getCurrentLevel().getPlayer().getKillChain()
-                + "\n" + "Score: " + format1.format(gameEngine.getCurrentLevel().getPlayer().getScore()),
-                20, 20);
+                + "\n" + "Kill chain: " + frame.getKillChain()
+                + "\n" + "Score: " + format1.format(frame.getScore());
     }
 
     /**
@@ -236,25 +347,140 @@ public class GUIHandler extends PApplet {
         textFont(debugHUDFont);
         textLeading(18);
         textAlign(LEFT, TOP);
-        text("FPS: " + format2.format((int) frameRate)
+        text(debugHudText, width - 200, 20);
+    }
+
+    /**
+     * Builds the text of the debugging HUD, with the time each system of the
+     * simulation and the GUI takes.
+     */
+    private String buildDebugHudText(FrameSnapshot frame) {
+        FramePacer simulationPacer = gameEngine.getSimulationPacer();
+        return "FPS: " + format2.format((int) framePacer.getMeasuredRate())
+                + "\n" + "frame: " + format10.format(framePacer.getSmoothedDelta()) + " ms"
+                + "\n" + "jitter: " + format10.format(framePacer.getJitter())
+                + " / " + format7.format(framePacer.getMaxJitter()) + " ms"
+                + "\n" + "late frames: " + format1.format(framePacer.getLateFrames())
+                + "\n" + "tick jitter: " + format10.format(simulationPacer.getJitter())
+                + " / " + format7.format(simulationPacer.getMaxJitter()) + " ms"
+                + "\n" + "late ticks: " + format1.format(simulationPacer.getLateFrames())
+                + "\n" + "tick: " + format1.format(frame.getTick())
+                + " @ " + format1.format(frame.getTickRate()) + " Hz"
+                + ", dropped: " + format1.format(frame.getDroppedTicks())
+                + "\n"
+                + "\n" + "Total actors: " + format1.format(frame.getActorCount())
+                + "\n" + "enemies: " + format1.format(frame.getEnemyCount())
+                + "\n" + "projectiles: " + format1.format(frame.getProjectileCount())
+                + "\n" + "items: " + format1.format(frame.getItemCount())
+                + "\n" + "image loads: " + format1.format(gameEngine.getResourceManager().getImageLoadsAfterStartup())
+                + formatSoundStatistics(gameEngine.getSoundManager())
                 + "\n"
-                + "\n" + "Total actors: " + format1.format(gameEngine.getCurrentLevel().getActors().size())
-                + "\n" + "enemies: " + format1.format(gameEngine.getCurrentLevel().getEnemies().size())
-                + "\n" + "projectiles: " + format1.format(gameEngine.getCurrentLevel().getProjectiles().size())
-                + "\n" + "items: " + format1.format(gameEngine.getCurrentLevel().getItems().size())
+                + "\n" + "posX: " + format5.format(frame.getPlayerX())
+                + "\n" + "posY: " + format5.format(frame.getPlayerY())
+                + "\n" + "speed: " + format10.format(frame.getPlayerSpeed())
+                + "\n" + "heading: " + format7.format(frame.getPlayerHeading()) + " rad"
+                + "\n" + "course: " + format7.format(frame.getPlayerCourse()) + " rad"
                 + "\n"
-                + "\n" + "posX: " + format5.format(gameEngine.getCurrentLevel().getPlayer().getPosition().getX())
-                + "\n" + "posY: " + format5.format(gameEngine.getCurrentLevel().getPlayer().getPosition().getY())
-                + "\n" + "speed: " + format10.format(gameEngine.getCurrentLevel().getPlayer().getSpeedT().mag())
-                + "\n" + "heading: " + format7.format(gameEngine.getCurrentLevel().getPlayer().getHeading().getAngle2D()) + " rad"
-                + "\n" + "course: " + format7.format(gameEngine.getCurrentLevel().getPlayer().getSpeedT().getAngle2D()) + " rad",
-                width - 200, 20);
+                + "\n" + "systems:"
+                + formatTimings(gameEngine.getSystems())
+                + formatTimings(gameEngine.getOutputs())
+                + formatTimings(hudSystems)
+                + "\n"
+                + "\n" + "critical path (ms):"
+                + "\n" + gameEngine.getSystems().getGraph().getCriticalPath().replace(" > ", "\n> ")
+                + "\n" + hudSystems.getGraph().getCriticalPath().replace(" > ", "\n> ");
+    }
+
+    /**
+     * Formats the voice and sound cache metrics for the debugging HUD. There
+     * are none if no sound effects were added, like when the audio is off.
+     */
+    private String formatSoundStatistics(SoundManager soundManager) {
+        VoiceAllocator voices = soundManager.getVoiceAllocator();
+        SoundCache cache = soundManager.getSoundCache();
+        if (voices == null || cache == null) {
+            return "\n" + "sound: off";
+        }
+        return "\n" + "voices: " + format1.format(voices.getActiveVoices())
+                + " / " + format1.format(voices.getMaxVoices())
+                + "\n" + "voices stolen: " + format1.format(voices.getStolenCount())
+                + "\n" + "sounds culled: " + format1.format(voices.getCulledCount())
+                + "\n" + "sounds merged: " + format1.format(soundManager.getMergedPlayCount())
+                + "\n" + "sound cache: " + format1.format(cache.getCachedBytes() / 1024)
+                + " / " + format1.format(cache.getBudget() / 1024) + " KiB"
+                + "\n" + "sound decodes: " + format1.format(cache.getDecodeCount())
+                + "\n" + "sound buffers: " + format1.format(cache.getBufferCount())
+                + ", sources: " + format1.format(voices.getSourceCount());
+    }
+
+    /**
+     * Lists the mean time of each system and how many steps there are
+     * between its runs, one per line.
+     */
+    private String formatTimings(SystemScheduler scheduler) {
+        StringBuilder timings = new StringBuilder();
+        for (SystemScheduler.ScheduledSystem system : scheduler.getSystems()) {
+            timings.append("\n").append(system.getName()).append(": ")
+                    .append(format10.format(system.getMeanTime())).append(" ms")
+                    .append(", every ").append(format1.format(system.getPeriod()));
+        }
+        return timings.toString();
+    }
+
+    /**
+     * Draws the loading screen with a progress bar.
+     */
+    private void drawLoadingScreen() {
+        background(0);
+
+        float barWidth = width / 3;
+        float barHeight = 20;
+        float progress = gameEngine.getResourceManager().getLoadingProgress();
+
+        stroke(loadingBarRGBA[0], loadingBarRGBA[1], loadingBarRGBA[2]);
+        strokeWeight(2);
+        noFill();
+        rect((width - barWidth) / 2, height / 2, barWidth, barHeight);
+        noStroke();
+        fill(loadingBarRGBA[0], loadingBarRGBA[1], loadingBarRGBA[2]);
+        rect((width - barWidth) / 2, height / 2, barWidth * progress, barHeight);
+
+        textFont(menuFont);
+        textAlign(CENTER, BOTTOM);
+        text("Loading", width / 2, height / 2 - 20);
+    }
+
+    /**
+     * Prints the time it took from the application was started until the
+     * first frame and the first menu frame were drawn.
+     *
+     * @param frame the frame that was drawn, or null while loading
+     */
+    private void logStartupTime(FrameSnapshot frame) {
+
+        if (firstMenuFrameTime >= 0) {
+            return;
+        }
+        long sinceStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+
+        if (firstFrameTime < 0) {
+            firstFrameTime = sinceStart;
+        }
+        if (frame != null) {
+            firstMenuFrameTime = sinceStart;
+            System.out.println("Startup: first frame after " + firstFrameTime + " ms, "
+                    + "assets loaded in " + format1.format(gameEngine.getResourceManager().getLoadTime()) + " ms, "
+                    + "menu shown after " + firstMenuFrameTime + " ms");
+        }
     }
 
     /**
      * Draws the image for the start screen
      */
     private void drawTitleScreenImage() {
+        if (titleScreenImage == null) {
+            titleScreenImage = gameEngine.getResourceManager().getImage(Image.TITLE_SCREEN);
+        }
         image(titleScreenImage, 0, 0, width, height);
 
         fill(hudRGBA[0], hudRGBA[1], hudRGBA[2]);
@@ -325,12 +551,11 @@ public class GUIHandler extends PApplet {
     /**
      * Draws the death screen.
      */
-    private void drawDeathScreen() {
+    private void drawDeathScreen(FrameSnapshot frame) {
 
         String hitByName = "N/A";
-        Actor lastHitBy = gameEngine.getCurrentLevel().getPlayer().getWhoHitMeLast();
-        if (lastHitBy != null) {
-            hitByName = lastHitBy.getName();
+        if (frame.getLastHitBy() != null) {
+            hitByName = frame.getLastHitBy();
         }
 
         // Text.
@@ -340,14 +565,14 @@ public class GUIHandler extends PApplet {
         text("You Were Defeated By " + hitByName
                 + "\n" + "Press \"ENTER\" to return to Start Menu"
                 + "\n"
-                + "\n" + "Your score: " + gameEngine.getCurrentLevel().getPlayer().getScore(),
+                + "\n" + "Your score: " + frame.getScore(),
                 width / 2, height / 2 - 100);
     }
 
     /**
      * Draws the death screen.
      */
-    private void drawVictoryScreen() {
+    private void drawVictoryScreen(FrameSnapshot frame) {
 
         // Text.
         fill(victoryScreenRGBA[0], victoryScreenRGBA[1], victoryScreenRGBA[2]);
@@ -356,21 +581,10 @@ public class GUIHandler extends PApplet {
         text("Victory achieved"
                 + "\n" + "Press \"ENTER\" to return to Start Menu"
                 + "\n"
-                + "\n" + "Your score: " + gameEngine.getCurrentLevel().getPlayer().getScore(),
+                + "\n" + "Your score: " + frame.getScore(),
                 width / 2, height / 2 - 100);
     }
 
-    /**
-     * Draw all actors.
-     */
-    private void drawActors() {
-        for (Actor actor : gameEngine.getCurrentLevel().getActors()) {
-            if (actor != null) {
-                actor.draw();
-            }
-        }
-    }
-
     /**
      * Creates the main menu items
      */
@@ -378,15 +592,15 @@ public class GUIHandler extends PApplet {
 
         mainMenu.addItem("New Game", () -> {
             mainMenu.hide();
-            gameEngine.setSimulationState(SimulationState.GAMEPLAY);
+            gameEngine.execute(() -> gameEngine.setSimulationState(SimulationState.GAMEPLAY));
         });
         mainMenu.addItem("Key Bindings", () -> {
             mainMenu.hide();
-            gameEngine.setSimulationState(SimulationState.HELP_SCREEN);
+            gameEngine.execute(() -> gameEngine.setSimulationState(SimulationState.HELP_SCREEN));
         });
         mainMenu.addItem("Credits", () -> {
             mainMenu.hide();
-            gameEngine.setSimulationState(SimulationState.CREDITS_SCREEN);
+            gameEngine.execute(() -> gameEngine.setSimulationState(SimulationState.CREDITS_SCREEN));
         });
         mainMenu.addItem("Quit", () -> {
             exit();
@@ -394,21 +608,25 @@ public class GUIHandler extends PApplet {
 
         pauseMenu.addItem("Resume", () -> {
             pauseMenu.hide();
-            gameEngine.setSimulationState(SimulationState.GAMEPLAY);
+            gameEngine.execute(() -> gameEngine.setSimulationState(SimulationState.GAMEPLAY));
         });
         pauseMenu.addItem("Restart", () -> {
             pauseMenu.hide();
-            gameEngine.endCurrentGame();
-            gameEngine.setSimulationState(SimulationState.GAMEPLAY);
+            gameEngine.execute(() -> {
+                gameEngine.endCurrentGame();
+                gameEngine.setSimulationState(SimulationState.GAMEPLAY);
+            });
         });
         pauseMenu.addItem("Key Bindings", () -> {
             pauseMenu.hide();
-            gameEngine.setSimulationState(SimulationState.HELP_SCREEN_PAUSED);
+            gameEngine.execute(() -> gameEngine.setSimulationState(SimulationState.HELP_SCREEN_PAUSED));
         });
         pauseMenu.addItem("Quit to Main Menu", () -> {
             pauseMenu.hide();
-            gameEngine.endCurrentGame();
-            gameEngine.setSimulationState(SimulationState.MENU_SCREEN);
+            gameEngine.execute(() -> {
+                gameEngine.endCurrentGame();
+                gameEngine.setSimulationState(SimulationState.MENU_SCREEN);
+            });
             showMainMenu();
         });
     }
@@ -460,6 +678,16 @@ public class GUIHandler extends PApplet {
         } else {
             debugMode = false;
         }
+        gameEngine.getSystems().getGraph().setProfiling(debugMode);
+        hudSystems.getGraph().setProfiling(debugMode);
+
+        // The jitter is measured from when the debug HUD is shown, so the
+        // hitches of the loading are left out.
+        if (debugMode) {
+            framePacer.resetStatistics();
+            FramePacer simulationPacer = gameEngine.getSimulationPacer();
+            gameEngine.execute(simulationPacer::resetStatistics);
+        }
     }
 
     // Getters.
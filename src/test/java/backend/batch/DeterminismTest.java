@@ -0,0 +1,47 @@
+package backend.batch;
+
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Tests that a seed plays the same game whatever the number of threads the
+ * ticks and the games run on.
+ *
+ * @author pitmairen
+ */
+public class DeterminismTest {
+
+    private static final long SEED = 7;
+
+    private static void assertSameGame(BatchRunner.Result expected, BatchRunner.Result actual) {
+        assertEquals(expected.getSeed(), actual.getSeed());
+        assertEquals(expected.getOutcome(), actual.getOutcome());
+        assertEquals(expected.getTicks(), actual.getTicks());
+        assertEquals(expected.getTime(), actual.getTime(), 0);
+        assertEquals(expected.getWavesReached(), actual.getWavesReached());
+        for (int wave = 1; wave <= expected.getWavesReached(); wave++) {
+            assertEquals(expected.getClearTime(wave), actual.getClearTime(wave), 0);
+        }
+        assertEquals(expected.getScore(), actual.getScore());
+        assertEquals(expected.getDamageTaken(), actual.getDamageTaken(), 0);
+    }
+
+    @Test
+    public void seedPlaysTheSameGameOnOneAndManyThreads() {
+        BatchRunner.Result single = BatchRunner.play(SEED, 1);
+        BatchRunner.Result parallel = BatchRunner.play(SEED, 4);
+        assertSameGame(single, parallel);
+    }
+
+    @Test
+    public void batchGivesTheSameResultsOnOneAndManyThreads() throws Exception {
+        List<BatchRunner.Result> single = new BatchRunner(4, 1, SEED).run();
+        List<BatchRunner.Result> parallel = new BatchRunner(4, 2, SEED).run();
+
+        assertEquals(single.size(), parallel.size());
+        for (int i = 0; i < single.size(); i++) {
+            assertSameGame(single.get(i), parallel.get(i));
+        }
+    }
+}
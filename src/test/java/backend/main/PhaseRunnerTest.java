@@ -0,0 +1,127 @@
+package backend.main;
+
+import backend.actor.Actor;
+import backend.actor.Parts;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+/**
+ * Tests that the phases visit each actor of the tick once, in parallel and
+ * in order.
+ *
+ * @author pitmairen
+ */
+public class PhaseRunnerTest {
+
+    private final GameEngine gameEngine = new GameEngine(EngineConfig.headless(1920, 1080));
+
+    private List<Actor> createActors(int count) {
+        List<Actor> actors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            actors.add(new Parts(new Vector(i, i, 0), gameEngine));
+        }
+        return actors;
+    }
+
+    /**
+     * Runs a parallel phase and returns how many times each actor was
+     * visited.
+     */
+    private static AtomicIntegerArray countVisits(PhaseRunner runner, List<Actor> actors) {
+        IdentityHashMap<Actor, Integer> indexes = new IdentityHashMap<>();
+        for (int i = 0; i < actors.size(); i++) {
+            indexes.put(actors.get(i), i);
+        }
+        AtomicIntegerArray visits = new AtomicIntegerArray(actors.size());
+        runner.runParallel(actor -> visits.incrementAndGet(indexes.get(actor)));
+        return visits;
+    }
+
+    @Test
+    public void parallelPhaseVisitsEachActorOnce() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            PhaseRunner runner = new PhaseRunner(pool);
+            List<Actor> actors = createActors(1000);
+            runner.begin(actors);
+
+            AtomicIntegerArray visits = countVisits(runner, actors);
+            for (int i = 0; i < actors.size(); i++) {
+                assertEquals(1, visits.get(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelPhaseCanRunFromATaskOnThePool() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            PhaseRunner runner = new PhaseRunner(pool);
+            List<Actor> actors = createActors(500);
+            runner.begin(actors);
+
+            AtomicIntegerArray visits = pool.submit(() -> countVisits(runner, actors)).get();
+            for (int i = 0; i < actors.size(); i++) {
+                assertEquals(1, visits.get(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void inOrderPhaseFollowsTheList() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            PhaseRunner runner = new PhaseRunner(pool);
+            List<Actor> actors = createActors(100);
+            runner.begin(actors);
+
+            List<Actor> visited = new ArrayList<>();
+            runner.runInOrder(visited::add);
+            assertEquals(actors, visited);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void actorsAddedDuringTheTickWaitForTheNext() {
+        PhaseRunner runner = new PhaseRunner(null);
+        List<Actor> actors = createActors(10);
+        runner.begin(actors);
+
+        List<Actor> added = createActors(5);
+        actors.addAll(added);
+        int[] visits = {0};
+        runner.runParallel(actor -> visits[0]++);
+        assertEquals(10, visits[0]);
+
+        // A smaller list in the next tick leaves the removed actors out.
+        runner.begin(added);
+        List<Actor> visited = new ArrayList<>();
+        runner.runParallel(visited::add);
+        assertEquals(added, visited);
+    }
+
+    @Test
+    public void withoutPoolPhasesRunOnTheCallingThread() {
+        PhaseRunner runner = new PhaseRunner(null);
+        runner.begin(createActors(200));
+
+        List<Thread> threads = new ArrayList<>();
+        runner.runParallel(actor -> threads.add(Thread.currentThread()));
+        for (Thread thread : threads) {
+            assertSame(Thread.currentThread(), thread);
+        }
+        assertEquals(1, runner.getThreadCount());
+    }
+}
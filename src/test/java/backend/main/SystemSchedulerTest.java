@@ -0,0 +1,127 @@
+package backend.main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Tests that the systems run on the steps their rates and offsets pick, with
+ * the time that has passed since they last ran.
+ *
+ * @author pitmairen
+ */
+public class SystemSchedulerTest {
+
+    private static final double STEP = 1000.0 / 60;
+
+    @Test
+    public void slowSystemRunsOnItsOffsetWithThePassedTime() {
+        SystemScheduler scheduler = new SystemScheduler(60, null);
+        List<long[]> runs = new ArrayList<>();
+        long[] step = {0};
+        SystemScheduler.ScheduledSystem slow = scheduler.add("slow", 10, 2, false,
+                timePassed -> runs.add(new long[]{step[0], Math.round(timePassed / STEP)}));
+
+        for (step[0] = 0; step[0] < 20; step[0]++) {
+            scheduler.run(STEP);
+        }
+
+        assertEquals(6, slow.getPeriod());
+        assertEquals(3, runs.size());
+        assertEquals(2, runs.get(0)[0]);
+        assertEquals(3, runs.get(0)[1]);    // The steps since the start.
+        assertEquals(8, runs.get(1)[0]);
+        assertEquals(6, runs.get(1)[1]);
+        assertEquals(14, runs.get(2)[0]);
+        assertEquals(3, slow.getRuns());
+    }
+
+    @Test
+    public void systemWaitingOnASkippedSystemStillRuns() {
+        SystemScheduler scheduler = new SystemScheduler(60, null);
+        int[] runs = new int[2];
+        SystemScheduler.ScheduledSystem slow = scheduler.add("slow", 20, 0, false, timePassed -> runs[0]++);
+        scheduler.add("every step", timePassed -> runs[1]++, slow);
+
+        for (int i = 0; i < 30; i++) {
+            scheduler.run(STEP);
+        }
+        assertEquals(10, runs[0]);
+        assertEquals(30, runs[1]);
+    }
+
+    @Test
+    public void fastSystemRunsOncePerStep() {
+        SystemScheduler scheduler = new SystemScheduler(30, null);
+        int[] runs = {0};
+        SystemScheduler.ScheduledSystem fast = scheduler.add("fast", 120, 0, false, timePassed -> runs[0]++);
+
+        for (int i = 0; i < 10; i++) {
+            scheduler.run(STEP);
+        }
+        assertEquals(1, fast.getPeriod());
+        assertEquals(10, runs[0]);
+    }
+
+    @Test
+    public void newLoopRateChangesThePeriods() {
+        SystemScheduler scheduler = new SystemScheduler(60, null);
+        SystemScheduler.ScheduledSystem system = scheduler.add("system", 15, 0, false, timePassed -> {
+        });
+        assertEquals(4, system.getPeriod());
+
+        scheduler.setLoopRate(120);
+        assertEquals(8, system.getPeriod());
+        scheduler.setLoopRate(10);
+        assertEquals(1, system.getPeriod());
+    }
+
+    @Test
+    public void systemsOnThePoolRunAfterTheSystemsTheyWaitOn() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            SystemScheduler scheduler = new SystemScheduler(60, pool);
+            long[] done = new long[3];
+            Thread[] pinnedThread = new Thread[1];
+            SystemScheduler.ScheduledSystem first = scheduler.add("first", timePassed -> done[0] = System.nanoTime());
+            SystemScheduler.ScheduledSystem second = scheduler.add("second", timePassed -> {
+                assertTrue(done[0] != 0);
+                done[1] = System.nanoTime();
+            }, first);
+            scheduler.addPinned("pinned", timePassed -> {
+                assertTrue(done[1] != 0);
+                pinnedThread[0] = Thread.currentThread();
+                done[2] = System.nanoTime();
+            }, second);
+
+            for (int i = 0; i < 50; i++) {
+                done[0] = 0;
+                done[1] = 0;
+                done[2] = 0;
+                scheduler.run(STEP);
+                assertTrue(done[0] <= done[1] && done[1] <= done[2]);
+                assertSame(Thread.currentThread(), pinnedThread[0]);
+            }
+            assertEquals(50, second.getRuns());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void negativeRateIsRejected() {
+        SystemScheduler scheduler = new SystemScheduler(60, null);
+        try {
+            scheduler.add("system", -1, 0, false, timePassed -> {
+            });
+            fail("The rate was accepted");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(scheduler.getSystems().isEmpty());
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package backend.main;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Tests the order the tasks of a graph run in, where they run, and what
+ * happens when one of them fails.
+ *
+ * @author pitmairen
+ */
+public class TaskGraphTest {
+
+    private static final int RUNS = 200;
+
+    /**
+     * Notes the order the tasks ran in, and the threads they ran on.
+     */
+    private static class Recorder {
+
+        private final AtomicInteger counter = new AtomicInteger();
+        private final int[] order;
+        private final Thread[] threads;
+
+        private Recorder(int tasks) {
+            order = new int[tasks];
+            threads = new Thread[tasks];
+        }
+
+        private Runnable task(int index) {
+            return () -> {
+                order[index] = counter.incrementAndGet();
+                threads[index] = Thread.currentThread();
+            };
+        }
+
+        private void reset() {
+            counter.set(0);
+            for (int i = 0; i < order.length; i++) {
+                order[i] = 0;
+                threads[i] = null;
+            }
+        }
+    }
+
+    @Test
+    public void tasksRunAfterTheirDependencies() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TaskGraph graph = new TaskGraph(pool);
+            Recorder recorder = new Recorder(6);
+            TaskGraph.Task a = graph.add("a", recorder.task(0));
+            TaskGraph.Task b = graph.add("b", recorder.task(1), a);
+            TaskGraph.Task c = graph.add("c", recorder.task(2), a);
+            TaskGraph.Task d = graph.add("d", recorder.task(3), b, c);
+            graph.addPinned("e", recorder.task(4), b);
+            graph.add("f", recorder.task(5), d);
+
+            for (int run = 0; run < RUNS; run++) {
+                recorder.reset();
+                graph.run();
+
+                int[] order = recorder.order;
+                for (int i = 0; i < order.length; i++) {
+                    assertTrue(order[i] > 0);
+                }
+                assertTrue(order[0] < order[1]);
+                assertTrue(order[0] < order[2]);
+                assertTrue(order[1] < order[3]);
+                assertTrue(order[2] < order[3]);
+                assertTrue(order[1] < order[4]);
+                assertTrue(order[3] < order[5]);
+                assertSame(Thread.currentThread(), recorder.threads[4]);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void independentTasksRunAtTheSameTime() throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            TaskGraph graph = new TaskGraph(pool);
+            CountDownLatch bothStarted = new CountDownLatch(2);
+            boolean[] met = new boolean[2];
+            for (int i = 0; i < 2; i++) {
+                int index = i;
+                graph.add("task " + i, () -> {
+                    bothStarted.countDown();
+                    try {
+                        met[index] = bothStarted.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            graph.run();
+
+            assertTrue(met[0]);
+            assertTrue(met[1]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void withoutPoolTasksRunInTheOrderTheyWereAdded() {
+        TaskGraph graph = new TaskGraph(null);
+        Recorder recorder = new Recorder(4);
+        TaskGraph.Task a = graph.add("a", recorder.task(0));
+        graph.add("b", recorder.task(1));
+        graph.addPinned("c", recorder.task(2), a);
+        graph.add("d", recorder.task(3), a);
+
+        graph.run();
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i + 1, recorder.order[i]);
+            assertSame(Thread.currentThread(), recorder.threads[i]);
+        }
+    }
+
+    @Test
+    public void disabledTaskIsSkippedButReleasesItsDependents() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            TaskGraph graph = new TaskGraph(pool);
+            Recorder recorder = new Recorder(3);
+            TaskGraph.Task a = graph.add("a", recorder.task(0));
+            TaskGraph.Task b = graph.add("b", recorder.task(1), a);
+            graph.addPinned("c", recorder.task(2), b);
+
+            b.setEnabled(false);
+            graph.run();
+
+            assertTrue(recorder.order[0] > 0);
+            assertEquals(0, recorder.order[1]);
+            assertTrue(recorder.order[2] > 0);
+            assertEquals(0, b.getTime(), 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void failureIsThrownFromJoin() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            TaskGraph graph = new TaskGraph(pool);
+            Recorder recorder = new Recorder(3);
+            IllegalStateException error = new IllegalStateException("broken");
+            boolean[] broken = {true};
+            TaskGraph.Task a = graph.add("a", () -> {
+                if (broken[0]) {
+                    throw error;
+                }
+                recorder.task(0).run();
+            });
+            TaskGraph.Task b = graph.add("b", recorder.task(1), a);
+            graph.addPinned("c", recorder.task(2), b);
+
+            try {
+                graph.run();
+                fail("The failure was not thrown");
+            } catch (RuntimeException ex) {
+                assertSame(error, ex.getCause());
+            }
+            // The tasks after the failed one are skipped.
+            assertEquals(0, recorder.order[1]);
+            assertEquals(0, recorder.order[2]);
+
+            // The graph can be run again.
+            broken[0] = false;
+            graph.run();
+            assertEquals(3, recorder.order[2]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void unknownDependencyIsRejected() {
+        TaskGraph graph = new TaskGraph(null);
+        TaskGraph.Task other = new TaskGraph(null).add("other", () -> {
+        });
+        try {
+            graph.add("task", () -> {
+            }, other);
+            fail("The dependency was accepted");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(graph.getTasks().isEmpty());
+        }
+    }
+
+    @Test
+    public void criticalPathFollowsTheSlowestChain() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            TaskGraph graph = new TaskGraph(pool);
+            TaskGraph.Task slow = graph.add("slow", () -> sleep(20));
+            graph.add("fast", () -> {
+            });
+            graph.addPinned("last", () -> sleep(5), slow);
+
+            graph.run();
+            assertEquals("", graph.getCriticalPath());
+
+            graph.setProfiling(true);
+            graph.run();
+            String path = graph.getCriticalPath();
+            assertTrue(path.startsWith("slow "));
+            assertTrue(path.contains(" > last "));
+            assertFalse(path.contains("fast"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
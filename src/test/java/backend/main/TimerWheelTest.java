@@ -0,0 +1,158 @@
+package backend.main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests that the timer wheel runs the events on their ticks, also when they
+ * are moved between the levels of the wheel, and that cancelled events do
+ * not run.
+ *
+ * @author pitmairen
+ */
+public class TimerWheelTest {
+
+    private final SimulationClock clock = new SimulationClock();
+    private final TimerWheel wheel = new TimerWheel(clock);
+
+    /**
+     * Simulates ticks up to and including the given one.
+     */
+    private void runTo(long tick) {
+        while (clock.getTick() < tick) {
+            clock.advance(clock.getTickTime());
+            wheel.update();
+        }
+    }
+
+    /**
+     * Schedules an event that records the tick it runs on.
+     */
+    private TimerWheel.Event record(long tick, List<long[]> runs) {
+        return wheel.scheduleAt(tick, () -> runs.add(new long[]{tick, clock.getTick()}));
+    }
+
+    @Test
+    public void eventsRunOnTheirTicks() {
+        // The first ticks of each level, and the ticks around them.
+        long[] ticks = {1, 2, 63, 64, 65, 127, 128, 4095, 4096, 4097, 4160, 262143, 262144, 262145, 300001};
+        List<long[]> runs = new ArrayList<>();
+        for (long tick : ticks) {
+            record(tick, runs);
+        }
+        assertEquals(ticks.length, wheel.size());
+
+        runTo(300001);
+
+        assertEquals(ticks.length, runs.size());
+        for (int i = 0; i < ticks.length; i++) {
+            assertEquals(ticks[i], runs.get(i)[0]);
+            assertEquals(ticks[i], runs.get(i)[1]);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void eventsScheduledOnLaterTicksCascade() {
+        SplittableRandom random = new SplittableRandom(7);
+        List<long[]> runs = new ArrayList<>();
+        int count = 0;
+
+        // Events are scheduled while the wheel turns, so they land in slots
+        // that are not lined up with the groups.
+        for (int step = 0; step < 50; step++) {
+            for (int i = 0; i < 20; i++) {
+                record(clock.getTick() + 1 + random.nextInt(100000), runs);
+                count++;
+            }
+            runTo(clock.getTick() + random.nextInt(500));
+        }
+        runTo(clock.getTick() + 100000);
+
+        assertEquals(count, runs.size());
+        for (long[] run : runs) {
+            assertEquals(run[0], run[1]);
+        }
+    }
+
+    @Test
+    public void eventBeyondTheWheelRunsOnItsTick() {
+        long tick = (1L << 24) + 100;
+        List<long[]> runs = new ArrayList<>();
+        record(tick, runs);
+
+        runTo(tick - 1);
+        assertTrue(runs.isEmpty());
+        runTo(tick);
+        assertEquals(1, runs.size());
+    }
+
+    @Test
+    public void cancelledEventsDoNotRun() {
+        List<long[]> runs = new ArrayList<>();
+        TimerWheel.Event near = record(10, runs);
+        TimerWheel.Event far = record(5000, runs);
+        TimerWheel.Event kept = record(5000, runs);
+
+        near.cancel();
+        assertFalse(near.isPending());
+        assertEquals(2, wheel.size());
+
+        // The far events have been moved down a level by now.
+        runTo(4990);
+        far.cancel();
+        assertEquals(1, wheel.size());
+
+        runTo(6000);
+        assertEquals(1, runs.size());
+        assertFalse(kept.isPending());
+
+        // Cancelling an event that has run does nothing.
+        kept.cancel();
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void eventScheduledByATaskForNowRunsOnTheNextTick() {
+        List<long[]> runs = new ArrayList<>();
+        wheel.scheduleAt(3, () -> record(3, runs));
+
+        runTo(3);
+        assertTrue(runs.isEmpty());
+        runTo(4);
+        assertEquals(4, runs.get(0)[1]);
+    }
+
+    @Test
+    public void delayIsRoundedUpToWholeTicks() {
+        clock.setTickTime(10);
+        TimerWheel.Event event = wheel.schedule(25, () -> {
+        });
+
+        assertEquals(3, event.getDueTick());
+        assertEquals(30, event.getRemaining(), 1e-9);
+        runTo(2);
+        assertTrue(event.isPending());
+        runTo(3);
+        assertFalse(event.isPending());
+        assertEquals(0, event.getRemaining(), 0);
+    }
+
+    @Test
+    public void clearDropsAllEvents() {
+        List<long[]> runs = new ArrayList<>();
+        TimerWheel.Event event = record(5, runs);
+        record(50000, runs);
+
+        wheel.clear();
+        assertEquals(0, wheel.size());
+        assertFalse(event.isPending());
+        runTo(60000);
+        assertTrue(runs.isEmpty());
+    }
+}
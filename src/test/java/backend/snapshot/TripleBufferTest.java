@@ -0,0 +1,90 @@
+package backend.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests the handoff of the buffers between the writer and the reader.
+ *
+ * A buffer is an array of two numbers. The writer always writes a number and
+ * its double, so a reader that sees a buffer while it is written finds them
+ * out of step.
+ *
+ * @author pitmairen
+ */
+public class TripleBufferTest {
+
+    private static final int FRAMES = 200000;
+
+    @Test
+    public void nothingIsReadBeforeThePublish() {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[2]);
+        assertNull(buffer.read());
+    }
+
+    @Test
+    public void readerGetsTheLatestBuffer() {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[2]);
+
+        write(buffer, 1);
+        assertEquals(1, buffer.read()[0]);
+
+        write(buffer, 2);
+        write(buffer, 3);
+        long[] latest = buffer.read();
+        assertEquals(3, latest[0]);
+
+        // Nothing new is published, so the reader keeps its buffer.
+        assertSame(latest, buffer.read());
+    }
+
+    @Test
+    public void writerNeverGetsTheReadersBuffer() {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[2]);
+
+        write(buffer, 1);
+        long[] read = buffer.read();
+        for (int i = 2; i < 10; i++) {
+            assertNotSame(read, buffer.getWriteBuffer());
+            write(buffer, i);
+        }
+        assertEquals(1, read[0]);
+        assertEquals(2, read[1]);
+    }
+
+    @Test
+    public void readerNeverSeesAHalfWrittenBuffer() throws InterruptedException {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[2]);
+
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= FRAMES; i++) {
+                write(buffer, i);
+            }
+        });
+        writer.start();
+
+        long previous = 0;
+        while (previous < FRAMES) {
+            long[] frame = buffer.read();
+            if (frame == null) {
+                continue;
+            }
+            long number = frame[0];
+            assertEquals(number * 2, frame[1]);
+            assertTrue(number >= previous);
+            previous = number;
+        }
+        writer.join();
+    }
+
+    private static void write(TripleBuffer<long[]> buffer, long number) {
+        long[] frame = buffer.getWriteBuffer();
+        frame[0] = number;
+        frame[1] = number * 2;
+        buffer.publish();
+    }
+}
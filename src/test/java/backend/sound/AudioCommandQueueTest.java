@@ -0,0 +1,99 @@
+package backend.sound;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests the queue of sound commands between a producer and the audio
+ * thread.
+ *
+ * @author pitmairen
+ */
+public class AudioCommandQueueTest {
+
+    private static final int COMMANDS = 500000;
+
+    @Test
+    public void commandsAreDrainedInOrder() {
+        AudioCommandQueue queue = new AudioCommandQueue(8);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(queue.offer(i, i * 10, i * 0.5f, -i));
+        }
+
+        List<float[]> drained = new ArrayList<>();
+        assertEquals(5, queue.drain((command, sound, a, b) -> drained.add(new float[]{command, sound, a, b}), 100));
+
+        for (int i = 0; i < 5; i++) {
+            float[] command = drained.get(i);
+            assertEquals(i, (int) command[0]);
+            assertEquals(i * 10, (int) command[1]);
+            assertEquals(i * 0.5f, command[2], 0);
+            assertEquals(-i, command[3], 0);
+        }
+        assertEquals(0, queue.drain((command, sound, a, b) -> {
+        }, 100));
+    }
+
+    @Test
+    public void drainStopsAtTheMaximum() {
+        AudioCommandQueue queue = new AudioCommandQueue(8);
+        for (int i = 0; i < 6; i++) {
+            queue.offer(i, 0, 0f, 0f);
+        }
+        int[] next = {0};
+        AudioCommandQueue.Handler handler = (command, sound, a, b) -> assertEquals(next[0]++, command);
+
+        assertEquals(4, queue.drain(handler, 4));
+        assertEquals(2, queue.drain(handler, 4));
+        assertEquals(6, next[0]);
+    }
+
+    @Test
+    public void fullQueueDropsCommands() {
+        // The capacity is rounded up to a power of two.
+        AudioCommandQueue queue = new AudioCommandQueue(6);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(queue.offer(i, 0, 0f, 0f));
+        }
+        assertFalse(queue.offer(8, 0, 0f, 0f));
+        assertEquals(1, queue.getDroppedCount());
+
+        // Draining frees the slots again.
+        queue.drain((command, sound, a, b) -> {
+        }, 2);
+        assertTrue(queue.offer(9, 0, 0f, 0f));
+        assertTrue(queue.offer(10, 0, 0f, 0f));
+        assertFalse(queue.offer(11, 0, 0f, 0f));
+        assertEquals(2, queue.getDroppedCount());
+    }
+
+    @Test
+    public void commandsPassBetweenThreads() throws InterruptedException {
+        AudioCommandQueue queue = new AudioCommandQueue(64);
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < COMMANDS; i++) {
+                while (!queue.offer(i, i, i, -i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+
+        int[] next = {0};
+        while (next[0] < COMMANDS) {
+            queue.drain((command, sound, a, b) -> {
+                assertEquals(next[0], command);
+                assertEquals(next[0], sound);
+                assertEquals((float) next[0], a, 0);
+                assertEquals((float) -next[0], b, 0);
+                next[0]++;
+            }, 16);
+        }
+        producer.join();
+    }
+}
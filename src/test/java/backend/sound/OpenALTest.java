@@ -0,0 +1,262 @@
+package backend.sound;
+
+import com.jogamp.openal.AL;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests that the play state of the OpenAL sources is kept in step with
+ * OpenAL.
+ *
+ * OpenAL is replaced by a fake that keeps the state and the buffer queue of
+ * each source the way OpenAL does.
+ *
+ * @author pitmairen
+ */
+public class OpenALTest {
+
+    /**
+     * A source of the fake OpenAL.
+     */
+    private static class FakeSource {
+
+        private int state = AL.AL_INITIAL;
+        private final ArrayDeque<Integer> queue = new ArrayDeque<>();
+        private int processed = 0;
+        private int pauseCalls = 0;
+    }
+
+    /**
+     * The parts of OpenAL the backend uses.
+     */
+    private static class FakeAL {
+
+        private final HashMap<Integer, FakeSource> sources = new HashMap<>();
+        private int nextName = 1;
+        private int error = AL.AL_NO_ERROR;
+        private int stateQueries = 0;
+        private int deletedBuffers = 0;
+
+        private final AL al = (AL) Proxy.newProxyInstance(AL.class.getClassLoader(), new Class<?>[]{AL.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "alGenSources":
+                            for (int i = 0; i < (int) args[0]; i++) {
+                                int name = nextName++;
+                                sources.put(name, new FakeSource());
+                                ((int[]) args[1])[(int) args[2] + i] = name;
+                            }
+                            return null;
+                        case "alGenBuffers":
+                            for (int i = 0; i < (int) args[0]; i++) {
+                                ((int[]) args[1])[(int) args[2] + i] = nextName++;
+                            }
+                            return null;
+                        case "alDeleteSources":
+                            sources.remove(((int[]) args[1])[(int) args[2]]);
+                            return null;
+                        case "alDeleteBuffers":
+                            deletedBuffers += (int) args[0];
+                            return null;
+                        case "alSourcePlay":
+                            play(source(args[0]));
+                            return null;
+                        case "alSourceStop": {
+                            FakeSource source = source(args[0]);
+                            source.state = AL.AL_STOPPED;
+                            source.processed = source.queue.size();
+                            return null;
+                        }
+                        case "alSourcePause": {
+                            FakeSource source = source(args[0]);
+                            source.pauseCalls++;
+                            if (source.state == AL.AL_PLAYING) {
+                                source.state = AL.AL_PAUSED;
+                            }
+                            return null;
+                        }
+                        case "alSourceQueueBuffers": {
+                            FakeSource source = source(args[0]);
+                            for (int i = 0; i < (int) args[1]; i++) {
+                                source.queue.add(((int[]) args[2])[(int) args[3] + i]);
+                            }
+                            return null;
+                        }
+                        case "alSourceUnqueueBuffers": {
+                            FakeSource source = source(args[0]);
+                            int count = (int) args[1];
+                            if (count > source.processed) {
+                                error = -1;     // AL_INVALID_VALUE.
+                                return null;
+                            }
+                            for (int i = 0; i < count; i++) {
+                                ((int[]) args[2])[(int) args[3] + i] = source.queue.remove();
+                            }
+                            source.processed -= count;
+                            return null;
+                        }
+                        case "alGetSourcei": {
+                            FakeSource source = source(args[0]);
+                            int param = (int) args[1];
+                            if (param == AL.AL_SOURCE_STATE) {
+                                stateQueries++;
+                            }
+                            int value = param == AL.AL_SOURCE_STATE ? source.state
+                                    : param == AL.AL_BUFFERS_PROCESSED ? source.processed
+                                    : param == AL.AL_BUFFERS_QUEUED ? source.queue.size() : 0;
+                            ((int[]) args[2])[(int) args[3]] = value;
+                            return null;
+                        }
+                        case "alGetError": {
+                            int last = error;
+                            error = AL.AL_NO_ERROR;
+                            return last;
+                        }
+                        default:
+                            return null;    // Gain, position, buffer data and so on.
+                    }
+                });
+
+        private FakeSource source(Object name) {
+            return sources.get((Integer) name);
+        }
+
+        private void play(FakeSource source) {
+            if (source.state != AL.AL_PAUSED) {
+                source.processed = 0;   // Starts over from the first queued buffer.
+            }
+            source.state = AL.AL_PLAYING;
+        }
+
+        /**
+         * Lets a source play to the end, like a sound effect that is done.
+         */
+        private void finish(int name) {
+            FakeSource source = sources.get(name);
+            source.state = AL.AL_STOPPED;
+            source.processed = source.queue.size();
+        }
+
+        private FakeSource only() {
+            assertEquals(1, sources.size());
+            return sources.values().iterator().next();
+        }
+    }
+
+    /**
+     * An endless stream of silence.
+     */
+    private static class SilentStream implements SoundStream {
+
+        @Override
+        public int read(ByteBuffer target) {
+            int count = target.remaining();
+            target.position(target.limit());
+            return count;
+        }
+
+        @Override
+        public void rewind() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public int getChannels() {
+            return 2;
+        }
+
+        @Override
+        public int getBitsPerSample() {
+            return 16;
+        }
+
+        @Override
+        public int getFrequency() {
+            return 44100;
+        }
+    }
+
+    @Test
+    public void streamingSoundPlaysAfterPauseAndStop() throws Exception {
+        FakeAL fake = new FakeAL();
+        StreamingSound sound = new StreamingSound(new SilentStream(), new OpenAL(fake.al));
+        FakeSource source = fake.only();
+
+        sound.play();
+        int buffers = source.queue.size();
+        assertTrue(buffers > 0);
+        assertEquals(AL.AL_PLAYING, source.state);
+
+        sound.pause();
+        assertEquals(AL.AL_PAUSED, source.state);
+
+        sound.stop();
+        assertEquals(AL.AL_STOPPED, source.state);
+        assertEquals(0, source.queue.size());
+
+        sound.play();
+        assertEquals(AL.AL_PLAYING, source.state);
+        assertEquals(buffers, source.queue.size());
+        assertEquals(AL.AL_NO_ERROR, fake.al.alGetError());
+    }
+
+    @Test
+    public void deletedStreamingSoundFreesSourceAndBuffers() throws Exception {
+        FakeAL fake = new FakeAL();
+        StreamingSound sound = new StreamingSound(new SilentStream(), new OpenAL(fake.al));
+        FakeSource source = fake.only();
+
+        sound.play();
+        int buffers = source.queue.size();
+        sound.delete();
+
+        assertTrue(fake.sources.isEmpty());
+        assertEquals(buffers, fake.deletedBuffers);
+        assertEquals(AL.AL_NO_ERROR, fake.al.alGetError());
+    }
+
+    @Test
+    public void sourceIsDoneAtItsEndTime() throws Exception {
+        FakeAL fake = new FakeAL();
+        OpenAL openAL = new OpenAL(fake.al);
+        int sourceId = openAL.addSource(0, false);
+        FakeSource source = fake.only();
+
+        openAL.play(sourceId, System.nanoTime() - 1);
+        fake.finish(fake.sources.keySet().iterator().next());
+        openAL.setGain(sourceId, 0.5f);
+        openAL.flush();
+
+        // A source that has stopped by itself is not paused, and OpenAL is
+        // not asked about a source whose end is known.
+        openAL.pause(sourceId);
+        assertEquals(0, source.pauseCalls);
+        assertFalse(openAL.isPlaying(sourceId));
+        assertEquals(0, fake.stateQueries);
+    }
+
+    @Test
+    public void sourceWithUnknownEndIsAsked() throws Exception {
+        FakeAL fake = new FakeAL();
+        OpenAL openAL = new OpenAL(fake.al);
+        int sourceId = openAL.addSource(0, false);
+
+        openAL.play(sourceId);
+        openAL.flush();
+        assertEquals(0, fake.stateQueries);
+        assertTrue(openAL.isPlaying(sourceId));
+
+        fake.finish(fake.sources.keySet().iterator().next());
+        assertFalse(openAL.isPlaying(sourceId));
+        assertEquals(2, fake.stateQueries);
+    }
+}